@@ -9,6 +9,7 @@ import io.artur.bankaccount.api.dto.AccountLifecycleResponse;
 import io.artur.bankaccount.api.dto.AccountSummaryResponse;
 import io.artur.bankaccount.api.dto.TransactionHistoryResponse;
 import io.artur.bankaccount.api.dto.PagedResponse;
+import io.artur.bankaccount.api.dto.KeysetPagedResponse;
 import io.artur.bankaccount.api.dto.AccountStatisticsResponse;
 import io.artur.bankaccount.api.dto.TransactionStatisticsResponse;
 import io.artur.bankaccount.api.dto.UpdateOverdraftLimitRequest;
@@ -21,21 +22,29 @@ import io.artur.bankaccount.application.commands.models.FreezeAccountCommand;
 import io.artur.bankaccount.application.commands.models.CloseAccountCommand;
 import io.artur.bankaccount.application.commands.models.ReactivateAccountCommand;
 import io.artur.bankaccount.application.commands.models.MarkAccountDormantCommand;
+import io.artur.bankaccount.application.commands.models.BulkAccountCommand;
+import io.artur.bankaccount.application.ports.outgoing.EventStorePort;
 import io.artur.bankaccount.application.services.AccountApplicationService;
+import io.artur.bankaccount.application.services.BatchTransactionProcessor;
+import io.artur.bankaccount.application.services.BulkCommandExecutor;
 import io.artur.bankaccount.application.queries.handlers.AccountQueryHandler;
 import io.artur.bankaccount.application.queries.handlers.TransactionQueryHandler;
 import io.artur.bankaccount.application.queries.models.AccountSearchQuery;
 import io.artur.bankaccount.application.queries.models.AccountSummaryQuery;
 import io.artur.bankaccount.application.queries.models.TransactionHistoryQuery;
+import io.artur.bankaccount.application.queries.readmodels.AccountView;
 import io.artur.bankaccount.domain.account.aggregates.BankAccount;
 import io.artur.bankaccount.domain.shared.events.EventMetadata;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.util.Map;
@@ -50,14 +59,25 @@ public class AccountController {
     private final AccountApplicationService applicationService;
     private final AccountQueryHandler accountQueryHandler;
     private final TransactionQueryHandler transactionQueryHandler;
+    private final BulkCommandExecutor bulkCommandExecutor;
+    private final BatchTransactionProcessor batchTransactionProcessor;
+    private final ObjectProvider<EventStorePort> eventStore;
+    
+    private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    private static final ObjectMapper NDJSON_WRITER = new ObjectMapper();
     
-    @Autowired
     public AccountController(AccountApplicationService applicationService,
                            AccountQueryHandler accountQueryHandler,
-                           TransactionQueryHandler transactionQueryHandler) {
+                           TransactionQueryHandler transactionQueryHandler,
+                           BulkCommandExecutor bulkCommandExecutor,
+                           BatchTransactionProcessor batchTransactionProcessor,
+                           ObjectProvider<EventStorePort> eventStore) {
         this.applicationService = applicationService;
         this.accountQueryHandler = accountQueryHandler;
         this.transactionQueryHandler = transactionQueryHandler;
+        this.bulkCommandExecutor = bulkCommandExecutor;
+        this.batchTransactionProcessor = batchTransactionProcessor;
+        this.eventStore = eventStore;
     }
     
     @PostMapping
@@ -90,19 +110,18 @@ public class AccountController {
     @GetMapping("/{accountId}")
     public ResponseEntity<AccountResponse> getAccount(@PathVariable UUID accountId) {
         try {
-            Optional<BankAccount> accountOpt = applicationService.findAccountById(accountId);
+            Optional<AccountView> viewOpt = applicationService.findAccountView(accountId);
             
-            if (accountOpt.isEmpty()) {
+            if (viewOpt.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
             
-            BankAccount account = accountOpt.get();
-            BigDecimal availableBalance = account.getBalance().getAmount().add(account.getOverdraftLimit().getAmount());
+            AccountView view = viewOpt.get();
             AccountResponse response = new AccountResponse(
                 accountId,
-                account.getAccountHolder().getFullName(),
-                account.getBalance().getAmount(),
-                availableBalance
+                view.getAccountHolderName(),
+                view.getBalance(),
+                view.getAvailableBalance()
             );
             
             return ResponseEntity.ok(response);
@@ -586,103 +605,11 @@ public class AccountController {
     public ResponseEntity<Map<String, Object>> performBulkAccountOperation(
             @Valid @RequestBody BulkAccountOperationRequest request) {
         try {
-            java.util.List<Map<String, Object>> results = new java.util.ArrayList<>();
-            int successCount = 0;
-            int failureCount = 0;
-            
-            for (UUID accountId : request.getAccountIds()) {
-                try {
-                    // Check if account exists
-                    Optional<BankAccount> accountOpt = applicationService.findAccountById(accountId);
-                    if (accountOpt.isEmpty()) {
-                        results.add(Map.of(
-                            "accountId", accountId,
-                            "status", "FAILED",
-                            "reason", "Account not found"
-                        ));
-                        failureCount++;
-                        continue;
-                    }
-                    
-                    // Perform the operation based on type
-                    EventMetadata metadata = new EventMetadata((int) (System.currentTimeMillis() % Integer.MAX_VALUE));
-                    AccountLifecycleRequest lifecycleRequest = new AccountLifecycleRequest(request.getReason(), request.getPerformedBy());
-                    
-                    switch (request.getOperationType().toUpperCase()) {
-                        case "FREEZE":
-                            FreezeAccountCommand freezeCommand = new FreezeAccountCommand(
-                                accountId, request.getReason(), request.getPerformedBy(), metadata);
-                            applicationService.freezeAccount(freezeCommand);
-                            break;
-                            
-                        case "UNFREEZE":
-                        case "REACTIVATE":
-                            ReactivateAccountCommand reactivateCommand = new ReactivateAccountCommand(
-                                accountId, request.getReason(), request.getPerformedBy(), metadata);
-                            applicationService.reactivateAccount(reactivateCommand);
-                            break;
-                            
-                        case "SUSPEND":
-                            FreezeAccountCommand suspendCommand = new FreezeAccountCommand(
-                                accountId, "SUSPENDED: " + request.getReason(), request.getPerformedBy(), metadata);
-                            applicationService.freezeAccount(suspendCommand);
-                            break;
-                            
-                        case "CLOSE":
-                            CloseAccountCommand closeCommand = new CloseAccountCommand(
-                                accountId, request.getReason(), request.getPerformedBy(), metadata);
-                            applicationService.closeAccount(closeCommand);
-                            break;
-                            
-                        case "MARK_DORMANT":
-                            MarkAccountDormantCommand dormantCommand = new MarkAccountDormantCommand(
-                                accountId, request.getReason(), request.getPerformedBy(), metadata);
-                            applicationService.markAccountDormant(dormantCommand);
-                            break;
-                            
-                        default:
-                            results.add(Map.of(
-                                "accountId", accountId,
-                                "status", "FAILED",
-                                "reason", "Unknown operation type: " + request.getOperationType()
-                            ));
-                            failureCount++;
-                            continue;
-                    }
-                    
-                    results.add(Map.of(
-                        "accountId", accountId,
-                        "status", "SUCCESS",
-                        "operation", request.getOperationType(),
-                        "reason", request.getReason()
-                    ));
-                    successCount++;
-                    
-                } catch (Exception e) {
-                    results.add(Map.of(
-                        "accountId", accountId,
-                        "status", "FAILED",
-                        "reason", e.getMessage()
-                    ));
-                    failureCount++;
-                    
-                    // In STRICT mode, stop on first failure
-                    if ("STRICT".equals(request.getExecutionMode())) {
-                        break;
-                    }
-                }
-            }
+            java.util.List<BulkCommandExecutor.ItemResult> results = new java.util.ArrayList<>();
+            BulkCommandExecutor.Summary summary = bulkCommandExecutor.execute(toBulkCommand(request), results::add);
             
-            Map<String, Object> response = Map.of(
-                "operationType", request.getOperationType(),
-                "executionMode", request.getExecutionMode(),
-                "totalAccounts", request.getAccountIds().size(),
-                "successCount", successCount,
-                "failureCount", failureCount,
-                "performedBy", request.getPerformedBy(),
-                "timestamp", java.time.LocalDateTime.now().toString(),
-                "results", results
-            );
+            Map<String, Object> response = new java.util.LinkedHashMap<>(bulkSummary(request, summary));
+            response.put("results", results);
             
             return ResponseEntity.ok(response);
             
@@ -696,26 +623,147 @@ public class AccountController {
         }
     }
     
+    /**
+     * Same as /bulk-operation, but every per-account result is written as one NDJSON line as soon
+     * as it is known, followed by a final summary line. The summary line carries the
+     * read-your-writes position as eventPosition, the headers are sent before anything is appended.
+     */
+    @PostMapping(value = "/bulk-operation/stream", produces = NDJSON_MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> streamBulkAccountOperation(
+            @Valid @RequestBody BulkAccountOperationRequest request) {
+        BulkAccountCommand command = toBulkCommand(request);
+        command.validate();
+        
+        StreamingResponseBody body = outputStream -> {
+            try {
+                BulkCommandExecutor.Summary summary = bulkCommandExecutor.execute(command, result -> {
+                    try {
+                        writeNdjsonLine(outputStream, result);
+                    } catch (java.io.IOException e) {
+                        throw new java.io.UncheckedIOException(e);
+                    }
+                });
+                Map<String, Object> summaryLine = new java.util.LinkedHashMap<>(bulkSummary(request, summary));
+                summaryLine.put("eventPosition", appendedPosition());
+                writeNdjsonLine(outputStream, summaryLine);
+            } finally {
+                forgetAppendedPosition();
+            }
+        };
+        
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(NDJSON_MEDIA_TYPE))
+            .body(body);
+    }
+    
+    /**
+     * Apply an NDJSON stream of deposits and withdrawals, one {"accountId","type","amount"} object per line.
+     * The body is read lazily in chunks and every line gets one NDJSON result line, followed by a summary line
+     * that carries the read-your-writes position as eventPosition.
+     */
+    @PostMapping(value = "/transactions/batch", consumes = NDJSON_MEDIA_TYPE, produces = NDJSON_MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> batchTransactions(java.io.InputStream requestBody) {
+        EventMetadata metadata = new EventMetadata((int) (System.currentTimeMillis() % Integer.MAX_VALUE));
+        
+        StreamingResponseBody body = outputStream -> {
+            try {
+                BatchTransactionProcessor.Summary summary = batchTransactionProcessor.process(
+                    new NdjsonTransactionLineReader(requestBody), metadata, result -> {
+                        try {
+                            writeNdjsonLine(outputStream, result);
+                        } catch (java.io.IOException e) {
+                            throw new java.io.UncheckedIOException(e);
+                        }
+                    });
+                writeNdjsonLine(outputStream, Map.of(
+                    "status", "COMPLETED",
+                    "totalLines", summary.getTotalLines(),
+                    "successCount", summary.getSuccessCount(),
+                    "failureCount", summary.getFailureCount(),
+                    "eventPosition", appendedPosition(),
+                    "timestamp", java.time.LocalDateTime.now().toString()
+                ));
+            } finally {
+                forgetAppendedPosition();
+            }
+        };
+        
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(NDJSON_MEDIA_TYPE))
+            .body(body);
+    }
+    
+    private BulkAccountCommand toBulkCommand(BulkAccountOperationRequest request) {
+        EventMetadata metadata = new EventMetadata((int) (System.currentTimeMillis() % Integer.MAX_VALUE));
+        return new BulkAccountCommand(
+            request.getAccountIds(),
+            request.getOperationType(),
+            request.getReason(),
+            request.getPerformedBy(),
+            request.getAmount(),
+            request.getExecutionMode(),
+            metadata
+        );
+    }
+    
+    private Map<String, Object> bulkSummary(BulkAccountOperationRequest request, BulkCommandExecutor.Summary summary) {
+        return Map.of(
+            "operationType", request.getOperationType(),
+            "executionMode", request.getExecutionMode(),
+            "totalAccounts", summary.getTotalAccounts(),
+            "successCount", summary.getSuccessCount(),
+            "failureCount", summary.getFailureCount(),
+            "performedBy", request.getPerformedBy(),
+            "timestamp", java.time.LocalDateTime.now().toString()
+        );
+    }
+    
+    /**
+     * Read-your-writes position for the summary line of a streamed command: the position this
+     * worker thread last appended at, or the end of the log when the events were appended on
+     * other threads, which covers them as well
+     */
+    private long appendedPosition() {
+        EventStorePort store = eventStore.getIfAvailable();
+        if (store == null) {
+            return 0;
+        }
+        long position = store.takeLastAppendedPosition();
+        return position > 0 ? position : store.getLatestPosition();
+    }
+    
+    /**
+     * Streamed commands run on an async worker, which must not carry their position into its next task
+     */
+    private void forgetAppendedPosition() {
+        eventStore.ifAvailable(EventStorePort::takeLastAppendedPosition);
+    }
+    
+    private void writeNdjsonLine(java.io.OutputStream outputStream, Object value) throws java.io.IOException {
+        outputStream.write(NDJSON_WRITER.writeValueAsBytes(value));
+        outputStream.write('\n');
+        outputStream.flush();
+    }
+    
     // Additional Utility Endpoints
     
     @GetMapping("/{accountId}/balance")
     public ResponseEntity<Map<String, Object>> getAccountBalance(@PathVariable UUID accountId) {
         try {
-            Optional<BankAccount> accountOpt = applicationService.findAccountById(accountId);
+            Optional<AccountView> viewOpt = applicationService.findAccountView(accountId);
             
-            if (accountOpt.isEmpty()) {
+            if (viewOpt.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
             
-            BankAccount account = accountOpt.get();
-            BigDecimal availableBalance = account.getBalance().getAmount().add(account.getOverdraftLimit().getAmount());
+            AccountView view = viewOpt.get();
             
             Map<String, Object> balanceInfo = Map.of(
                 "accountId", accountId,
-                "currentBalance", account.getBalance().getAmount(),
-                "overdraftLimit", account.getOverdraftLimit().getAmount(),
-                "availableBalance", availableBalance,
-                "status", "ACTIVE" // TODO: Implement getStatus() method in BankAccount
+                "currentBalance", view.getBalance(),
+                "overdraftLimit", view.getOverdraftLimit(),
+                "availableBalance", view.getAvailableBalance(),
+                "status", view.getStatus()
             );
             
             return ResponseEntity.ok(balanceInfo);
@@ -728,20 +776,20 @@ public class AccountController {
     @GetMapping("/{accountId}/status")
     public ResponseEntity<Map<String, Object>> getAccountStatus(@PathVariable UUID accountId) {
         try {
-            Optional<BankAccount> accountOpt = applicationService.findAccountById(accountId);
+            Optional<AccountView> viewOpt = applicationService.findAccountView(accountId);
             
-            if (accountOpt.isEmpty()) {
+            if (viewOpt.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
             
-            BankAccount account = accountOpt.get();
+            AccountView view = viewOpt.get();
             
             Map<String, Object> statusInfo = Map.of(
                 "accountId", accountId,
-                "status", "ACTIVE", // TODO: Implement getStatus() method in BankAccount
-                "accountHolder", account.getAccountHolder().getFullName(),
-                "isActive", true, // TODO: Implement proper status checking
-                "canTransact", true // TODO: Implement proper status checking
+                "status", view.getStatus(),
+                "accountHolder", view.getAccountHolderName(),
+                "isActive", view.isActive(),
+                "canTransact", view.canPerformTransactions()
             );
             
             return ResponseEntity.ok(statusInfo);
@@ -812,6 +860,39 @@ public class AccountController {
         }
     }
     
+    /**
+     * Keyset paginated search. Pass the nextCursor of a page to get the following one;
+     * unlike offset paging a deep page costs the same as the first one.
+     * An invalid cursor is rejected as a bad request.
+     */
+    @GetMapping("/search/keyset")
+    public ResponseEntity<KeysetPagedResponse<AccountSummaryResponse>> searchAccountsAfter(
+            @RequestParam(defaultValue = "") String holderName,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) BigDecimal minBalance,
+            @RequestParam(required = false) BigDecimal maxBalance,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "accountHolderName") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDirection) {
+        AccountSearchQuery query = new AccountSearchQuery(
+            holderName.isEmpty() ? null : holderName,
+            status,
+            minBalance,
+            maxBalance,
+            0,
+            size,
+            sortBy,
+            sortDirection,
+            cursor == null || cursor.isEmpty() ? null : cursor
+        );
+
+        return ResponseEntity.ok(KeysetPagedResponse.fromKeysetPage(
+            accountQueryHandler.searchAccountsAfter(query),
+            AccountSummaryResponse::fromReadModel
+        ));
+    }
+
     @GetMapping("/statistics")
     public ResponseEntity<AccountStatisticsResponse> getAccountStatistics() {
         try {
@@ -0,0 +1,128 @@
+package io.artur.bankaccount.api.controller;
+
+import io.artur.bankaccount.api.dto.BatchTransactionLineRequest;
+import io.artur.bankaccount.application.services.BatchTransactionProcessor.TransactionLine;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reads an NDJSON upload lazily, one {@link TransactionLine} per non-blank line.
+ * Lines that are not valid JSON or fail bean validation become invalid lines carrying the reason,
+ * so a single bad line never aborts the upload. Only the first {@code maxLineLength} characters
+ * of a line are kept, a longer line is rejected, so no upload can make it buffer more than that.
+ */
+class NdjsonTransactionLineReader implements Iterator<TransactionLine> {
+    
+    private static final ObjectMapper LINE_READER = new ObjectMapper();
+    private static final Validator LINE_VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+    
+    static final int DEFAULT_MAX_LINE_LENGTH = 4096;
+    
+    private final BufferedReader reader;
+    private final int maxLineLength;
+    private final StringBuilder line = new StringBuilder();
+    private boolean lineTooLong;
+    private long lineNumber;
+    private TransactionLine next;
+    
+    NdjsonTransactionLineReader(InputStream inputStream) {
+        this(inputStream, DEFAULT_MAX_LINE_LENGTH);
+    }
+    
+    NdjsonTransactionLineReader(InputStream inputStream, int maxLineLength) {
+        this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        this.maxLineLength = maxLineLength;
+    }
+    
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        try {
+            while (readLine()) {
+                lineNumber++;
+                if (lineTooLong) {
+                    next = TransactionLine.invalid(lineNumber, "Line is longer than " + maxLineLength + " characters");
+                    return true;
+                }
+                if (!line.toString().isBlank()) {
+                    next = parse(lineNumber, line.toString());
+                    return true;
+                }
+            }
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public TransactionLine next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        TransactionLine line = next;
+        next = null;
+        return line;
+    }
+    
+    /**
+     * Read the next line into the buffer, dropping what goes beyond the maximum length;
+     * false at the end of the input
+     */
+    private boolean readLine() throws IOException {
+        line.setLength(0);
+        lineTooLong = false;
+        int c = reader.read();
+        if (c == -1) {
+            return false;
+        }
+        while (c != -1 && c != '\n') {
+            if (c != '\r') {
+                if (line.length() < maxLineLength) {
+                    line.append((char) c);
+                } else {
+                    lineTooLong = true;
+                }
+            }
+            c = reader.read();
+        }
+        return true;
+    }
+    
+    private static TransactionLine parse(long lineNumber, String line) {
+        BatchTransactionLineRequest request;
+        try {
+            request = LINE_READER.readValue(line, BatchTransactionLineRequest.class);
+        } catch (JsonProcessingException e) {
+            return TransactionLine.invalid(lineNumber, "Malformed line: " + e.getOriginalMessage());
+        }
+        
+        Set<ConstraintViolation<BatchTransactionLineRequest>> violations = LINE_VALIDATOR.validate(request);
+        if (!violations.isEmpty()) {
+            String reason = violations.stream()
+                .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.joining("; "));
+            return TransactionLine.invalid(lineNumber, reason);
+        }
+        
+        return TransactionLine.of(lineNumber, request.getAccountId(), request.getType(), request.getAmount());
+    }
+}
@@ -0,0 +1,62 @@
+package io.artur.bankaccount.api.controller;
+
+import io.artur.bankaccount.api.dto.ProjectionRebuildResponse;
+import io.artur.bankaccount.application.ports.outgoing.ReadModelStorePort.ReadModelGeneration;
+import io.artur.bankaccount.application.queries.projections.ReadModelProjection;
+import io.artur.bankaccount.application.services.EventLogProjector;
+import io.artur.bankaccount.application.services.ProjectionRebuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/projections")
+public class ProjectionAdminController {
+    
+    private final ProjectionRebuilder projectionRebuilder;
+    private final EventLogProjector eventLogProjector;
+    
+    public ProjectionAdminController(ProjectionRebuilder projectionRebuilder, EventLogProjector eventLogProjector) {
+        this.projectionRebuilder = projectionRebuilder;
+        this.eventLogProjector = eventLogProjector;
+    }
+    
+    /**
+     * The generation currently serving queries and the projection version deployed with this build
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getActiveProjection() {
+        ReadModelGeneration active = eventLogProjector.getActive().getGeneration();
+        return ResponseEntity.ok(Map.of(
+            "activeGeneration", active.getId(),
+            "activeVersion", active.getProjectionVersion(),
+            "deployedVersion", ReadModelProjection.VERSION,
+            "position", eventLogProjector.getPosition()
+        ));
+    }
+    
+    /**
+     * Rebuild the read models from the event log in the background; poll the GET endpoint for progress
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<ProjectionRebuildResponse> startRebuild() {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ProjectionRebuildResponse.fromProgress(projectionRebuilder.start()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ProjectionRebuildResponse.fromProgress(projectionRebuilder.getProgress()));
+        }
+    }
+    
+    @GetMapping("/rebuild")
+    public ResponseEntity<ProjectionRebuildResponse> getRebuildProgress() {
+        ProjectionRebuilder.RebuildProgress progress = projectionRebuilder.getProgress();
+        if (progress == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(ProjectionRebuildResponse.fromProgress(progress));
+    }
+}
@@ -0,0 +1,68 @@
+package io.artur.bankaccount.api.dto;
+
+import jakarta.validation.constraints.*;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * A single line of an NDJSON batch transaction upload
+ */
+public class BatchTransactionLineRequest {
+    
+    @NotNull(message = "Account ID is required")
+    private UUID accountId;
+    
+    @NotBlank(message = "Transaction type is required")
+    @Pattern(regexp = "DEPOSIT|WITHDRAW", message = "Transaction type must be DEPOSIT or WITHDRAW")
+    private String type;
+    
+    @NotNull(message = "Transaction amount is required")
+    @DecimalMin(value = "0.01", message = "Transaction amount must be at least 0.01")
+    @DecimalMax(value = "1000000.0", message = "Transaction amount cannot exceed 1,000,000")
+    @Digits(integer = 10, fraction = 2, message = "Transaction amount must have at most 10 integer digits and 2 decimal places")
+    private BigDecimal amount;
+    
+    @Size(max = 255, message = "Description cannot exceed 255 characters")
+    private String description;
+    
+    public BatchTransactionLineRequest() {}
+    
+    public BatchTransactionLineRequest(UUID accountId, String type, BigDecimal amount, String description) {
+        this.accountId = accountId;
+        this.type = type;
+        this.amount = amount;
+        this.description = description;
+    }
+    
+    public UUID getAccountId() {
+        return accountId;
+    }
+    
+    public void setAccountId(UUID accountId) {
+        this.accountId = accountId;
+    }
+    
+    public String getType() {
+        return type;
+    }
+    
+    public void setType(String type) {
+        this.type = type;
+    }
+    
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+}
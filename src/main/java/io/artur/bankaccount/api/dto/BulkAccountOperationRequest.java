@@ -1,17 +1,18 @@
 package io.artur.bankaccount.api.dto;
 
 import jakarta.validation.constraints.*;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.UUID;
 
 public class BulkAccountOperationRequest {
     
     @NotNull(message = "Account IDs list is required")
-    @Size(min = 1, max = 50, message = "Bulk operations can handle between 1 and 50 accounts")
+    @Size(min = 1, max = 1000, message = "Bulk operations can handle between 1 and 1000 accounts")
     private List<UUID> accountIds;
     
     @NotBlank(message = "Operation type is required")
-    @Pattern(regexp = "FREEZE|UNFREEZE|SUSPEND|CLOSE|REACTIVATE|MARK_DORMANT", message = "Invalid operation type")
+    @Pattern(regexp = "FREEZE|UNFREEZE|SUSPEND|CLOSE|REACTIVATE|MARK_DORMANT|DEPOSIT|WITHDRAW", message = "Invalid operation type")
     private String operationType;
     
     @NotBlank(message = "Reason is required for bulk operations")
@@ -22,6 +23,11 @@ public class BulkAccountOperationRequest {
     @Size(min = 2, max = 100, message = "Performed by field must be between 2 and 100 characters")
     private String performedBy;
     
+    @DecimalMin(value = "0.01", message = "Amount must be at least 0.01")
+    @DecimalMax(value = "1000000.0", message = "Amount cannot exceed 1,000,000")
+    @Digits(integer = 10, fraction = 2, message = "Amount must have at most 10 integer digits and 2 decimal places")
+    private BigDecimal amount;
+    
     @Pattern(regexp = "STRICT|BEST_EFFORT", message = "Execution mode must be STRICT or BEST_EFFORT")
     private String executionMode = "BEST_EFFORT";
     
@@ -66,6 +72,14 @@ public class BulkAccountOperationRequest {
         this.performedBy = performedBy;
     }
     
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+    
     public String getExecutionMode() {
         return executionMode;
     }
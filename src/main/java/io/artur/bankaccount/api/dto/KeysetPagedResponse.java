@@ -0,0 +1,56 @@
+package io.artur.bankaccount.api.dto;
+
+import io.artur.bankaccount.application.queries.readmodels.KeysetPage;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class KeysetPagedResponse<T> {
+
+    private List<T> content;
+    private int size;
+    private int numberOfElements;
+    private boolean hasNext;
+    private String nextCursor;
+
+    public KeysetPagedResponse() {}
+
+    public KeysetPagedResponse(List<T> content, int size, int numberOfElements, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.numberOfElements = numberOfElements;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+
+    public static <T, R> KeysetPagedResponse<R> fromKeysetPage(KeysetPage<T> page,
+                                                               java.util.function.Function<T, R> mapper) {
+        List<R> mappedContent = page.getContent().stream()
+            .map(mapper)
+            .collect(Collectors.toList());
+
+        return new KeysetPagedResponse<>(
+            mappedContent,
+            page.getSize(),
+            page.getNumberOfElements(),
+            page.hasNext(),
+            page.getNextCursor()
+        );
+    }
+
+    // Getters and setters
+    public List<T> getContent() { return content; }
+    public void setContent(List<T> content) { this.content = content; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    public int getNumberOfElements() { return numberOfElements; }
+    public void setNumberOfElements(int numberOfElements) { this.numberOfElements = numberOfElements; }
+
+    public boolean isHasNext() { return hasNext; }
+    public void setHasNext(boolean hasNext) { this.hasNext = hasNext; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -0,0 +1,72 @@
+package io.artur.bankaccount.api.dto;
+
+import io.artur.bankaccount.application.services.ProjectionRebuilder;
+
+import java.time.LocalDateTime;
+
+public class ProjectionRebuildResponse {
+    
+    private String generation;
+    private int projectionVersion;
+    private String state;
+    private long eventsApplied;
+    private long position;
+    private long targetPosition;
+    private double eventsPerSecond;
+    private long etaSeconds;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String failure;
+    
+    public ProjectionRebuildResponse() {}
+    
+    public static ProjectionRebuildResponse fromProgress(ProjectionRebuilder.RebuildProgress progress) {
+        ProjectionRebuildResponse response = new ProjectionRebuildResponse();
+        response.generation = progress.getGeneration();
+        response.projectionVersion = progress.getProjectionVersion();
+        response.state = progress.getState().name();
+        response.eventsApplied = progress.getEventsApplied();
+        response.position = progress.getPosition();
+        response.targetPosition = progress.getTargetPosition();
+        response.eventsPerSecond = progress.getEventsPerSecond();
+        response.etaSeconds = progress.getEtaSeconds();
+        response.startedAt = progress.getStartedAt();
+        response.finishedAt = progress.getFinishedAt();
+        response.failure = progress.getFailure();
+        return response;
+    }
+    
+    // Getters and setters
+    public String getGeneration() { return generation; }
+    public void setGeneration(String generation) { this.generation = generation; }
+    
+    public int getProjectionVersion() { return projectionVersion; }
+    public void setProjectionVersion(int projectionVersion) { this.projectionVersion = projectionVersion; }
+    
+    public String getState() { return state; }
+    public void setState(String state) { this.state = state; }
+    
+    public long getEventsApplied() { return eventsApplied; }
+    public void setEventsApplied(long eventsApplied) { this.eventsApplied = eventsApplied; }
+    
+    public long getPosition() { return position; }
+    public void setPosition(long position) { this.position = position; }
+    
+    public long getTargetPosition() { return targetPosition; }
+    public void setTargetPosition(long targetPosition) { this.targetPosition = targetPosition; }
+    
+    public double getEventsPerSecond() { return eventsPerSecond; }
+    public void setEventsPerSecond(double eventsPerSecond) { this.eventsPerSecond = eventsPerSecond; }
+    
+    public long getEtaSeconds() { return etaSeconds; }
+    public void setEtaSeconds(long etaSeconds) { this.etaSeconds = etaSeconds; }
+    
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+    
+    public String getFailure() { return failure; }
+    public void setFailure(String failure) { this.failure = failure; }
+}
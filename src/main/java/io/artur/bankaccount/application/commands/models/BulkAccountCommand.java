@@ -0,0 +1,109 @@
+package io.artur.bankaccount.application.commands.models;
+
+import io.artur.bankaccount.domain.shared.events.EventMetadata;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+public class BulkAccountCommand {
+
+    public static final String STRICT = "STRICT";
+    public static final String BEST_EFFORT = "BEST_EFFORT";
+
+    private static final Set<String> LIFECYCLE_OPERATIONS =
+        Set.of("FREEZE", "UNFREEZE", "SUSPEND", "CLOSE", "REACTIVATE", "MARK_DORMANT");
+    private static final Set<String> MONEY_OPERATIONS = Set.of("DEPOSIT", "WITHDRAW");
+
+    private final List<UUID> accountIds;
+    private final String operationType;
+    private final String reason;
+    private final String performedBy;
+    private final BigDecimal amount;
+    private final String executionMode;
+    private final EventMetadata metadata;
+
+    public BulkAccountCommand(List<UUID> accountIds, String operationType, String reason, String performedBy,
+                              BigDecimal amount, String executionMode, EventMetadata metadata) {
+        this.accountIds = accountIds;
+        this.operationType = operationType != null ? operationType.toUpperCase() : null;
+        this.reason = reason;
+        this.performedBy = performedBy;
+        this.amount = amount;
+        this.executionMode = executionMode != null ? executionMode : BEST_EFFORT;
+        this.metadata = metadata;
+    }
+
+    public List<UUID> getAccountIds() {
+        return accountIds;
+    }
+
+    public String getOperationType() {
+        return operationType;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public String getPerformedBy() {
+        return performedBy;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public String getExecutionMode() {
+        return executionMode;
+    }
+
+    public EventMetadata getMetadata() {
+        return metadata;
+    }
+
+    public boolean isStrict() {
+        return STRICT.equals(executionMode);
+    }
+
+    public boolean isMoneyOperation() {
+        return MONEY_OPERATIONS.contains(operationType);
+    }
+
+    public void validate() {
+        if (accountIds == null || accountIds.isEmpty()) {
+            throw new IllegalArgumentException("Account IDs cannot be null or empty");
+        }
+        if (accountIds.contains(null)) {
+            throw new IllegalArgumentException("Account IDs cannot contain null");
+        }
+        if (operationType == null ||
+            (!LIFECYCLE_OPERATIONS.contains(operationType) && !MONEY_OPERATIONS.contains(operationType))) {
+            throw new IllegalArgumentException("Unknown operation type: " + operationType);
+        }
+        if (performedBy == null || performedBy.trim().isEmpty()) {
+            throw new IllegalArgumentException("Performed by cannot be null or empty");
+        }
+        if (!isMoneyOperation() && (reason == null || reason.trim().isEmpty())) {
+            throw new IllegalArgumentException("Reason cannot be null or empty");
+        }
+        if (isMoneyOperation()) {
+            if (amount == null) {
+                throw new IllegalArgumentException("Amount cannot be null");
+            }
+            if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+                throw new IllegalArgumentException("Amount must be positive");
+            }
+            if (amount.scale() > 2) {
+                throw new IllegalArgumentException("Amount cannot have more than 2 decimal places");
+            }
+        }
+        if (!STRICT.equals(executionMode) && !BEST_EFFORT.equals(executionMode)) {
+            throw new IllegalArgumentException("Execution mode must be STRICT or BEST_EFFORT");
+        }
+        if (metadata == null) {
+            throw new IllegalArgumentException("Event metadata cannot be null");
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package io.artur.bankaccount.application.ports.incoming;
 
+import io.artur.bankaccount.application.queries.readmodels.AccountView;
 import io.artur.bankaccount.domain.account.aggregates.BankAccount;
 import io.artur.bankaccount.domain.shared.valueobjects.Money;
 
@@ -11,6 +12,11 @@ public interface AccountQueryUseCase {
     
     Optional<BankAccount> findAccountById(UUID accountId);
     
+    /**
+     * Account view for reads, served from the cache or the projection without replaying events
+     */
+    Optional<AccountView> findAccountView(UUID accountId);
+    
     List<BankAccount> findAllAccounts();
     
     Money getAccountBalance(UUID accountId);
@@ -3,6 +3,7 @@ package io.artur.bankaccount.application.ports.outgoing;
 import io.artur.bankaccount.domain.account.aggregates.BankAccount;
 import io.artur.bankaccount.domain.account.valueobjects.AccountNumber;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -12,6 +13,8 @@ public interface AccountRepository {
     
     void save(BankAccount account);
     
+    void saveAll(Collection<BankAccount> accounts);
+    
     CompletableFuture<Void> saveAsync(BankAccount account);
     
     Optional<BankAccount> findById(UUID accountId);
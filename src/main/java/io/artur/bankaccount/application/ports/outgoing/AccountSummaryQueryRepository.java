@@ -2,6 +2,7 @@ package io.artur.bankaccount.application.ports.outgoing;
 
 import io.artur.bankaccount.application.queries.models.AccountSearchQuery;
 import io.artur.bankaccount.application.queries.readmodels.AccountSummaryReadModel;
+import io.artur.bankaccount.application.queries.readmodels.KeysetPage;
 import io.artur.bankaccount.application.queries.readmodels.PagedResult;
 
 import java.util.List;
@@ -29,11 +30,21 @@ public interface AccountSummaryQueryRepository {
      */
     PagedResult<AccountSummaryReadModel> search(AccountSearchQuery query);
     
+    /**
+     * Search accounts with keyset pagination, continuing after the cursor of the query
+     */
+    KeysetPage<AccountSummaryReadModel> searchAfter(AccountSearchQuery query);
+    
     /**
      * Find accounts by holder name (partial match)
      */
     List<AccountSummaryReadModel> findByAccountHolderNameContaining(String holderName);
     
+    /**
+     * Find accounts by holder name prefix, ignoring case
+     */
+    List<AccountSummaryReadModel> findByAccountHolderNameStartingWith(String prefix);
+    
     /**
      * Find accounts by status
      */
@@ -1,6 +1,7 @@
 package io.artur.bankaccount.application.ports.outgoing;
 
 import io.artur.bankaccount.domain.account.aggregates.BankAccount;
+import io.artur.bankaccount.domain.shared.events.DomainEvent;
 import io.artur.bankaccount.domain.shared.valueobjects.Money;
 
 import java.util.List;
@@ -31,6 +32,21 @@ public interface CachePort {
     Money getOrCreateBalance(UUID accountId, Function<UUID, BankAccount> accountLoader);
     void updateBalance(UUID accountId, Money newBalance);
     
+    /**
+     * Cache the balance as of the given account version, unless a newer one is cached
+     */
+    void updateBalance(UUID accountId, Money newBalance, long version);
+    
+    /**
+     * Event driven maintenance. Cached balances and summaries remember the version of the last
+     * event they reflect. Committed events, in version order, are applied to them as deltas: an
+     * event at the version following the cached one advances the entry, an event at or below
+     * it is ignored, and an event beyond it means events were missed, so the entry is dropped.
+     * An account opened event starts new entries and adds the account to its holder's cached
+     * list. The event count of an account is the version of its last event and is kept the same way.
+     */
+    void applyCommittedEvents(UUID accountId, List<? extends DomainEvent> events);
+    
     /**
      * Account lookup caching operations
      */
@@ -39,7 +55,7 @@ public interface CachePort {
     void updateAccountsByHolder(String accountHolder, List<UUID> accountIds);
     
     /**
-     * Event count caching operations
+     * Event count caching operations. Counts only grow, so an update below the cached count is ignored.
      */
     Optional<Long> getCachedEventCount(UUID accountId);
     Long getOrCreateEventCount(UUID accountId, Supplier<Long> countLoader);
@@ -69,6 +85,8 @@ public interface CachePort {
         private Money currentBalance;
         private long transactionCount;
         private java.time.LocalDateTime lastTransactionDate;
+        private String status;
+        private long version = -1;
         
         public AccountSummary(UUID accountId, String accountHolder, Money overdraftLimit, 
                             java.time.LocalDateTime accountOpenedDate) {
@@ -86,6 +104,9 @@ public interface CachePort {
         public Money getCurrentBalance() { return currentBalance; }
         public long getTransactionCount() { return transactionCount; }
         public java.time.LocalDateTime getLastTransactionDate() { return lastTransactionDate; }
+        public String getStatus() { return status; }
+        /** Version of the account's last event reflected in this summary, -1 if unknown */
+        public long getVersion() { return version; }
         
         // Setters
         public void setCurrentBalance(Money currentBalance) { this.currentBalance = currentBalance; }
@@ -93,6 +114,8 @@ public interface CachePort {
         public void setLastTransactionDate(java.time.LocalDateTime lastTransactionDate) { 
             this.lastTransactionDate = lastTransactionDate; 
         }
+        public void setStatus(String status) { this.status = status; }
+        public void setVersion(long version) { this.version = version; }
     }
     
     /**
@@ -2,7 +2,9 @@ package io.artur.bankaccount.application.ports.outgoing;
 
 import io.artur.bankaccount.domain.shared.events.DomainEvent;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
@@ -22,6 +24,16 @@ public interface EventStorePort {
      */
     CompletableFuture<Void> saveEventAsync(UUID aggregateId, DomainEvent event);
     
+    /**
+     * Save several events for the specified aggregate as a single batched append
+     */
+    void saveEvents(UUID aggregateId, List<? extends DomainEvent> events);
+    
+    /**
+     * Save events for several aggregates as a single batched, all-or-nothing append
+     */
+    void saveEventBatch(Map<UUID, ? extends List<? extends DomainEvent>> eventsByAggregate);
+    
     /**
      * Load all events for the specified aggregate
      */
@@ -67,6 +79,49 @@ public interface EventStorePort {
      */
     long getLatestVersion(UUID aggregateId);
     
+    /**
+     * Read events of all aggregates in commit order, starting after the given log position.
+     * Positions increase with every append but may have gaps left by rolled back appends or by
+     * appends still in flight.
+     */
+    List<StoredEvent> readAllEvents(long afterPosition, int limit);
+    
+    /**
+     * Get the position of the latest appended event, or 0 when the log is empty
+     */
+    long getLatestPosition();
+    
+    /**
+     * Get the position of the last event the calling thread appended since its previous call,
+     * or 0 when it appended none; lets a request report the position its own command committed at
+     */
+    long takeLastAppendedPosition();
+    
+    /**
+     * An event together with its place in the global log and in its aggregate's stream
+     */
+    class StoredEvent {
+        private final long position;
+        private final UUID aggregateId;
+        private final long aggregateVersion;
+        private final LocalDateTime recordedAt;
+        private final DomainEvent event;
+        
+        public StoredEvent(long position, UUID aggregateId, long aggregateVersion, LocalDateTime recordedAt, DomainEvent event) {
+            this.position = position;
+            this.aggregateId = aggregateId;
+            this.aggregateVersion = aggregateVersion;
+            this.recordedAt = recordedAt;
+            this.event = event;
+        }
+        
+        public long getPosition() { return position; }
+        public UUID getAggregateId() { return aggregateId; }
+        public long getAggregateVersion() { return aggregateVersion; }
+        public LocalDateTime getRecordedAt() { return recordedAt; }
+        public DomainEvent getEvent() { return event; }
+    }
+    
     /**
      * Represents a page of events with pagination metadata
      */
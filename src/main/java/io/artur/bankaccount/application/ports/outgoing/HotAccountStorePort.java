@@ -0,0 +1,22 @@
+package io.artur.bankaccount.application.ports.outgoing;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Port for the access history of accounts, shared by all instances so a freshly started one
+ * knows which accounts to load into its cache before taking traffic
+ */
+public interface HotAccountStorePort {
+
+    /**
+     * Add the accesses counted since the last call to each account's score
+     */
+    void recordAccesses(Map<UUID, Long> accessCounts);
+
+    /**
+     * Accounts with the highest scores among those accessed recently, hottest first
+     */
+    List<UUID> findHottestAccounts(int limit);
+}
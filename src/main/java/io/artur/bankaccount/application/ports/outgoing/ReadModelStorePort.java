@@ -0,0 +1,115 @@
+package io.artur.bankaccount.application.ports.outgoing;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Port for the storage of the query side read models.
+ * Read models live in generations: one is active and serves queries, a new one can be built
+ * next to it from the event log and replace it once complete.
+ */
+public interface ReadModelStorePort extends AutoCloseable {
+
+    /**
+     * The generation recorded as active
+     */
+    ReadModelGeneration getActiveGeneration();
+
+    /**
+     * Create a new, empty generation next to the active one, to be built by the given projection version
+     */
+    ReadModelGeneration createGeneration(int projectionVersion);
+
+    /**
+     * Record the generation as the active one, so it is also used after a restart and by the
+     * other instances sharing the store, and serve it instead of the generation it replaces
+     */
+    void activate(ReadModelGeneration generation);
+
+    /**
+     * Release a generation that will not be used, e.g. after a failed rebuild
+     */
+    void discard(ReadModelGeneration generation);
+
+    /**
+     * Take the right to build a new generation, or renew it. Only one of the instances sharing
+     * the store holds it; it lapses if it is not renewed in time, e.g. when its holder died.
+     *
+     * @return false while another instance holds it
+     */
+    boolean acquireRebuildLease();
+
+    /**
+     * Give the rebuild lease up, if this instance holds it
+     */
+    void releaseRebuildLease();
+
+    /**
+     * Read again which generation is recorded as active, e.g. to follow one that another
+     * instance sharing the store activated; the same generation as before if it did not change
+     */
+    ReadModelGeneration refreshActiveGeneration();
+
+    /**
+     * Record that this instance serves queries from the generation, and release what it held of
+     * the one it served before. A replaced generation is only dropped once no instance serves it.
+     */
+    void serve(ReadModelGeneration generation);
+
+    /**
+     * Write out whatever the active generation still buffers, e.g. on shutdown
+     */
+    @Override
+    void close();
+
+    /**
+     * One complete set of read model repositories and the projection version that built it.
+     * Version 0 marks a generation that was not built from the whole event log.
+     *
+     * A durable store also records the log position up to which the stored read models have
+     * applied every event, so a restarted projector resumes there instead of skipping what was
+     * committed while it was down.
+     */
+    class ReadModelGeneration {
+        public static final long UNKNOWN_POSITION = -1;
+
+        private final String id;
+        private final int projectionVersion;
+        private final AccountSummaryQueryRepository accountSummaries;
+        private final TransactionHistoryQueryRepository transactions;
+        private final long appliedPosition;
+        private final LongConsumer checkpoint;
+
+        public ReadModelGeneration(String id, int projectionVersion, AccountSummaryQueryRepository accountSummaries,
+                                   TransactionHistoryQueryRepository transactions) {
+            this(id, projectionVersion, accountSummaries, transactions, UNKNOWN_POSITION, position -> { });
+        }
+
+        public ReadModelGeneration(String id, int projectionVersion, AccountSummaryQueryRepository accountSummaries,
+                                   TransactionHistoryQueryRepository transactions, long appliedPosition,
+                                   LongConsumer checkpoint) {
+            this.id = id;
+            this.projectionVersion = projectionVersion;
+            this.accountSummaries = accountSummaries;
+            this.transactions = transactions;
+            this.appliedPosition = appliedPosition;
+            this.checkpoint = checkpoint;
+        }
+
+        public String getId() { return id; }
+        public int getProjectionVersion() { return projectionVersion; }
+        public AccountSummaryQueryRepository getAccountSummaries() { return accountSummaries; }
+        public TransactionHistoryQueryRepository getTransactions() { return transactions; }
+
+        /**
+         * Log position the stored read models had applied when the generation was opened,
+         * {@link #UNKNOWN_POSITION} if the store does not record it
+         */
+        public long getAppliedPosition() { return appliedPosition; }
+
+        /**
+         * Record that every event up to the position has been handed to the repositories; a
+         * durable store persists it together with the writes it covers
+         */
+        public void markApplied(long position) { checkpoint.accept(position); }
+    }
+}
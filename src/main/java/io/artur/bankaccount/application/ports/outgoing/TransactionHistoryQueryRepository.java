@@ -62,7 +62,9 @@ public interface TransactionHistoryQueryRepository {
     TransactionStatistics getTransactionStatistics(UUID accountId, LocalDateTime from, LocalDateTime to);
     
     /**
-     * Save transaction
+     * Save transaction. The balance after the transaction is derived from the preceding
+     * transactions of the account in the order of their event versions, later transactions
+     * are adjusted if this one arrives late. Saving a transaction id again replaces its row.
      */
     void save(TransactionReadModel transaction);
     
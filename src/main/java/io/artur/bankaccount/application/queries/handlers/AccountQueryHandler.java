@@ -4,68 +4,84 @@ import io.artur.bankaccount.application.ports.outgoing.AccountSummaryQueryReposi
 import io.artur.bankaccount.application.queries.models.AccountSearchQuery;
 import io.artur.bankaccount.application.queries.models.AccountSummaryQuery;
 import io.artur.bankaccount.application.queries.readmodels.AccountSummaryReadModel;
+import io.artur.bankaccount.application.queries.readmodels.KeysetPage;
 import io.artur.bankaccount.application.queries.readmodels.PagedResult;
-import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
-@Service
 public class AccountQueryHandler {
     
-    private final AccountSummaryQueryRepository repository;
+    private final Supplier<AccountSummaryQueryRepository> repository;
     
     public AccountQueryHandler(AccountSummaryQueryRepository repository) {
+        this(() -> repository);
+    }
+    
+    /**
+     * Resolve the repository for every query, so a read model generation swapped in behind
+     * the supplier serves the next query
+     */
+    public AccountQueryHandler(Supplier<AccountSummaryQueryRepository> repository) {
         this.repository = repository;
     }
     
     public Optional<AccountSummaryReadModel> getAccountSummary(AccountSummaryQuery query) {
-        return repository.findByAccountId(query.getAccountId());
+        return repository.get().findByAccountId(query.getAccountId());
     }
     
     public PagedResult<AccountSummaryReadModel> searchAccounts(AccountSearchQuery query) {
-        return repository.search(query);
+        return repository.get().search(query);
+    }
+    
+    public KeysetPage<AccountSummaryReadModel> searchAccountsAfter(AccountSearchQuery query) {
+        return repository.get().searchAfter(query);
     }
     
     public List<AccountSummaryReadModel> getAllAccounts() {
-        return repository.findAll();
+        return repository.get().findAll();
     }
     
     public List<AccountSummaryReadModel> getAccountsByStatus(String status) {
-        return repository.findByAccountStatus(status);
+        return repository.get().findByAccountStatus(status);
     }
     
     public List<AccountSummaryReadModel> getAccountsByHolderName(String holderName) {
-        return repository.findByAccountHolderNameContaining(holderName);
+        return repository.get().findByAccountHolderNameContaining(holderName);
+    }
+    
+    public List<AccountSummaryReadModel> getAccountsByHolderNamePrefix(String prefix) {
+        return repository.get().findByAccountHolderNameStartingWith(prefix);
     }
     
     public List<AccountSummaryReadModel> getHighBalanceAccounts(BigDecimal threshold) {
-        return repository.findByBalanceGreaterThan(threshold);
+        return repository.get().findByBalanceGreaterThan(threshold);
     }
     
     public List<AccountSummaryReadModel> getLowBalanceAccounts(BigDecimal threshold) {
-        return repository.findByBalanceLessThan(threshold);
+        return repository.get().findByBalanceLessThan(threshold);
     }
     
     public List<AccountSummaryReadModel> getDormantAccounts(int daysWithoutActivity) {
-        return repository.findDormantAccounts(daysWithoutActivity);
+        return repository.get().findDormantAccounts(daysWithoutActivity);
     }
     
     public AccountSummaryQueryRepository.AccountStatistics getAccountStatistics() {
-        return repository.getAccountStatistics();
+        return repository.get().getAccountStatistics();
     }
     
     public boolean accountExists(UUID accountId) {
-        return repository.exists(accountId);
+        return repository.get().exists(accountId);
     }
     
     public long getTotalAccountCount() {
-        return repository.count();
+        return repository.get().count();
     }
     
     public long getAccountCountByStatus(String status) {
-        return repository.countByStatus(status);
+        return repository.get().countByStatus(status);
     }
 }
\ No newline at end of file
@@ -4,70 +4,77 @@ import io.artur.bankaccount.application.ports.outgoing.TransactionHistoryQueryRe
 import io.artur.bankaccount.application.queries.models.TransactionHistoryQuery;
 import io.artur.bankaccount.application.queries.readmodels.PagedResult;
 import io.artur.bankaccount.application.queries.readmodels.TransactionReadModel;
-import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
-@Service
 public class TransactionQueryHandler {
     
-    private final TransactionHistoryQueryRepository repository;
+    private final Supplier<TransactionHistoryQueryRepository> repository;
     
     public TransactionQueryHandler(TransactionHistoryQueryRepository repository) {
+        this(() -> repository);
+    }
+    
+    /**
+     * Resolve the repository for every query, so a read model generation swapped in behind
+     * the supplier serves the next query
+     */
+    public TransactionQueryHandler(Supplier<TransactionHistoryQueryRepository> repository) {
         this.repository = repository;
     }
     
     public Optional<TransactionReadModel> getTransaction(UUID transactionId) {
-        return repository.findByTransactionId(transactionId);
+        return repository.get().findByTransactionId(transactionId);
     }
     
     public PagedResult<TransactionReadModel> getTransactionHistory(TransactionHistoryQuery query) {
-        return repository.getTransactionHistory(query);
+        return repository.get().getTransactionHistory(query);
     }
     
     public List<TransactionReadModel> getRecentTransactions(UUID accountId, int limit) {
-        return repository.getRecentTransactions(accountId, limit);
+        return repository.get().getRecentTransactions(accountId, limit);
     }
     
     public List<TransactionReadModel> getTransactionsByDateRange(UUID accountId, LocalDateTime from, LocalDateTime to) {
-        return repository.findByAccountAndDateRange(accountId, from, to);
+        return repository.get().findByAccountAndDateRange(accountId, from, to);
     }
     
     public List<TransactionReadModel> getTransactionsByType(UUID accountId, String transactionType) {
-        return repository.findByAccountAndType(accountId, transactionType);
+        return repository.get().findByAccountAndType(accountId, transactionType);
     }
     
     public List<TransactionReadModel> getTransactionsByAmountRange(UUID accountId, BigDecimal minAmount, BigDecimal maxAmount) {
-        return repository.findByAccountAndAmountRange(accountId, minAmount, maxAmount);
+        return repository.get().findByAccountAndAmountRange(accountId, minAmount, maxAmount);
     }
     
     public List<TransactionReadModel> getLargeTransactions(UUID accountId, BigDecimal threshold) {
-        return repository.findLargeTransactions(accountId, threshold);
+        return repository.get().findLargeTransactions(accountId, threshold);
     }
     
     public TransactionHistoryQueryRepository.TransactionStatistics getTransactionStatistics(UUID accountId) {
-        return repository.getTransactionStatistics(accountId);
+        return repository.get().getTransactionStatistics(accountId);
     }
     
     public TransactionHistoryQueryRepository.TransactionStatistics getTransactionStatistics(UUID accountId, 
                                                                                            LocalDateTime from, 
                                                                                            LocalDateTime to) {
-        return repository.getTransactionStatistics(accountId, from, to);
+        return repository.get().getTransactionStatistics(accountId, from, to);
     }
     
     public long getTransactionCount(UUID accountId) {
-        return repository.countByAccount(accountId);
+        return repository.get().countByAccount(accountId);
     }
     
     public long getTransactionCountByType(UUID accountId, String transactionType) {
-        return repository.countByAccountAndType(accountId, transactionType);
+        return repository.get().countByAccountAndType(accountId, transactionType);
     }
     
     public Optional<LocalDateTime> getLastTransactionDate(UUID accountId) {
-        return repository.getLastTransactionDate(accountId);
+        return repository.get().getLastTransactionDate(accountId);
     }
 }
\ No newline at end of file
@@ -10,10 +10,20 @@ public class AccountSearchQuery {
     private final int size;
     private final String sortBy;
     private final String sortDirection;
+    private final String cursor;
     
     public AccountSearchQuery(String accountHolderName, String accountStatus, 
                              java.math.BigDecimal minBalance, java.math.BigDecimal maxBalance,
                              int page, int size, String sortBy, String sortDirection) {
+        this(accountHolderName, accountStatus, minBalance, maxBalance, page, size, sortBy, sortDirection, null);
+    }
+    
+    /**
+     * @param cursor position after which a keyset paginated search continues, null for the first page
+     */
+    public AccountSearchQuery(String accountHolderName, String accountStatus, 
+                             java.math.BigDecimal minBalance, java.math.BigDecimal maxBalance,
+                             int page, int size, String sortBy, String sortDirection, String cursor) {
         this.accountHolderName = accountHolderName;
         this.accountStatus = accountStatus;
         this.minBalance = minBalance;
@@ -22,6 +32,7 @@ public class AccountSearchQuery {
         this.size = Math.min(100, Math.max(1, size));
         this.sortBy = sortBy != null ? sortBy : "accountHolderName";
         this.sortDirection = sortDirection != null ? sortDirection : "ASC";
+        this.cursor = cursor;
     }
     
     public static AccountSearchQuery all() {
@@ -68,6 +79,10 @@ public class AccountSearchQuery {
         return sortDirection;
     }
     
+    public String getCursor() {
+        return cursor;
+    }
+    
     public void validate() {
         if (page < 0) {
             throw new IllegalArgumentException("Page number cannot be negative");
@@ -4,41 +4,84 @@ import io.artur.bankaccount.application.ports.outgoing.AccountSummaryQueryReposi
 import io.artur.bankaccount.application.queries.readmodels.AccountSummaryReadModel;
 import io.artur.bankaccount.domain.account.events.AccountClosedEvent;
 import io.artur.bankaccount.domain.account.events.AccountFrozenEvent;
+import io.artur.bankaccount.domain.account.events.AccountMarkedDormantEvent;
 import io.artur.bankaccount.domain.account.events.AccountOpenedEvent;
+import io.artur.bankaccount.domain.account.events.AccountReactivatedEvent;
 import io.artur.bankaccount.domain.account.events.MoneyDepositedEvent;
 import io.artur.bankaccount.domain.account.events.MoneyReceivedEvent;
 import io.artur.bankaccount.domain.account.events.MoneyTransferredEvent;
 import io.artur.bankaccount.domain.account.events.MoneyWithdrawnEvent;
-import org.springframework.stereotype.Component;
+import io.artur.bankaccount.domain.shared.events.DomainEvent;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
-@Component
 public class AccountSummaryProjectionHandler {
     
     private final AccountSummaryQueryRepository repository;
     private final Executor projectionExecutor;
     
     public AccountSummaryProjectionHandler(AccountSummaryQueryRepository repository) {
+        this(repository, ForkJoinPool.commonPool());
+    }
+    
+    public AccountSummaryProjectionHandler(AccountSummaryQueryRepository repository, Executor projectionExecutor) {
         this.repository = repository;
-        this.projectionExecutor = Executors.newCachedThreadPool(r -> {
-            Thread t = new Thread(r, "projection-handler");
-            t.setDaemon(true);
-            return t;
-        });
+        this.projectionExecutor = projectionExecutor;
+    }
+    
+    /**
+     * Apply an event on the calling thread, e.g. while replaying the event log. Events this
+     * projection does not track are ignored.
+     */
+    public void apply(DomainEvent event) {
+        switch (event) {
+            case AccountOpenedEvent e -> handle(e);
+            case MoneyDepositedEvent e -> handle(e);
+            case MoneyWithdrawnEvent e -> handle(e);
+            case MoneyTransferredEvent e -> handle(e);
+            case MoneyReceivedEvent e -> handle(e);
+            case AccountFrozenEvent e -> handle(e);
+            case AccountClosedEvent e -> handle(e);
+            case AccountReactivatedEvent e -> handle(e);
+            case AccountMarkedDormantEvent e -> handle(e);
+            default -> {
+            }
+        }
+    }
+    
+    /**
+     * Derive the account's summary again from its whole stream, e.g. once an event that
+     * committed late shows up after the summary has moved past its version
+     */
+    public void replay(UUID accountId, List<DomainEvent> stream) {
+        repository.delete(accountId);
+        stream.forEach(this::apply);
     }
     
     public void handle(AccountOpenedEvent event) {
+        if (event.getVersion() > 0 && repository.exists(event.getId())) {
+            // Replayed after a restart or already projected by another replica
+            return;
+        }
         AccountSummaryReadModel readModel = AccountSummaryReadModel.fromAccountOpened(
             event.getId(),
             event.getId().toString(),
             event.getAccountHolder(),
             event.getOverdraftLimit()
         );
+        // Dates come from the event so that a replay reproduces them
+        readModel.setAccountOpenedDate(event.getTimestamp());
+        readModel.setLastStatusChange(event.getTimestamp());
+        if (event.getVersion() > 0) {
+            readModel.setVersion(event.getVersion());
+        }
         
         repository.save(readModel);
     }
@@ -48,13 +91,12 @@ public class AccountSummaryProjectionHandler {
     }
     
     public void handle(MoneyDepositedEvent event) {
-        repository.findByAccountId(event.getId())
-            .ifPresent(readModel -> {
-                BigDecimal currentBalance = readModel.getBalance();
-                BigDecimal newBalance = currentBalance.add(event.getAmount());
-                readModel.updateBalance(newBalance);
-                repository.save(readModel);
-            });
+        update(event, readModel -> {
+            BigDecimal currentBalance = readModel.getBalance();
+            BigDecimal newBalance = currentBalance.add(event.getAmount());
+            readModel.updateBalance(newBalance);
+            readModel.setLastTransactionDate(event.getTimestamp());
+        });
     }
     
     public CompletableFuture<Void> handleAsync(MoneyDepositedEvent event) {
@@ -62,13 +104,12 @@ public class AccountSummaryProjectionHandler {
     }
     
     public void handle(MoneyWithdrawnEvent event) {
-        repository.findByAccountId(event.getId())
-            .ifPresent(readModel -> {
-                BigDecimal currentBalance = readModel.getBalance();
-                BigDecimal newBalance = currentBalance.subtract(event.getAmount());
-                readModel.updateBalance(newBalance);
-                repository.save(readModel);
-            });
+        update(event, readModel -> {
+            BigDecimal currentBalance = readModel.getBalance();
+            BigDecimal newBalance = currentBalance.subtract(event.getAmount());
+            readModel.updateBalance(newBalance);
+            readModel.setLastTransactionDate(event.getTimestamp());
+        });
     }
     
     public CompletableFuture<Void> handleAsync(MoneyWithdrawnEvent event) {
@@ -76,13 +117,12 @@ public class AccountSummaryProjectionHandler {
     }
     
     public void handle(MoneyTransferredEvent event) {
-        repository.findByAccountId(event.getId())
-            .ifPresent(readModel -> {
-                BigDecimal currentBalance = readModel.getBalance();
-                BigDecimal newBalance = currentBalance.subtract(event.getAmount());
-                readModel.updateBalance(newBalance);
-                repository.save(readModel);
-            });
+        update(event, readModel -> {
+            BigDecimal currentBalance = readModel.getBalance();
+            BigDecimal newBalance = currentBalance.subtract(event.getAmount());
+            readModel.updateBalance(newBalance);
+            readModel.setLastTransactionDate(event.getTimestamp());
+        });
     }
     
     public CompletableFuture<Void> handleAsync(MoneyTransferredEvent event) {
@@ -90,13 +130,12 @@ public class AccountSummaryProjectionHandler {
     }
     
     public void handle(MoneyReceivedEvent event) {
-        repository.findByAccountId(event.getId())
-            .ifPresent(readModel -> {
-                BigDecimal currentBalance = readModel.getBalance();
-                BigDecimal newBalance = currentBalance.add(event.getAmount());
-                readModel.updateBalance(newBalance);
-                repository.save(readModel);
-            });
+        update(event, readModel -> {
+            BigDecimal currentBalance = readModel.getBalance();
+            BigDecimal newBalance = currentBalance.add(event.getAmount());
+            readModel.updateBalance(newBalance);
+            readModel.setLastTransactionDate(event.getTimestamp());
+        });
     }
     
     public CompletableFuture<Void> handleAsync(MoneyReceivedEvent event) {
@@ -104,11 +143,10 @@ public class AccountSummaryProjectionHandler {
     }
     
     public void handle(AccountFrozenEvent event) {
-        repository.findByAccountId(event.getId())
-            .ifPresent(readModel -> {
-                readModel.updateStatus("FROZEN", event.getFrozenBy(), event.getReason());
-                repository.save(readModel);
-            });
+        update(event, readModel -> {
+            readModel.updateStatus("FROZEN", event.getFrozenBy(), event.getReason());
+            readModel.setLastStatusChange(event.getTimestamp());
+        });
     }
     
     public CompletableFuture<Void> handleAsync(AccountFrozenEvent event) {
@@ -116,15 +154,55 @@ public class AccountSummaryProjectionHandler {
     }
     
     public void handle(AccountClosedEvent event) {
-        repository.findByAccountId(event.getId())
-            .ifPresent(readModel -> {
-                readModel.updateStatus("CLOSED", event.getClosedBy(), "Account closed");
-                readModel.updateBalance(event.getFinalBalance().getAmount());
-                repository.save(readModel);
-            });
+        update(event, readModel -> {
+            readModel.updateStatus("CLOSED", event.getClosedBy(), "Account closed");
+            readModel.updateBalance(event.getFinalBalance().getAmount());
+            readModel.setLastStatusChange(event.getTimestamp());
+            readModel.setLastTransactionDate(event.getTimestamp());
+        });
     }
     
     public CompletableFuture<Void> handleAsync(AccountClosedEvent event) {
         return CompletableFuture.runAsync(() -> handle(event), projectionExecutor);
     }
+    
+    public void handle(AccountReactivatedEvent event) {
+        update(event, readModel -> {
+            readModel.updateStatus("ACTIVE", event.getReactivatedBy(), event.getReason());
+            readModel.setLastStatusChange(event.getTimestamp());
+        });
+    }
+    
+    public CompletableFuture<Void> handleAsync(AccountReactivatedEvent event) {
+        return CompletableFuture.runAsync(() -> handle(event), projectionExecutor);
+    }
+    
+    public void handle(AccountMarkedDormantEvent event) {
+        update(event, readModel -> {
+            readModel.updateStatus("DORMANT", event.getMarkedBy(), event.getReason());
+            readModel.setLastStatusChange(event.getTimestamp());
+        });
+    }
+    
+    public CompletableFuture<Void> handleAsync(AccountMarkedDormantEvent event) {
+        return CompletableFuture.runAsync(() -> handle(event), projectionExecutor);
+    }
+    
+    /**
+     * Apply a change to the account's summary and save it. The summary carries the version of
+     * the last event applied to it, so an event it has already seen, replayed after a restart
+     * or projected by another replica writing the same store, is skipped instead of applied twice.
+     * Events without a version are always applied.
+     */
+    private void update(DomainEvent event, Consumer<AccountSummaryReadModel> change) {
+        repository.findByAccountId(event.getId())
+            .filter(readModel -> event.getVersion() <= 0 || event.getVersion() > readModel.getVersion())
+            .ifPresent(readModel -> {
+                change.accept(readModel);
+                if (event.getVersion() > 0) {
+                    readModel.setVersion(event.getVersion());
+                }
+                repository.save(readModel);
+            });
+    }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package io.artur.bankaccount.application.queries.projections;
+
+import io.artur.bankaccount.application.ports.outgoing.AccountSummaryQueryRepository;
+import io.artur.bankaccount.application.ports.outgoing.ReadModelStorePort.ReadModelGeneration;
+import io.artur.bankaccount.application.ports.outgoing.TransactionHistoryQueryRepository;
+import io.artur.bankaccount.domain.shared.events.DomainEvent;
+
+/**
+ * One generation of the read models together with the projection handlers writing into it
+ */
+public class ReadModelProjection {
+
+    /**
+     * Version of the projection code. Bump it whenever a handler changes what it derives from
+     * the events; a generation built by another version is then rebuilt in the background and
+     * swapped in, see ProjectionRebuilder#startIfOutdated.
+     */
+    public static final int VERSION = 3;
+
+    private final ReadModelGeneration generation;
+    private final AccountSummaryProjectionHandler accountSummaryHandler;
+    private final TransactionProjectionHandler transactionHandler;
+
+    public ReadModelProjection(ReadModelGeneration generation) {
+        this.generation = generation;
+        // Events are applied on the caller's thread, the handlers' async variants are not used
+        this.accountSummaryHandler = new AccountSummaryProjectionHandler(generation.getAccountSummaries(), Runnable::run);
+        this.transactionHandler = new TransactionProjectionHandler(generation.getTransactions(), Runnable::run);
+    }
+
+    /**
+     * Apply the event to both read models
+     */
+    public void apply(DomainEvent event) {
+        accountSummaryHandler.apply(event);
+        transactionHandler.apply(event);
+    }
+
+    public ReadModelGeneration getGeneration() {
+        return generation;
+    }
+
+    public AccountSummaryProjectionHandler getAccountSummaryHandler() {
+        return accountSummaryHandler;
+    }
+
+    public TransactionProjectionHandler getTransactionHandler() {
+        return transactionHandler;
+    }
+
+    public AccountSummaryQueryRepository getAccountSummaries() {
+        return generation.getAccountSummaries();
+    }
+
+    public TransactionHistoryQueryRepository getTransactions() {
+        return generation.getTransactions();
+    }
+}
@@ -6,27 +6,40 @@ import io.artur.bankaccount.domain.account.events.MoneyDepositedEvent;
 import io.artur.bankaccount.domain.account.events.MoneyReceivedEvent;
 import io.artur.bankaccount.domain.account.events.MoneyTransferredEvent;
 import io.artur.bankaccount.domain.account.events.MoneyWithdrawnEvent;
-import org.springframework.stereotype.Component;
+import io.artur.bankaccount.domain.shared.events.DomainEvent;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
-@Component
 public class TransactionProjectionHandler {
     
     private final TransactionHistoryQueryRepository repository;
     private final Executor projectionExecutor;
     
     public TransactionProjectionHandler(TransactionHistoryQueryRepository repository) {
+        this(repository, ForkJoinPool.commonPool());
+    }
+    
+    public TransactionProjectionHandler(TransactionHistoryQueryRepository repository, Executor projectionExecutor) {
         this.repository = repository;
-        this.projectionExecutor = Executors.newCachedThreadPool(r -> {
-            Thread t = new Thread(r, "transaction-projection");
-            t.setDaemon(true);
-            return t;
-        });
+        this.projectionExecutor = projectionExecutor;
+    }
+    
+    /**
+     * Apply an event on the calling thread, e.g. while replaying the event log. Events this
+     * projection does not track are ignored.
+     */
+    public void apply(DomainEvent event) {
+        switch (event) {
+            case MoneyDepositedEvent e -> handle(e);
+            case MoneyWithdrawnEvent e -> handle(e);
+            case MoneyTransferredEvent e -> handle(e);
+            case MoneyReceivedEvent e -> handle(e);
+            default -> {
+            }
+        }
     }
     
     public void handle(MoneyDepositedEvent event) {
@@ -35,10 +48,10 @@ public class TransactionProjectionHandler {
             event.getAmount(),
             String.format("Money deposited: %s", event.getAmount()),
             convertToLocalDateTime(event.getTimestamp()),
-            BigDecimal.ZERO // Will be updated by projection
+            null // Running balance is derived when the row is stored
         );
         
-        repository.save(transaction);
+        repository.save(identify(transaction, event));
     }
     
     public CompletableFuture<Void> handleAsync(MoneyDepositedEvent event) {
@@ -51,10 +64,10 @@ public class TransactionProjectionHandler {
             event.getAmount(),
             String.format("Money withdrawn: %s", event.getAmount()),
             convertToLocalDateTime(event.getTimestamp()),
-            BigDecimal.ZERO // Will be updated by projection
+            null // Running balance is derived when the row is stored
         );
         
-        repository.save(transaction);
+        repository.save(identify(transaction, event));
     }
     
     public CompletableFuture<Void> handleAsync(MoneyWithdrawnEvent event) {
@@ -68,10 +81,10 @@ public class TransactionProjectionHandler {
             event.getAmount(),
             String.format("Money transferred to %s: %s", event.getToAccountId(), event.getAmount()),
             convertToLocalDateTime(event.getTimestamp()),
-            BigDecimal.ZERO // Will be updated by projection
+            null // Running balance is derived when the row is stored
         );
         
-        repository.save(transaction);
+        repository.save(identify(transaction, event));
     }
     
     public CompletableFuture<Void> handleAsync(MoneyTransferredEvent event) {
@@ -85,16 +98,26 @@ public class TransactionProjectionHandler {
             event.getAmount(),
             String.format("Money received from %s: %s", event.getFromAccountId(), event.getAmount()),
             convertToLocalDateTime(event.getTimestamp()),
-            BigDecimal.ZERO // Will be updated by projection
+            null // Running balance is derived when the row is stored
         );
         
-        repository.save(transaction);
+        repository.save(identify(transaction, event));
     }
     
     public CompletableFuture<Void> handleAsync(MoneyReceivedEvent event) {
         return CompletableFuture.runAsync(() -> handle(event), projectionExecutor);
     }
     
+    /**
+     * Key the row by the event that produced it and place it at the event's version, so a
+     * replayed event overwrites its row and the running balance follows the account's stream
+     */
+    private static TransactionReadModel identify(TransactionReadModel transaction, DomainEvent event) {
+        transaction.setTransactionId(TransactionReadModel.idForEvent(event.getId(), event.getVersion()));
+        transaction.setVersion(event.getVersion());
+        return transaction;
+    }
+    
     private LocalDateTime convertToLocalDateTime(java.time.LocalDateTime timestamp) {
         return timestamp;
     }
@@ -0,0 +1,67 @@
+package io.artur.bankaccount.application.queries.readmodels;
+
+import io.artur.bankaccount.application.ports.outgoing.CachePort;
+import io.artur.bankaccount.domain.account.valueobjects.AccountStatus;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Read-optimized view of an account for the GET endpoints, assembled from the cached summary
+ * or the account summary projection instead of replaying the account's events
+ */
+public class AccountView {
+
+    private final UUID accountId;
+    private final String accountHolderName;
+    private final BigDecimal balance;
+    private final BigDecimal overdraftLimit;
+    private final String status;
+
+    public AccountView(UUID accountId, String accountHolderName, BigDecimal balance,
+                       BigDecimal overdraftLimit, String status) {
+        this.accountId = accountId;
+        this.accountHolderName = accountHolderName;
+        this.balance = balance;
+        this.overdraftLimit = overdraftLimit;
+        this.status = status;
+    }
+
+    public static AccountView fromCachedSummary(CachePort.AccountSummary summary) {
+        return new AccountView(
+            summary.getAccountId(),
+            summary.getAccountHolder(),
+            summary.getCurrentBalance().getAmount(),
+            summary.getOverdraftLimit().getAmount(),
+            summary.getStatus()
+        );
+    }
+
+    public static AccountView fromReadModel(AccountSummaryReadModel readModel) {
+        return new AccountView(
+            readModel.getAccountId(),
+            readModel.getAccountHolderName(),
+            readModel.getBalance(),
+            readModel.getOverdraftLimit(),
+            readModel.getAccountStatus()
+        );
+    }
+
+    public UUID getAccountId() { return accountId; }
+    public String getAccountHolderName() { return accountHolderName; }
+    public BigDecimal getBalance() { return balance; }
+    public BigDecimal getOverdraftLimit() { return overdraftLimit; }
+    public String getStatus() { return status; }
+
+    public BigDecimal getAvailableBalance() {
+        return balance.add(overdraftLimit);
+    }
+
+    public boolean isActive() {
+        return AccountStatus.Status.ACTIVE.name().equals(status);
+    }
+
+    public boolean canPerformTransactions() {
+        return status != null && AccountStatus.Status.valueOf(status).canPerformTransactions();
+    }
+}
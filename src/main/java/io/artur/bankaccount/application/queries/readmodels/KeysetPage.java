@@ -0,0 +1,53 @@
+package io.artur.bankaccount.application.queries.readmodels;
+
+import java.util.List;
+
+/**
+ * Page of a keyset (cursor) paginated query.
+ * Pages are addressed by the position of their last element instead of an offset, so fetching
+ * a deep page costs the same as fetching the first one. Totals are not computed.
+ */
+public class KeysetPage<T> {
+
+    private final List<T> content;
+    private final int size;
+    private final String nextCursor;
+
+    public KeysetPage(List<T> content, int size, String nextCursor) {
+        this.content = content != null ? content : List.of();
+        this.size = size;
+        this.nextCursor = nextCursor;
+    }
+
+    public static <T> KeysetPage<T> of(List<T> content, int size, String nextCursor) {
+        return new KeysetPage<>(content, size, nextCursor);
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Cursor of the following page, null on the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public int getNumberOfElements() {
+        return content.size();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("KeysetPage{size=%d, content=%d items, hasNext=%s}", size, content.size(), hasNext());
+    }
+}
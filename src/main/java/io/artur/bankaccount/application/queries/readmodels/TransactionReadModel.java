@@ -1,6 +1,7 @@
 package io.artur.bankaccount.application.queries.readmodels;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Objects;
 import java.util.UUID;
@@ -17,6 +18,7 @@ public class TransactionReadModel {
     private String status;
     private UUID relatedAccountId; // For transfers
     private String metadata;
+    private long version; // Version of the producing event in the account's stream, 0 if unknown
     
     public TransactionReadModel() {}
     
@@ -62,6 +64,14 @@ public class TransactionReadModel {
         return transaction;
     }
     
+    /**
+     * Id of the row produced by the event at the given version of the account's stream, so
+     * projecting the same event again addresses the same row
+     */
+    public static UUID idForEvent(UUID accountId, long version) {
+        return UUID.nameUUIDFromBytes((accountId + ":" + version).getBytes(StandardCharsets.UTF_8));
+    }
+    
     // Business methods
     public boolean isCredit() {
         return "DEPOSIT".equals(transactionType) || "TRANSFER_IN".equals(transactionType);
@@ -156,6 +166,14 @@ public class TransactionReadModel {
         this.metadata = metadata;
     }
     
+    public long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(long version) {
+        this.version = version;
+    }
+    
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -6,27 +6,47 @@ import io.artur.bankaccount.application.ports.incoming.AccountQueryUseCase;
 import io.artur.bankaccount.application.ports.outgoing.AccountRepository;
 import io.artur.bankaccount.application.ports.outgoing.CachePort;
 import io.artur.bankaccount.application.ports.outgoing.MetricsPort;
+import io.artur.bankaccount.application.queries.handlers.AccountQueryHandler;
+import io.artur.bankaccount.application.queries.models.AccountSummaryQuery;
+import io.artur.bankaccount.application.queries.readmodels.AccountView;
 import io.artur.bankaccount.application.services.AsyncEventProcessor;
 import io.artur.bankaccount.domain.account.aggregates.BankAccount;
+import io.artur.bankaccount.domain.account.events.AccountClosedEvent;
+import io.artur.bankaccount.domain.account.events.AccountDomainEvent;
+import io.artur.bankaccount.domain.account.events.AccountFrozenEvent;
+import io.artur.bankaccount.domain.account.events.AccountMarkedDormantEvent;
+import io.artur.bankaccount.domain.account.events.AccountReactivatedEvent;
+import io.artur.bankaccount.domain.account.events.MoneyDepositedEvent;
+import io.artur.bankaccount.domain.account.events.MoneyWithdrawnEvent;
+import io.artur.bankaccount.domain.shared.events.EventMetadata;
 import io.artur.bankaccount.domain.shared.valueobjects.Money;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class AccountApplicationService implements AccountManagementUseCase, AccountQueryUseCase {
     
+    // Timing a cache hit costs more than the hit itself, so one lookup in this many is timed;
+    // a uniform sample keeps the latency percentiles while hits and misses are all counted
+    static final int CACHE_ACCESS_SAMPLE_RATE = 64;
+    
     private final AccountRepository accountRepository;
     private final CachePort cachePort;
     private final MetricsPort metricsPort;
     private final AsyncEventProcessor eventProcessor;
+    private final AccountQueryHandler accountQueryHandler;
+    private final CacheWarmer cacheWarmer;
     
     public AccountApplicationService(AccountRepository accountRepository) {
         this.accountRepository = accountRepository;
         this.cachePort = null; // Optional dependency
         this.metricsPort = null; // Optional dependency
         this.eventProcessor = null; // Optional dependency
+        this.accountQueryHandler = null; // Optional dependency
+        this.cacheWarmer = null; // Optional dependency
     }
     
     public AccountApplicationService(AccountRepository accountRepository, CachePort cachePort, MetricsPort metricsPort) {
@@ -34,13 +54,28 @@ public class AccountApplicationService implements AccountManagementUseCase, Acco
         this.cachePort = cachePort;
         this.metricsPort = metricsPort;
         this.eventProcessor = null; // Optional dependency
+        this.accountQueryHandler = null; // Optional dependency
+        this.cacheWarmer = null; // Optional dependency
     }
     
     public AccountApplicationService(AccountRepository accountRepository, CachePort cachePort, MetricsPort metricsPort, AsyncEventProcessor eventProcessor) {
+        this(accountRepository, cachePort, metricsPort, eventProcessor, null);
+    }
+    
+    public AccountApplicationService(AccountRepository accountRepository, CachePort cachePort, MetricsPort metricsPort,
+                                     AsyncEventProcessor eventProcessor, AccountQueryHandler accountQueryHandler) {
+        this(accountRepository, cachePort, metricsPort, eventProcessor, accountQueryHandler, null);
+    }
+    
+    public AccountApplicationService(AccountRepository accountRepository, CachePort cachePort, MetricsPort metricsPort,
+                                     AsyncEventProcessor eventProcessor, AccountQueryHandler accountQueryHandler,
+                                     CacheWarmer cacheWarmer) {
         this.accountRepository = accountRepository;
         this.cachePort = cachePort;
         this.metricsPort = metricsPort;
         this.eventProcessor = eventProcessor;
+        this.accountQueryHandler = accountQueryHandler;
+        this.cacheWarmer = cacheWarmer;
     }
     
     @Override
@@ -55,16 +90,18 @@ public class AccountApplicationService implements AccountManagementUseCase, Acco
                 command.getMetadata()
             );
             
+            List<AccountDomainEvent> committedEvents = account.getUncommittedEvents(); // save clears them
+            
             accountRepository.save(account);
             
             // Process events asynchronously
             if (eventProcessor != null) {
-                eventProcessor.processAccountEventsAsync(account.getUncommittedEvents());
+                eventProcessor.processAccountEventsAsync(committedEvents);
             }
             
-            // Invalidate cache for new account
+            // Start cache entries for the new account from its events
             if (cachePort != null) {
-                cachePort.invalidateAccount(account.getAccountId());
+                cachePort.applyCommittedEvents(account.getAccountId(), committedEvents);
             }
             
             // Record business metric
@@ -83,17 +120,17 @@ public class AccountApplicationService implements AccountManagementUseCase, Acco
             
             BankAccount account = loadAccount(command.getAccountId());
             account.deposit(command.getAmount(), command.getMetadata());
+            List<AccountDomainEvent> committedEvents = account.getUncommittedEvents(); // save clears them
             accountRepository.save(account);
             
             // Process events asynchronously
             if (eventProcessor != null) {
-                eventProcessor.processAccountEventsAsync(account.getUncommittedEvents());
+                eventProcessor.processAccountEventsAsync(committedEvents);
             }
             
             // Update cache with new balance
             if (cachePort != null) {
-                cachePort.updateBalance(account.getAccountId(), account.getBalance());
-                cachePort.invalidateAccount(account.getAccountId()); // Invalidate summary
+                cachePort.applyCommittedEvents(account.getAccountId(), committedEvents);
             }
             
             // Record business metric
@@ -111,17 +148,17 @@ public class AccountApplicationService implements AccountManagementUseCase, Acco
             try {
                 BankAccount account = loadAccount(command.getAccountId());
                 account.withdraw(command.getAmount(), command.getMetadata());
+                List<AccountDomainEvent> committedEvents = account.getUncommittedEvents(); // save clears them
                 accountRepository.save(account);
                 
                 // Process events asynchronously
                 if (eventProcessor != null) {
-                    eventProcessor.processAccountEventsAsync(account.getUncommittedEvents());
+                    eventProcessor.processAccountEventsAsync(committedEvents);
                 }
                 
                 // Update cache with new balance
                 if (cachePort != null) {
-                    cachePort.updateBalance(account.getAccountId(), account.getBalance());
-                    cachePort.invalidateAccount(account.getAccountId()); // Invalidate summary
+                    cachePort.applyCommittedEvents(account.getAccountId(), committedEvents);
                 }
                 
                 // Record business metric
@@ -149,23 +186,24 @@ public class AccountApplicationService implements AccountManagementUseCase, Acco
             fromAccount.transferOut(command.getToAccountId(), command.getAmount(), command.getDescription(), command.getMetadata());
             toAccount.receiveTransfer(command.getFromAccountId(), command.getAmount(), command.getDescription(), command.getMetadata());
             
+            List<AccountDomainEvent> fromEvents = fromAccount.getUncommittedEvents(); // save clears them
+            List<AccountDomainEvent> toEvents = toAccount.getUncommittedEvents();
+            
             accountRepository.save(fromAccount);
             accountRepository.save(toAccount);
             
             // Process events asynchronously for both accounts
             if (eventProcessor != null) {
                 CompletableFuture.allOf(
-                    eventProcessor.processAccountEventsAsync(fromAccount.getUncommittedEvents()),
-                    eventProcessor.processAccountEventsAsync(toAccount.getUncommittedEvents())
+                    eventProcessor.processAccountEventsAsync(fromEvents),
+                    eventProcessor.processAccountEventsAsync(toEvents)
                 );
             }
             
             // Update cache for both accounts
             if (cachePort != null) {
-                cachePort.updateBalance(fromAccount.getAccountId(), fromAccount.getBalance());
-                cachePort.updateBalance(toAccount.getAccountId(), toAccount.getBalance());
-                cachePort.invalidateAccount(fromAccount.getAccountId());
-                cachePort.invalidateAccount(toAccount.getAccountId());
+                cachePort.applyCommittedEvents(fromAccount.getAccountId(), fromEvents);
+                cachePort.applyCommittedEvents(toAccount.getAccountId(), toEvents);
             }
             
             // Record business metric
@@ -175,22 +213,47 @@ public class AccountApplicationService implements AccountManagementUseCase, Acco
         });
     }
     
+    /**
+     * Load the aggregate by replaying its events, for callers that need the domain behaviour;
+     * reads go through {@link #findAccountView}
+     */
     @Override
     public Optional<BankAccount> findAccountById(UUID accountId) {
+        return recordMetrics(() -> accountRepository.findById(accountId));
+    }
+    
+    /**
+     * The cached summary is kept current by committed events, so it is served as is. On a miss
+     * the account summary projection answers, which may trail the last write by the projection
+     * lag; clients that need their own writes pass the event position, see the web layer.
+     */
+    @Override
+    public Optional<AccountView> findAccountView(UUID accountId) {
         return recordMetrics(() -> {
-            // Try cache first
+            recordAccess(accountId);
             if (cachePort != null) {
-                Optional<CachePort.AccountSummary> cachedSummary = cachePort.getCachedAccountSummary(accountId);
+                Optional<CachePort.AccountSummary> cachedSummary = timeCacheAccess(() -> cachePort.getCachedAccountSummary(accountId))
+                    .filter(summary -> summary.getCurrentBalance() != null && summary.getStatus() != null);
                 if (cachedSummary.isPresent()) {
-                    metricsPort.recordCacheHit("account-summary");
-                    // For cached case, still need to load full aggregate from repository
-                    // This is a simplified approach - in a real system you might cache the full aggregate
+                    if (metricsPort != null) {
+                        metricsPort.recordCacheHit("account-summary");
+                    }
+                    return cachedSummary.map(AccountView::fromCachedSummary);
                 } else if (metricsPort != null) {
                     metricsPort.recordCacheMiss("account-summary");
                 }
             }
             
-            return accountRepository.findById(accountId);
+            if (accountQueryHandler != null) {
+                return accountQueryHandler.getAccountSummary(new AccountSummaryQuery(accountId))
+                    .map(AccountView::fromReadModel);
+            }
+            
+            // Without a projection the aggregate is the only source
+            return accountRepository.findById(accountId)
+                .map(account -> new AccountView(accountId, account.getAccountHolder().getFullName(),
+                    account.getBalance().getAmount(), account.getOverdraftLimit().getAmount(),
+                    account.getAccountStatus().getStatus().name()));
         });
     }
     
@@ -202,9 +265,10 @@ public class AccountApplicationService implements AccountManagementUseCase, Acco
     @Override
     public Money getAccountBalance(UUID accountId) {
         return recordMetrics(() -> {
+            recordAccess(accountId);
             // Try cache first
             if (cachePort != null) {
-                Optional<Money> cachedBalance = cachePort.getCachedBalance(accountId);
+                Optional<Money> cachedBalance = timeCacheAccess(() -> cachePort.getCachedBalance(accountId));
                 if (cachedBalance.isPresent()) {
                     if (metricsPort != null) {
                         metricsPort.recordCacheHit("balance");
@@ -216,25 +280,39 @@ public class AccountApplicationService implements AccountManagementUseCase, Acco
             }
             
             // Load from repository and cache result
-            Money balance = accountRepository.findById(accountId)
-                    .map(BankAccount::getBalance)
-                    .orElseThrow(() -> new IllegalArgumentException("Account not found: " + accountId));
+            BankAccount account = loadAccount(accountId);
             
             if (cachePort != null) {
-                cachePort.updateBalance(accountId, balance);
+                cachePort.updateBalance(accountId, account.getBalance(), account.getVersion());
             }
             
-            return balance;
+            return account.getBalance();
         });
     }
     
     // Helper methods
     
-    private BankAccount loadAccount(UUID accountId) {
+    BankAccount loadAccount(UUID accountId) {
         return accountRepository.findById(accountId)
                 .orElseThrow(() -> new IllegalArgumentException("Account not found: " + accountId));
     }
     
+    private void recordAccess(UUID accountId) {
+        // Reads decide which accounts a restarted instance loads into its cache first
+        if (cacheWarmer != null) {
+            cacheWarmer.recordAccess(accountId);
+        }
+    }
+    
+    private <T> T timeCacheAccess(java.util.function.Supplier<T> lookup) {
+        if (metricsPort == null || ThreadLocalRandom.current().nextInt(CACHE_ACCESS_SAMPLE_RATE) != 0) {
+            return lookup.get();
+        }
+        try (MetricsPort.TimingContext timing = metricsPort.startTiming("cache_access")) {
+            return lookup.get();
+        }
+    }
+    
     private <T> T recordMetrics(java.util.function.Supplier<T> operation) {
         if (metricsPort != null) {
             return metricsPort.recordCommandProcessing(operation);
@@ -259,11 +337,17 @@ public class AccountApplicationService implements AccountManagementUseCase, Acco
             
             BankAccount account = loadAccount(command.getAccountId());
             account.freeze(command.getReason(), command.getFrozenBy(), command.getMetadata());
+            List<AccountDomainEvent> committedEvents = account.getUncommittedEvents(); // save clears them
             accountRepository.save(account);
             
-            // Invalidate cache entries for frozen account
+            // Project the status change, views read the projection on a cache miss
+            if (eventProcessor != null) {
+                eventProcessor.processAccountEventsAsync(committedEvents);
+            }
+            
+            // Advance cache entries for frozen account
             if (cachePort != null) {
-                cachePort.invalidateAccount(account.getAccountId());
+                cachePort.applyCommittedEvents(account.getAccountId(), committedEvents);
             }
             
             // Record business metric
@@ -279,11 +363,17 @@ public class AccountApplicationService implements AccountManagementUseCase, Acco
             
             BankAccount account = loadAccount(command.getAccountId());
             account.close(command.getReason(), command.getClosedBy(), command.getMetadata());
+            List<AccountDomainEvent> committedEvents = account.getUncommittedEvents(); // save clears them
             accountRepository.save(account);
             
-            // Invalidate cache entries for closed account
+            // Project the status change, views read the projection on a cache miss
+            if (eventProcessor != null) {
+                eventProcessor.processAccountEventsAsync(committedEvents);
+            }
+            
+            // Advance cache entries for closed account
             if (cachePort != null) {
-                cachePort.invalidateAccount(account.getAccountId());
+                cachePort.applyCommittedEvents(account.getAccountId(), committedEvents);
             }
             
             // Record business metric
@@ -299,11 +389,17 @@ public class AccountApplicationService implements AccountManagementUseCase, Acco
             
             BankAccount account = loadAccount(command.getAccountId());
             account.reactivate(command.getReason(), command.getReactivatedBy(), command.getMetadata());
+            List<AccountDomainEvent> committedEvents = account.getUncommittedEvents(); // save clears them
             accountRepository.save(account);
             
-            // Invalidate cache entries for reactivated account
+            // Project the status change, views read the projection on a cache miss
+            if (eventProcessor != null) {
+                eventProcessor.processAccountEventsAsync(committedEvents);
+            }
+            
+            // Advance cache entries for reactivated account
             if (cachePort != null) {
-                cachePort.invalidateAccount(account.getAccountId());
+                cachePort.applyCommittedEvents(account.getAccountId(), committedEvents);
             }
             
             // Record business metric
@@ -319,11 +415,17 @@ public class AccountApplicationService implements AccountManagementUseCase, Acco
             
             BankAccount account = loadAccount(command.getAccountId());
             account.markDormant(command.getReason(), command.getMarkedBy(), command.getMetadata());
+            List<AccountDomainEvent> committedEvents = account.getUncommittedEvents(); // save clears them
             accountRepository.save(account);
             
-            // Invalidate cache entries for dormant account
+            // Project the status change, views read the projection on a cache miss
+            if (eventProcessor != null) {
+                eventProcessor.processAccountEventsAsync(committedEvents);
+            }
+            
+            // Advance cache entries for dormant account
             if (cachePort != null) {
-                cachePort.invalidateAccount(account.getAccountId());
+                cachePort.applyCommittedEvents(account.getAccountId(), committedEvents);
             }
             
             // Record business metric
@@ -332,4 +434,78 @@ public class AccountApplicationService implements AccountManagementUseCase, Acco
             }
         });
     }
-}
\ No newline at end of file
+    
+    // Bulk Command Support
+    
+    /**
+     * Load the account once and apply a bulk operation to it without persisting,
+     * so the caller can append several prepared accounts in a single batch
+     */
+    public BankAccount prepareBulkOperation(UUID accountId, BulkAccountCommand command) {
+        return recordMetrics(() -> {
+            BankAccount account = loadAccount(accountId);
+            EventMetadata metadata = command.getMetadata();
+            
+            switch (command.getOperationType()) {
+                case "FREEZE" -> account.freeze(command.getReason(), command.getPerformedBy(), metadata);
+                case "SUSPEND" -> account.freeze("SUSPENDED: " + command.getReason(), command.getPerformedBy(), metadata);
+                case "UNFREEZE", "REACTIVATE" -> account.reactivate(command.getReason(), command.getPerformedBy(), metadata);
+                case "CLOSE" -> account.close(command.getReason(), command.getPerformedBy(), metadata);
+                case "MARK_DORMANT" -> account.markDormant(command.getReason(), command.getPerformedBy(), metadata);
+                case "DEPOSIT" -> account.deposit(command.getAmount(), metadata);
+                case "WITHDRAW" -> account.withdraw(command.getAmount(), metadata);
+                default -> throw new IllegalArgumentException("Unknown operation type: " + command.getOperationType());
+            }
+            
+            return account;
+        });
+    }
+    
+    /**
+     * Append the uncommitted events of all prepared accounts in one batch and run
+     * the usual post-commit work (projections, cache, metrics) for each of them
+     */
+    public void commitBulkOperation(List<BankAccount> accounts) {
+        if (accounts.isEmpty()) {
+            return;
+        }
+        
+        // Capture events before saving, saving marks them as committed
+        List<List<AccountDomainEvent>> committedEvents = accounts.stream()
+            .map(BankAccount::getUncommittedEvents)
+            .toList();
+        
+        accountRepository.saveAll(accounts);
+        
+        if (eventProcessor != null) {
+            committedEvents.forEach(eventProcessor::processAccountEventsAsync);
+        }
+        
+        if (cachePort != null) {
+            for (int i = 0; i < accounts.size(); i++) {
+                cachePort.applyCommittedEvents(accounts.get(i).getAccountId(), committedEvents.get(i));
+            }
+        }
+        
+        // A batch may mix operations, so business metrics follow the committed events
+        if (metricsPort != null) {
+            committedEvents.forEach(events -> events.forEach(this::recordBusinessMetric));
+        }
+    }
+    
+    private void recordBusinessMetric(AccountDomainEvent event) {
+        if (event instanceof MoneyDepositedEvent) {
+            metricsPort.recordDeposit();
+        } else if (event instanceof MoneyWithdrawnEvent) {
+            metricsPort.recordWithdrawal();
+        } else if (event instanceof AccountFrozenEvent) {
+            metricsPort.recordAccountStatusChange("FROZEN");
+        } else if (event instanceof AccountReactivatedEvent) {
+            metricsPort.recordAccountStatusChange("ACTIVE");
+        } else if (event instanceof AccountClosedEvent) {
+            metricsPort.recordAccountStatusChange("CLOSED");
+        } else if (event instanceof AccountMarkedDormantEvent) {
+            metricsPort.recordAccountStatusChange("DORMANT");
+        }
+    }
+}
@@ -5,34 +5,66 @@ import io.artur.bankaccount.application.queries.projections.TransactionProjectio
 import io.artur.bankaccount.domain.account.events.*;
 import io.artur.bankaccount.domain.shared.events.DomainEvent;
 import io.artur.bankaccount.domain.account.events.AccountDomainEvent;
-import org.springframework.stereotype.Service;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
 
-@Service
 public class AsyncEventProcessor {
     
     private final AccountSummaryProjectionHandler accountSummaryHandler;
     private final TransactionProjectionHandler transactionHandler;
     private final Executor eventProcessingExecutor;
+    private final EventLogProjector projector;
+    private final AtomicLong pendingEvents = new AtomicLong();
     
     public AsyncEventProcessor(AccountSummaryProjectionHandler accountSummaryHandler,
                               TransactionProjectionHandler transactionHandler) {
+        this(accountSummaryHandler, transactionHandler, ForkJoinPool.commonPool());
+    }
+    
+    public AsyncEventProcessor(AccountSummaryProjectionHandler accountSummaryHandler,
+                              TransactionProjectionHandler transactionHandler,
+                              Executor eventProcessingExecutor) {
         this.accountSummaryHandler = accountSummaryHandler;
         this.transactionHandler = transactionHandler;
-        this.eventProcessingExecutor = Executors.newCachedThreadPool(r -> {
-            Thread t = new Thread(r, "async-event-processor");
-            t.setDaemon(true);
-            return t;
-        });
+        this.eventProcessingExecutor = eventProcessingExecutor;
+        this.projector = null;
+    }
+    
+    /**
+     * Project committed events by having the projector read them from the global event log
+     * rather than dispatching the event objects, so the read models see them in commit order
+     * and can be rebuilt and swapped without losing or repeating any
+     */
+    public AsyncEventProcessor(EventLogProjector projector) {
+        this.accountSummaryHandler = null;
+        this.transactionHandler = null;
+        this.eventProcessingExecutor = null;
+        this.projector = projector;
     }
     
     public CompletableFuture<Void> processEventAsync(DomainEvent event) {
-        return CompletableFuture.runAsync(() -> {
-            processEventProjections(event);
-        }, eventProcessingExecutor);
+        if (projector != null) {
+            return catchUp(1);
+        }
+        pendingEvents.incrementAndGet();
+        try {
+            return CompletableFuture.runAsync(() -> {
+                processEventProjections(event);
+            }, eventProcessingExecutor).whenComplete((result, failure) -> pendingEvents.decrementAndGet());
+        } catch (RuntimeException e) {
+            pendingEvents.decrementAndGet();
+            throw e;
+        }
+    }
+    
+    /**
+     * Number of committed events whose projections have not finished yet, i.e. the projection lag
+     */
+    public long getPendingEventCount() {
+        return pendingEvents.get();
     }
     
     private void processEventProjections(DomainEvent event) {
@@ -70,6 +102,12 @@ public class AsyncEventProcessor {
             case AccountClosedEvent e -> 
                 accountSummaryHandler.handleAsync(e);
             
+            case AccountReactivatedEvent e -> 
+                accountSummaryHandler.handleAsync(e);
+            
+            case AccountMarkedDormantEvent e -> 
+                accountSummaryHandler.handleAsync(e);
+            
             default -> {
                 // Log unhandled event types using modern structured logging
                 System.out.println("Unhandled event type: " + event.getClass().getSimpleName());
@@ -78,6 +116,9 @@ public class AsyncEventProcessor {
     }
     
     public CompletableFuture<Void> processEventsAsync(java.util.List<DomainEvent> events) {
+        if (projector != null) {
+            return events.isEmpty() ? CompletableFuture.completedFuture(null) : catchUp(events.size());
+        }
         CompletableFuture<Void>[] futures = events.stream()
                 .map(this::processEventAsync)
                 .toArray(CompletableFuture[]::new);
@@ -86,10 +127,25 @@ public class AsyncEventProcessor {
     }
     
     public CompletableFuture<Void> processAccountEventsAsync(java.util.List<AccountDomainEvent> events) {
+        if (projector != null) {
+            return events.isEmpty() ? CompletableFuture.completedFuture(null) : catchUp(events.size());
+        }
         CompletableFuture<Void>[] futures = events.stream()
                 .map(event -> processEventAsync((DomainEvent) event))
                 .toArray(CompletableFuture[]::new);
         
         return CompletableFuture.allOf(futures);
     }
-}
\ No newline at end of file
+    
+    private CompletableFuture<Void> catchUp(int events) {
+        pendingEvents.addAndGet(events);
+        try {
+            return projector.catchUpAsync()
+                .whenComplete((position, failure) -> pendingEvents.addAndGet(-events))
+                .thenApply(position -> null);
+        } catch (RuntimeException e) {
+            pendingEvents.addAndGet(-events);
+            throw e;
+        }
+    }
+}
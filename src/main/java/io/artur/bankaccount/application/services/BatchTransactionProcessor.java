@@ -0,0 +1,326 @@
+package io.artur.bankaccount.application.services;
+
+import io.artur.bankaccount.application.commands.models.DepositMoneyCommand;
+import io.artur.bankaccount.application.commands.models.WithdrawMoneyCommand;
+import io.artur.bankaccount.domain.account.aggregates.BankAccount;
+import io.artur.bankaccount.domain.shared.events.EventMetadata;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * Applies a stream of deposits and withdrawals, e.g. a payroll file.
+ *
+ * Lines are consumed in chunks of {@code chunkSize}, so memory stays bounded no matter how
+ * long the input is. Within a chunk lines are grouped by account, every account is loaded
+ * once on a virtual thread (at most {@code maxConcurrency} at a time) and has its lines
+ * applied in input order, and all touched accounts are appended in one batch. A rejected
+ * line does not affect the other lines of the same account. When the batch append fails,
+ * its accounts are reloaded and appended one by one.
+ *
+ * Results of a chunk are handed to the sink in line order once the chunk is committed.
+ */
+public class BatchTransactionProcessor {
+
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    public static final String DEPOSIT = "DEPOSIT";
+    public static final String WITHDRAW = "WITHDRAW";
+
+    private final AccountApplicationService applicationService;
+    private final int maxConcurrency;
+    private final int chunkSize;
+
+    public BatchTransactionProcessor(AccountApplicationService applicationService) {
+        this(applicationService, BulkCommandExecutor.DEFAULT_MAX_CONCURRENCY, DEFAULT_CHUNK_SIZE);
+    }
+
+    public BatchTransactionProcessor(AccountApplicationService applicationService, int maxConcurrency, int chunkSize) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Max concurrency must be at least 1");
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1");
+        }
+        this.applicationService = applicationService;
+        this.maxConcurrency = maxConcurrency;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Process all lines, streaming per-line results to the sink.
+     * The iterator is consumed lazily and the sink is only ever called from the calling thread.
+     */
+    public Summary process(Iterator<TransactionLine> lines, EventMetadata metadata, Consumer<LineResult> resultSink) {
+        ResultCollector collector = new ResultCollector(resultSink);
+        List<TransactionLine> chunk = new ArrayList<>(Math.min(chunkSize, 1024));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Semaphore permits = new Semaphore(maxConcurrency);
+            while (lines.hasNext()) {
+                chunk.add(lines.next());
+                if (chunk.size() >= chunkSize) {
+                    processChunk(chunk, metadata, executor, permits, collector);
+                    chunk.clear();
+                }
+            }
+            processChunk(chunk, metadata, executor, permits, collector);
+        }
+
+        return new Summary(collector.successCount + collector.failureCount, collector.successCount, collector.failureCount);
+    }
+
+    private void processChunk(List<TransactionLine> chunk, EventMetadata metadata, ExecutorService executor,
+                              Semaphore permits, ResultCollector collector) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        List<LineResult> results = new ArrayList<>(chunk.size());
+        Map<UUID, List<TransactionLine>> linesByAccount = new LinkedHashMap<>();
+        for (TransactionLine line : chunk) {
+            String rejection = validate(line, metadata);
+            if (rejection != null) {
+                results.add(LineResult.failed(line, rejection));
+            } else {
+                linesByAccount.computeIfAbsent(line.getAccountId(), id -> new ArrayList<>()).add(line);
+            }
+        }
+
+        List<Future<PreparedAccount>> futures = new ArrayList<>(linesByAccount.size());
+        linesByAccount.forEach((accountId, accountLines) -> futures.add(executor.submit(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                return prepare(accountId, accountLines, metadata);
+            } finally {
+                permits.release();
+            }
+        })));
+
+        List<PreparedAccount> prepared = new ArrayList<>(futures.size());
+        for (Future<PreparedAccount> future : futures) {
+            PreparedAccount account = await(future);
+            results.addAll(account.rejected);
+            if (!account.applied.isEmpty()) {
+                prepared.add(account);
+            }
+        }
+
+        commit(prepared, metadata, results);
+
+        results.sort(Comparator.comparingLong(LineResult::getLineNumber));
+        results.forEach(collector::accept);
+    }
+
+    private String validate(TransactionLine line, EventMetadata metadata) {
+        if (line.getError() != null) {
+            return line.getError();
+        }
+        try {
+            if (DEPOSIT.equals(line.getType())) {
+                new DepositMoneyCommand(line.getAccountId(), line.getAmount(), metadata).validate();
+            } else if (WITHDRAW.equals(line.getType())) {
+                new WithdrawMoneyCommand(line.getAccountId(), line.getAmount(), metadata).validate();
+            } else {
+                return "Transaction type must be DEPOSIT or WITHDRAW";
+            }
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    private PreparedAccount prepare(UUID accountId, List<TransactionLine> accountLines, EventMetadata metadata) {
+        PreparedAccount prepared = new PreparedAccount();
+        try {
+            prepared.account = applicationService.loadAccount(accountId);
+        } catch (RuntimeException e) {
+            accountLines.forEach(line -> prepared.rejected.add(LineResult.failed(line, reasonOf(e))));
+            return prepared;
+        }
+
+        // Domain checks run before an event is applied, so a rejected line leaves the account untouched
+        for (TransactionLine line : accountLines) {
+            try {
+                if (DEPOSIT.equals(line.getType())) {
+                    prepared.account.deposit(line.getAmount(), metadata);
+                } else {
+                    prepared.account.withdraw(line.getAmount(), metadata);
+                }
+                prepared.applied.add(line);
+            } catch (RuntimeException e) {
+                prepared.rejected.add(LineResult.failed(line, reasonOf(e)));
+            }
+        }
+        return prepared;
+    }
+
+    private void commit(List<PreparedAccount> prepared, EventMetadata metadata, List<LineResult> results) {
+        if (prepared.isEmpty()) {
+            return;
+        }
+
+        try {
+            applicationService.commitBulkOperation(prepared.stream().map(p -> p.account).toList());
+            prepared.forEach(p -> p.applied.forEach(line -> results.add(LineResult.succeeded(line))));
+        } catch (RuntimeException batchFailure) {
+            // The batch is all-or-nothing, so nothing of it was appended; retry one by one so a single
+            // bad account does not fail the rest. The prepared aggregates may be stale, e.g. when one of
+            // them lost a version race, so each account is reloaded and its lines are applied again.
+            for (PreparedAccount p : prepared) {
+                PreparedAccount retry = prepare(p.account.getAccountId(), p.applied, metadata);
+                results.addAll(retry.rejected);
+                if (retry.applied.isEmpty()) {
+                    continue;
+                }
+                try {
+                    applicationService.commitBulkOperation(List.of(retry.account));
+                    retry.applied.forEach(line -> results.add(LineResult.succeeded(line)));
+                } catch (RuntimeException e) {
+                    retry.applied.forEach(line -> results.add(LineResult.failed(line, reasonOf(e))));
+                }
+            }
+        }
+    }
+
+    private static PreparedAccount await(Future<PreparedAccount> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch transaction processing interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch transaction processing failed", e.getCause());
+        }
+    }
+
+    private static String reasonOf(RuntimeException e) {
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+
+    private static class PreparedAccount {
+        BankAccount account;
+        final List<TransactionLine> applied = new ArrayList<>();
+        final List<LineResult> rejected = new ArrayList<>();
+    }
+
+    private static class ResultCollector {
+        private final Consumer<LineResult> sink;
+        private long successCount;
+        private long failureCount;
+
+        ResultCollector(Consumer<LineResult> sink) {
+            this.sink = sink;
+        }
+
+        void accept(LineResult result) {
+            if (result.isSuccess()) {
+                successCount++;
+            } else {
+                failureCount++;
+            }
+            sink.accept(result);
+        }
+    }
+
+    /**
+     * One input line. Lines that could not be parsed carry an error instead of a transaction.
+     */
+    public static class TransactionLine {
+        private final long lineNumber;
+        private final UUID accountId;
+        private final String type;
+        private final BigDecimal amount;
+        private final String error;
+
+        private TransactionLine(long lineNumber, UUID accountId, String type, BigDecimal amount, String error) {
+            this.lineNumber = lineNumber;
+            this.accountId = accountId;
+            this.type = type;
+            this.amount = amount;
+            this.error = error;
+        }
+
+        public static TransactionLine of(long lineNumber, UUID accountId, String type, BigDecimal amount) {
+            return new TransactionLine(lineNumber, accountId, type != null ? type.toUpperCase() : null, amount, null);
+        }
+
+        public static TransactionLine invalid(long lineNumber, String error) {
+            return new TransactionLine(lineNumber, null, null, null, error);
+        }
+
+        public long getLineNumber() { return lineNumber; }
+        public UUID getAccountId() { return accountId; }
+        public String getType() { return type; }
+        public BigDecimal getAmount() { return amount; }
+        public String getError() { return error; }
+    }
+
+    /**
+     * Outcome of a single input line
+     */
+    public static class LineResult {
+        private final long lineNumber;
+        private final UUID accountId;
+        private final String type;
+        private final BigDecimal amount;
+        private final String status;
+        private final String reason;
+
+        public LineResult(long lineNumber, UUID accountId, String type, BigDecimal amount, String status, String reason) {
+            this.lineNumber = lineNumber;
+            this.accountId = accountId;
+            this.type = type;
+            this.amount = amount;
+            this.status = status;
+            this.reason = reason;
+        }
+
+        static LineResult succeeded(TransactionLine line) {
+            return new LineResult(line.getLineNumber(), line.getAccountId(), line.getType(), line.getAmount(), "SUCCESS", null);
+        }
+
+        static LineResult failed(TransactionLine line, String reason) {
+            return new LineResult(line.getLineNumber(), line.getAccountId(), line.getType(), line.getAmount(), "FAILED", reason);
+        }
+
+        public long getLineNumber() { return lineNumber; }
+        public UUID getAccountId() { return accountId; }
+        public String getType() { return type; }
+        public BigDecimal getAmount() { return amount; }
+        public String getStatus() { return status; }
+        public String getReason() { return reason; }
+        public boolean isSuccess() { return "SUCCESS".equals(status); }
+    }
+
+    /**
+     * Totals for a processed batch
+     */
+    public static class Summary {
+        private final long totalLines;
+        private final long successCount;
+        private final long failureCount;
+
+        public Summary(long totalLines, long successCount, long failureCount) {
+            this.totalLines = totalLines;
+            this.successCount = successCount;
+            this.failureCount = failureCount;
+        }
+
+        public long getTotalLines() { return totalLines; }
+        public long getSuccessCount() { return successCount; }
+        public long getFailureCount() { return failureCount; }
+    }
+}
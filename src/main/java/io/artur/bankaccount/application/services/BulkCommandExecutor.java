@@ -0,0 +1,233 @@
+package io.artur.bankaccount.application.services;
+
+import io.artur.bankaccount.application.commands.models.BulkAccountCommand;
+import io.artur.bankaccount.domain.account.aggregates.BankAccount;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * Executes bulk account commands.
+ *
+ * In BEST_EFFORT mode every account is loaded and has the command applied on its own
+ * virtual thread, with at most {@code maxConcurrency} loads in flight. Prepared accounts
+ * are appended in batches of {@code appendBatchSize}, and each result is handed to the
+ * sink as soon as it is known, so results arrive in completion order.
+ *
+ * In STRICT mode accounts are processed one by one in request order and execution
+ * stops at the first failure.
+ */
+public class BulkCommandExecutor {
+
+    public static final int DEFAULT_MAX_CONCURRENCY = 16;
+    public static final int DEFAULT_APPEND_BATCH_SIZE = 100;
+
+    private final AccountApplicationService applicationService;
+    private final int maxConcurrency;
+    private final int appendBatchSize;
+
+    public BulkCommandExecutor(AccountApplicationService applicationService) {
+        this(applicationService, DEFAULT_MAX_CONCURRENCY, DEFAULT_APPEND_BATCH_SIZE);
+    }
+
+    public BulkCommandExecutor(AccountApplicationService applicationService, int maxConcurrency, int appendBatchSize) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Max concurrency must be at least 1");
+        }
+        if (appendBatchSize < 1) {
+            throw new IllegalArgumentException("Append batch size must be at least 1");
+        }
+        this.applicationService = applicationService;
+        this.maxConcurrency = maxConcurrency;
+        this.appendBatchSize = appendBatchSize;
+    }
+
+    /**
+     * Execute the command against all of its accounts, streaming per-account results to the sink.
+     * The sink is only ever called from the calling thread.
+     */
+    public Summary execute(BulkAccountCommand command, Consumer<ItemResult> resultSink) {
+        command.validate();
+
+        // Duplicate ids would race on the same aggregate, each account is processed once
+        List<UUID> accountIds = new ArrayList<>(new LinkedHashSet<>(command.getAccountIds()));
+        ResultCollector collector = new ResultCollector(command.getOperationType(), resultSink);
+
+        if (command.isStrict()) {
+            executeStrict(command, accountIds, collector);
+        } else {
+            executeBestEffort(command, accountIds, collector);
+        }
+
+        return new Summary(accountIds.size(), collector.successCount, collector.failureCount);
+    }
+
+    private void executeStrict(BulkAccountCommand command, List<UUID> accountIds, ResultCollector collector) {
+        for (UUID accountId : accountIds) {
+            try {
+                BankAccount account = applicationService.prepareBulkOperation(accountId, command);
+                applicationService.commitBulkOperation(List.of(account));
+                collector.success(accountId, command.getReason());
+            } catch (RuntimeException e) {
+                collector.failure(accountId, e);
+                break;
+            }
+        }
+    }
+
+    private void executeBestEffort(BulkAccountCommand command, List<UUID> accountIds, ResultCollector collector) {
+        BlockingQueue<PreparedItem> prepared = new LinkedBlockingQueue<>();
+        Semaphore permits = new Semaphore(maxConcurrency);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (UUID accountId : accountIds) {
+                executor.submit(() -> {
+                    permits.acquireUninterruptibly();
+                    try {
+                        prepared.add(new PreparedItem(accountId, applicationService.prepareBulkOperation(accountId, command), null));
+                    } catch (RuntimeException e) {
+                        prepared.add(new PreparedItem(accountId, null, e));
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+
+            List<BankAccount> pending = new ArrayList<>();
+            int received = 0;
+            while (received < accountIds.size()) {
+                // Block only when nothing is waiting to be appended, otherwise append what we have
+                PreparedItem item = pending.isEmpty() ? prepared.take() : prepared.poll();
+                if (item == null) {
+                    appendBatch(command, pending, collector);
+                    continue;
+                }
+
+                received++;
+                if (item.failure != null) {
+                    collector.failure(item.accountId, item.failure);
+                } else {
+                    pending.add(item.account);
+                    if (pending.size() >= appendBatchSize) {
+                        appendBatch(command, pending, collector);
+                    }
+                }
+            }
+            appendBatch(command, pending, collector);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Bulk operation interrupted", e);
+        }
+    }
+
+    private void appendBatch(BulkAccountCommand command, List<BankAccount> batch, ResultCollector collector) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            applicationService.commitBulkOperation(batch);
+            batch.forEach(account -> collector.success(account.getAccountId(), command.getReason()));
+        } catch (RuntimeException batchFailure) {
+            // The batch is all-or-nothing, so nothing of it was appended; retry one by one so a single
+            // bad account does not fail the rest. The prepared aggregates may be stale, e.g. when one of
+            // them lost a version race, so each account is reloaded and the command executed again.
+            for (BankAccount account : batch) {
+                UUID accountId = account.getAccountId();
+                try {
+                    applicationService.commitBulkOperation(List.of(applicationService.prepareBulkOperation(accountId, command)));
+                    collector.success(accountId, command.getReason());
+                } catch (RuntimeException e) {
+                    collector.failure(accountId, e);
+                }
+            }
+        }
+        batch.clear();
+    }
+
+    private static class PreparedItem {
+        final UUID accountId;
+        final BankAccount account;
+        final RuntimeException failure;
+
+        PreparedItem(UUID accountId, BankAccount account, RuntimeException failure) {
+            this.accountId = accountId;
+            this.account = account;
+            this.failure = failure;
+        }
+    }
+
+    private static class ResultCollector {
+        private final String operationType;
+        private final Consumer<ItemResult> sink;
+        private int successCount;
+        private int failureCount;
+
+        ResultCollector(String operationType, Consumer<ItemResult> sink) {
+            this.operationType = operationType;
+            this.sink = sink;
+        }
+
+        void success(UUID accountId, String reason) {
+            successCount++;
+            sink.accept(new ItemResult(accountId, "SUCCESS", operationType, reason));
+        }
+
+        void failure(UUID accountId, RuntimeException e) {
+            failureCount++;
+            String reason = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            sink.accept(new ItemResult(accountId, "FAILED", operationType, reason));
+        }
+    }
+
+    /**
+     * Outcome of the bulk command for a single account
+     */
+    public static class ItemResult {
+        private final UUID accountId;
+        private final String status;
+        private final String operation;
+        private final String reason;
+
+        public ItemResult(UUID accountId, String status, String operation, String reason) {
+            this.accountId = accountId;
+            this.status = status;
+            this.operation = operation;
+            this.reason = reason;
+        }
+
+        public UUID getAccountId() { return accountId; }
+        public String getStatus() { return status; }
+        public String getOperation() { return operation; }
+        public String getReason() { return reason; }
+        public boolean isSuccess() { return "SUCCESS".equals(status); }
+    }
+
+    /**
+     * Totals for a finished bulk command
+     */
+    public static class Summary {
+        private final int totalAccounts;
+        private final int successCount;
+        private final int failureCount;
+
+        public Summary(int totalAccounts, int successCount, int failureCount) {
+            this.totalAccounts = totalAccounts;
+            this.successCount = successCount;
+            this.failureCount = failureCount;
+        }
+
+        public int getTotalAccounts() { return totalAccounts; }
+        public int getSuccessCount() { return successCount; }
+        public int getFailureCount() { return failureCount; }
+    }
+}
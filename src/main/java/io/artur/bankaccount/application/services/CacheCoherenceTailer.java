@@ -0,0 +1,154 @@
+package io.artur.bankaccount.application.services;
+
+import io.artur.bankaccount.application.ports.outgoing.CachePort;
+import io.artur.bankaccount.application.ports.outgoing.EventStorePort;
+import io.artur.bankaccount.application.ports.outgoing.EventStorePort.StoredEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps this instance's cache coherent with writes made on other instances by tailing the
+ * global event log.
+ *
+ * Each poll reads the events after the last position seen and passes every one of them to
+ * {@link CachePort#applyCommittedEvents}, whose version rules make that safe for all events:
+ * those this instance committed itself were applied already and are ignored, the next version
+ * of a cached entry advances it, and a version gap drops it. Entries can therefore live long
+ * while lagging other instances' writes by about one poll interval.
+ *
+ * Like the projector, the tailer stops in front of a position gap until it fills or the gap
+ * timeout passes, and re-reads the positions it stepped over up to the gap horizon, see
+ * {@link LogGapTracker}. If it has not caught up for longer than the staleness bound, e.g. because
+ * the store is unreachable, the whole cache is invalidated, so no entry is served staler.
+ */
+public class CacheCoherenceTailer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheCoherenceTailer.class);
+
+    private final EventStorePort eventStore;
+    private final CachePort cache;
+    private final int pageSize;
+    private final LogGapTracker gaps;
+    private final long maxStalenessNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong appliedEvents = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private ScheduledExecutorService poller;
+    private volatile long position;
+    private volatile long caughtUpAtNanos = System.nanoTime();
+
+    public CacheCoherenceTailer(EventStorePort eventStore, CachePort cache, long startPosition,
+                                int pageSize, long gapTimeoutMillis, long gapHorizonMillis, long maxStalenessMillis) {
+        this.eventStore = eventStore;
+        this.cache = cache;
+        this.position = startPosition;
+        this.pageSize = Math.max(1, pageSize);
+        this.gaps = new LogGapTracker("Cache coherence tailer", gapTimeoutMillis, gapHorizonMillis);
+        this.maxStalenessNanos = TimeUnit.MILLISECONDS.toNanos(maxStalenessMillis);
+    }
+
+    /**
+     * Poll the log on a daemon thread every interval until closed
+     */
+    public synchronized void start(long pollIntervalMillis) {
+        if (poller != null) {
+            return;
+        }
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-coherence");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::pollQuietly, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Apply the events committed since the last poll to the cache
+     *
+     * @return whether everything committed before the call was applied, false if stopped in
+     *         front of an open gap
+     */
+    public boolean poll() {
+        lock.lock();
+        try {
+            long started = System.nanoTime();
+            List<StoredEvent> late = gaps.recover(eventStore);
+            late.forEach(event -> cache.applyCommittedEvents(event.getAggregateId(), List.of(event.getEvent())));
+            appliedEvents.addAndGet(late.size());
+            while (true) {
+                List<StoredEvent> page = eventStore.readAllEvents(position, pageSize);
+                int settled = gaps.settledPrefix(page, position);
+                for (StoredEvent event : page.subList(0, settled)) {
+                    cache.applyCommittedEvents(event.getAggregateId(), List.of(event.getEvent()));
+                    position = event.getPosition();
+                }
+                appliedEvents.addAndGet(settled);
+                if (settled < page.size()) {
+                    invalidateIfStale();
+                    return false;
+                }
+                if (page.size() < pageSize) {
+                    caughtUpAtNanos = started;
+                    return true;
+                }
+            }
+        } catch (RuntimeException e) {
+            invalidateIfStale();
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Log position up to which committed events have been applied to the cache
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    public long getAppliedEventCount() {
+        return appliedEvents.get();
+    }
+
+    /**
+     * Number of times the cache was dropped because the tailer fell behind the staleness bound
+     */
+    public long getInvalidationCount() {
+        return invalidations.get();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (poller != null) {
+            poller.shutdownNow();
+            poller = null;
+        }
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            // Retried on the next tick, the staleness bound covers a longer outage
+            logger.warn("Cache coherence poll failed at position {}: {}", position, e.getMessage());
+        }
+    }
+
+    private void invalidateIfStale() {
+        long now = System.nanoTime();
+        if (now - caughtUpAtNanos > maxStalenessNanos) {
+            // Entries loaded from here on are read from the store, so they are current as of now
+            cache.invalidateAll();
+            invalidations.incrementAndGet();
+            caughtUpAtNanos = now;
+        }
+    }
+}
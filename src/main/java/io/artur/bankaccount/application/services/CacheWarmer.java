@@ -0,0 +1,173 @@
+package io.artur.bankaccount.application.services;
+
+import io.artur.bankaccount.application.ports.outgoing.AccountRepository;
+import io.artur.bankaccount.application.ports.outgoing.CachePort;
+import io.artur.bankaccount.application.ports.outgoing.HotAccountStorePort;
+import io.artur.bankaccount.domain.account.aggregates.BankAccount;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks which accounts are read most and loads them into the cache of a freshly started
+ * instance before it reports ready.
+ *
+ * Reads are counted in memory and added to the shared {@link HotAccountStorePort} every flush
+ * interval, so the history survives restarts and covers all instances. At startup the hottest
+ * accounts are loaded in parallel; each one is replayed once and fills the summary, balance and
+ * event count at the version it was loaded at, so the events committed afterwards advance the
+ * entries like any others.
+ */
+public class CacheWarmer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmer.class);
+
+    private final AccountRepository accountRepository;
+    private final CachePort cache;
+    private final HotAccountStorePort hotAccountStore;
+    private final int maxTrackedAccounts;
+    private volatile ConcurrentHashMap<UUID, LongAdder> accessCounts = new ConcurrentHashMap<>();
+    private final AtomicInteger warmedAccounts = new AtomicInteger();
+    private volatile boolean warmUpFinished;
+    private ScheduledExecutorService flusher;
+
+    public CacheWarmer(AccountRepository accountRepository, CachePort cache, HotAccountStorePort hotAccountStore,
+                       int maxTrackedAccounts) {
+        this.accountRepository = accountRepository;
+        this.cache = cache;
+        this.hotAccountStore = hotAccountStore;
+        this.maxTrackedAccounts = maxTrackedAccounts;
+    }
+
+    /**
+     * Count a read of the account; reads of new accounts are dropped while the tracked set is full
+     */
+    public void recordAccess(UUID accountId) {
+        ConcurrentHashMap<UUID, LongAdder> counts = accessCounts;
+        LongAdder count = counts.get(accountId);
+        if (count == null) {
+            if (counts.size() >= maxTrackedAccounts) {
+                return;
+            }
+            count = counts.computeIfAbsent(accountId, id -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    /**
+     * Add the reads counted since the last flush to the shared history
+     */
+    public void flush() {
+        ConcurrentHashMap<UUID, LongAdder> counts = accessCounts;
+        if (counts.isEmpty()) {
+            return;
+        }
+        accessCounts = new ConcurrentHashMap<>();
+        Map<UUID, Long> snapshot = new HashMap<>(counts.size());
+        counts.forEach((accountId, count) -> snapshot.put(accountId, count.sum()));
+        hotAccountStore.recordAccesses(snapshot);
+    }
+
+    /**
+     * Flush on a daemon thread every interval until closed
+     */
+    public synchronized void start(long flushIntervalMillis) {
+        if (flusher != null) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-warmer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Load the hottest accounts into the cache, at most the given number in parallel
+     *
+     * @return number of accounts loaded; the warm-up counts as finished once this returns,
+     *         also when it timed out or failed, so readiness is never held back for good
+     */
+    public int warmUp(int limit, int parallelism, long timeoutMillis) {
+        ExecutorService loaders = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+            Thread thread = new Thread(runnable, "cache-warm-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<UUID> accountIds = hotAccountStore.findHottestAccounts(limit);
+            for (UUID accountId : accountIds) {
+                loaders.execute(() -> warm(accountId));
+            }
+            loaders.shutdown();
+            if (!loaders.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                logger.warn("Cache warm-up timed out after {} ms with {} of {} accounts loaded",
+                    timeoutMillis, warmedAccounts.get(), accountIds.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.warn("Cache warm-up failed: {}", e.getMessage());
+        } finally {
+            loaders.shutdownNow();
+            warmUpFinished = true;
+        }
+        return warmedAccounts.get();
+    }
+
+    public boolean isWarmUpFinished() {
+        return warmUpFinished;
+    }
+
+    public int getWarmedAccountCount() {
+        return warmedAccounts.get();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+            flusher = null;
+        }
+        flushQuietly();
+    }
+
+    private void warm(UUID accountId) {
+        try {
+            Optional<BankAccount> loaded = accountRepository.findById(accountId);
+            if (loaded.isEmpty()) {
+                return;
+            }
+            BankAccount account = loaded.get();
+            cache.getOrCreateAccountSummary(accountId, id -> account);
+            cache.updateBalance(accountId, account.getBalance(), account.getVersion());
+            // The event count of an account is the version of its last event
+            cache.updateEventCount(accountId, account.getVersion());
+            warmedAccounts.incrementAndGet();
+        } catch (RuntimeException e) {
+            logger.debug("Skipped warming account {}: {}", accountId, e.getMessage());
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // The counts are lost, the history only steers which accounts are loaded first
+            logger.warn("Failed to record hot accounts: {}", e.getMessage());
+        }
+    }
+}
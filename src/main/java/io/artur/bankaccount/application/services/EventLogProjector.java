@@ -0,0 +1,271 @@
+package io.artur.bankaccount.application.services;
+
+import io.artur.bankaccount.application.ports.outgoing.EventStorePort;
+import io.artur.bankaccount.application.ports.outgoing.EventStorePort.StoredEvent;
+import io.artur.bankaccount.application.queries.projections.ReadModelProjection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the active read model projection up to date by reading the global event log.
+ *
+ * The projector remembers the log position it has applied up to. Each catch-up reads the events
+ * after it page by page and hands every page to both projection handlers on their own pools,
+ * so each read model sees the events in commit order and nothing is applied twice or skipped,
+ * whichever thread committed them. Catch-ups requested while one is running are coalesced.
+ *
+ * Positions are handed out when an event is inserted, so a later position can be visible before
+ * an earlier one commits. The projector stops in front of such a gap until the missing position
+ * shows up, or until the event after the gap is older than the gap timeout. Positions stepped
+ * over are re-read on later catch-ups up to the gap horizon, see {@link LogGapTracker}; a late
+ * event is added to the transaction history, which orders rows by event version, and the
+ * summary of its account is derived again from the account's stream.
+ *
+ * After each page the reached position, or the position before the lowest one still waited
+ * for, is marked on the projection's generation, so a durable
+ * store records it with the writes it covers and a restart resumes from there.
+ *
+ * The active projection can be replaced by one that was built next to it, see {@link #promote}.
+ */
+public class EventLogProjector {
+
+    private static final long GAP_RETRY_MILLIS = 5;
+
+    private final EventStorePort eventStore;
+    private final Executor catchUpExecutor;
+    private final Executor accountProjectionExecutor;
+    private final Executor transactionProjectionExecutor;
+    private final int pageSize;
+    private final LogGapTracker gaps;
+    private final AtomicReference<ReadModelProjection> active;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Queue<CompletableFuture<Long>> waiting = new ConcurrentLinkedQueue<>();
+    private volatile long position;
+    private volatile boolean closed;
+
+    public EventLogProjector(EventStorePort eventStore, ReadModelProjection projection, long startPosition,
+                             Executor catchUpExecutor, Executor accountProjectionExecutor,
+                             Executor transactionProjectionExecutor, int pageSize, long gapTimeoutMillis,
+                             long gapHorizonMillis) {
+        this.eventStore = eventStore;
+        this.active = new AtomicReference<>(projection);
+        this.position = startPosition;
+        this.catchUpExecutor = catchUpExecutor;
+        this.accountProjectionExecutor = accountProjectionExecutor;
+        this.transactionProjectionExecutor = transactionProjectionExecutor;
+        this.pageSize = Math.max(1, pageSize);
+        this.gaps = new LogGapTracker("Event log projector", gapTimeoutMillis, gapHorizonMillis);
+    }
+
+    /**
+     * Apply everything committed so far. The future completes with the reached position once
+     * all events committed before this call have been applied.
+     */
+    public CompletableFuture<Long> catchUpAsync() {
+        CompletableFuture<Long> caughtUp = new CompletableFuture<>();
+        waiting.add(caughtUp);
+        schedule();
+        return caughtUp;
+    }
+
+    /**
+     * Wait until the active projection has applied the log up to the given position, e.g. the
+     * position a client's last command committed at. Positions at or below the current one
+     * return at once; otherwise a catch-up is requested and awaited for at most the timeout.
+     *
+     * @return whether the position was reached
+     */
+    public boolean awaitPosition(long minPosition, long timeoutMillis) {
+        if (position >= minPosition) {
+            return true;
+        }
+        try {
+            catchUpAsync().get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Reported through the position check below
+        }
+        return position >= minPosition;
+    }
+
+    /**
+     * Log position up to which the active projection has applied all events
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Log position up to which every event is settled: applied by the active projection, or
+     * taken as rolled back. Unlike {@link #getPosition} it stays in front of positions that were
+     * stepped over and are still waited for.
+     */
+    public long getCheckpoint() {
+        lock.lock();
+        try {
+            return checkpoint();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public ReadModelProjection getActive() {
+        return active.get();
+    }
+
+    /**
+     * Make the given projection the active one. It must have applied every event up to the
+     * given position, at most the {@link #getCheckpoint checkpoint}; the events between that
+     * position and the projector's own are applied to it first, while live catch-ups wait, so
+     * no event is lost. Positions still waited for are left to gap recovery, which applies
+     * them to the new projection once they show up.
+     */
+    public ReadModelProjection promote(ReadModelProjection next, long nextPosition) {
+        lock.lock();
+        try {
+            long applied = nextPosition;
+            while (applied < position) {
+                // Late events the active projection recovered since the given position are read
+                // here like any other; positions still waited for are left to recovery
+                long until = position;
+                List<StoredEvent> page = eventStore.readAllEvents(applied, (int) Math.min(pageSize, until - applied)).stream()
+                    .filter(event -> event.getPosition() <= until)
+                    .toList();
+                if (page.isEmpty()) {
+                    break;
+                }
+                apply(next, page.stream().filter(event -> !gaps.isSkipped(event.getPosition())).toList());
+                applied = page.get(page.size() - 1).getPosition();
+            }
+            next.getGeneration().markApplied(checkpoint());
+            return active.getAndSet(next);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop catching up, e.g. on shutdown, and wait for a running catch-up to finish its page so
+     * the store can then write out everything up to the marked position
+     */
+    public void close() {
+        closed = true;
+        lock.lock();
+        lock.unlock();
+        for (CompletableFuture<Long> request; (request = waiting.poll()) != null; ) {
+            request.cancel(false);
+        }
+    }
+
+    private void schedule() {
+        if (closed) {
+            return;
+        }
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                catchUpExecutor.execute(this::drain);
+            } catch (RuntimeException e) {
+                scheduled.set(false);
+                throw e;
+            }
+        }
+    }
+
+    private void drain() {
+        // Requests arriving from here on schedule another run, so none of them is missed
+        scheduled.set(false);
+        List<CompletableFuture<Long>> requests = new ArrayList<>();
+        for (CompletableFuture<Long> request; (request = waiting.poll()) != null; ) {
+            requests.add(request);
+        }
+
+        try {
+            if (catchUp()) {
+                long reached = position;
+                requests.forEach(request -> request.complete(reached));
+            } else {
+                waiting.addAll(requests);
+                CompletableFuture.delayedExecutor(GAP_RETRY_MILLIS, TimeUnit.MILLISECONDS, catchUpExecutor)
+                    .execute(this::schedule);
+            }
+        } catch (RuntimeException e) {
+            requests.forEach(request -> request.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Apply all pages after the current position; false if stopped in front of an open gap
+     */
+    private boolean catchUp() {
+        lock.lock();
+        try {
+            List<StoredEvent> late = gaps.recover(eventStore);
+            if (!late.isEmpty()) {
+                ReadModelProjection projection = active.get();
+                applyLate(projection, late);
+                projection.getGeneration().markApplied(checkpoint());
+            }
+            while (!closed) {
+                List<StoredEvent> page = eventStore.readAllEvents(position, pageSize);
+                int settled = gaps.settledPrefix(page, position);
+                if (settled > 0) {
+                    ReadModelProjection projection = active.get();
+                    apply(projection, page.subList(0, settled));
+                    position = page.get(settled - 1).getPosition();
+                    projection.getGeneration().markApplied(checkpoint());
+                }
+                if (settled < page.size()) {
+                    return false;
+                }
+                if (page.size() < pageSize) {
+                    return true;
+                }
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Position a restart can resume from: everything up to it is applied and nothing before it is waited for
+     */
+    private long checkpoint() {
+        return Math.min(position, gaps.lowestSkipped() - 1);
+    }
+
+    /**
+     * Apply events that committed after the projector had stepped over their positions
+     */
+    private void applyLate(ReadModelProjection projection, List<StoredEvent> late) {
+        late.forEach(event -> projection.getTransactionHandler().apply(event.getEvent()));
+        late.stream()
+            .map(StoredEvent::getAggregateId)
+            .distinct()
+            .forEach(accountId -> projection.getAccountSummaryHandler().replay(accountId, eventStore.loadEvents(accountId)));
+    }
+
+    private void apply(ReadModelProjection projection, List<StoredEvent> page) {
+        CompletableFuture.allOf(
+            CompletableFuture.runAsync(
+                () -> page.forEach(event -> projection.getAccountSummaryHandler().apply(event.getEvent())),
+                accountProjectionExecutor),
+            CompletableFuture.runAsync(
+                () -> page.forEach(event -> projection.getTransactionHandler().apply(event.getEvent())),
+                transactionProjectionExecutor)
+        ).join();
+    }
+}
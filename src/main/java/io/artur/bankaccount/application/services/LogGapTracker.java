@@ -0,0 +1,142 @@
+package io.artur.bankaccount.application.services;
+
+import io.artur.bankaccount.application.ports.outgoing.EventStorePort;
+import io.artur.bankaccount.application.ports.outgoing.EventStorePort.StoredEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gap handling for a reader of the global event log.
+ *
+ * Positions are handed out when an event is inserted, so a later position can be visible before
+ * an earlier one commits. {@link #settledPrefix} stops in front of such a gap until the missing
+ * position shows up, or until the event after the gap is older than the gap timeout. The
+ * positions stepped over then are not given up: they are kept and re-read by {@link #recover}
+ * until their events show up or the horizon passes, after which the appends that took them
+ * are taken as rolled back.
+ *
+ * Not thread-safe, the reader calls it under its own lock.
+ */
+class LogGapTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogGapTracker.class);
+    private static final int MAX_TRACKED = 100_000;
+    private static final int MAX_READ = 1_000;
+
+    private final String reader;
+    private final long gapTimeoutMillis;
+    private final long horizonNanos;
+    // Skipped position -> System.nanoTime() it was stepped over at
+    private final TreeMap<Long, Long> skipped = new TreeMap<>();
+    private long nextRecoveryNanos = System.nanoTime();
+
+    LogGapTracker(String reader, long gapTimeoutMillis, long gapHorizonMillis) {
+        this.reader = reader;
+        this.gapTimeoutMillis = gapTimeoutMillis;
+        this.horizonNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(gapTimeoutMillis, gapHorizonMillis));
+    }
+
+    /**
+     * Number of events at the start of the page, read after the given position, that can be
+     * applied now; gaps older than the gap timeout are stepped over and tracked
+     */
+    int settledPrefix(List<StoredEvent> page, long after) {
+        LocalDateTime gapDeadline = LocalDateTime.now().minusNanos(gapTimeoutMillis * 1_000_000);
+        long expected = after + 1;
+        for (int i = 0; i < page.size(); i++) {
+            StoredEvent event = page.get(i);
+            if (event.getPosition() != expected) {
+                if (event.getRecordedAt().isAfter(gapDeadline)) {
+                    return i;
+                }
+                skip(expected, event.getPosition());
+            }
+            expected = event.getPosition() + 1;
+        }
+        return page.size();
+    }
+
+    /**
+     * Events that have shown up at skipped positions, in position order. The log is re-read at
+     * most once per gap timeout; positions past the horizon are dropped.
+     */
+    List<StoredEvent> recover(EventStorePort eventStore) {
+        long now = System.nanoTime();
+        if (skipped.isEmpty() || now - nextRecoveryNanos < 0) {
+            return List.of();
+        }
+        nextRecoveryNanos = now + TimeUnit.MILLISECONDS.toNanos(gapTimeoutMillis);
+        expire(now);
+
+        // Each run of consecutive skipped positions is read with one query
+        List<StoredEvent> found = new ArrayList<>();
+        Long start = skipped.isEmpty() ? null : skipped.firstKey();
+        while (start != null) {
+            long end = start;
+            while (end - start + 1 < MAX_READ && skipped.containsKey(end + 1)) {
+                end++;
+            }
+            for (StoredEvent event : eventStore.readAllEvents(start - 1, (int) (end - start + 1))) {
+                if (event.getPosition() <= end && skipped.remove(event.getPosition()) != null) {
+                    found.add(event);
+                }
+            }
+            start = skipped.higherKey(end);
+        }
+        if (!found.isEmpty()) {
+            logger.info("{} found {} late committed events at skipped log positions", reader, found.size());
+        }
+        return found;
+    }
+
+    /**
+     * Lowest position still waited for, Long.MAX_VALUE if none is
+     */
+    long lowestSkipped() {
+        return skipped.isEmpty() ? Long.MAX_VALUE : skipped.firstKey();
+    }
+
+    /**
+     * Whether the position was stepped over and is still waited for
+     */
+    boolean isSkipped(long position) {
+        return skipped.containsKey(position);
+    }
+
+    int skippedCount() {
+        return skipped.size();
+    }
+
+    private void skip(long from, long until) {
+        long now = System.nanoTime();
+        long last = Math.min(until, from + Math.max(0, MAX_TRACKED - skipped.size()));
+        for (long position = from; position < last; position++) {
+            skipped.put(position, now);
+        }
+        if (last < until) {
+            logger.warn("{} tracks {} skipped log positions already, positions {} to {} are given up at once",
+                reader, skipped.size(), last, until - 1);
+        }
+    }
+
+    private void expire(long now) {
+        int expired = 0;
+        for (Iterator<Map.Entry<Long, Long>> it = skipped.entrySet().iterator(); it.hasNext(); ) {
+            if (now - it.next().getValue() > horizonNanos) {
+                it.remove();
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            logger.warn("{} gave up on {} skipped log positions, their appends are taken as rolled back", reader, expired);
+        }
+    }
+}
@@ -0,0 +1,418 @@
+package io.artur.bankaccount.application.services;
+
+import io.artur.bankaccount.application.ports.outgoing.EventStorePort;
+import io.artur.bankaccount.application.ports.outgoing.EventStorePort.StoredEvent;
+import io.artur.bankaccount.application.ports.outgoing.ReadModelStorePort;
+import io.artur.bankaccount.application.ports.outgoing.ReadModelStorePort.ReadModelGeneration;
+import io.artur.bankaccount.application.queries.projections.ReadModelProjection;
+import io.artur.bankaccount.domain.shared.events.DomainEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Rebuilds the read models from the global event log into a new generation and swaps it in.
+ *
+ * The log is scanned in position order while the next page is already being read. The events
+ * of a page are partitioned by aggregate over a fork/join pool, so the events of one account
+ * are applied in order by one worker while different accounts are projected in parallel. The
+ * repositories of the new generation batch their writes, see the read model store.
+ *
+ * The rebuild runs up to the checkpoint of the live projector, and again up to its new checkpoint
+ * until the remaining distance is a single page. The checkpoint stays in front of positions the
+ * projector stepped over and still waits for, so an event committing late there is not passed
+ * by the rebuild. The rest is applied while the live projector pauses in
+ * {@link EventLogProjector#promote}, which then swaps the new generation in for queries and live
+ * updates at once.
+ *
+ * Generations carry the projection version that built them. When the active one was built by
+ * another version than {@link ReadModelProjection#VERSION}, e.g. after deploying a changed
+ * handler, {@link #startIfOutdated} builds the current version next to it while the old one
+ * keeps serving queries.
+ *
+ * Instances sharing a durable store take turns: a rebuild runs only while holding the store's
+ * rebuild lease, renewed with every page. The others {@link #followActiveGeneration follow} the
+ * store and switch to the generation it activated once it was built by their own projection
+ * version; an instance still running an older version keeps serving the generation it has.
+ */
+public class ProjectionRebuilder implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProjectionRebuilder.class);
+    private static final long REPORT_INTERVAL_NANOS = Duration.ofSeconds(5).toNanos();
+
+    private final EventStorePort eventStore;
+    private final ReadModelStorePort readModelStore;
+    private final EventLogProjector projector;
+    private final int parallelism;
+    private final int pageSize;
+    private final AtomicReference<RebuildProgress> progress = new AtomicReference<>();
+    private ScheduledExecutorService follower;
+
+    public ProjectionRebuilder(EventStorePort eventStore, ReadModelStorePort readModelStore, EventLogProjector projector,
+                               int parallelism, int pageSize) {
+        this.eventStore = eventStore;
+        this.readModelStore = readModelStore;
+        this.projector = projector;
+        this.parallelism = Math.max(1, parallelism);
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    /**
+     * Start a rebuild in the background
+     *
+     * @throws IllegalStateException if a rebuild is already running
+     */
+    public RebuildProgress start() {
+        RebuildProgress started = begin();
+        Thread.ofPlatform().name("projection-rebuild").daemon().start(() -> {
+            try {
+                run(started);
+            } catch (RuntimeException e) {
+                // Recorded in the progress
+            }
+        });
+        return started;
+    }
+
+    /**
+     * Start a rebuild in the background if the active generation was built by an older projection
+     * version; null if it is current, or newer, i.e. built by an instance already upgraded
+     */
+    public RebuildProgress startIfOutdated() {
+        ReadModelGeneration active = projector.getActive().getGeneration();
+        if (active.getProjectionVersion() >= ReadModelProjection.VERSION) {
+            return null;
+        }
+        try {
+            RebuildProgress started = start();
+            logger.info("Active read model generation '{}' was built by projection version {}, building version {} next to it",
+                active.getId(), active.getProjectionVersion(), ReadModelProjection.VERSION);
+            return started;
+        } catch (IllegalStateException e) {
+            return progress.get();
+        }
+    }
+
+    /**
+     * Rebuild on the calling thread and return the final progress
+     *
+     * @throws IllegalStateException if a rebuild is already running
+     */
+    public RebuildProgress rebuild() {
+        return run(begin());
+    }
+
+    /**
+     * Progress of the running or last rebuild, null if there was none
+     */
+    public RebuildProgress getProgress() {
+        return progress.get();
+    }
+
+    /**
+     * Switch the projector to the generation another instance sharing the store activated, if
+     * it was built by this projection version, and report the served generation to the store
+     *
+     * @return whether the projector switched
+     */
+    public synchronized boolean followActiveGeneration() {
+        ReadModelGeneration served = projector.getActive().getGeneration();
+        RebuildProgress current = progress.get();
+        if (current != null && current.getState() == RebuildProgress.State.RUNNING) {
+            // This instance holds the lease, so the recorded generation is the one it replaces
+            readModelStore.serve(served);
+            return false;
+        }
+        ReadModelGeneration recorded = readModelStore.refreshActiveGeneration();
+        boolean follow = !recorded.getId().equals(served.getId())
+            && recorded.getProjectionVersion() == ReadModelProjection.VERSION;
+        if (follow) {
+            long appliedPosition = recorded.getAppliedPosition();
+            projector.promote(new ReadModelProjection(recorded),
+                appliedPosition != ReadModelGeneration.UNKNOWN_POSITION ? appliedPosition : 0);
+            logger.info("Switched from read model generation {} to {}, activated by another instance",
+                served.getId(), recorded.getId());
+            served = recorded;
+        }
+        readModelStore.serve(served);
+        return follow;
+    }
+
+    /**
+     * Follow the store on a daemon thread every interval until closed, and take over a rebuild
+     * of an outdated generation whose builder went away
+     */
+    public synchronized void startFollowing(long intervalMillis) {
+        if (follower != null) {
+            return;
+        }
+        follower = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "projection-follower");
+            thread.setDaemon(true);
+            return thread;
+        });
+        follower.scheduleWithFixedDelay(this::followQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (follower != null) {
+            follower.shutdownNow();
+            follower = null;
+        }
+    }
+
+    private void followQuietly() {
+        try {
+            followActiveGeneration();
+            startIfOutdated();
+        } catch (RuntimeException e) {
+            // Tried again on the next round, the served generation keeps being served meanwhile
+            logger.warn("Failed to follow the active read model generation: {}", e.getMessage());
+        }
+    }
+
+    private synchronized RebuildProgress begin() {
+        RebuildProgress current = progress.get();
+        if (current != null && current.getState() == RebuildProgress.State.RUNNING) {
+            throw new IllegalStateException("A rebuild into generation " + current.getGeneration() + " is already running");
+        }
+        if (!readModelStore.acquireRebuildLease()) {
+            throw new IllegalStateException("Another instance is rebuilding the read models");
+        }
+        ReadModelGeneration generation;
+        try {
+            generation = readModelStore.createGeneration(ReadModelProjection.VERSION);
+        } catch (RuntimeException e) {
+            readModelStore.releaseRebuildLease();
+            throw e;
+        }
+        RebuildProgress started = RebuildProgress.started(generation, projector.getCheckpoint());
+        progress.set(started);
+        return started;
+    }
+
+    private RebuildProgress run(RebuildProgress started) {
+        ReadModelProjection shadow = new ReadModelProjection(started.generationRef);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        ExecutorService reader = Executors.newSingleThreadExecutor(Thread.ofPlatform().name("projection-rebuild-reader").daemon().factory());
+        Tracker tracker = new Tracker(started);
+        boolean promoted = false;
+        logger.info("Rebuilding read models into generation {} up to position {}", started.getGeneration(), started.getTargetPosition());
+
+        try {
+            long target = started.getTargetPosition();
+            while (true) {
+                replay(shadow, target, pool, reader, tracker);
+                // Positions up to the checkpoint are settled; the ones not read were rolled back or given up on
+                tracker.position = target;
+                long live = projector.getCheckpoint();
+                if (live - tracker.position <= pageSize) {
+                    break;
+                }
+                target = live;
+                tracker.target = target;
+            }
+
+            renewLease();
+            projector.promote(shadow, tracker.position);
+            promoted = true;
+            readModelStore.activate(started.generationRef);
+            RebuildProgress completed = tracker.snapshot(RebuildProgress.State.COMPLETED, null);
+            progress.set(completed);
+            logger.info("Rebuilt generation {} from {} events in {}s, now active", completed.getGeneration(),
+                completed.getEventsApplied(), Duration.between(completed.getStartedAt(), completed.getFinishedAt()).toSeconds());
+            return completed;
+
+        } catch (RuntimeException e) {
+            progress.set(tracker.snapshot(RebuildProgress.State.FAILED, e.getMessage()));
+            logger.error("Rebuild of generation {} failed", started.getGeneration(), e);
+            if (!promoted) {
+                readModelStore.discard(started.generationRef);
+            }
+            throw e;
+        } finally {
+            reader.shutdownNow();
+            pool.shutdown();
+            try {
+                readModelStore.releaseRebuildLease();
+            } catch (RuntimeException e) {
+                logger.warn("Failed to release the rebuild lease, it lapses on its own: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void renewLease() {
+        if (!readModelStore.acquireRebuildLease()) {
+            throw new IllegalStateException("The rebuild lease lapsed and was taken by another instance");
+        }
+    }
+
+    /**
+     * Apply the events after the tracked position up to the target, reading a page ahead
+     */
+    private void replay(ReadModelProjection shadow, long target, ForkJoinPool pool, ExecutorService reader, Tracker tracker) {
+        long after = tracker.position;
+        CompletableFuture<List<StoredEvent>> next = read(reader, after);
+        while (next != null) {
+            List<StoredEvent> page = next.join().stream()
+                .filter(event -> event.getPosition() <= target)
+                .toList();
+            if (page.isEmpty()) {
+                return;
+            }
+            long last = page.get(page.size() - 1).getPosition();
+            next = last < target && page.size() == pageSize ? read(reader, last) : null;
+
+            renewLease();
+            applyPartitioned(shadow, page, pool);
+            tracker.applied(page.size(), last);
+        }
+    }
+
+    private CompletableFuture<List<StoredEvent>> read(ExecutorService reader, long after) {
+        return CompletableFuture.supplyAsync(() -> eventStore.readAllEvents(after, pageSize), reader);
+    }
+
+    private void applyPartitioned(ReadModelProjection shadow, List<StoredEvent> page, ForkJoinPool pool) {
+        List<List<DomainEvent>> partitions = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (StoredEvent event : page) {
+            partitions.get(Math.floorMod(event.getAggregateId().hashCode(), parallelism)).add(event.getEvent());
+        }
+
+        List<Callable<Void>> tasks = new ArrayList<>(parallelism);
+        for (List<DomainEvent> partition : partitions) {
+            if (!partition.isEmpty()) {
+                tasks.add(() -> {
+                    partition.forEach(shadow::apply);
+                    return null;
+                });
+            }
+        }
+        try {
+            for (Future<Void> done : pool.invokeAll(tasks)) {
+                done.get();
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rebuild interrupted", e);
+        }
+    }
+
+    /**
+     * Counts applied events and publishes progress snapshots
+     */
+    private final class Tracker {
+        private final RebuildProgress started;
+        private final long startNanos = System.nanoTime();
+        private long lastReportNanos = startNanos;
+        private long eventsApplied;
+        private long position;
+        private long target;
+
+        private Tracker(RebuildProgress started) {
+            this.started = started;
+            this.target = started.getTargetPosition();
+        }
+
+        private void applied(int events, long reachedPosition) {
+            eventsApplied += events;
+            position = reachedPosition;
+            RebuildProgress snapshot = snapshot(RebuildProgress.State.RUNNING, null);
+            progress.set(snapshot);
+
+            long now = System.nanoTime();
+            if (now - lastReportNanos >= REPORT_INTERVAL_NANOS) {
+                lastReportNanos = now;
+                logger.info("Rebuilding generation {}: {} events, {} events/s, position {} of {}, ETA {}s",
+                    snapshot.getGeneration(), snapshot.getEventsApplied(), Math.round(snapshot.getEventsPerSecond()),
+                    snapshot.getPosition(), snapshot.getTargetPosition(), snapshot.getEtaSeconds());
+            }
+        }
+
+        private RebuildProgress snapshot(RebuildProgress.State state, String failure) {
+            double seconds = Math.max(1e-3, (System.nanoTime() - startNanos) / 1e9);
+            double eventsPerSecond = eventsApplied / seconds;
+            // Positions are dense apart from rolled back appends, so they stand in for the events still to come
+            long eta = eventsPerSecond > 0 ? Math.round(Math.max(0, target - position) / eventsPerSecond) : -1;
+            return new RebuildProgress(started.generationRef, state, eventsApplied, position, target,
+                eventsPerSecond, state == RebuildProgress.State.RUNNING ? eta : 0, started.getStartedAt(),
+                state == RebuildProgress.State.RUNNING ? null : LocalDateTime.now(), failure);
+        }
+    }
+
+    /**
+     * Snapshot of a rebuild
+     */
+    public static class RebuildProgress {
+
+        public enum State {
+            RUNNING,
+            COMPLETED,
+            FAILED
+        }
+
+        private final ReadModelGeneration generationRef;
+        private final State state;
+        private final long eventsApplied;
+        private final long position;
+        private final long targetPosition;
+        private final double eventsPerSecond;
+        private final long etaSeconds;
+        private final LocalDateTime startedAt;
+        private final LocalDateTime finishedAt;
+        private final String failure;
+
+        RebuildProgress(ReadModelGeneration generationRef, State state, long eventsApplied, long position,
+                        long targetPosition, double eventsPerSecond, long etaSeconds, LocalDateTime startedAt,
+                        LocalDateTime finishedAt, String failure) {
+            this.generationRef = generationRef;
+            this.state = state;
+            this.eventsApplied = eventsApplied;
+            this.position = position;
+            this.targetPosition = targetPosition;
+            this.eventsPerSecond = eventsPerSecond;
+            this.etaSeconds = etaSeconds;
+            this.startedAt = startedAt;
+            this.finishedAt = finishedAt;
+            this.failure = failure;
+        }
+
+        static RebuildProgress started(ReadModelGeneration generation, long targetPosition) {
+            return new RebuildProgress(generation, State.RUNNING, 0, 0, targetPosition, 0, -1,
+                LocalDateTime.now(), null, null);
+        }
+
+        public String getGeneration() { return generationRef.getId(); }
+        public int getProjectionVersion() { return generationRef.getProjectionVersion(); }
+        public State getState() { return state; }
+        public long getEventsApplied() { return eventsApplied; }
+        public long getPosition() { return position; }
+        public long getTargetPosition() { return targetPosition; }
+        public double getEventsPerSecond() { return eventsPerSecond; }
+        /** Estimated seconds until the target position is reached, -1 while unknown */
+        public long getEtaSeconds() { return etaSeconds; }
+        public LocalDateTime getStartedAt() { return startedAt; }
+        public LocalDateTime getFinishedAt() { return finishedAt; }
+        public String getFailure() { return failure; }
+    }
+}
@@ -22,6 +22,7 @@ public class BankAccount {
     private Money overdraftLimit;
     private AccountStatus accountStatus;
     private List<AccountDomainEvent> uncommittedEvents;
+    private long version;
     
     public BankAccount() {
         this.balance = Money.zero();
@@ -157,6 +158,7 @@ public class BankAccount {
             throw new IllegalArgumentException("Unsupported event type " + event.getClass().getName());
         }
         
+        version++;
         if (isNew) {
             uncommittedEvents.add(event);
         }
@@ -174,6 +176,13 @@ public class BankAccount {
         return this.accountId;
     }
     
+    /**
+     * Number of events applied, including uncommitted ones; the version of the account's last event
+     */
+    public long getVersion() {
+        return this.version;
+    }
+    
     public AccountNumber getAccountNumber() {
         return this.accountNumber;
     }
@@ -35,6 +35,22 @@ public class EventMetadata {
         this(null, null, null, null, null, version, null);
     }
     
+    /**
+     * Copy of this metadata carrying the given version
+     */
+    public EventMetadata withVersion(int version) {
+        EventMetadata copy = new EventMetadata();
+        copy.correlationId = correlationId;
+        copy.causationId = causationId;
+        copy.userId = userId;
+        copy.userAgent = userAgent;
+        copy.ipAddress = ipAddress;
+        copy.timestamp = timestamp;
+        copy.version = version;
+        copy.additionalProperties = additionalProperties;
+        return copy;
+    }
+    
     public String getCorrelationId() {
         return correlationId;
     }
@@ -0,0 +1,182 @@
+package io.artur.bankaccount.infrastructure.concurrency;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Lag-aware admission control for write requests.
+ *
+ * Pressure is derived from the projection lag (committed events whose projections have not
+ * finished) and from the queue utilization of the background pools. Below the soft watermarks
+ * requests pass untouched, between soft and hard watermarks they are delayed in proportion to
+ * the pressure, and at the hard watermark they are rejected so the client retries later.
+ */
+public class AdmissionController implements MeterBinder {
+
+    public enum State { NORMAL, THROTTLING, SHEDDING }
+
+    private final LongSupplier projectionLag;
+    private final DoubleSupplier queueUtilization;
+    private final Settings settings;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public AdmissionController(LongSupplier projectionLag, DoubleSupplier queueUtilization, Settings settings) {
+        settings.validate();
+        this.projectionLag = projectionLag;
+        this.queueUtilization = queueUtilization;
+        this.settings = settings;
+    }
+
+    /**
+     * Admit a write request, waiting first when the system is under pressure.
+     *
+     * @throws AdmissionRejectedException when a hard watermark is reached
+     */
+    public void admit() {
+        if (!settings.isEnabled()) {
+            admitted.increment();
+            return;
+        }
+
+        double pressure = currentPressure();
+        if (pressure >= 1.0) {
+            rejected.increment();
+            throw new AdmissionRejectedException(
+                "Write capacity exhausted, projections are behind", settings.getRetryAfterSeconds());
+        }
+
+        if (pressure > 0.0) {
+            throttled.increment();
+            long waitMillis = Math.round(pressure * settings.getMaxThrottleMillis());
+            try {
+                TimeUnit.MILLISECONDS.sleep(waitMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AdmissionRejectedException("Interrupted while throttled", settings.getRetryAfterSeconds());
+            }
+        }
+        admitted.increment();
+    }
+
+    public State getState() {
+        if (!settings.isEnabled()) {
+            return State.NORMAL;
+        }
+        double pressure = currentPressure();
+        if (pressure >= 1.0) {
+            return State.SHEDDING;
+        }
+        return pressure > 0.0 ? State.THROTTLING : State.NORMAL;
+    }
+
+    /**
+     * 0 below the soft watermarks, 1 at or above a hard watermark, linear in between
+     */
+    public double currentPressure() {
+        double lagPressure = pressure(projectionLag.getAsLong(),
+            settings.getLagSoftWatermark(), settings.getLagHardWatermark());
+        double queuePressure = pressure(queueUtilization.getAsDouble(),
+            settings.getQueueSoftWatermark(), settings.getQueueHardWatermark());
+        return Math.max(lagPressure, queuePressure);
+    }
+
+    public long getProjectionLag() {
+        return projectionLag.getAsLong();
+    }
+
+    public double getQueueUtilization() {
+        return queueUtilization.getAsDouble();
+    }
+
+    public long getAdmittedCount() {
+        return admitted.sum();
+    }
+
+    public long getThrottledCount() {
+        return throttled.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public Settings getSettings() {
+        return settings;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("admission.pressure", this, AdmissionController::currentPressure)
+            .description("0 = normal, between 0 and 1 = throttling, 1 = shedding").register(registry);
+        Gauge.builder("admission.projection.lag", this, AdmissionController::getProjectionLag)
+            .description("Committed events waiting for their projections").register(registry);
+        Gauge.builder("admission.queue.utilization", this, AdmissionController::getQueueUtilization)
+            .register(registry);
+        FunctionCounter.builder("admission.requests", this, AdmissionController::getAdmittedCount)
+            .tag("outcome", "admitted").register(registry);
+        FunctionCounter.builder("admission.requests", this, AdmissionController::getThrottledCount)
+            .tag("outcome", "throttled").register(registry);
+        FunctionCounter.builder("admission.requests", this, AdmissionController::getRejectedCount)
+            .tag("outcome", "rejected").register(registry);
+    }
+
+    private static double pressure(double value, double softWatermark, double hardWatermark) {
+        if (value <= softWatermark) {
+            return 0.0;
+        }
+        if (value >= hardWatermark) {
+            return 1.0;
+        }
+        return (value - softWatermark) / (hardWatermark - softWatermark);
+    }
+
+    /**
+     * Watermarks and reactions of the admission controller
+     */
+    public static class Settings {
+        private boolean enabled = true;
+        private long lagSoftWatermark = 1000;
+        private long lagHardWatermark = 5000;
+        private double queueSoftWatermark = 0.5;
+        private double queueHardWatermark = 0.9;
+        private long maxThrottleMillis = 200;
+        private long retryAfterSeconds = 2;
+
+        void validate() {
+            if (lagSoftWatermark < 0 || lagHardWatermark <= lagSoftWatermark) {
+                throw new IllegalArgumentException("Lag hard watermark must be greater than the soft watermark");
+            }
+            if (queueSoftWatermark < 0 || queueHardWatermark <= queueSoftWatermark || queueHardWatermark > 1.0) {
+                throw new IllegalArgumentException("Queue watermarks must satisfy 0 <= soft < hard <= 1");
+            }
+            if (maxThrottleMillis < 0 || retryAfterSeconds < 1) {
+                throw new IllegalArgumentException("Throttle wait must not be negative and Retry-After must be at least 1s");
+            }
+        }
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        public long getLagSoftWatermark() { return lagSoftWatermark; }
+        public void setLagSoftWatermark(long lagSoftWatermark) { this.lagSoftWatermark = lagSoftWatermark; }
+        public long getLagHardWatermark() { return lagHardWatermark; }
+        public void setLagHardWatermark(long lagHardWatermark) { this.lagHardWatermark = lagHardWatermark; }
+        public double getQueueSoftWatermark() { return queueSoftWatermark; }
+        public void setQueueSoftWatermark(double queueSoftWatermark) { this.queueSoftWatermark = queueSoftWatermark; }
+        public double getQueueHardWatermark() { return queueHardWatermark; }
+        public void setQueueHardWatermark(double queueHardWatermark) { this.queueHardWatermark = queueHardWatermark; }
+        public long getMaxThrottleMillis() { return maxThrottleMillis; }
+        public void setMaxThrottleMillis(long maxThrottleMillis) { this.maxThrottleMillis = maxThrottleMillis; }
+        public long getRetryAfterSeconds() { return retryAfterSeconds; }
+        public void setRetryAfterSeconds(long retryAfterSeconds) { this.retryAfterSeconds = retryAfterSeconds; }
+    }
+}
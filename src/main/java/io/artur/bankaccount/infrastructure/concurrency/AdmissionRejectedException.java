@@ -0,0 +1,18 @@
+package io.artur.bankaccount.infrastructure.concurrency;
+
+/**
+ * Thrown when a write request is refused because the system is overloaded
+ */
+public class AdmissionRejectedException extends RuntimeException {
+    
+    private final long retryAfterSeconds;
+    
+    public AdmissionRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,178 @@
+package io.artur.bankaccount.infrastructure.concurrency;
+
+import io.artur.bankaccount.infrastructure.concurrency.InstrumentedThreadPoolExecutor.SaturationPolicy;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Central owner of every background executor in the application. Each subsystem gets its own
+ * bounded pool so a burst in one of them cannot grow threads or queued work without limit,
+ * and every pool is exported as executor.* meters tagged with the pool name.
+ */
+public class ExecutorRegistry implements MeterBinder {
+
+    public static final String EVENT_PROCESSING = "event-processing";
+    public static final String ACCOUNT_PROJECTION = "account-projection";
+    public static final String TRANSACTION_PROJECTION = "transaction-projection";
+    public static final String DB_OPERATION = "db-operation";
+
+    public static final List<String> POOL_NAMES =
+        List.of(EVENT_PROCESSING, ACCOUNT_PROJECTION, TRANSACTION_PROJECTION, DB_OPERATION);
+
+    private final Map<String, InstrumentedThreadPoolExecutor> executors = new LinkedHashMap<>();
+
+    public ExecutorRegistry(Map<String, ExecutorSettings> settingsByPool, boolean virtualThreads) {
+        settingsByPool.forEach((name, settings) -> {
+            settings.validate(name);
+            executors.put(name, new InstrumentedThreadPoolExecutor(
+                name,
+                settings.getCoreThreads(),
+                settings.getMaxThreads(),
+                settings.getQueueCapacity(),
+                settings.getSaturationPolicy(),
+                settings.getBlockTimeoutMillis(),
+                threadFactory(name, virtualThreads)
+            ));
+        });
+    }
+
+    public InstrumentedThreadPoolExecutor executor(String name) {
+        InstrumentedThreadPoolExecutor executor = executors.get(name);
+        if (executor == null) {
+            throw new IllegalArgumentException("No executor registered with name: " + name);
+        }
+        return executor;
+    }
+
+    public Collection<InstrumentedThreadPoolExecutor> getExecutors() {
+        return Collections.unmodifiableCollection(executors.values());
+    }
+
+    public Map<String, InstrumentedThreadPoolExecutor.Stats> getStats() {
+        Map<String, InstrumentedThreadPoolExecutor.Stats> stats = new LinkedHashMap<>();
+        executors.forEach((name, executor) -> stats.put(name, executor.getStats()));
+        return stats;
+    }
+
+    public void shutdown() {
+        executors.values().forEach(InstrumentedThreadPoolExecutor::shutdown);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (InstrumentedThreadPoolExecutor executor : executors.values()) {
+            String pool = executor.getName();
+            Gauge.builder("executor.queued", executor, e -> e.getQueue().size())
+                .tag("pool", pool).description("Tasks waiting in the queue").register(registry);
+            Gauge.builder("executor.queue.remaining", executor, e -> e.getQueue().remainingCapacity())
+                .tag("pool", pool).description("Free queue slots").register(registry);
+            Gauge.builder("executor.active", executor, InstrumentedThreadPoolExecutor::getActiveCount)
+                .tag("pool", pool).description("Threads running a task").register(registry);
+            Gauge.builder("executor.pool.size", executor, InstrumentedThreadPoolExecutor::getPoolSize)
+                .tag("pool", pool).description("Current number of threads").register(registry);
+            Gauge.builder("executor.pool.max", executor, InstrumentedThreadPoolExecutor::getMaximumPoolSize)
+                .tag("pool", pool).description("Maximum number of threads").register(registry);
+            FunctionCounter.builder("executor.completed", executor, InstrumentedThreadPoolExecutor::getCompletedTaskCount)
+                .tag("pool", pool).register(registry);
+            FunctionCounter.builder("executor.rejected", executor, e -> e.getStats().getRejectedTasks())
+                .tag("pool", pool).description("Tasks rejected on saturation").register(registry);
+            FunctionCounter.builder("executor.caller.runs", executor, e -> e.getStats().getCallerRunsTasks())
+                .tag("pool", pool).description("Tasks run by the submitting thread on saturation").register(registry);
+            FunctionTimer.builder("executor.queue.wait", executor,
+                    InstrumentedThreadPoolExecutor::getTimedTaskCount,
+                    InstrumentedThreadPoolExecutor::getTotalQueueWaitNanos, TimeUnit.NANOSECONDS)
+                .tag("pool", pool).register(registry);
+            FunctionTimer.builder("executor.execution", executor,
+                    InstrumentedThreadPoolExecutor::getTimedTaskCount,
+                    InstrumentedThreadPoolExecutor::getTotalExecutionNanos, TimeUnit.NANOSECONDS)
+                .tag("pool", pool).register(registry);
+        }
+    }
+
+    /**
+     * Defaults per pool. Event processing and projections fall back to the caller when saturated,
+     * so a committed command is never failed because its projection could not be queued.
+     * Database work blocks the caller for a while before rejecting.
+     */
+    public static Map<String, ExecutorSettings> defaultSettings() {
+        Map<String, ExecutorSettings> defaults = new LinkedHashMap<>();
+        defaults.put(EVENT_PROCESSING, new ExecutorSettings(2, 8, 5000, SaturationPolicy.CALLER_RUNS, 0));
+        defaults.put(ACCOUNT_PROJECTION, new ExecutorSettings(2, 8, 5000, SaturationPolicy.CALLER_RUNS, 0));
+        defaults.put(TRANSACTION_PROJECTION, new ExecutorSettings(2, 8, 5000, SaturationPolicy.CALLER_RUNS, 0));
+        defaults.put(DB_OPERATION, new ExecutorSettings(4, 20, 1000, SaturationPolicy.BLOCK, 5000));
+        return defaults;
+    }
+
+    private static ThreadFactory threadFactory(String name, boolean virtualThreads) {
+        if (virtualThreads) {
+            return Thread.ofVirtual().name(name + "-", 0).factory();
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name + "-" + counter.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * Sizing and saturation behavior of a single pool
+     */
+    public static class ExecutorSettings {
+        private int coreThreads;
+        private int maxThreads;
+        private int queueCapacity;
+        private SaturationPolicy saturationPolicy;
+        private long blockTimeoutMillis;
+
+        public ExecutorSettings() {}
+
+        public ExecutorSettings(int coreThreads, int maxThreads, int queueCapacity,
+                                SaturationPolicy saturationPolicy, long blockTimeoutMillis) {
+            this.coreThreads = coreThreads;
+            this.maxThreads = maxThreads;
+            this.queueCapacity = queueCapacity;
+            this.saturationPolicy = saturationPolicy;
+            this.blockTimeoutMillis = blockTimeoutMillis;
+        }
+
+        void validate(String name) {
+            if (coreThreads < 0 || maxThreads < 1 || maxThreads < coreThreads) {
+                throw new IllegalArgumentException("Invalid thread counts for executor " + name);
+            }
+            if (queueCapacity < 1) {
+                throw new IllegalArgumentException("Queue capacity must be at least 1 for executor " + name);
+            }
+            if (saturationPolicy == null) {
+                throw new IllegalArgumentException("Saturation policy is required for executor " + name);
+            }
+            if (saturationPolicy == SaturationPolicy.BLOCK && blockTimeoutMillis <= 0) {
+                throw new IllegalArgumentException("Block timeout must be positive for executor " + name);
+            }
+        }
+
+        public int getCoreThreads() { return coreThreads; }
+        public void setCoreThreads(int coreThreads) { this.coreThreads = coreThreads; }
+        public int getMaxThreads() { return maxThreads; }
+        public void setMaxThreads(int maxThreads) { this.maxThreads = maxThreads; }
+        public int getQueueCapacity() { return queueCapacity; }
+        public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+        public SaturationPolicy getSaturationPolicy() { return saturationPolicy; }
+        public void setSaturationPolicy(SaturationPolicy saturationPolicy) { this.saturationPolicy = saturationPolicy; }
+        public long getBlockTimeoutMillis() { return blockTimeoutMillis; }
+        public void setBlockTimeoutMillis(long blockTimeoutMillis) { this.blockTimeoutMillis = blockTimeoutMillis; }
+    }
+}
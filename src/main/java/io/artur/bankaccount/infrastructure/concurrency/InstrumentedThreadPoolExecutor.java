@@ -0,0 +1,210 @@
+package io.artur.bankaccount.infrastructure.concurrency;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread pool with a bounded queue and an explicit saturation policy that keeps track of
+ * queue wait, execution time, rejections and caller-runs fallbacks
+ */
+public class InstrumentedThreadPoolExecutor extends ThreadPoolExecutor {
+
+    /**
+     * What happens to a task when all threads are busy and the queue is full
+     */
+    public enum SaturationPolicy {
+        /** The submitting thread runs the task itself, which naturally slows producers down */
+        CALLER_RUNS,
+        /** The submitting thread waits up to the configured timeout for queue space, then the task is rejected */
+        BLOCK,
+        /** The task is rejected immediately */
+        ABORT
+    }
+
+    private final String name;
+    private final SaturationPolicy saturationPolicy;
+    private final int queueCapacity;
+
+    private final LongAdder submittedTasks = new LongAdder();
+    private final LongAdder rejectedTasks = new LongAdder();
+    private final LongAdder callerRunsTasks = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder executionNanos = new LongAdder();
+    private final LongAdder timedTasks = new LongAdder();
+
+    public InstrumentedThreadPoolExecutor(String name, int coreThreads, int maxThreads, int queueCapacity,
+                                          SaturationPolicy saturationPolicy, long blockTimeoutMillis,
+                                          ThreadFactory threadFactory) {
+        super(coreThreads, maxThreads, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity), threadFactory);
+        this.name = name;
+        this.saturationPolicy = saturationPolicy;
+        this.queueCapacity = queueCapacity;
+        setRejectedExecutionHandler(new SaturationHandler(saturationPolicy, blockTimeoutMillis));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        submittedTasks.increment();
+        super.execute(new TimedTask(command));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public SaturationPolicy getSaturationPolicy() {
+        return saturationPolicy;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public Stats getStats() {
+        long timed = timedTasks.sum();
+        return new Stats(
+            name,
+            getQueue().size(),
+            queueCapacity,
+            getActiveCount(),
+            getPoolSize(),
+            getMaximumPoolSize(),
+            submittedTasks.sum(),
+            getCompletedTaskCount(),
+            rejectedTasks.sum(),
+            callerRunsTasks.sum(),
+            timed == 0 ? 0 : queueWaitNanos.sum() / timed,
+            timed == 0 ? 0 : executionNanos.sum() / timed
+        );
+    }
+
+    long getTimedTaskCount() {
+        return timedTasks.sum();
+    }
+
+    long getTotalQueueWaitNanos() {
+        return queueWaitNanos.sum();
+    }
+
+    long getTotalExecutionNanos() {
+        return executionNanos.sum();
+    }
+
+    private class TimedTask implements Runnable {
+        private final Runnable delegate;
+        private final long submittedAt = System.nanoTime();
+
+        TimedTask(Runnable delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void run() {
+            long startedAt = System.nanoTime();
+            try {
+                delegate.run();
+            } finally {
+                queueWaitNanos.add(startedAt - submittedAt);
+                executionNanos.add(System.nanoTime() - startedAt);
+                timedTasks.increment();
+            }
+        }
+    }
+
+    private class SaturationHandler implements RejectedExecutionHandler {
+        private final SaturationPolicy policy;
+        private final long blockTimeoutMillis;
+
+        SaturationHandler(SaturationPolicy policy, long blockTimeoutMillis) {
+            this.policy = policy;
+            this.blockTimeoutMillis = blockTimeoutMillis;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                reject(task);
+            }
+
+            switch (policy) {
+                case CALLER_RUNS -> {
+                    callerRunsTasks.increment();
+                    task.run();
+                }
+                case BLOCK -> {
+                    try {
+                        if (!executor.getQueue().offer(task, blockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                            reject(task);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        reject(task);
+                    }
+                }
+                case ABORT -> reject(task);
+            }
+        }
+
+        private void reject(Runnable task) {
+            rejectedTasks.increment();
+            throw new RejectedExecutionException("Executor '" + name + "' is saturated, task rejected");
+        }
+    }
+
+    /**
+     * Point-in-time view of the pool
+     */
+    public static class Stats {
+        private final String name;
+        private final int queueDepth;
+        private final int queueCapacity;
+        private final int activeThreads;
+        private final int poolSize;
+        private final int maxThreads;
+        private final long submittedTasks;
+        private final long completedTasks;
+        private final long rejectedTasks;
+        private final long callerRunsTasks;
+        private final long averageQueueWaitNanos;
+        private final long averageExecutionNanos;
+
+        public Stats(String name, int queueDepth, int queueCapacity, int activeThreads, int poolSize, int maxThreads,
+                     long submittedTasks, long completedTasks, long rejectedTasks, long callerRunsTasks,
+                     long averageQueueWaitNanos, long averageExecutionNanos) {
+            this.name = name;
+            this.queueDepth = queueDepth;
+            this.queueCapacity = queueCapacity;
+            this.activeThreads = activeThreads;
+            this.poolSize = poolSize;
+            this.maxThreads = maxThreads;
+            this.submittedTasks = submittedTasks;
+            this.completedTasks = completedTasks;
+            this.rejectedTasks = rejectedTasks;
+            this.callerRunsTasks = callerRunsTasks;
+            this.averageQueueWaitNanos = averageQueueWaitNanos;
+            this.averageExecutionNanos = averageExecutionNanos;
+        }
+
+        public String getName() { return name; }
+        public int getQueueDepth() { return queueDepth; }
+        public int getQueueCapacity() { return queueCapacity; }
+        public int getActiveThreads() { return activeThreads; }
+        public int getPoolSize() { return poolSize; }
+        public int getMaxThreads() { return maxThreads; }
+        public long getSubmittedTasks() { return submittedTasks; }
+        public long getCompletedTasks() { return completedTasks; }
+        public long getRejectedTasks() { return rejectedTasks; }
+        public long getCallerRunsTasks() { return callerRunsTasks; }
+        public long getAverageQueueWaitNanos() { return averageQueueWaitNanos; }
+        public long getAverageExecutionNanos() { return averageExecutionNanos; }
+
+        public double getQueueUtilization() {
+            return queueCapacity == 0 ? 0.0 : (double) queueDepth / queueCapacity;
+        }
+    }
+}
@@ -1,43 +1,55 @@
 package io.artur.bankaccount.infrastructure.config;
 
+import io.artur.bankaccount.infrastructure.concurrency.ExecutorRegistry;
+import io.artur.bankaccount.infrastructure.config.NativeInfrastructureConfig.NativeInfrastructureProperties;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.scheduling.annotation.EnableAsync;
 
 import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 @Configuration
 @EnableAsync
 public class AsyncConfig {
     
+    /**
+     * Same switch Spring Boot uses to run Tomcat request handling on virtual threads,
+     * so requests and async port methods always share one carrier model
+     */
+    static final String VIRTUAL_THREADS_PROPERTY = "spring.threads.virtual.enabled";
+    
+    /**
+     * Bounded, instrumented pools for every background subsystem, sized from NativeInfrastructureProperties
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorRegistry executorRegistry(ObjectProvider<NativeInfrastructureProperties> properties, Environment env) {
+        NativeInfrastructureProperties settings = properties.getIfAvailable(NativeInfrastructureProperties::new);
+        return new ExecutorRegistry(settings.getExecutors(), isVirtualThreadsEnabled(env));
+    }
+    
     @Bean(name = "eventProcessingExecutor")
-    public Executor eventProcessingExecutor() {
-        // Use cached thread pool for event processing
-        return Executors.newCachedThreadPool(r -> {
-            Thread t = new Thread(r, "EventProcessor");
-            t.setDaemon(true);
-            return t;
-        });
+    public Executor eventProcessingExecutor(ExecutorRegistry executorRegistry) {
+        return executorRegistry.executor(ExecutorRegistry.EVENT_PROCESSING);
     }
     
-    @Bean(name = "projectionExecutor")
-    public Executor projectionExecutor() {
-        // Use cached thread pool for projection updates
-        return Executors.newCachedThreadPool(r -> {
-            Thread t = new Thread(r, "Projection");
-            t.setDaemon(true);
-            return t;
-        });
+    @Bean(name = "accountProjectionExecutor")
+    public Executor accountProjectionExecutor(ExecutorRegistry executorRegistry) {
+        return executorRegistry.executor(ExecutorRegistry.ACCOUNT_PROJECTION);
+    }
+    
+    @Bean(name = "transactionProjectionExecutor")
+    public Executor transactionProjectionExecutor(ExecutorRegistry executorRegistry) {
+        return executorRegistry.executor(ExecutorRegistry.TRANSACTION_PROJECTION);
     }
     
     @Bean(name = "dbOperationExecutor")
-    public Executor dbOperationExecutor() {
-        // Use cached thread pool for database operations
-        return Executors.newCachedThreadPool(r -> {
-            Thread t = new Thread(r, "DbOperation");
-            t.setDaemon(true);
-            return t;
-        });
+    public Executor dbOperationExecutor(ExecutorRegistry executorRegistry) {
+        return executorRegistry.executor(ExecutorRegistry.DB_OPERATION);
+    }
+    
+    static boolean isVirtualThreadsEnabled(Environment env) {
+        return env.getProperty(VIRTUAL_THREADS_PROPERTY, Boolean.class, false);
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,7 @@
 package io.artur.bankaccount.infrastructure.config;
 
+import io.artur.bankaccount.application.services.CacheWarmer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.context.annotation.Bean;
@@ -42,6 +44,22 @@ public class HealthConfig {
         };
     }
     
+    /**
+     * Out of service until the hottest accounts were loaded into the cache, so the readiness
+     * group keeps traffic away from a cold instance; up when warm-up is disabled
+     */
+    @Bean
+    public HealthIndicator cacheWarmUpHealthIndicator(ObjectProvider<CacheWarmer> cacheWarmer) {
+        return () -> {
+            CacheWarmer warmer = cacheWarmer.getIfAvailable();
+            if (warmer == null) {
+                return Health.up().withDetail("enabled", false).build();
+            }
+            Health.Builder health = warmer.isWarmUpFinished() ? Health.up() : Health.outOfService();
+            return health.withDetail("warmedAccounts", warmer.getWarmedAccountCount()).build();
+        };
+    }
+    
     private boolean checkApplicationHealth() {
         // Implement your health check logic here
         // This could include:
@@ -3,25 +3,58 @@ package io.artur.bankaccount.infrastructure.config;
 import io.artur.bankaccount.application.ports.outgoing.AccountRepository;
 import io.artur.bankaccount.application.ports.outgoing.CachePort;
 import io.artur.bankaccount.application.ports.outgoing.EventStorePort;
+import io.artur.bankaccount.application.ports.outgoing.HotAccountStorePort;
 import io.artur.bankaccount.application.ports.outgoing.MetricsPort;
+import io.artur.bankaccount.application.ports.outgoing.ReadModelStorePort;
+import io.artur.bankaccount.application.ports.outgoing.ReadModelStorePort.ReadModelGeneration;
+import io.artur.bankaccount.application.queries.handlers.AccountQueryHandler;
+import io.artur.bankaccount.application.queries.handlers.TransactionQueryHandler;
+import io.artur.bankaccount.application.queries.projections.ReadModelProjection;
 import io.artur.bankaccount.application.services.AccountApplicationService;
+import io.artur.bankaccount.application.services.AsyncEventProcessor;
+import io.artur.bankaccount.application.services.BatchTransactionProcessor;
+import io.artur.bankaccount.application.services.BulkCommandExecutor;
+import io.artur.bankaccount.application.services.CacheCoherenceTailer;
+import io.artur.bankaccount.application.services.CacheWarmer;
+import io.artur.bankaccount.application.services.EventLogProjector;
+import io.artur.bankaccount.application.services.ProjectionRebuilder;
+import io.artur.bankaccount.infrastructure.concurrency.AdmissionController;
+import io.artur.bankaccount.infrastructure.concurrency.ExecutorRegistry;
+import io.artur.bankaccount.infrastructure.concurrency.InstrumentedThreadPoolExecutor.SaturationPolicy;
 import io.artur.bankaccount.infrastructure.monitoring.NativeMetricsCollector;
+import io.artur.bankaccount.infrastructure.persistence.cache.CaffeineCacheService;
+import io.artur.bankaccount.infrastructure.persistence.cache.JdbcHotAccountStore;
 import io.artur.bankaccount.infrastructure.persistence.cache.NativeCacheService;
+import io.artur.bankaccount.infrastructure.persistence.cache.OffHeapBalanceCacheService;
 import io.artur.bankaccount.infrastructure.persistence.eventstore.NativeEventStore;
 import io.artur.bankaccount.infrastructure.persistence.eventstore.serialization.EventSerializer;
+import io.artur.bankaccount.infrastructure.persistence.queries.JdbcReadModelStore;
+import io.artur.bankaccount.infrastructure.persistence.queries.NativeReadModelStore;
 import io.artur.bankaccount.infrastructure.persistence.repositories.NativeAccountRepository;
+import io.artur.bankaccount.infrastructure.web.ReadYourWritesInterceptor;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.env.Environment;
 import org.springframework.core.io.ClassPathResource;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.jdbc.datasource.init.DataSourceInitializer;
 import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
 
 import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * Configuration for native infrastructure components that implement ports directly
@@ -35,17 +68,28 @@ import javax.sql.DataSource;
 )
 public class NativeInfrastructureConfig {
     
+    private static final String PROPERTY_PREFIX = "bankaccount.infrastructure.native.";
+    
     /**
-     * DataSource configuration for native infrastructure
+     * Pooled DataSource configuration for native infrastructure. With virtual threads enabled
+     * the pool size is what bounds concurrent database work, not the servlet thread pool.
      */
     @Bean
     public DataSource dataSource(Environment env) {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setUrl(env.getProperty("db.url", "jdbc:h2:mem:bankaccount;DB_CLOSE_DELAY=-1"));
-        dataSource.setUsername(env.getProperty("db.username", "sa"));
-        dataSource.setPassword(env.getProperty("db.password", ""));
-        dataSource.setDriverClassName(env.getProperty("db.driver", "org.h2.Driver"));
-        return dataSource;
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(env.getProperty("db.url", "jdbc:h2:mem:bankaccount;DB_CLOSE_DELAY=-1"));
+        config.setUsername(env.getProperty("db.username", "sa"));
+        config.setPassword(env.getProperty("db.password", ""));
+        config.setDriverClassName(env.getProperty("db.driver", "org.h2.Driver"));
+        config.setPoolName(env.getProperty("db.pool.name", "EventSourcingPool"));
+        config.setMaximumPoolSize(env.getProperty("db.pool.maxSize", Integer.class, 20));
+        config.setMinimumIdle(env.getProperty("db.pool.minIdle", Integer.class, 5));
+        config.setIdleTimeout(env.getProperty("db.pool.idleTimeout", Long.class, 600000L));
+        config.setMaxLifetime(env.getProperty("db.pool.maxLifetime", Long.class, 1800000L));
+        config.setConnectionTimeout(env.getProperty("db.pool.connectionTimeout", Long.class, 30000L));
+        config.setValidationTimeout(env.getProperty("db.pool.validationTimeout", Long.class, 5000L));
+        config.setLeakDetectionThreshold(env.getProperty("db.pool.leakDetectionThreshold", Long.class, 0L));
+        return new HikariDataSource(config);
     }
     
     /**
@@ -72,29 +116,97 @@ public class NativeInfrastructureConfig {
     }
     
     /**
-     * Native event store that implements EventStorePort directly
+     * Native event store that implements EventStorePort directly, keeping event counts in the cache
      */
     @Bean
     @Primary
-    public EventStorePort nativeEventStore(DataSource dataSource, EventSerializer eventSerializer) {
-        return new NativeEventStore(dataSource, eventSerializer);
+    public EventStorePort nativeEventStore(DataSource dataSource, EventSerializer eventSerializer,
+                                           @Qualifier("dbOperationExecutor") Executor dbOperationExecutor,
+                                           CachePort cachePort) {
+        return new NativeEventStore(dataSource, eventSerializer, dbOperationExecutor, cachePort);
     }
     
     /**
-     * Native cache service that implements CachePort directly
+     * Caffeine backed cache that implements CachePort, reloading stale entries on the database executor,
+     * or the map and timer wheel cache when configured. With off-heap balances enabled, balances are
+     * held in direct memory in front of it.
      */
     @Bean
     @Primary
-    public CachePort nativeCacheService() {
-        return new NativeCacheService();
+    public CachePort nativeCacheService(@Qualifier("dbOperationExecutor") Executor dbOperationExecutor,
+                                        NativeInfrastructureProperties properties) {
+        CachePort cache = properties.getCacheImplementation() == NativeInfrastructureProperties.CacheImplementation.NATIVE
+            ? new NativeCacheService(
+                Duration.ofMinutes(properties.getCacheExpirationMinutes()),
+                properties.getMaxCacheSize(),
+                dbOperationExecutor)
+            : new CaffeineCacheService(
+                properties.getMaxCacheSize(),
+                properties.getMaxHolderIndexWeight(),
+                Duration.ofMinutes(properties.getCacheExpirationMinutes()),
+                Duration.ofMinutes(properties.getCacheRefreshAfterMinutes()),
+                dbOperationExecutor);
+        if (!properties.isOffHeapBalancesEnabled()) {
+            return cache;
+        }
+        return new OffHeapBalanceCacheService(
+            properties.getOffHeapMaxBalances(),
+            Duration.ofMinutes(properties.getCacheExpirationMinutes()),
+            cache
+        );
+    }
+    
+    /**
+     * Tails the event log from its current end so cached entries follow writes made on other
+     * instances; started only with cache coherence enabled
+     */
+    @Bean
+    public CacheCoherenceTailer cacheCoherenceTailer(EventStorePort eventStore, CachePort cachePort,
+                                                     NativeInfrastructureProperties properties) {
+        CacheCoherenceTailer tailer = new CacheCoherenceTailer(
+            eventStore,
+            cachePort,
+            eventStore.getLatestPosition(),
+            properties.getProjectionPageSize(),
+            properties.getProjectionGapTimeoutMillis(),
+            properties.getProjectionGapHorizonMillis(),
+            properties.getCacheCoherenceMaxStalenessMillis()
+        );
+        if (properties.isCacheCoherenceEnabled()) {
+            tailer.start(properties.getCacheCoherencePollIntervalMillis());
+        }
+        return tailer;
+    }
+    
+    /**
+     * Account access history shared by all instances, kept in the database
+     */
+    @Bean
+    public HotAccountStorePort hotAccountStore(DataSource dataSource, NativeInfrastructureProperties properties) {
+        return new JdbcHotAccountStore(dataSource, Duration.ofHours(properties.getCacheWarmUpHistoryRetentionHours()),
+            Duration.ofMinutes(properties.getCacheWarmUpScoreHalfLifeMinutes()));
+    }
+    
+    /**
+     * Records which accounts are read and loads the hottest ones into the cache at startup
+     */
+    @Bean
+    @ConditionalOnProperty(name = PROPERTY_PREFIX + "cache.warm-up.enabled", havingValue = "true", matchIfMissing = true)
+    public CacheWarmer cacheWarmer(AccountRepository accountRepository, CachePort cachePort,
+                                   HotAccountStorePort hotAccountStore, NativeInfrastructureProperties properties) {
+        CacheWarmer warmer = new CacheWarmer(accountRepository, cachePort, hotAccountStore,
+            properties.getCacheWarmUpMaxTrackedAccounts());
+        warmer.start(properties.getCacheWarmUpFlushIntervalMillis());
+        return warmer;
     }
     
     /**
-     * Native metrics collector that implements MetricsPort directly
+     * Native metrics collector that implements MetricsPort directly; as a MeterBinder it is
+     * bound to the application's registry, which exports its latency histograms
      */
     @Bean
     @Primary
-    public MetricsPort nativeMetricsCollector() {
+    public NativeMetricsCollector nativeMetricsCollector() {
         return new NativeMetricsCollector();
     }
     
@@ -103,8 +215,120 @@ public class NativeInfrastructureConfig {
      */
     @Bean
     @Primary
-    public AccountRepository nativeAccountRepository(EventStorePort eventStore) {
-        return new NativeAccountRepository(eventStore);
+    public AccountRepository nativeAccountRepository(EventStorePort eventStore,
+                                                     @Qualifier("dbOperationExecutor") Executor dbOperationExecutor,
+                                                     MetricsPort metricsPort) {
+        return new NativeAccountRepository(eventStore, dbOperationExecutor, metricsPort);
+    }
+    
+    /**
+     * Read model generations, kept in memory or in the database depending on readmodel.store
+     */
+    @Bean
+    public ReadModelStorePort readModelStore(
+            DataSource dataSource,
+            NativeInfrastructureProperties properties) {
+        
+        if (properties.getReadModelStore() == NativeInfrastructureProperties.ReadModelStore.JDBC) {
+            return new JdbcReadModelStore(dataSource, properties.getReadModelBatchSize(),
+                properties.getReadModelFlushIntervalMillis(), properties.getReadModelHotAccounts(),
+                properties.getReadModelLeaseTimeoutMillis());
+        }
+        return new NativeReadModelStore();
+    }
+    
+    /**
+     * Projects the global event log into the active read model generation, resuming where the
+     * stored read models left off, or at the current end of the log if the store does not know;
+     * earlier events are then brought in by a rebuild
+     */
+    @Bean
+    public EventLogProjector eventLogProjector(
+            EventStorePort eventStore,
+            ReadModelStorePort readModelStore,
+            @Qualifier("eventProcessingExecutor") Executor eventProcessingExecutor,
+            @Qualifier("accountProjectionExecutor") Executor accountProjectionExecutor,
+            @Qualifier("transactionProjectionExecutor") Executor transactionProjectionExecutor,
+            NativeInfrastructureProperties properties) {
+        
+        ReadModelGeneration generation = readModelStore.getActiveGeneration();
+        long appliedPosition = generation.getAppliedPosition();
+        return new EventLogProjector(
+            eventStore,
+            new ReadModelProjection(generation),
+            appliedPosition != ReadModelGeneration.UNKNOWN_POSITION ? appliedPosition : eventStore.getLatestPosition(),
+            eventProcessingExecutor,
+            accountProjectionExecutor,
+            transactionProjectionExecutor,
+            properties.getProjectionPageSize(),
+            properties.getProjectionGapTimeoutMillis(),
+            properties.getProjectionGapHorizonMillis()
+        );
+    }
+    
+    /**
+     * Event processor that has the projector catch up with committed events
+     */
+    @Bean
+    public AsyncEventProcessor asyncEventProcessor(EventLogProjector eventLogProjector) {
+        return new AsyncEventProcessor(eventLogProjector);
+    }
+    
+    /**
+     * Account queries, served by whichever read model generation is active
+     */
+    @Bean
+    public AccountQueryHandler accountQueryHandler(EventLogProjector eventLogProjector) {
+        return new AccountQueryHandler(() -> eventLogProjector.getActive().getAccountSummaries());
+    }
+    
+    /**
+     * Transaction queries, served by whichever read model generation is active
+     */
+    @Bean
+    public TransactionQueryHandler transactionQueryHandler(EventLogProjector eventLogProjector) {
+        return new TransactionQueryHandler(() -> eventLogProjector.getActive().getTransactions());
+    }
+    
+    /**
+     * Rebuilds the read models from the event log into a new generation and swaps it in
+     */
+    @Bean
+    public ProjectionRebuilder projectionRebuilder(
+            EventStorePort eventStore,
+            ReadModelStorePort readModelStore,
+            EventLogProjector eventLogProjector,
+            NativeInfrastructureProperties properties) {
+        
+        return new ProjectionRebuilder(eventStore, readModelStore, eventLogProjector,
+            properties.getRebuildParallelism(), properties.getRebuildPageSize());
+    }
+    
+    /**
+     * Once the application serves traffic, build the current projection version in the background
+     * if the active read models were built by an older one; they keep serving queries until then.
+     * Only the instance holding the store's rebuild lease builds, the others follow the catalog
+     * and switch to the new generation once it is active.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOutdatedProjection(ApplicationReadyEvent event) {
+        ProjectionRebuilder rebuilder = event.getApplicationContext().getBean(ProjectionRebuilder.class);
+        NativeInfrastructureProperties properties = event.getApplicationContext().getBean(NativeInfrastructureProperties.class);
+        rebuilder.startIfOutdated();
+        rebuilder.startFollowing(properties.getReadModelPollIntervalMillis());
+    }
+    
+    /**
+     * Load the hottest accounts into the cache in the background; the readiness group reports
+     * out of service until this finished, see HealthConfig
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpCache(ApplicationReadyEvent event) {
+        ObjectProvider<CacheWarmer> warmer = event.getApplicationContext().getBeanProvider(CacheWarmer.class);
+        NativeInfrastructureProperties properties = event.getApplicationContext().getBean(NativeInfrastructureProperties.class);
+        warmer.ifAvailable(cacheWarmer -> Thread.ofPlatform().daemon().name("cache-warm-up-main").start(() ->
+            cacheWarmer.warmUp(properties.getCacheWarmUpTopAccounts(), properties.getCacheWarmUpParallelism(),
+                properties.getCacheWarmUpTimeoutMillis())));
     }
     
     /**
@@ -115,31 +339,275 @@ public class NativeInfrastructureConfig {
     public AccountApplicationService nativeAccountApplicationService(
             AccountRepository accountRepository,
             CachePort cachePort,
-            MetricsPort metricsPort) {
+            MetricsPort metricsPort,
+            AsyncEventProcessor asyncEventProcessor,
+            AccountQueryHandler accountQueryHandler,
+            ObjectProvider<CacheWarmer> cacheWarmer) {
+        
+        return new AccountApplicationService(accountRepository, cachePort, metricsPort, asyncEventProcessor,
+            accountQueryHandler, cacheWarmer.getIfAvailable());
+    }
+    
+    /**
+     * Admission control for write requests, driven by projection lag and background queue depth
+     */
+    @Bean
+    public AdmissionController admissionController(
+            AsyncEventProcessor asyncEventProcessor,
+            ExecutorRegistry executorRegistry,
+            NativeInfrastructureProperties properties) {
+        
+        return new AdmissionController(
+            asyncEventProcessor::getPendingEventCount,
+            () -> java.util.stream.Stream.of(
+                    ExecutorRegistry.EVENT_PROCESSING,
+                    ExecutorRegistry.ACCOUNT_PROJECTION,
+                    ExecutorRegistry.TRANSACTION_PROJECTION)
+                .mapToDouble(pool -> executorRegistry.executor(pool).getStats().getQueueUtilization())
+                .max()
+                .orElse(0.0),
+            properties.getAdmission()
+        );
+    }
+    
+    /**
+     * Holds reads that carry a min-position token until the projection has caught up to it
+     */
+    @Bean
+    public ReadYourWritesInterceptor readYourWritesInterceptor(
+            EventLogProjector eventLogProjector,
+            NativeInfrastructureProperties properties) {
+        
+        return new ReadYourWritesInterceptor(eventLogProjector, properties.getConsistencyMaxWaitMillis());
+    }
+    
+    /**
+     * Exposes the backpressure state and executor saturation in the health endpoint
+     */
+    @Bean
+    public HealthIndicator backpressureHealthIndicator(
+            AdmissionController admissionController,
+            ExecutorRegistry executorRegistry) {
+        
+        return () -> {
+            AdmissionController.State state = admissionController.getState();
+            Health.Builder health = state == AdmissionController.State.SHEDDING
+                ? Health.status(new Status("DEGRADED", "Write requests are being rejected"))
+                : Health.up();
+            
+            health.withDetail("state", state)
+                .withDetail("pressure", admissionController.currentPressure())
+                .withDetail("projectionLag", admissionController.getProjectionLag())
+                .withDetail("queueUtilization", admissionController.getQueueUtilization())
+                .withDetail("throttledRequests", admissionController.getThrottledCount())
+                .withDetail("rejectedRequests", admissionController.getRejectedCount());
+            executorRegistry.getStats().forEach((pool, stats) -> health.withDetail("executor." + pool, Map.of(
+                "queueDepth", stats.getQueueDepth(),
+                "queueCapacity", stats.getQueueCapacity(),
+                "activeThreads", stats.getActiveThreads(),
+                "rejectedTasks", stats.getRejectedTasks(),
+                "callerRunsTasks", stats.getCallerRunsTasks()
+            )));
+            return health.build();
+        };
+    }
+    
+    /**
+     * Bulk command executor that runs bulk operations on virtual threads
+     */
+    @Bean
+    public BulkCommandExecutor bulkCommandExecutor(
+            AccountApplicationService accountApplicationService,
+            NativeInfrastructureProperties properties) {
         
-        return new AccountApplicationService(accountRepository, cachePort, metricsPort);
+        return new BulkCommandExecutor(
+            accountApplicationService,
+            properties.getBulkMaxConcurrency(),
+            properties.getEventBatchSize()
+        );
+    }
+    
+    /**
+     * Batch transaction processor for NDJSON deposit and withdrawal uploads
+     */
+    @Bean
+    public BatchTransactionProcessor batchTransactionProcessor(
+            AccountApplicationService accountApplicationService,
+            NativeInfrastructureProperties properties) {
+        
+        return new BatchTransactionProcessor(
+            accountApplicationService,
+            properties.getBulkMaxConcurrency(),
+            properties.getBatchChunkSize()
+        );
     }
     
     /**
      * Configuration properties for native infrastructure behavior
      */
     @Bean
-    public NativeInfrastructureProperties nativeInfrastructureProperties() {
-        return new NativeInfrastructureProperties();
+    public NativeInfrastructureProperties nativeInfrastructureProperties(Environment env) {
+        NativeInfrastructureProperties properties = new NativeInfrastructureProperties();
+        properties.setEnableCaching(env.getProperty(
+            PROPERTY_PREFIX + "cache.enabled", Boolean.class, properties.isEnableCaching()));
+        properties.setCacheImplementation(env.getProperty(
+            PROPERTY_PREFIX + "cache.implementation", NativeInfrastructureProperties.CacheImplementation.class,
+            properties.getCacheImplementation()));
+        properties.setCacheExpirationMinutes(env.getProperty(
+            PROPERTY_PREFIX + "cache.expiration-minutes", Long.class, properties.getCacheExpirationMinutes()));
+        properties.setMaxCacheSize(env.getProperty(
+            PROPERTY_PREFIX + "cache.max-size", Integer.class, properties.getMaxCacheSize()));
+        properties.setCacheRefreshAfterMinutes(env.getProperty(
+            PROPERTY_PREFIX + "cache.refresh-after-minutes", Long.class, properties.getCacheRefreshAfterMinutes()));
+        properties.setMaxHolderIndexWeight(env.getProperty(
+            PROPERTY_PREFIX + "cache.holder-index.max-weight", Long.class, properties.getMaxHolderIndexWeight()));
+        properties.setOffHeapBalancesEnabled(env.getProperty(
+            PROPERTY_PREFIX + "cache.off-heap.enabled", Boolean.class, properties.isOffHeapBalancesEnabled()));
+        properties.setOffHeapMaxBalances(env.getProperty(
+            PROPERTY_PREFIX + "cache.off-heap.max-balances", Long.class, properties.getOffHeapMaxBalances()));
+        properties.setCacheCoherenceEnabled(env.getProperty(
+            PROPERTY_PREFIX + "cache.coherence.enabled", Boolean.class, properties.isCacheCoherenceEnabled()));
+        properties.setCacheCoherencePollIntervalMillis(env.getProperty(
+            PROPERTY_PREFIX + "cache.coherence.poll-interval-ms", Long.class, properties.getCacheCoherencePollIntervalMillis()));
+        properties.setCacheCoherenceMaxStalenessMillis(env.getProperty(
+            PROPERTY_PREFIX + "cache.coherence.max-staleness-ms", Long.class, properties.getCacheCoherenceMaxStalenessMillis()));
+        properties.setCacheWarmUpTopAccounts(env.getProperty(
+            PROPERTY_PREFIX + "cache.warm-up.top-accounts", Integer.class, properties.getCacheWarmUpTopAccounts()));
+        properties.setCacheWarmUpParallelism(env.getProperty(
+            PROPERTY_PREFIX + "cache.warm-up.parallelism", Integer.class, properties.getCacheWarmUpParallelism()));
+        properties.setCacheWarmUpTimeoutMillis(env.getProperty(
+            PROPERTY_PREFIX + "cache.warm-up.timeout-ms", Long.class, properties.getCacheWarmUpTimeoutMillis()));
+        properties.setCacheWarmUpFlushIntervalMillis(env.getProperty(
+            PROPERTY_PREFIX + "cache.warm-up.flush-interval-ms", Long.class, properties.getCacheWarmUpFlushIntervalMillis()));
+        properties.setCacheWarmUpMaxTrackedAccounts(env.getProperty(
+            PROPERTY_PREFIX + "cache.warm-up.max-tracked-accounts", Integer.class, properties.getCacheWarmUpMaxTrackedAccounts()));
+        properties.setCacheWarmUpHistoryRetentionHours(env.getProperty(
+            PROPERTY_PREFIX + "cache.warm-up.history-retention-hours", Long.class, properties.getCacheWarmUpHistoryRetentionHours()));
+        properties.setCacheWarmUpScoreHalfLifeMinutes(env.getProperty(
+            PROPERTY_PREFIX + "cache.warm-up.score-half-life-minutes", Long.class, properties.getCacheWarmUpScoreHalfLifeMinutes()));
+        properties.setEnableMetrics(env.getProperty(
+            PROPERTY_PREFIX + "metrics.enabled", Boolean.class, properties.isEnableMetrics()));
+        properties.setEnablePeriodicMetricsReporting(env.getProperty(
+            PROPERTY_PREFIX + "metrics.periodic-reporting", Boolean.class, properties.isEnablePeriodicMetricsReporting()));
+        properties.setMetricsReportingIntervalSeconds(env.getProperty(
+            PROPERTY_PREFIX + "metrics.reporting-interval-seconds", Integer.class, properties.getMetricsReportingIntervalSeconds()));
+        properties.setEventBatchSize(env.getProperty(
+            PROPERTY_PREFIX + "eventstore.batch-size", Integer.class, properties.getEventBatchSize()));
+        properties.setEnableEventStoreOptimizations(env.getProperty(
+            PROPERTY_PREFIX + "eventstore.optimizations.enabled", Boolean.class, properties.isEnableEventStoreOptimizations()));
+        properties.setBulkMaxConcurrency(env.getProperty(
+            PROPERTY_PREFIX + "bulk.max-concurrency", Integer.class, properties.getBulkMaxConcurrency()));
+        properties.setBatchChunkSize(env.getProperty(
+            PROPERTY_PREFIX + "batch.chunk-size", Integer.class, properties.getBatchChunkSize()));
+        properties.setReadModelStore(env.getProperty(
+            PROPERTY_PREFIX + "readmodel.store", NativeInfrastructureProperties.ReadModelStore.class, properties.getReadModelStore()));
+        properties.setReadModelBatchSize(env.getProperty(
+            PROPERTY_PREFIX + "readmodel.batch-size", Integer.class, properties.getReadModelBatchSize()));
+        properties.setReadModelFlushIntervalMillis(env.getProperty(
+            PROPERTY_PREFIX + "readmodel.flush-interval-ms", Long.class, properties.getReadModelFlushIntervalMillis()));
+        properties.setReadModelHotAccounts(env.getProperty(
+            PROPERTY_PREFIX + "readmodel.hot-accounts", Long.class, properties.getReadModelHotAccounts()));
+        properties.setReadModelPollIntervalMillis(env.getProperty(
+            PROPERTY_PREFIX + "readmodel.poll-interval-ms", Long.class, properties.getReadModelPollIntervalMillis()));
+        properties.setReadModelLeaseTimeoutMillis(env.getProperty(
+            PROPERTY_PREFIX + "readmodel.lease-timeout-ms", Long.class, properties.getReadModelLeaseTimeoutMillis()));
+        properties.setProjectionPageSize(env.getProperty(
+            PROPERTY_PREFIX + "projection.page-size", Integer.class, properties.getProjectionPageSize()));
+        properties.setProjectionGapTimeoutMillis(env.getProperty(
+            PROPERTY_PREFIX + "projection.gap-timeout-ms", Long.class, properties.getProjectionGapTimeoutMillis()));
+        properties.setProjectionGapHorizonMillis(env.getProperty(
+            PROPERTY_PREFIX + "projection.gap-horizon-ms", Long.class, properties.getProjectionGapHorizonMillis()));
+        properties.setRebuildParallelism(env.getProperty(
+            PROPERTY_PREFIX + "projection.rebuild.parallelism", Integer.class, properties.getRebuildParallelism()));
+        properties.setRebuildPageSize(env.getProperty(
+            PROPERTY_PREFIX + "projection.rebuild.page-size", Integer.class, properties.getRebuildPageSize()));
+        properties.setConsistencyMaxWaitMillis(env.getProperty(
+            PROPERTY_PREFIX + "consistency.max-wait-ms", Long.class, properties.getConsistencyMaxWaitMillis()));
+        properties.getExecutors().forEach((pool, settings) -> bindExecutorSettings(env, pool, settings));
+        bindAdmissionSettings(env, properties.getAdmission());
+        return properties;
+    }
+    
+    private static void bindExecutorSettings(Environment env, String pool, ExecutorRegistry.ExecutorSettings settings) {
+        String prefix = PROPERTY_PREFIX + "executors." + pool + ".";
+        settings.setCoreThreads(env.getProperty(prefix + "core-threads", Integer.class, settings.getCoreThreads()));
+        settings.setMaxThreads(env.getProperty(prefix + "max-threads", Integer.class, settings.getMaxThreads()));
+        settings.setQueueCapacity(env.getProperty(prefix + "queue-capacity", Integer.class, settings.getQueueCapacity()));
+        settings.setSaturationPolicy(env.getProperty(prefix + "saturation-policy", SaturationPolicy.class, settings.getSaturationPolicy()));
+        settings.setBlockTimeoutMillis(env.getProperty(prefix + "block-timeout-ms", Long.class, settings.getBlockTimeoutMillis()));
+    }
+    
+    private static void bindAdmissionSettings(Environment env, AdmissionController.Settings settings) {
+        String prefix = PROPERTY_PREFIX + "admission.";
+        settings.setEnabled(env.getProperty(prefix + "enabled", Boolean.class, settings.isEnabled()));
+        settings.setLagSoftWatermark(env.getProperty(prefix + "lag.soft-watermark", Long.class, settings.getLagSoftWatermark()));
+        settings.setLagHardWatermark(env.getProperty(prefix + "lag.hard-watermark", Long.class, settings.getLagHardWatermark()));
+        settings.setQueueSoftWatermark(env.getProperty(prefix + "queue.soft-watermark", Double.class, settings.getQueueSoftWatermark()));
+        settings.setQueueHardWatermark(env.getProperty(prefix + "queue.hard-watermark", Double.class, settings.getQueueHardWatermark()));
+        settings.setMaxThrottleMillis(env.getProperty(prefix + "max-throttle-ms", Long.class, settings.getMaxThrottleMillis()));
+        settings.setRetryAfterSeconds(env.getProperty(prefix + "retry-after-seconds", Long.class, settings.getRetryAfterSeconds()));
     }
     
     /**
      * Properties for configuring native infrastructure behavior
      */
     public static class NativeInfrastructureProperties {
+        
+        /**
+         * Where the query side read models live
+         */
+        public enum ReadModelStore {
+            MEMORY,
+            JDBC
+        }
+        
+        /**
+         * Which cache backs the CachePort
+         */
+        public enum CacheImplementation {
+            CAFFEINE,
+            NATIVE
+        }
+        
         private boolean enableCaching = true;
         private boolean enableMetrics = true;
         private boolean enableEventStoreOptimizations = true;
+        private CacheImplementation cacheImplementation = CacheImplementation.CAFFEINE;
         private long cacheExpirationMinutes = 30;
         private int maxCacheSize = 1000;
+        private long cacheRefreshAfterMinutes = 25;
+        private long maxHolderIndexWeight = 100_000;
+        private boolean offHeapBalancesEnabled = false;
+        private long offHeapMaxBalances = 1_000_000;
+        private boolean cacheCoherenceEnabled = true;
+        private long cacheCoherencePollIntervalMillis = 200;
+        private long cacheCoherenceMaxStalenessMillis = 10_000;
+        private int cacheWarmUpTopAccounts = 1000;
+        private int cacheWarmUpParallelism = 8;
+        private long cacheWarmUpTimeoutMillis = 30_000;
+        private long cacheWarmUpFlushIntervalMillis = 60_000;
+        private int cacheWarmUpMaxTrackedAccounts = 100_000;
+        private long cacheWarmUpHistoryRetentionHours = 24;
+        private long cacheWarmUpScoreHalfLifeMinutes = 60;
         private int eventBatchSize = 100;
         private boolean enablePeriodicMetricsReporting = true;
         private int metricsReportingIntervalSeconds = 30;
+        private int bulkMaxConcurrency = BulkCommandExecutor.DEFAULT_MAX_CONCURRENCY;
+        private int batchChunkSize = BatchTransactionProcessor.DEFAULT_CHUNK_SIZE;
+        private ReadModelStore readModelStore = ReadModelStore.MEMORY;
+        private int readModelBatchSize = 200;
+        private long readModelFlushIntervalMillis = 50;
+        private long readModelHotAccounts = 10_000;
+        private long readModelPollIntervalMillis = 5000;
+        private long readModelLeaseTimeoutMillis = 60_000;
+        private int projectionPageSize = 500;
+        private long projectionGapTimeoutMillis = 3000;
+        private long projectionGapHorizonMillis = 600_000;
+        private int rebuildParallelism = Runtime.getRuntime().availableProcessors();
+        private int rebuildPageSize = 5000;
+        private long consistencyMaxWaitMillis = 2000;
+        private Map<String, ExecutorRegistry.ExecutorSettings> executors = ExecutorRegistry.defaultSettings();
+        private AdmissionController.Settings admission = new AdmissionController.Settings();
         
         // Getters and setters
         public boolean isEnableCaching() { 
@@ -166,6 +634,14 @@ public class NativeInfrastructureConfig {
             this.enableEventStoreOptimizations = enableEventStoreOptimizations; 
         }
         
+        public CacheImplementation getCacheImplementation() { 
+            return cacheImplementation; 
+        }
+        
+        public void setCacheImplementation(CacheImplementation cacheImplementation) { 
+            this.cacheImplementation = cacheImplementation; 
+        }
+        
         public long getCacheExpirationMinutes() { 
             return cacheExpirationMinutes; 
         }
@@ -182,6 +658,124 @@ public class NativeInfrastructureConfig {
             this.maxCacheSize = maxCacheSize; 
         }
         
+        public long getCacheRefreshAfterMinutes() { 
+            return cacheRefreshAfterMinutes; 
+        }
+        
+        public void setCacheRefreshAfterMinutes(long cacheRefreshAfterMinutes) { 
+            this.cacheRefreshAfterMinutes = cacheRefreshAfterMinutes; 
+        }
+        
+        public long getMaxHolderIndexWeight() { 
+            return maxHolderIndexWeight; 
+        }
+        
+        public void setMaxHolderIndexWeight(long maxHolderIndexWeight) { 
+            this.maxHolderIndexWeight = maxHolderIndexWeight; 
+        }
+        
+        public boolean isOffHeapBalancesEnabled() { 
+            return offHeapBalancesEnabled; 
+        }
+        
+        public void setOffHeapBalancesEnabled(boolean offHeapBalancesEnabled) { 
+            this.offHeapBalancesEnabled = offHeapBalancesEnabled; 
+        }
+        
+        /** Balances the off-heap table is sized for, at 40 bytes per slot and 75% load */
+        public long getOffHeapMaxBalances() { 
+            return offHeapMaxBalances; 
+        }
+        
+        public void setOffHeapMaxBalances(long offHeapMaxBalances) { 
+            this.offHeapMaxBalances = offHeapMaxBalances; 
+        }
+        
+        public boolean isCacheCoherenceEnabled() { 
+            return cacheCoherenceEnabled; 
+        }
+        
+        public void setCacheCoherenceEnabled(boolean cacheCoherenceEnabled) { 
+            this.cacheCoherenceEnabled = cacheCoherenceEnabled; 
+        }
+        
+        public long getCacheCoherencePollIntervalMillis() { 
+            return cacheCoherencePollIntervalMillis; 
+        }
+        
+        public void setCacheCoherencePollIntervalMillis(long cacheCoherencePollIntervalMillis) { 
+            this.cacheCoherencePollIntervalMillis = cacheCoherencePollIntervalMillis; 
+        }
+        
+        /** How long the tailer may fail to catch up before the whole cache is dropped; above the gap timeout */
+        public long getCacheCoherenceMaxStalenessMillis() { 
+            return cacheCoherenceMaxStalenessMillis; 
+        }
+        
+        public void setCacheCoherenceMaxStalenessMillis(long cacheCoherenceMaxStalenessMillis) { 
+            this.cacheCoherenceMaxStalenessMillis = cacheCoherenceMaxStalenessMillis; 
+        }
+        
+        /** Number of hottest accounts loaded into the cache at startup */
+        public int getCacheWarmUpTopAccounts() { 
+            return cacheWarmUpTopAccounts; 
+        }
+        
+        public void setCacheWarmUpTopAccounts(int cacheWarmUpTopAccounts) { 
+            this.cacheWarmUpTopAccounts = cacheWarmUpTopAccounts; 
+        }
+        
+        public int getCacheWarmUpParallelism() { 
+            return cacheWarmUpParallelism; 
+        }
+        
+        public void setCacheWarmUpParallelism(int cacheWarmUpParallelism) { 
+            this.cacheWarmUpParallelism = cacheWarmUpParallelism; 
+        }
+        
+        /** Longest the warm-up may hold back readiness */
+        public long getCacheWarmUpTimeoutMillis() { 
+            return cacheWarmUpTimeoutMillis; 
+        }
+        
+        public void setCacheWarmUpTimeoutMillis(long cacheWarmUpTimeoutMillis) { 
+            this.cacheWarmUpTimeoutMillis = cacheWarmUpTimeoutMillis; 
+        }
+        
+        public long getCacheWarmUpFlushIntervalMillis() { 
+            return cacheWarmUpFlushIntervalMillis; 
+        }
+        
+        public void setCacheWarmUpFlushIntervalMillis(long cacheWarmUpFlushIntervalMillis) { 
+            this.cacheWarmUpFlushIntervalMillis = cacheWarmUpFlushIntervalMillis; 
+        }
+        
+        public int getCacheWarmUpMaxTrackedAccounts() { 
+            return cacheWarmUpMaxTrackedAccounts; 
+        }
+        
+        public void setCacheWarmUpMaxTrackedAccounts(int cacheWarmUpMaxTrackedAccounts) { 
+            this.cacheWarmUpMaxTrackedAccounts = cacheWarmUpMaxTrackedAccounts; 
+        }
+        
+        /** Accounts not read for this long no longer count as hot */
+        public long getCacheWarmUpHistoryRetentionHours() { 
+            return cacheWarmUpHistoryRetentionHours; 
+        }
+        
+        public void setCacheWarmUpHistoryRetentionHours(long cacheWarmUpHistoryRetentionHours) { 
+            this.cacheWarmUpHistoryRetentionHours = cacheWarmUpHistoryRetentionHours; 
+        }
+        
+        /** Access scores halve over this time without accesses */
+        public long getCacheWarmUpScoreHalfLifeMinutes() { 
+            return cacheWarmUpScoreHalfLifeMinutes; 
+        }
+        
+        public void setCacheWarmUpScoreHalfLifeMinutes(long cacheWarmUpScoreHalfLifeMinutes) { 
+            this.cacheWarmUpScoreHalfLifeMinutes = cacheWarmUpScoreHalfLifeMinutes; 
+        }
+        
         public int getEventBatchSize() { 
             return eventBatchSize; 
         }
@@ -205,5 +799,133 @@ public class NativeInfrastructureConfig {
         public void setMetricsReportingIntervalSeconds(int metricsReportingIntervalSeconds) { 
             this.metricsReportingIntervalSeconds = metricsReportingIntervalSeconds; 
         }
+        
+        public int getBulkMaxConcurrency() { 
+            return bulkMaxConcurrency; 
+        }
+        
+        public void setBulkMaxConcurrency(int bulkMaxConcurrency) { 
+            this.bulkMaxConcurrency = bulkMaxConcurrency; 
+        }
+        
+        public int getBatchChunkSize() { 
+            return batchChunkSize; 
+        }
+        
+        public void setBatchChunkSize(int batchChunkSize) { 
+            this.batchChunkSize = batchChunkSize; 
+        }
+        
+        public ReadModelStore getReadModelStore() { 
+            return readModelStore; 
+        }
+        
+        public void setReadModelStore(ReadModelStore readModelStore) { 
+            this.readModelStore = readModelStore; 
+        }
+        
+        public int getReadModelBatchSize() { 
+            return readModelBatchSize; 
+        }
+        
+        public void setReadModelBatchSize(int readModelBatchSize) { 
+            this.readModelBatchSize = readModelBatchSize; 
+        }
+        
+        public long getReadModelFlushIntervalMillis() { 
+            return readModelFlushIntervalMillis; 
+        }
+        
+        public void setReadModelFlushIntervalMillis(long readModelFlushIntervalMillis) { 
+            this.readModelFlushIntervalMillis = readModelFlushIntervalMillis; 
+        }
+        
+        public long getReadModelHotAccounts() { 
+            return readModelHotAccounts; 
+        }
+        
+        public void setReadModelHotAccounts(long readModelHotAccounts) { 
+            this.readModelHotAccounts = readModelHotAccounts; 
+        }
+        
+        public long getReadModelPollIntervalMillis() { 
+            return readModelPollIntervalMillis; 
+        }
+        
+        public void setReadModelPollIntervalMillis(long readModelPollIntervalMillis) { 
+            this.readModelPollIntervalMillis = readModelPollIntervalMillis; 
+        }
+        
+        public long getReadModelLeaseTimeoutMillis() { 
+            return readModelLeaseTimeoutMillis; 
+        }
+        
+        public void setReadModelLeaseTimeoutMillis(long readModelLeaseTimeoutMillis) { 
+            this.readModelLeaseTimeoutMillis = readModelLeaseTimeoutMillis; 
+        }
+        
+        public int getProjectionPageSize() { 
+            return projectionPageSize; 
+        }
+        
+        public void setProjectionPageSize(int projectionPageSize) { 
+            this.projectionPageSize = projectionPageSize; 
+        }
+        
+        public long getProjectionGapTimeoutMillis() { 
+            return projectionGapTimeoutMillis; 
+        }
+        
+        public void setProjectionGapTimeoutMillis(long projectionGapTimeoutMillis) { 
+            this.projectionGapTimeoutMillis = projectionGapTimeoutMillis; 
+        }
+        
+        public long getProjectionGapHorizonMillis() { 
+            return projectionGapHorizonMillis; 
+        }
+        
+        public void setProjectionGapHorizonMillis(long projectionGapHorizonMillis) { 
+            this.projectionGapHorizonMillis = projectionGapHorizonMillis; 
+        }
+        
+        public int getRebuildParallelism() { 
+            return rebuildParallelism; 
+        }
+        
+        public void setRebuildParallelism(int rebuildParallelism) { 
+            this.rebuildParallelism = rebuildParallelism; 
+        }
+        
+        public int getRebuildPageSize() { 
+            return rebuildPageSize; 
+        }
+        
+        public void setRebuildPageSize(int rebuildPageSize) { 
+            this.rebuildPageSize = rebuildPageSize; 
+        }
+        
+        public long getConsistencyMaxWaitMillis() { 
+            return consistencyMaxWaitMillis; 
+        }
+        
+        public void setConsistencyMaxWaitMillis(long consistencyMaxWaitMillis) { 
+            this.consistencyMaxWaitMillis = consistencyMaxWaitMillis; 
+        }
+        
+        public Map<String, ExecutorRegistry.ExecutorSettings> getExecutors() { 
+            return executors; 
+        }
+        
+        public void setExecutors(Map<String, ExecutorRegistry.ExecutorSettings> executors) { 
+            this.executors = executors; 
+        }
+        
+        public AdmissionController.Settings getAdmission() { 
+            return admission; 
+        }
+        
+        public void setAdmission(AdmissionController.Settings admission) { 
+            this.admission = admission; 
+        }
     }
 }
\ No newline at end of file
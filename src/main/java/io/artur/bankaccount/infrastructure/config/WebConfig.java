@@ -0,0 +1,33 @@
+package io.artur.bankaccount.infrastructure.config;
+
+import io.artur.bankaccount.infrastructure.concurrency.AdmissionController;
+import io.artur.bankaccount.infrastructure.web.ReadYourWritesInterceptor;
+import io.artur.bankaccount.infrastructure.web.WriteAdmissionInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Web MVC configuration, applies write admission control and read-your-writes waits to the account API
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    
+    private final ObjectProvider<AdmissionController> admissionController;
+    private final ObjectProvider<ReadYourWritesInterceptor> readYourWritesInterceptor;
+    
+    public WebConfig(ObjectProvider<AdmissionController> admissionController,
+                     ObjectProvider<ReadYourWritesInterceptor> readYourWritesInterceptor) {
+        this.admissionController = admissionController;
+        this.readYourWritesInterceptor = readYourWritesInterceptor;
+    }
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        admissionController.ifAvailable(controller ->
+            registry.addInterceptor(new WriteAdmissionInterceptor(controller)).addPathPatterns("/api/accounts/**"));
+        readYourWritesInterceptor.ifAvailable(interceptor ->
+            registry.addInterceptor(interceptor).addPathPatterns("/api/accounts/**"));
+    }
+}
@@ -1,13 +1,19 @@
 package io.artur.bankaccount.infrastructure.monitoring;
 
 import io.artur.bankaccount.application.ports.outgoing.MetricsPort;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.stereotype.Component;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -17,13 +23,20 @@ import java.util.function.Supplier;
 
 /**
  * Native metrics collector implementation that directly implements MetricsPort
- * without depending on legacy infrastructure
+ * without depending on legacy infrastructure.
+ *
+ * Timed operations are recorded into one {@value #LATENCY_METRIC} timer per operation, tagged
+ * with the operation and backed by HdrHistogram. Once bound to a registry the timers keep p50,
+ * p99 and p999, shown in the performance summary, and publish histogram buckets; Prometheus
+ * exports the buckets, so dashboards compute percentiles with histogram_quantile, also across
+ * instances. Until a registry is bound timings are not kept.
  */
-@Component
-public class NativeMetricsCollector implements MetricsPort {
+public class NativeMetricsCollector implements MetricsPort, MeterBinder {
     
     private static final Logger logger = LoggerFactory.getLogger(NativeMetricsCollector.class);
     
+    public static final String LATENCY_METRIC = "bankaccount.operation.latency";
+    
     // Business metrics
     private final AtomicLong accountsCreated = new AtomicLong(0);
     private final AtomicLong depositsProcessed = new AtomicLong(0);
@@ -44,9 +57,9 @@ public class NativeMetricsCollector implements MetricsPort {
     private final AtomicLong cacheMisses = new AtomicLong(0);
     private final AtomicLong cacheEvictions = new AtomicLong(0);
     
-    // Timing metrics
-    private final Map<String, AtomicLong> timingCounters = new ConcurrentHashMap<>();
-    private final Map<String, AtomicLong> timingTotals = new ConcurrentHashMap<>();
+    // Timing metrics, recorded into every registry bound so far
+    private final CompositeMeterRegistry meterRegistry = new CompositeMeterRegistry();
+    private final Map<String, Timer> latencyTimers = new ConcurrentHashMap<>();
     
     // Performance rates
     private final LocalDateTime startTime = LocalDateTime.now();
@@ -237,6 +250,18 @@ public class NativeMetricsCollector implements MetricsPort {
         );
     }
     
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        meterRegistry.add(registry);
+    }
+    
+    /**
+     * Latency distribution of an operation over the last few minutes, empty if never timed
+     */
+    public Optional<HistogramSnapshot> getLatencySnapshot(String operation) {
+        return Optional.ofNullable(latencyTimers.get(operation)).map(Timer::takeSnapshot);
+    }
+    
     @Override
     public void logPerformanceSummary() {
         logger.info("=== Native Performance Summary ===");
@@ -247,6 +272,16 @@ public class NativeMetricsCollector implements MetricsPort {
                    accountsCreated.get(), depositsProcessed.get(), withdrawalsProcessed.get(), transfersProcessed.get());
         logger.info("Cache - Hits: {}, Misses: {}, Evictions: {}", 
                    cacheHits.get(), cacheMisses.get(), cacheEvictions.get());
+        latencyTimers.forEach((operation, timer) -> {
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            StringBuilder percentiles = new StringBuilder();
+            for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                percentiles.append(String.format(" %s: %.3fms", percentile.percentile(),
+                    percentile.value(TimeUnit.MILLISECONDS)));
+            }
+            logger.info("Latency {} - Count: {}, Max: {}ms,{}", operation, snapshot.count(),
+                String.format("%.3f", snapshot.max(TimeUnit.MILLISECONDS)), percentiles);
+        });
         logger.info("=== End Native Performance Summary ===");
     }
     
@@ -277,8 +312,23 @@ public class NativeMetricsCollector implements MetricsPort {
     }
     
     private void recordTiming(String operation, long durationNanos) {
-        timingCounters.computeIfAbsent(operation, k -> new AtomicLong(0)).incrementAndGet();
-        timingTotals.computeIfAbsent(operation, k -> new AtomicLong(0)).addAndGet(durationNanos);
+        Timer timer = latencyTimers.get(operation);
+        if (timer == null) {
+            timer = latencyTimers.computeIfAbsent(operation, this::newLatencyTimer);
+        }
+        timer.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    private Timer newLatencyTimer(String operation) {
+        return Timer.builder(LATENCY_METRIC)
+            .tag("operation", operation)
+            .description("Latency of timed operations")
+            .publishPercentiles(0.5, 0.99, 0.999)
+            .percentilePrecision(2)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofNanos(10_000))
+            .maximumExpectedValue(Duration.ofSeconds(30))
+            .register(meterRegistry);
     }
     
     private class NativeTimingContext implements TimingContext {
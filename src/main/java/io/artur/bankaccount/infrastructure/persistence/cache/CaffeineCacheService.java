@@ -0,0 +1,313 @@
+package io.artur.bankaccount.infrastructure.persistence.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.artur.bankaccount.application.ports.outgoing.CachePort;
+import io.artur.bankaccount.domain.account.aggregates.BankAccount;
+import io.artur.bankaccount.domain.account.events.AccountOpenedEvent;
+import io.artur.bankaccount.domain.shared.events.DomainEvent;
+import io.artur.bankaccount.domain.shared.valueobjects.Money;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * CachePort implementation on Caffeine.
+ *
+ * Each cache is bounded by Caffeine's W-TinyLFU policy, which admits and evicts in amortized
+ * constant time however many entries are held, instead of scanning for the oldest entry on
+ * every insert. Balances, summaries and event counts are bounded by entry count; the holder
+ * index is bounded by weight, the number of account ids held, since one holder can own many
+ * accounts. Entries expire a fixed time after they were written.
+ *
+ * Entries older than the refresh interval are still served by the getOrCreate methods, while
+ * one reload with the caller's loader runs on the refresh executor and replaces them.
+ *
+ * Balances, summaries and event counts carry the account version they reflect and are moved
+ * forward by committed events instead of being reloaded after every write, see
+ * {@link #applyCommittedEvents}. A reload only replaces an entry no event has advanced meanwhile.
+ */
+public class CaffeineCacheService implements CachePort {
+
+    private final Cache<UUID, AccountSummary> summaryCache;
+    private final Cache<UUID, VersionedBalance> balanceCache;
+    private final Cache<String, List<UUID>> accountsByHolderCache;
+    private final Cache<UUID, Long> eventCountCache;
+    private final Executor refreshExecutor;
+    private final Duration refreshAfter;
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+
+    public CaffeineCacheService(long maxCacheSize, long maxHolderIndexWeight, Duration expireAfterWrite,
+                                Duration refreshAfter, Executor refreshExecutor) {
+        this.summaryCache = Caffeine.newBuilder()
+            .maximumSize(maxCacheSize)
+            .expireAfterWrite(expireAfterWrite)
+            .executor(refreshExecutor)
+            .recordStats()
+            .build();
+        this.balanceCache = Caffeine.newBuilder()
+            .maximumSize(maxCacheSize)
+            .expireAfterWrite(expireAfterWrite)
+            .executor(refreshExecutor)
+            .recordStats()
+            .build();
+        this.accountsByHolderCache = Caffeine.newBuilder()
+            .maximumWeight(maxHolderIndexWeight)
+            .<String, List<UUID>>weigher((holder, accountIds) -> Math.max(1, accountIds.size()))
+            .expireAfterWrite(expireAfterWrite)
+            .executor(refreshExecutor)
+            .recordStats()
+            .build();
+        this.eventCountCache = Caffeine.newBuilder()
+            .maximumSize(maxCacheSize)
+            .expireAfterWrite(expireAfterWrite)
+            .executor(refreshExecutor)
+            .recordStats()
+            .build();
+        this.refreshExecutor = refreshExecutor;
+        this.refreshAfter = refreshAfter;
+    }
+
+    @Override
+    public Optional<AccountSummary> getCachedAccountSummary(UUID accountId) {
+        return Optional.ofNullable(summaryCache.getIfPresent(accountId));
+    }
+
+    @Override
+    public AccountSummary getOrCreateAccountSummary(UUID accountId, Function<UUID, BankAccount> accountLoader) {
+        Function<UUID, AccountSummary> load = id -> createAccountSummary(accountLoader.apply(id));
+        AccountSummary summary = summaryCache.get(accountId, load);
+        refreshIfStale(summaryCache, accountId, () -> load.apply(accountId));
+        return summary;
+    }
+
+    @Override
+    public CompletableFuture<AccountSummary> getOrCreateAccountSummaryAsync(UUID accountId, Function<UUID, BankAccount> accountLoader) {
+        AccountSummary cached = summaryCache.getIfPresent(accountId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return CompletableFuture.supplyAsync(() -> getOrCreateAccountSummary(accountId, accountLoader), refreshExecutor);
+    }
+
+    @Override
+    public void updateAccountSummary(UUID accountId, AccountSummary summary) {
+        summaryCache.put(accountId, summary);
+    }
+
+    @Override
+    public Optional<Money> getCachedBalance(UUID accountId) {
+        return Optional.ofNullable(balanceCache.getIfPresent(accountId)).map(VersionedBalance::balance);
+    }
+
+    @Override
+    public Money getOrCreateBalance(UUID accountId, Function<UUID, BankAccount> accountLoader) {
+        Function<UUID, VersionedBalance> load = id -> VersionedBalance.of(accountLoader.apply(id));
+        VersionedBalance balance = balanceCache.get(accountId, load);
+        refreshIfStale(balanceCache, accountId, () -> load.apply(accountId));
+        return balance.balance();
+    }
+
+    @Override
+    public void updateBalance(UUID accountId, Money newBalance) {
+        balanceCache.put(accountId, new VersionedBalance(newBalance, -1));
+    }
+
+    @Override
+    public void updateBalance(UUID accountId, Money newBalance, long version) {
+        balanceCache.asMap().compute(accountId, (id, cached) ->
+            cached != null && cached.version() >= version ? cached : new VersionedBalance(newBalance, version));
+    }
+
+    @Override
+    public void applyCommittedEvents(UUID accountId, List<? extends DomainEvent> events) {
+        for (DomainEvent event : events) {
+            long version = event.getVersion();
+            balanceCache.asMap().compute(accountId, (id, cached) -> {
+                if (cached == null) {
+                    return event instanceof AccountOpenedEvent ? new VersionedBalance(Money.zero(), version) : null;
+                }
+                if (version <= cached.version()) {
+                    return cached;
+                }
+                return version == cached.version() + 1
+                    ? new VersionedBalance(CommittedEventDeltas.advanceBalance(cached.balance(), event), version)
+                    : null;
+            });
+            summaryCache.asMap().compute(accountId, (id, cached) -> {
+                if (cached == null) {
+                    return event instanceof AccountOpenedEvent opened
+                        ? CommittedEventDeltas.openedSummary(id, opened, version) : null;
+                }
+                if (version <= cached.getVersion()) {
+                    return cached;
+                }
+                return version == cached.getVersion() + 1
+                    ? CommittedEventDeltas.advanceSummary(cached, event, version)
+                    : null;
+            });
+            // The event count of an account is the version of its last event
+            eventCountCache.asMap().compute(accountId, (id, count) -> {
+                if (count == null) {
+                    return event instanceof AccountOpenedEvent ? version : null;
+                }
+                return version <= count ? count : version == count + 1 ? version : null;
+            });
+            if (event instanceof AccountOpenedEvent opened) {
+                accountsByHolderCache.asMap().computeIfPresent(opened.getAccountHolder(),
+                    (holder, accountIds) -> CommittedEventDeltas.withAccount(accountIds, accountId));
+            }
+        }
+    }
+
+    @Override
+    public Optional<List<UUID>> getCachedAccountsByHolder(String accountHolder) {
+        return Optional.ofNullable(accountsByHolderCache.getIfPresent(accountHolder));
+    }
+
+    @Override
+    public List<UUID> getOrCreateAccountsByHolder(String accountHolder, Supplier<List<UUID>> accountLoader) {
+        List<UUID> accountIds = accountsByHolderCache.get(accountHolder, holder -> List.copyOf(accountLoader.get()));
+        refreshIfStale(accountsByHolderCache, accountHolder, () -> List.copyOf(accountLoader.get()));
+        return accountIds;
+    }
+
+    @Override
+    public void updateAccountsByHolder(String accountHolder, List<UUID> accountIds) {
+        accountsByHolderCache.put(accountHolder, List.copyOf(accountIds));
+    }
+
+    @Override
+    public Optional<Long> getCachedEventCount(UUID accountId) {
+        return Optional.ofNullable(eventCountCache.getIfPresent(accountId));
+    }
+
+    @Override
+    public Long getOrCreateEventCount(UUID accountId, Supplier<Long> countLoader) {
+        Long count = eventCountCache.get(accountId, id -> countLoader.get());
+        refreshIfStale(eventCountCache, accountId, countLoader);
+        return count;
+    }
+
+    @Override
+    public void updateEventCount(UUID accountId, long eventCount) {
+        eventCountCache.asMap().merge(accountId, eventCount, Math::max);
+    }
+
+    @Override
+    public void invalidateAccount(UUID accountId) {
+        summaryCache.invalidate(accountId);
+        balanceCache.invalidate(accountId);
+        eventCountCache.invalidate(accountId);
+    }
+
+    @Override
+    public void invalidateAccountHolder(String accountHolder) {
+        accountsByHolderCache.invalidate(accountHolder);
+    }
+
+    @Override
+    public void invalidateAll() {
+        summaryCache.invalidateAll();
+        balanceCache.invalidateAll();
+        accountsByHolderCache.invalidateAll();
+        eventCountCache.invalidateAll();
+    }
+
+    @Override
+    public void cleanUp() {
+        summaryCache.cleanUp();
+        balanceCache.cleanUp();
+        accountsByHolderCache.cleanUp();
+        eventCountCache.cleanUp();
+    }
+
+    @Override
+    public CacheStatistics getStatistics() {
+        CacheStats summaries = summaryCache.stats();
+        CacheStats balances = balanceCache.stats();
+        CacheStats holders = accountsByHolderCache.stats();
+        CacheStats eventCounts = eventCountCache.stats();
+        CacheStats total = summaries.plus(balances).plus(holders).plus(eventCounts);
+
+        return new CacheStatistics(
+            total.hitRate(), total.requestCount(), total.hitCount(), total.missCount(),
+            toTypeStats(summaries), toTypeStats(balances), toTypeStats(holders), toTypeStats(eventCounts)
+        );
+    }
+
+    /**
+     * Reload an entry that is older than the refresh interval in the background, once at a time
+     * per key; readers keep getting the current value until the reload replaces it
+     */
+    private <K, V> void refreshIfStale(Cache<K, V> cache, K key, Supplier<V> loader) {
+        Optional<Duration> age = cache.policy().expireAfterWrite()
+            .flatMap(expiration -> expiration.ageOf(key));
+        if (age.isEmpty() || age.get().compareTo(refreshAfter) < 0) {
+            return;
+        }
+        // Read through the map view so the check is not counted as a hit
+        V stale = cache.asMap().get(key);
+        Map.Entry<Cache<K, V>, K> refresh = Map.entry(cache, key);
+        if (stale == null || !refreshing.add(refresh)) {
+            return;
+        }
+        CompletableFuture.supplyAsync(loader, refreshExecutor)
+            .whenComplete((value, failure) -> {
+                refreshing.remove(refresh);
+                if (value != null) {
+                    // Only if no newer value was written while reloading
+                    cache.asMap().replace(key, stale, value);
+                }
+            });
+    }
+
+    private static CacheTypeStats toTypeStats(CacheStats stats) {
+        return new CacheTypeStats(stats.requestCount(), stats.hitCount(), stats.missCount(),
+            stats.hitRate(), stats.evictionCount());
+    }
+
+    private static AccountSummary createAccountSummary(BankAccount account) {
+        AccountSummary summary = new AccountSummary(
+            account.getAccountId(),
+            account.getAccountHolder().getFullName(),
+            account.getOverdraftLimit(),
+            LocalDateTime.now()
+        );
+        summary.setCurrentBalance(account.getBalance());
+        summary.setStatus(account.getAccountStatus().getStatus().name());
+        summary.setVersion(account.getVersion());
+        return summary;
+    }
+
+    /**
+     * Balance as of an account version, -1 if the version is unknown
+     */
+    private static final class VersionedBalance {
+        private final Money balance;
+        private final long version;
+
+        VersionedBalance(Money balance, long version) {
+            this.balance = balance;
+            this.version = version;
+        }
+
+        static VersionedBalance of(BankAccount account) {
+            return new VersionedBalance(account.getBalance(), account.getVersion());
+        }
+
+        Money balance() { return balance; }
+        long version() { return version; }
+    }
+}
@@ -0,0 +1,43 @@
+package io.artur.bankaccount.infrastructure.persistence.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Monotonic time in nanos, read from a volatile field that a daemon thread refreshes every
+ * few milliseconds. Cache reads compare it with entry deadlines on every hit, which costs a
+ * field read instead of a clock call; being up to one resolution late does not matter for
+ * entries living minutes.
+ */
+final class CoarseTicker implements LongSupplier {
+
+    static final long RESOLUTION_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private volatile long nanos = System.nanoTime();
+
+    private CoarseTicker() {
+        Thread.ofPlatform().name("cache-ticker").daemon().start(() -> {
+            while (true) {
+                LockSupport.parkNanos(RESOLUTION_NANOS);
+                nanos = System.nanoTime();
+            }
+        });
+    }
+
+    /**
+     * The ticker shared by all caches, its thread starts on first use
+     */
+    static CoarseTicker shared() {
+        return Holder.INSTANCE;
+    }
+
+    @Override
+    public long getAsLong() {
+        return nanos;
+    }
+
+    private static final class Holder {
+        private static final CoarseTicker INSTANCE = new CoarseTicker();
+    }
+}
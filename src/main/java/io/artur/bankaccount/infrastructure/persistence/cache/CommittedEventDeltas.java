@@ -0,0 +1,119 @@
+package io.artur.bankaccount.infrastructure.persistence.cache;
+
+import io.artur.bankaccount.application.ports.outgoing.CachePort.AccountSummary;
+import io.artur.bankaccount.domain.account.events.AccountClosedEvent;
+import io.artur.bankaccount.domain.account.events.AccountFrozenEvent;
+import io.artur.bankaccount.domain.account.events.AccountMarkedDormantEvent;
+import io.artur.bankaccount.domain.account.events.AccountOpenedEvent;
+import io.artur.bankaccount.domain.account.events.AccountReactivatedEvent;
+import io.artur.bankaccount.domain.account.events.MoneyDepositedEvent;
+import io.artur.bankaccount.domain.account.events.MoneyReceivedEvent;
+import io.artur.bankaccount.domain.account.events.MoneyTransferredEvent;
+import io.artur.bankaccount.domain.account.events.MoneyWithdrawnEvent;
+import io.artur.bankaccount.domain.account.valueobjects.AccountStatus;
+import io.artur.bankaccount.domain.shared.events.DomainEvent;
+import io.artur.bankaccount.domain.shared.valueobjects.Money;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Effect of committed account events on cached entries, shared by the cache implementations.
+ * Cached summaries are handed out to readers, so they are copied rather than changed in place.
+ */
+final class CommittedEventDeltas {
+
+    private CommittedEventDeltas() {
+    }
+
+    /**
+     * Balance change of the event, null if it does not move money
+     */
+    static BigDecimal balanceChange(DomainEvent event) {
+        if (event instanceof MoneyDepositedEvent deposited) {
+            return deposited.getAmount();
+        } else if (event instanceof MoneyReceivedEvent received) {
+            return received.getAmount();
+        } else if (event instanceof MoneyWithdrawnEvent withdrawn) {
+            return withdrawn.getAmount().negate();
+        } else if (event instanceof MoneyTransferredEvent transferred) {
+            return transferred.getAmount().negate();
+        }
+        return null;
+    }
+
+    /**
+     * Status the account has after the event, null if the event does not change it
+     */
+    static AccountStatus.Status statusAfter(DomainEvent event) {
+        if (event instanceof AccountOpenedEvent || event instanceof AccountReactivatedEvent) {
+            return AccountStatus.Status.ACTIVE;
+        } else if (event instanceof AccountFrozenEvent) {
+            return AccountStatus.Status.FROZEN;
+        } else if (event instanceof AccountClosedEvent) {
+            return AccountStatus.Status.CLOSED;
+        } else if (event instanceof AccountMarkedDormantEvent) {
+            return AccountStatus.Status.DORMANT;
+        }
+        return null;
+    }
+
+    static Money advanceBalance(Money balance, DomainEvent event) {
+        BigDecimal change = balanceChange(event);
+        return change != null ? balance.add(Money.of(change)) : balance;
+    }
+
+    /**
+     * Copy of a holder's account ids with the account added, the same list if it is there already
+     */
+    static List<UUID> withAccount(List<UUID> accountIds, UUID accountId) {
+        if (accountIds.contains(accountId)) {
+            return accountIds;
+        }
+        List<UUID> next = new ArrayList<>(accountIds.size() + 1);
+        next.addAll(accountIds);
+        next.add(accountId);
+        return List.copyOf(next);
+    }
+
+    /**
+     * Summary of a newly opened account
+     */
+    static AccountSummary openedSummary(UUID accountId, AccountOpenedEvent opened, long version) {
+        AccountSummary summary = new AccountSummary(accountId, opened.getAccountHolder(),
+            Money.of(opened.getOverdraftLimit()), opened.getTimestamp());
+        summary.setCurrentBalance(Money.zero());
+        summary.setStatus(AccountStatus.Status.ACTIVE.name());
+        summary.setVersion(version);
+        return summary;
+    }
+
+    /**
+     * Copy of the summary with the event applied
+     */
+    static AccountSummary advanceSummary(AccountSummary summary, DomainEvent event, long version) {
+        AccountSummary next = new AccountSummary(summary.getAccountId(), summary.getAccountHolder(),
+            summary.getOverdraftLimit(), summary.getAccountOpenedDate());
+        next.setCurrentBalance(summary.getCurrentBalance());
+        next.setTransactionCount(summary.getTransactionCount());
+        next.setLastTransactionDate(summary.getLastTransactionDate());
+        next.setStatus(summary.getStatus());
+        next.setVersion(version);
+
+        BigDecimal change = balanceChange(event);
+        if (change != null) {
+            if (summary.getCurrentBalance() != null) {
+                next.setCurrentBalance(summary.getCurrentBalance().add(Money.of(change)));
+            }
+            next.setTransactionCount(summary.getTransactionCount() + 1);
+            next.setLastTransactionDate(event.getTimestamp());
+        }
+        AccountStatus.Status status = statusAfter(event);
+        if (status != null) {
+            next.setStatus(status.name());
+        }
+        return next;
+    }
+}
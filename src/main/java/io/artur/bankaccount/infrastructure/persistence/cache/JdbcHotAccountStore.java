@@ -0,0 +1,141 @@
+package io.artur.bankaccount.infrastructure.persistence.cache;
+
+import io.artur.bankaccount.application.ports.outgoing.HotAccountStorePort;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Account access history in the hot_accounts table.
+ *
+ * Each account has a score that halves with every half-life since its last access, so a score
+ * follows the recent rate rather than the all-time total. The stored score is the one at the last
+ * access: recording accesses decays it to the time of the batch before adding them, and ranking
+ * decays every score to the present, so an account that stopped being used falls behind one in
+ * use without being written. Accounts not accessed within the retention window no longer count
+ * as hot and are deleted when the next batch is recorded.
+ */
+public class JdbcHotAccountStore implements HotAccountStorePort {
+
+    private static final String MERGE_SQL = """
+        MERGE INTO hot_accounts t
+        USING (VALUES (CAST(? AS UUID), CAST(? AS DOUBLE PRECISION), CAST(? AS TIMESTAMP))) s(account_id, accesses, accessed_at)
+        ON t.account_id = s.account_id
+        WHEN MATCHED THEN UPDATE SET
+            score = t.score * POWER(0.5, GREATEST(0, DATEDIFF(MILLISECOND, t.last_accessed, s.accessed_at))
+                / CAST(? AS DOUBLE PRECISION)) + s.accesses,
+            last_accessed = GREATEST(t.last_accessed, s.accessed_at)
+        WHEN NOT MATCHED THEN INSERT (account_id, score, last_accessed) VALUES (s.account_id, s.accesses, s.accessed_at)
+        """;
+
+    private static final String DELETE_EXPIRED_SQL = "DELETE FROM hot_accounts WHERE last_accessed < ?";
+
+    private static final String SELECT_HOTTEST_SQL = """
+        SELECT account_id FROM hot_accounts WHERE last_accessed >= ?
+        ORDER BY score * POWER(0.5, DATEDIFF(MILLISECOND, last_accessed, CAST(? AS TIMESTAMP))
+            / CAST(? AS DOUBLE PRECISION)) DESC
+        LIMIT ?
+        """;
+
+    private final DataSource dataSource;
+    private final Duration retention;
+    private final double halfLifeMillis;
+    private final Supplier<LocalDateTime> clock;
+
+    public JdbcHotAccountStore(DataSource dataSource, Duration retention, Duration scoreHalfLife) {
+        this(dataSource, retention, scoreHalfLife, LocalDateTime::now);
+    }
+
+    JdbcHotAccountStore(DataSource dataSource, Duration retention, Duration scoreHalfLife, Supplier<LocalDateTime> clock) {
+        if (scoreHalfLife.isNegative() || scoreHalfLife.isZero()) {
+            throw new IllegalArgumentException("Score half-life must be positive: " + scoreHalfLife);
+        }
+        this.dataSource = dataSource;
+        this.retention = retention;
+        this.halfLifeMillis = scoreHalfLife.toMillis();
+        this.clock = clock;
+        initializeSchema();
+    }
+
+    @Override
+    public void recordAccesses(Map<UUID, Long> accessCounts) {
+        if (accessCounts.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = clock.get();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement merge = conn.prepareStatement(MERGE_SQL);
+             PreparedStatement delete = conn.prepareStatement(DELETE_EXPIRED_SQL)) {
+
+            Timestamp accessedAt = Timestamp.valueOf(now);
+            for (Map.Entry<UUID, Long> entry : accessCounts.entrySet()) {
+                merge.setObject(1, entry.getKey());
+                merge.setDouble(2, entry.getValue());
+                merge.setTimestamp(3, accessedAt);
+                merge.setDouble(4, halfLifeMillis);
+                merge.addBatch();
+            }
+            merge.executeBatch();
+
+            delete.setTimestamp(1, Timestamp.valueOf(now.minus(retention)));
+            delete.executeUpdate();
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Error recording accesses of " + accessCounts.size() + " accounts", e);
+        }
+    }
+
+    @Override
+    public List<UUID> findHottestAccounts(int limit) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_HOTTEST_SQL)) {
+
+            LocalDateTime now = clock.get();
+            stmt.setTimestamp(1, Timestamp.valueOf(now.minus(retention)));
+            stmt.setTimestamp(2, Timestamp.valueOf(now));
+            stmt.setDouble(3, halfLifeMillis);
+            stmt.setInt(4, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<UUID> accountIds = new ArrayList<>(Math.min(limit, 1024));
+                while (rs.next()) {
+                    accountIds.add(rs.getObject("account_id", UUID.class));
+                }
+                return accountIds;
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Error reading the " + limit + " hottest accounts", e);
+        }
+    }
+
+    private void initializeSchema() {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS hot_accounts (
+                    account_id UUID PRIMARY KEY,
+                    score DOUBLE PRECISION NOT NULL,
+                    last_accessed TIMESTAMP NOT NULL
+                )
+                """);
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_hot_accounts_accessed ON hot_accounts(last_accessed)");
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to initialize hot account schema", e);
+        }
+    }
+}
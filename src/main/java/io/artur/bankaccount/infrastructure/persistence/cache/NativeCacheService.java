@@ -2,247 +2,602 @@ package io.artur.bankaccount.infrastructure.persistence.cache;
 
 import io.artur.bankaccount.application.ports.outgoing.CachePort;
 import io.artur.bankaccount.domain.account.aggregates.BankAccount;
+import io.artur.bankaccount.domain.account.events.AccountOpenedEvent;
+import io.artur.bankaccount.domain.shared.events.DomainEvent;
 import io.artur.bankaccount.domain.shared.valueobjects.Money;
-import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BinaryOperator;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 
 /**
  * Native cache service implementation that directly implements CachePort
  * without depending on legacy infrastructure
+ *
+ * Balances and summaries are loaded once per key however many readers miss at the same time:
+ * the first registers an in-flight future that the others wait on. Loaded entries remember how
+ * long the load took and are reloaded early, with a probability that grows towards expiry, so
+ * a hot account is renewed by one reader before it expires rather than by all of them after.
+ *
+ * Entries carry their deadline in nanos of a coarse monotonic ticker, so a hit is a map lookup
+ * and a long comparison and allocates nothing. Expired entries are removed incrementally by a
+ * timer wheel that writes and {@link #cleanUp()} advance, instead of by scanning the maps.
+ *
+ * Early refreshes and asynchronous lookups run on the given executor, since their loaders
+ * read the event store and would block the common pool.
  */
-@Component
 public class NativeCacheService implements CachePort {
     
     private final Map<UUID, CachedBalance> balanceCache = new ConcurrentHashMap<>();
     private final Map<UUID, CachedAccountSummary> summaryCache = new ConcurrentHashMap<>();
+    private final Map<UUID, CompletableFuture<CachedBalance>> balanceLoads = new ConcurrentHashMap<>();
+    private final Map<UUID, CompletableFuture<CachedAccountSummary>> summaryLoads = new ConcurrentHashMap<>();
+    private final Map<UUID, CachedEventCount> eventCountCache = new ConcurrentHashMap<>();
+    private final Map<String, CachedHolderAccounts> holderCache = new ConcurrentHashMap<>();
+    
+    private final TimerWheel<UUID> balanceExpiry;
+    private final TimerWheel<UUID> summaryExpiry;
+    private final TimerWheel<UUID> eventCountExpiry;
+    private final TimerWheel<String> holderExpiry;
     
     // Cache statistics
-    private final AtomicLong totalRequests = new AtomicLong(0);
-    private final AtomicLong cacheHits = new AtomicLong(0);
-    private final AtomicLong cacheMisses = new AtomicLong(0);
-    private final AtomicLong evictions = new AtomicLong(0);
+    private final LongAdder totalRequests = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
     
     // Cache configuration
-    private final long cacheExpirationMinutes = 30;
-    private final int maxCacheSize = 1000;
+    private final long expireAfterWriteNanos;
+    private final int maxCacheSize;
+    private final LongSupplier ticker;
+    private final Executor loadExecutor;
+    // Above 1 refreshes earlier, below 1 later
+    private static final double EARLY_REFRESH_BETA = 1.0;
+    private static final int EXPIRY_BUCKETS = 64;
+    
+    public NativeCacheService() {
+        this(Duration.ofMinutes(30), 1000, ForkJoinPool.commonPool());
+    }
+    
+    public NativeCacheService(Duration expireAfterWrite, int maxCacheSize, Executor loadExecutor) {
+        this(expireAfterWrite, maxCacheSize, loadExecutor, CoarseTicker.shared());
+    }
+    
+    NativeCacheService(Duration expireAfterWrite, int maxCacheSize, LongSupplier ticker) {
+        this(expireAfterWrite, maxCacheSize, ForkJoinPool.commonPool(), ticker);
+    }
+    
+    NativeCacheService(Duration expireAfterWrite, int maxCacheSize, Executor loadExecutor, LongSupplier ticker) {
+        this.expireAfterWriteNanos = expireAfterWrite.toNanos();
+        this.maxCacheSize = maxCacheSize;
+        this.ticker = ticker;
+        this.loadExecutor = loadExecutor;
+        long now = ticker.getAsLong();
+        this.balanceExpiry = new TimerWheel<>(expireAfterWriteNanos, EXPIRY_BUCKETS, now);
+        this.summaryExpiry = new TimerWheel<>(expireAfterWriteNanos, EXPIRY_BUCKETS, now);
+        this.eventCountExpiry = new TimerWheel<>(expireAfterWriteNanos, EXPIRY_BUCKETS, now);
+        this.holderExpiry = new TimerWheel<>(expireAfterWriteNanos, EXPIRY_BUCKETS, now);
+    }
     
     @Override
     public Optional<Money> getCachedBalance(UUID accountId) {
-        totalRequests.incrementAndGet();
+        totalRequests.increment();
         
         CachedBalance cached = balanceCache.get(accountId);
-        if (cached != null && !isExpired(cached.timestamp)) {
-            cacheHits.incrementAndGet();
-            return Optional.of(cached.balance);
+        if (cached != null && !isExpired(cached.deadlineNanos)) {
+            cacheHits.increment();
+            return cached.present;
         }
         
-        cacheMisses.incrementAndGet();
+        cacheMisses.increment();
         return Optional.empty();
     }
     
     @Override
     public Money getOrCreateBalance(UUID accountId, Function<UUID, BankAccount> accountLoader) {
-        Optional<Money> cached = getCachedBalance(accountId);
-        if (cached.isPresent()) {
-            return cached.get();
+        totalRequests.increment();
+        
+        CachedBalance cached = balanceCache.get(accountId);
+        if (cached != null && !isExpired(cached.deadlineNanos)) {
+            cacheHits.increment();
+            if (shouldRefreshEarly(cached.deadlineNanos, cached.loadNanos)) {
+                CompletableFuture.runAsync(() -> loadBalance(accountId, accountLoader), loadExecutor);
+            }
+            return cached.balance;
         }
         
-        BankAccount account = accountLoader.apply(accountId);
-        Money balance = account.getBalance();
-        updateBalance(accountId, balance);
-        return balance;
+        cacheMisses.increment();
+        expireEntries();
+        return await(loadBalance(accountId, accountLoader)).balance;
+    }
+    
+    private CompletableFuture<CachedBalance> loadBalance(UUID accountId, Function<UUID, BankAccount> accountLoader) {
+        return loadOnce(balanceLoads, balanceCache, accountId, id -> {
+            long start = System.nanoTime();
+            BankAccount account = accountLoader.apply(id);
+            if (balanceCache.size() >= maxCacheSize && !balanceCache.containsKey(id)) {
+                evictEarliest(balanceCache, balanceExpiry);
+            }
+            return newBalance(id, account.getBalance(), account.getVersion(), System.nanoTime() - start);
+        }, (cached, loaded) -> cached != null && cached.version > loaded.version ? cached : loaded);
     }
     
     @Override
     public void updateBalance(UUID accountId, Money balance) {
+        expireEntries();
         // Implement cache size limit with LRU eviction
         if (balanceCache.size() >= maxCacheSize && !balanceCache.containsKey(accountId)) {
-            evictOldestBalance();
+            evictEarliest(balanceCache, balanceExpiry);
         }
         
-        balanceCache.put(accountId, new CachedBalance(balance, LocalDateTime.now()));
+        balanceCache.put(accountId, newBalance(accountId, balance, -1, 0));
+    }
+    
+    @Override
+    public void updateBalance(UUID accountId, Money balance, long version) {
+        expireEntries();
+        if (balanceCache.size() >= maxCacheSize && !balanceCache.containsKey(accountId)) {
+            evictEarliest(balanceCache, balanceExpiry);
+        }
+        
+        balanceCache.compute(accountId, (id, cached) -> cached != null && cached.version >= version
+            ? cached : newBalance(id, balance, version, 0));
+    }
+    
+    @Override
+    public void applyCommittedEvents(UUID accountId, List<? extends DomainEvent> events) {
+        expireEntries();
+        for (DomainEvent event : events) {
+            long version = event.getVersion();
+            balanceCache.compute(accountId, (id, cached) -> {
+                // A load running now read the account before this event, it must not be stored
+                balanceLoads.remove(id);
+                if (cached == null) {
+                    return event instanceof AccountOpenedEvent
+                        ? newBalance(id, Money.zero(), version, 0) : null;
+                }
+                if (version <= cached.version) {
+                    return cached;
+                }
+                // A gap means events were missed, the entry is dropped and reloaded on the next read
+                return version == cached.version + 1
+                    ? newBalance(id, CommittedEventDeltas.advanceBalance(cached.balance, event), version, cached.loadNanos)
+                    : null;
+            });
+            summaryCache.compute(accountId, (id, cached) -> {
+                summaryLoads.remove(id);
+                if (cached == null) {
+                    return event instanceof AccountOpenedEvent opened
+                        ? newSummary(id, CommittedEventDeltas.openedSummary(id, opened, version), 0)
+                        : null;
+                }
+                if (version <= cached.summary.getVersion()) {
+                    return cached;
+                }
+                return version == cached.summary.getVersion() + 1
+                    ? newSummary(id, CommittedEventDeltas.advanceSummary(cached.summary, event, version), cached.loadNanos)
+                    : null;
+            });
+            // The event count of an account is the version of its last event
+            eventCountCache.compute(accountId, (id, cached) -> {
+                if (cached == null) {
+                    return event instanceof AccountOpenedEvent ? newEventCount(id, version) : null;
+                }
+                if (version <= cached.count) {
+                    return cached;
+                }
+                return version == cached.count + 1 ? newEventCount(id, version) : null;
+            });
+            if (event instanceof AccountOpenedEvent opened) {
+                holderCache.computeIfPresent(opened.getAccountHolder(), (holder, cached) ->
+                    newHolderAccounts(holder, CommittedEventDeltas.withAccount(cached.accountIds, accountId)));
+            }
+        }
     }
     
     @Override
     public Optional<AccountSummary> getCachedAccountSummary(UUID accountId) {
-        totalRequests.incrementAndGet();
+        totalRequests.increment();
         
         CachedAccountSummary cached = summaryCache.get(accountId);
-        if (cached != null && !isExpired(cached.timestamp)) {
-            cacheHits.incrementAndGet();
-            return Optional.of(cached.summary);
+        if (cached != null && !isExpired(cached.deadlineNanos)) {
+            cacheHits.increment();
+            return cached.present;
         }
         
-        cacheMisses.incrementAndGet();
+        cacheMisses.increment();
         return Optional.empty();
     }
     
     @Override
     public AccountSummary getOrCreateAccountSummary(UUID accountId, Function<UUID, BankAccount> accountLoader) {
-        Optional<AccountSummary> cached = getCachedAccountSummary(accountId);
-        if (cached.isPresent()) {
-            return cached.get();
+        totalRequests.increment();
+        
+        CachedAccountSummary cached = summaryCache.get(accountId);
+        if (cached != null && !isExpired(cached.deadlineNanos)) {
+            cacheHits.increment();
+            if (shouldRefreshEarly(cached.deadlineNanos, cached.loadNanos)) {
+                CompletableFuture.runAsync(() -> loadSummary(accountId, accountLoader), loadExecutor);
+            }
+            return cached.summary;
         }
         
-        BankAccount account = accountLoader.apply(accountId);
-        AccountSummary summary = createAccountSummary(account);
-        updateAccountSummary(accountId, summary);
-        return summary;
+        cacheMisses.increment();
+        expireEntries();
+        return await(loadSummary(accountId, accountLoader)).summary;
+    }
+    
+    private CompletableFuture<CachedAccountSummary> loadSummary(UUID accountId, Function<UUID, BankAccount> accountLoader) {
+        return loadOnce(summaryLoads, summaryCache, accountId, id -> {
+            long start = System.nanoTime();
+            AccountSummary summary = createAccountSummary(accountLoader.apply(id));
+            if (summaryCache.size() >= maxCacheSize && !summaryCache.containsKey(id)) {
+                evictEarliest(summaryCache, summaryExpiry);
+            }
+            return newSummary(id, summary, System.nanoTime() - start);
+        }, (cached, loaded) -> cached != null && cached.summary.getVersion() > loaded.summary.getVersion() ? cached : loaded);
     }
     
     @Override
     public CompletableFuture<AccountSummary> getOrCreateAccountSummaryAsync(UUID accountId, Function<UUID, BankAccount> accountLoader) {
-        return CompletableFuture.supplyAsync(() -> getOrCreateAccountSummary(accountId, accountLoader));
+        return CompletableFuture.supplyAsync(() -> getOrCreateAccountSummary(accountId, accountLoader), loadExecutor);
     }
     
     @Override
     public void updateAccountSummary(UUID accountId, AccountSummary summary) {
+        expireEntries();
         // Implement cache size limit with LRU eviction
         if (summaryCache.size() >= maxCacheSize && !summaryCache.containsKey(accountId)) {
-            evictOldestSummary();
+            evictEarliest(summaryCache, summaryExpiry);
         }
         
-        summaryCache.put(accountId, new CachedAccountSummary(summary, LocalDateTime.now()));
+        summaryCache.put(accountId, newSummary(accountId, summary, 0));
     }
     
     @Override
     public Optional<List<UUID>> getCachedAccountsByHolder(String accountHolder) {
-        // Simplified implementation - would need proper indexing in real system
+        totalRequests.increment();
+        
+        CachedHolderAccounts cached = holderCache.get(accountHolder);
+        if (cached != null && !isExpired(cached.deadlineNanos)) {
+            cacheHits.increment();
+            return cached.present;
+        }
+        
+        cacheMisses.increment();
         return Optional.empty();
     }
     
     @Override
     public List<UUID> getOrCreateAccountsByHolder(String accountHolder, Supplier<List<UUID>> accountLoader) {
-        return accountLoader.get();
+        Optional<List<UUID>> cached = getCachedAccountsByHolder(accountHolder);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        List<UUID> accountIds = List.copyOf(accountLoader.get());
+        updateAccountsByHolder(accountHolder, accountIds);
+        return accountIds;
     }
     
     @Override
     public void updateAccountsByHolder(String accountHolder, List<UUID> accountIds) {
-        // Simplified implementation
+        expireEntries();
+        if (holderCache.size() >= maxCacheSize && !holderCache.containsKey(accountHolder)) {
+            evictEarliest(holderCache, holderExpiry);
+        }
+        
+        holderCache.put(accountHolder, newHolderAccounts(accountHolder, List.copyOf(accountIds)));
     }
     
     @Override
     public Optional<Long> getCachedEventCount(UUID accountId) {
-        // Simplified implementation
+        totalRequests.increment();
+        
+        CachedEventCount cached = eventCountCache.get(accountId);
+        if (cached != null && !isExpired(cached.deadlineNanos)) {
+            cacheHits.increment();
+            return cached.present;
+        }
+        
+        cacheMisses.increment();
         return Optional.empty();
     }
     
     @Override
     public Long getOrCreateEventCount(UUID accountId, Supplier<Long> countLoader) {
-        return countLoader.get();
+        Optional<Long> cached = getCachedEventCount(accountId);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        long count = countLoader.get();
+        updateEventCount(accountId, count);
+        return count;
     }
     
     @Override
     public void updateEventCount(UUID accountId, long eventCount) {
-        // Simplified implementation
+        expireEntries();
+        if (eventCountCache.size() >= maxCacheSize && !eventCountCache.containsKey(accountId)) {
+            evictEarliest(eventCountCache, eventCountExpiry);
+        }
+        
+        // An append committed meanwhile may have raised the count past the one loaded
+        eventCountCache.compute(accountId, (id, cached) -> cached != null && !isExpired(cached.deadlineNanos)
+            && cached.count >= eventCount ? cached : newEventCount(id, eventCount));
     }
     
     @Override
     public void invalidateAccount(UUID accountId) {
         boolean balanceRemoved = balanceCache.remove(accountId) != null;
         boolean summaryRemoved = summaryCache.remove(accountId) != null;
+        boolean eventCountRemoved = eventCountCache.remove(accountId) != null;
+        balanceExpiry.cancel(accountId);
+        summaryExpiry.cancel(accountId);
+        eventCountExpiry.cancel(accountId);
         
-        if (balanceRemoved || summaryRemoved) {
-            evictions.incrementAndGet();
+        if (balanceRemoved || summaryRemoved || eventCountRemoved) {
+            evictions.increment();
         }
     }
     
     @Override
     public void invalidateAccountHolder(String accountHolder) {
-        // Simplified implementation
+        holderExpiry.cancel(accountHolder);
+        if (holderCache.remove(accountHolder) != null) {
+            evictions.increment();
+        }
     }
     
     @Override
     public void invalidateAll() {
-        long totalEvicted = balanceCache.size() + summaryCache.size();
+        long totalEvicted = balanceCache.size() + summaryCache.size() + eventCountCache.size() + holderCache.size();
         
         balanceCache.clear();
         summaryCache.clear();
+        eventCountCache.clear();
+        holderCache.clear();
+        balanceExpiry.clear();
+        summaryExpiry.clear();
+        eventCountExpiry.clear();
+        holderExpiry.clear();
         
-        evictions.addAndGet(totalEvicted);
+        evictions.add(totalEvicted);
     }
     
     @Override
     public void cleanUp() {
-        // Remove expired entries
-        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(cacheExpirationMinutes);
-        
-        balanceCache.entrySet().removeIf(entry -> entry.getValue().timestamp.isBefore(cutoff));
-        summaryCache.entrySet().removeIf(entry -> entry.getValue().timestamp.isBefore(cutoff));
+        expireEntries();
     }
     
     @Override
     public CacheStatistics getStatistics() {
-        double hitRate = totalRequests.get() > 0 ? 
-            (double) cacheHits.get() / totalRequests.get() : 0.0;
+        long requests = totalRequests.sum();
+        long hits = cacheHits.sum();
+        double hitRate = requests > 0 ? (double) hits / requests : 0.0;
         
         CacheTypeStats defaultStats = new CacheTypeStats(0, 0, 0, 0.0, 0);
         
         return new CacheStatistics(
-            hitRate, totalRequests.get(), cacheHits.get(), cacheMisses.get(),
+            hitRate, requests, hits, cacheMisses.sum(),
             defaultStats, defaultStats, defaultStats, defaultStats
         );
     }
     
+    /**
+     * Balances and summaries held, expired ones included until the wheel reaches them
+     */
+    int entryCount() {
+        return balanceCache.size() + summaryCache.size() + eventCountCache.size() + holderCache.size();
+    }
+    
+    /**
+     * Keys on the expiry wheels, at most one per entry
+     */
+    int scheduledCount() {
+        return balanceExpiry.size() + summaryExpiry.size() + eventCountExpiry.size() + holderExpiry.size();
+    }
+    
     private AccountSummary createAccountSummary(BankAccount account) {
-        return new AccountSummary(
+        AccountSummary summary = new AccountSummary(
             account.getAccountId(),
             account.getAccountHolder().getFullName(),
             account.getOverdraftLimit(),
             LocalDateTime.now()
         );
+        summary.setCurrentBalance(account.getBalance());
+        summary.setStatus(account.getAccountStatus().getStatus().name());
+        summary.setVersion(account.getVersion());
+        return summary;
     }
     
-    private boolean isExpired(LocalDateTime timestamp) {
-        return timestamp.isBefore(LocalDateTime.now().minusMinutes(cacheExpirationMinutes));
+    /**
+     * Run the loader once for all concurrent callers of the same key. The result is stored
+     * unless a committed event for the key detached the load meanwhile; the check and the
+     * store happen atomically for the key, as does the detaching.
+     */
+    private <E> CompletableFuture<E> loadOnce(Map<UUID, CompletableFuture<E>> loads, Map<UUID, E> cache, UUID accountId,
+                                              Function<UUID, E> loader, BinaryOperator<E> newer) {
+        CompletableFuture<E> load = new CompletableFuture<>();
+        CompletableFuture<E> inFlight = loads.putIfAbsent(accountId, load);
+        if (inFlight != null) {
+            return inFlight;
+        }
+        try {
+            E loaded = loader.apply(accountId);
+            cache.compute(accountId, (id, cached) -> loads.remove(id, load) ? newer.apply(cached, loaded) : cached);
+            load.complete(loaded);
+        } catch (Throwable e) {
+            // Waiters see the failure too
+            load.completeExceptionally(e);
+        } finally {
+            loads.remove(accountId, load);
+        }
+        return load;
     }
     
-    private void evictOldestBalance() {
-        balanceCache.entrySet().stream()
-            .min(Map.Entry.comparingByValue((a, b) -> a.timestamp.compareTo(b.timestamp)))
-            .ifPresent(entry -> {
-                balanceCache.remove(entry.getKey());
-                evictions.incrementAndGet();
-            });
+    private static <E> E await(CompletableFuture<E> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+    
+    /**
+     * Probabilistic early expiration: reload once the time left is within a random multiple of
+     * the load time, -ln(U) for uniform U, which rarely fires long before expiry but becomes
+     * certain just before it
+     */
+    private boolean shouldRefreshEarly(long deadlineNanos, long loadNanos) {
+        if (loadNanos <= 0) {
+            return false;
+        }
+        long remainingNanos = deadlineNanos - ticker.getAsLong();
+        double window = loadNanos * EARLY_REFRESH_BETA * -Math.log(ThreadLocalRandom.current().nextDouble());
+        return window >= remainingNanos;
+    }
+    
+    private boolean isExpired(long deadlineNanos) {
+        // Subtraction, not comparison, so the check holds when nanoTime wraps
+        return ticker.getAsLong() - deadlineNanos >= 0;
+    }
+    
+    /**
+     * Build an entry expiring one time to live from now and put its key on the wheel; the entry
+     * need not end up in the map, visitors check that
+     */
+    private CachedBalance newBalance(UUID accountId, Money balance, long version, long loadNanos) {
+        long deadline = ticker.getAsLong() + expireAfterWriteNanos;
+        balanceExpiry.schedule(accountId, deadline);
+        return new CachedBalance(balance, version, deadline, loadNanos);
+    }
+    
+    private CachedAccountSummary newSummary(UUID accountId, AccountSummary summary, long loadNanos) {
+        long deadline = ticker.getAsLong() + expireAfterWriteNanos;
+        summaryExpiry.schedule(accountId, deadline);
+        return new CachedAccountSummary(summary, deadline, loadNanos);
+    }
+    
+    private CachedEventCount newEventCount(UUID accountId, long count) {
+        long deadline = ticker.getAsLong() + expireAfterWriteNanos;
+        eventCountExpiry.schedule(accountId, deadline);
+        return new CachedEventCount(count, deadline);
+    }
+    
+    private CachedHolderAccounts newHolderAccounts(String accountHolder, List<UUID> accountIds) {
+        long deadline = ticker.getAsLong() + expireAfterWriteNanos;
+        holderExpiry.schedule(accountHolder, deadline);
+        return new CachedHolderAccounts(accountIds, deadline);
+    }
+    
+    /**
+     * Remove the entries of the wheel buckets that have passed. Writes call this before
+     * touching the maps, never from inside a compute on them.
+     */
+    private void expireEntries() {
+        long now = ticker.getAsLong();
+        expire(balanceExpiry, balanceCache, now);
+        expire(summaryExpiry, summaryCache, now);
+        expire(eventCountExpiry, eventCountCache, now);
+        expire(holderExpiry, holderCache, now);
     }
     
-    private void evictOldestSummary() {
-        summaryCache.entrySet().stream()
-            .min(Map.Entry.comparingByValue((a, b) -> a.timestamp.compareTo(b.timestamp)))
+    private <K, E extends CachedEntry> void expire(TimerWheel<K> wheel, Map<K, E> cache, long now) {
+        wheel.advance(now, key -> {
+            E cached = cache.get(key);
+            if (cached == null) {
+                return;
+            }
+            if (now - cached.deadlineNanos < 0) {
+                // Stored after its key was last scheduled, it expires later
+                wheel.schedule(key, cached.deadlineNanos);
+            } else if (cache.remove(key, cached)) {
+                evictions.increment();
+            }
+        });
+    }
+    
+    private <K> void evictEarliest(Map<K, ? extends CachedEntry> cache, TimerWheel<K> wheel) {
+        cache.entrySet().stream()
+            .min((a, b) -> Long.compare(a.getValue().deadlineNanos, b.getValue().deadlineNanos))
             .ifPresent(entry -> {
-                summaryCache.remove(entry.getKey());
-                evictions.incrementAndGet();
+                cache.remove(entry.getKey());
+                wheel.cancel(entry.getKey());
+                evictions.increment();
             });
     }
     
     // Inner classes for cached data
-    private static class CachedBalance {
+    // Each entry holds the Optional returned on a hit, so hits allocate nothing
+    private abstract static class CachedEntry {
+        final long deadlineNanos;
+        
+        CachedEntry(long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+    
+    private static class CachedBalance extends CachedEntry {
         final Money balance;
-        final LocalDateTime timestamp;
+        final Optional<Money> present;
+        final long version;
+        final long loadNanos; // 0 when not loaded
         
-        CachedBalance(Money balance, LocalDateTime timestamp) {
+        CachedBalance(Money balance, long version, long deadlineNanos, long loadNanos) {
+            super(deadlineNanos);
             this.balance = balance;
-            this.timestamp = timestamp;
+            this.present = Optional.of(balance);
+            this.version = version;
+            this.loadNanos = loadNanos;
         }
     }
     
-    private static class CachedAccountSummary {
+    private static class CachedAccountSummary extends CachedEntry {
         final AccountSummary summary;
-        final LocalDateTime timestamp;
+        final Optional<AccountSummary> present;
+        final long loadNanos;
         
-        CachedAccountSummary(AccountSummary summary, LocalDateTime timestamp) {
+        CachedAccountSummary(AccountSummary summary, long deadlineNanos, long loadNanos) {
+            super(deadlineNanos);
             this.summary = summary;
-            this.timestamp = timestamp;
+            this.present = Optional.of(summary);
+            this.loadNanos = loadNanos;
+        }
+    }
+    
+    private static class CachedEventCount extends CachedEntry {
+        final long count;
+        final Optional<Long> present;
+        
+        CachedEventCount(long count, long deadlineNanos) {
+            super(deadlineNanos);
+            this.count = count;
+            this.present = Optional.of(count);
+        }
+    }
+    
+    private static class CachedHolderAccounts extends CachedEntry {
+        final List<UUID> accountIds;
+        final Optional<List<UUID>> present;
+        
+        CachedHolderAccounts(List<UUID> accountIds, long deadlineNanos) {
+            super(deadlineNanos);
+            this.accountIds = accountIds;
+            this.present = Optional.of(accountIds);
         }
     }
 }
\ No newline at end of file
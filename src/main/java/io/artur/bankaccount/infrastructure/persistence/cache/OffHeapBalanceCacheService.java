@@ -0,0 +1,233 @@
+package io.artur.bankaccount.infrastructure.persistence.cache;
+
+import io.artur.bankaccount.application.ports.outgoing.CachePort;
+import io.artur.bankaccount.domain.account.aggregates.BankAccount;
+import io.artur.bankaccount.domain.account.events.AccountOpenedEvent;
+import io.artur.bankaccount.domain.shared.events.DomainEvent;
+import io.artur.bankaccount.domain.shared.valueobjects.Money;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.Currency;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * CachePort tier that keeps balances off the heap, in an {@link OffHeapBalanceTable}, and
+ * passes everything else to the given cache.
+ *
+ * Balances are stored in minor units of the default currency; a balance that does not fit
+ * a long there is not cached. Committed events advance the off-heap balances with the same
+ * version rules as the other implementations and are passed on, so the delegate keeps its
+ * summaries current; it still starts balances for opened accounts, bounded by its own size.
+ */
+public class OffHeapBalanceCacheService implements CachePort {
+
+    private static final Currency CURRENCY = Money.zero().getCurrency();
+    private static final int MINOR_DIGITS = CURRENCY.getDefaultFractionDigits();
+
+    private final OffHeapBalanceTable balances;
+    private final CachePort delegate;
+    private final long expireAfterWriteMillis;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public OffHeapBalanceCacheService(long maxBalances, Duration expireAfterWrite, CachePort delegate) {
+        this(new OffHeapBalanceTable(maxBalances), expireAfterWrite, delegate);
+    }
+
+    OffHeapBalanceCacheService(OffHeapBalanceTable balances, Duration expireAfterWrite, CachePort delegate) {
+        this.balances = balances;
+        this.delegate = delegate;
+        this.expireAfterWriteMillis = expireAfterWrite.toMillis();
+    }
+
+    @Override
+    public Optional<Money> getCachedBalance(UUID accountId) {
+        OffHeapBalanceTable.Record record = balances.get(accountId.getMostSignificantBits(), accountId.getLeastSignificantBits());
+        if (record == null || isExpired(record)) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(toMoney(record.minorUnits));
+    }
+
+    @Override
+    public Money getOrCreateBalance(UUID accountId, Function<UUID, BankAccount> accountLoader) {
+        Optional<Money> cached = getCachedBalance(accountId);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        BankAccount account = accountLoader.apply(accountId);
+        updateBalance(accountId, account.getBalance(), account.getVersion());
+        return account.getBalance();
+    }
+
+    @Override
+    public void updateBalance(UUID accountId, Money newBalance) {
+        updateBalance(accountId, newBalance, -1);
+    }
+
+    @Override
+    public void updateBalance(UUID accountId, Money newBalance, long version) {
+        Long minorUnits = toMinorUnits(newBalance);
+        balances.compute(accountId.getMostSignificantBits(), accountId.getLeastSignificantBits(), current -> {
+            if (minorUnits == null) {
+                return null;
+            }
+            if (version >= 0 && current != null && !isExpired(current) && current.version >= version) {
+                return current;
+            }
+            return new OffHeapBalanceTable.Record(minorUnits, version, System.currentTimeMillis());
+        });
+    }
+
+    @Override
+    public void applyCommittedEvents(UUID accountId, List<? extends DomainEvent> events) {
+        for (DomainEvent event : events) {
+            long version = event.getVersion();
+            balances.compute(accountId.getMostSignificantBits(), accountId.getLeastSignificantBits(), current -> {
+                if (current == null || isExpired(current)) {
+                    return event instanceof AccountOpenedEvent
+                        ? new OffHeapBalanceTable.Record(0, version, System.currentTimeMillis()) : null;
+                }
+                if (version <= current.version) {
+                    return current;
+                }
+                if (version != current.version + 1) {
+                    return null;
+                }
+                Long minorUnits = toMinorUnits(CommittedEventDeltas.advanceBalance(toMoney(current.minorUnits), event));
+                return minorUnits != null
+                    ? new OffHeapBalanceTable.Record(minorUnits, version, System.currentTimeMillis()) : null;
+            });
+        }
+        delegate.applyCommittedEvents(accountId, events);
+    }
+
+    @Override
+    public Optional<AccountSummary> getCachedAccountSummary(UUID accountId) {
+        return delegate.getCachedAccountSummary(accountId);
+    }
+
+    @Override
+    public AccountSummary getOrCreateAccountSummary(UUID accountId, Function<UUID, BankAccount> accountLoader) {
+        return delegate.getOrCreateAccountSummary(accountId, accountLoader);
+    }
+
+    @Override
+    public CompletableFuture<AccountSummary> getOrCreateAccountSummaryAsync(UUID accountId, Function<UUID, BankAccount> accountLoader) {
+        return delegate.getOrCreateAccountSummaryAsync(accountId, accountLoader);
+    }
+
+    @Override
+    public void updateAccountSummary(UUID accountId, AccountSummary summary) {
+        delegate.updateAccountSummary(accountId, summary);
+    }
+
+    @Override
+    public Optional<List<UUID>> getCachedAccountsByHolder(String accountHolder) {
+        return delegate.getCachedAccountsByHolder(accountHolder);
+    }
+
+    @Override
+    public List<UUID> getOrCreateAccountsByHolder(String accountHolder, Supplier<List<UUID>> accountLoader) {
+        return delegate.getOrCreateAccountsByHolder(accountHolder, accountLoader);
+    }
+
+    @Override
+    public void updateAccountsByHolder(String accountHolder, List<UUID> accountIds) {
+        delegate.updateAccountsByHolder(accountHolder, accountIds);
+    }
+
+    @Override
+    public Optional<Long> getCachedEventCount(UUID accountId) {
+        return delegate.getCachedEventCount(accountId);
+    }
+
+    @Override
+    public Long getOrCreateEventCount(UUID accountId, Supplier<Long> countLoader) {
+        return delegate.getOrCreateEventCount(accountId, countLoader);
+    }
+
+    @Override
+    public void updateEventCount(UUID accountId, long eventCount) {
+        delegate.updateEventCount(accountId, eventCount);
+    }
+
+    @Override
+    public void invalidateAccount(UUID accountId) {
+        balances.remove(accountId.getMostSignificantBits(), accountId.getLeastSignificantBits());
+        delegate.invalidateAccount(accountId);
+    }
+
+    @Override
+    public void invalidateAccountHolder(String accountHolder) {
+        delegate.invalidateAccountHolder(accountHolder);
+    }
+
+    @Override
+    public void invalidateAll() {
+        balances.clear();
+        delegate.invalidateAll();
+    }
+
+    @Override
+    public void cleanUp() {
+        // Expired balances are skipped on read and preferred by eviction
+        delegate.cleanUp();
+    }
+
+    @Override
+    public CacheStatistics getStatistics() {
+        CacheStatistics stats = delegate.getStatistics();
+        long balanceHits = hits.sum();
+        long balanceMisses = misses.sum();
+        long balanceRequests = balanceHits + balanceMisses;
+        CacheTypeStats balanceStats = new CacheTypeStats(balanceRequests, balanceHits, balanceMisses,
+            balanceRequests > 0 ? (double) balanceHits / balanceRequests : 0.0, balances.evictionCount());
+
+        // The delegate's balance numbers are replaced by the off-heap ones
+        CacheTypeStats replaced = stats.getBalanceStats();
+        long totalRequests = stats.getTotalRequests() - replaced.getRequestCount() + balanceRequests;
+        long totalHits = stats.getTotalHits() - replaced.getHitCount() + balanceHits;
+        long totalMisses = stats.getTotalMisses() - replaced.getMissCount() + balanceMisses;
+        return new CacheStatistics(totalRequests > 0 ? (double) totalHits / totalRequests : 0.0,
+            totalRequests, totalHits, totalMisses, stats.getAccountSummaryStats(), balanceStats,
+            stats.getAccountsByHolderStats(), stats.getEventCountStats());
+    }
+
+    /**
+     * Number of balances held and bytes reserved for them outside the heap
+     */
+    public long getBalanceCount() {
+        return balances.size();
+    }
+
+    public long getReservedBytes() {
+        return balances.capacityBytes();
+    }
+
+    private boolean isExpired(OffHeapBalanceTable.Record record) {
+        return System.currentTimeMillis() - record.writtenAtMillis >= expireAfterWriteMillis;
+    }
+
+    private static Money toMoney(long minorUnits) {
+        return new Money(BigDecimal.valueOf(minorUnits, MINOR_DIGITS), CURRENCY);
+    }
+
+    private static Long toMinorUnits(Money money) {
+        if (!CURRENCY.equals(money.getCurrency())) {
+            return null;
+        }
+        BigInteger minorUnits = money.getAmount().movePointRight(MINOR_DIGITS).toBigIntegerExact();
+        return minorUnits.bitLength() < Long.SIZE ? minorUnits.longValue() : null;
+    }
+}
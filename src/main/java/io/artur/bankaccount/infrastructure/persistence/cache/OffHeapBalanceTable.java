@@ -0,0 +1,316 @@
+package io.artur.bankaccount.infrastructure.persistence.cache;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Open addressing hash table of fixed width balance records held in direct buffers, outside
+ * the heap, so millions of entries neither add to the live set the collector traces nor
+ * carry object headers.
+ *
+ * A record is 40 bytes: the account id as its two longs, the balance in minor units, the
+ * account version and the write time in epoch millis. An all zero id marks an empty slot.
+ * The table is split into segments of a power of two slots, each one buffer behind its own
+ * lock. The high bits of a key's hash pick the segment and the low bits its home slot;
+ * collisions probe linearly within the segment. Removal shifts the rest of the probe run
+ * back instead of leaving tombstones. A full segment evicts the oldest of a few records
+ * following the new key's home slot.
+ */
+final class OffHeapBalanceTable {
+
+    static final int RECORD_BYTES = 40;
+    private static final int MSB = 0;
+    private static final int LSB = 8;
+    private static final int MINOR_UNITS = 16;
+    private static final int VERSION = 24;
+    private static final int WRITTEN_AT = 32;
+
+    private static final double MAX_LOAD = 0.75;
+    private static final int MAX_SEGMENT_SLOTS = 1 << 20;
+    private static final int MIN_SEGMENTS = 64;
+    private static final int EVICTION_SAMPLE = 8;
+
+    private final Segment[] segments;
+    private final int segmentShift;
+    private final int segmentMask;
+    private final AtomicLong evictions = new AtomicLong();
+
+    OffHeapBalanceTable(long maxEntries) {
+        this(maxEntries, defaultSegmentCount(maxEntries));
+    }
+
+    OffHeapBalanceTable(long maxEntries, int segmentCount) {
+        if (Integer.bitCount(segmentCount) != 1) {
+            throw new IllegalArgumentException("Segment count must be a power of two: " + segmentCount);
+        }
+        long slots = totalSlots(maxEntries);
+        int segmentSlots = (int) Math.max(2, Math.min(MAX_SEGMENT_SLOTS, slots / segmentCount));
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentSlots);
+        }
+        this.segmentShift = 64 - Integer.numberOfTrailingZeros(segmentCount);
+        this.segmentMask = segmentCount - 1;
+    }
+
+    /**
+     * Record for the key, null if absent
+     */
+    Record get(long msb, long lsb) {
+        long hash = hash(msb, lsb);
+        Segment segment = segmentFor(hash);
+        long stamp = segment.lock.tryOptimisticRead();
+        Record record = segment.read(msb, lsb, hash);
+        if (!segment.lock.validate(stamp)) {
+            stamp = segment.lock.readLock();
+            try {
+                record = segment.read(msb, lsb, hash);
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return record;
+    }
+
+    /**
+     * Replace the record for the key with the result of the function, which receives null if
+     * the key is absent and removes the record by returning null. The all zero key is not stored.
+     */
+    void compute(long msb, long lsb, UnaryOperator<Record> remapping) {
+        if (msb == 0 && lsb == 0) {
+            return;
+        }
+        long hash = hash(msb, lsb);
+        Segment segment = segmentFor(hash);
+        long stamp = segment.lock.writeLock();
+        try {
+            segment.compute(msb, lsb, hash, remapping);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    void remove(long msb, long lsb) {
+        compute(msb, lsb, current -> null);
+    }
+
+    void clear() {
+        for (Segment segment : segments) {
+            long stamp = segment.lock.writeLock();
+            try {
+                segment.clear();
+            } finally {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    long evictionCount() {
+        return evictions.get();
+    }
+
+    long capacityBytes() {
+        return (long) segments.length * segments[0].slots * RECORD_BYTES;
+    }
+
+    private Segment segmentFor(long hash) {
+        // A shift by 64 is no shift in Java, the mask covers the single segment case
+        return segments[(int) (hash >>> segmentShift) & segmentMask];
+    }
+
+    private static long hash(long msb, long lsb) {
+        // Murmur3 finalizer, random UUIDs are well spread already but others need not be
+        long h = msb ^ Long.rotateLeft(lsb, 32);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static long totalSlots(long maxEntries) {
+        long slots = (long) Math.ceil(Math.max(1, maxEntries) / MAX_LOAD);
+        return Long.highestOneBit(slots - 1) << 1;
+    }
+
+    private static int defaultSegmentCount(long maxEntries) {
+        long slots = totalSlots(maxEntries);
+        return (int) Long.highestOneBit(Math.max(MIN_SEGMENTS, slots / MAX_SEGMENT_SLOTS));
+    }
+
+    /**
+     * Values of a record, copied out of the buffer
+     */
+    static final class Record {
+        final long minorUnits;
+        final long version;
+        final long writtenAtMillis;
+
+        Record(long minorUnits, long version, long writtenAtMillis) {
+            this.minorUnits = minorUnits;
+            this.version = version;
+            this.writtenAtMillis = writtenAtMillis;
+        }
+    }
+
+    private final class Segment {
+        private final StampedLock lock = new StampedLock();
+        private final ByteBuffer buffer;
+        private final int slots;
+        private final int mask;
+        private final int maxSize;
+        private int size;
+
+        private Segment(int slots) {
+            this.buffer = ByteBuffer.allocateDirect(slots * RECORD_BYTES);
+            this.slots = slots;
+            this.mask = slots - 1;
+            this.maxSize = Math.max(1, (int) (slots * MAX_LOAD));
+        }
+
+        private Record read(long msb, long lsb, long hash) {
+            int slot = (int) hash & mask;
+            for (int probes = 0; probes < slots; probes++, slot = (slot + 1) & mask) {
+                int offset = slot * RECORD_BYTES;
+                long slotMsb = buffer.getLong(offset + MSB);
+                long slotLsb = buffer.getLong(offset + LSB);
+                if (slotMsb == msb && slotLsb == lsb) {
+                    return new Record(buffer.getLong(offset + MINOR_UNITS), buffer.getLong(offset + VERSION),
+                        buffer.getLong(offset + WRITTEN_AT));
+                }
+                if (slotMsb == 0 && slotLsb == 0) {
+                    return null;
+                }
+            }
+            return null;
+        }
+
+        private void compute(long msb, long lsb, long hash, UnaryOperator<Record> remapping) {
+            int home = (int) hash & mask;
+            int slot = find(msb, lsb, home);
+            Record current = slot >= 0 && !isEmpty(slot)
+                ? new Record(buffer.getLong(slot * RECORD_BYTES + MINOR_UNITS), buffer.getLong(slot * RECORD_BYTES + VERSION),
+                    buffer.getLong(slot * RECORD_BYTES + WRITTEN_AT))
+                : null;
+            Record next = remapping.apply(current);
+
+            if (next == null) {
+                if (current != null) {
+                    delete(slot);
+                }
+                return;
+            }
+            if (current == null) {
+                if (size >= maxSize) {
+                    evictNear(home);
+                    evictions.incrementAndGet();
+                }
+                slot = find(msb, lsb, home);
+                buffer.putLong(slot * RECORD_BYTES + MSB, msb);
+                buffer.putLong(slot * RECORD_BYTES + LSB, lsb);
+                size++;
+            }
+            int offset = slot * RECORD_BYTES;
+            buffer.putLong(offset + MINOR_UNITS, next.minorUnits);
+            buffer.putLong(offset + VERSION, next.version);
+            buffer.putLong(offset + WRITTEN_AT, next.writtenAtMillis);
+        }
+
+        /**
+         * Slot holding the key, or the empty slot ending its probe run; -1 if neither exists
+         */
+        private int find(long msb, long lsb, int home) {
+            int slot = home;
+            for (int probes = 0; probes < slots; probes++, slot = (slot + 1) & mask) {
+                int offset = slot * RECORD_BYTES;
+                long slotMsb = buffer.getLong(offset + MSB);
+                long slotLsb = buffer.getLong(offset + LSB);
+                if ((slotMsb == msb && slotLsb == lsb) || (slotMsb == 0 && slotLsb == 0)) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        private void evictNear(int home) {
+            int victim = -1;
+            long oldest = Long.MAX_VALUE;
+            int slot = home;
+            for (int sampled = 0, probes = 0; sampled < EVICTION_SAMPLE && probes < slots; probes++, slot = (slot + 1) & mask) {
+                if (isEmpty(slot)) {
+                    continue;
+                }
+                long writtenAt = buffer.getLong(slot * RECORD_BYTES + WRITTEN_AT);
+                if (writtenAt < oldest) {
+                    oldest = writtenAt;
+                    victim = slot;
+                }
+                sampled++;
+            }
+            if (victim >= 0) {
+                delete(victim);
+            }
+        }
+
+        /**
+         * Remove the record and move later records of the probe run back into the hole when
+         * that does not put them before their home slot
+         */
+        private void delete(int slot) {
+            int hole = slot;
+            int next = slot;
+            while (true) {
+                next = (next + 1) & mask;
+                if (isEmpty(next)) {
+                    break;
+                }
+                int offset = next * RECORD_BYTES;
+                int home = (int) hash(buffer.getLong(offset + MSB), buffer.getLong(offset + LSB)) & mask;
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    copy(next, hole);
+                    hole = next;
+                }
+            }
+            clearSlot(hole);
+            size--;
+        }
+
+        private void copy(int from, int to) {
+            int source = from * RECORD_BYTES;
+            int target = to * RECORD_BYTES;
+            for (int field = 0; field < RECORD_BYTES; field += Long.BYTES) {
+                buffer.putLong(target + field, buffer.getLong(source + field));
+            }
+        }
+
+        private void clearSlot(int slot) {
+            int offset = slot * RECORD_BYTES;
+            for (int field = 0; field < RECORD_BYTES; field += Long.BYTES) {
+                buffer.putLong(offset + field, 0L);
+            }
+        }
+
+        private boolean isEmpty(int slot) {
+            int offset = slot * RECORD_BYTES;
+            return buffer.getLong(offset + MSB) == 0 && buffer.getLong(offset + LSB) == 0;
+        }
+
+        private void clear() {
+            for (int slot = 0; slot < slots; slot++) {
+                clearSlot(slot);
+            }
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package io.artur.bankaccount.infrastructure.persistence.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Keys bucketed by the tick their deadline falls in, so expired entries are found by visiting
+ * the buckets whose time has passed rather than by scanning the whole cache.
+ *
+ * Each key has one timer node, linked into the bucket of its deadline. Scheduling a key again,
+ * as every write does, unlinks the node and links it into its new bucket, so the wheel holds
+ * one node per key however often the key is written. The wheel spans more than the longest
+ * time to live, so a key is scheduled at most one turn ahead. A visited key is taken off the
+ * wheel; visitors still check the entry's actual deadline, since the entry written last is not
+ * always the one whose schedule came last, and schedule it again if it has not expired.
+ */
+final class TimerWheel<K> {
+
+    // Sentinels of circular doubly linked lists
+    private final Node<K>[] buckets;
+    private final Map<K, Node<K>> nodes = new HashMap<>();
+    private final long bucketNanos;
+    private final int mask;
+    // Guards the buckets and nodes; advancing skips a round rather than wait for it
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile long nextTick; // first tick not visited yet, written under lock
+
+    @SuppressWarnings("unchecked")
+    TimerWheel(long spanNanos, int bucketCount, long nowNanos) {
+        if (Integer.bitCount(bucketCount) != 1 || bucketCount < 4) {
+            throw new IllegalArgumentException("Bucket count must be a power of two of at least 4: " + bucketCount);
+        }
+        this.buckets = new Node[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = Node.sentinel();
+        }
+        // Two buckets spare: the one being filled now and the one being visited
+        this.bucketNanos = Math.max(1, spanNanos / (bucketCount - 2) + 1);
+        this.mask = bucketCount - 1;
+        this.nextTick = Math.floorDiv(nowNanos, bucketNanos);
+    }
+
+    /**
+     * Put the key in the bucket of the deadline, moving it out of the bucket it was in
+     */
+    void schedule(K key, long deadlineNanos) {
+        lock.lock();
+        try {
+            Node<K> node = nodes.computeIfAbsent(key, Node::new);
+            node.unlink();
+            node.linkBefore(buckets[(int) Math.floorDiv(deadlineNanos, bucketNanos) & mask]);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Take the key off the wheel, e.g. when its entry is removed
+     */
+    void cancel(K key) {
+        lock.lock();
+        try {
+            Node<K> node = nodes.remove(key);
+            if (node != null) {
+                node.unlink();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hand the keys of every bucket whose tick has passed to the visitor. Returns without
+     * waiting when no tick has passed or another thread holds the wheel. The keys are taken off
+     * the wheel first and visited after it is released, so a visitor may lock the cache, whose
+     * writers schedule keys while they hold it.
+     */
+    void advance(long nowNanos, Consumer<K> visitor) {
+        long currentTick = Math.floorDiv(nowNanos, bucketNanos);
+        if (currentTick <= nextTick || !lock.tryLock()) {
+            return;
+        }
+        List<K> due = new ArrayList<>();
+        try {
+            for (long tick = Math.max(nextTick, currentTick - mask); tick < currentTick; tick++) {
+                Node<K> sentinel = buckets[(int) tick & mask];
+                for (Node<K> node = sentinel.next; node != sentinel; ) {
+                    Node<K> next = node.next;
+                    node.prev = null;
+                    node.next = null;
+                    nodes.remove(node.key);
+                    due.add(node.key);
+                    node = next;
+                }
+                sentinel.next = sentinel;
+                sentinel.prev = sentinel;
+            }
+            nextTick = currentTick;
+        } finally {
+            lock.unlock();
+        }
+        due.forEach(visitor);
+    }
+
+    void clear() {
+        lock.lock();
+        try {
+            for (Node<K> sentinel : buckets) {
+                sentinel.next = sentinel;
+                sentinel.prev = sentinel;
+            }
+            nodes.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Keys on the wheel
+     */
+    int size() {
+        lock.lock();
+        try {
+            return nodes.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Node<K> {
+        private final K key;
+        private Node<K> prev;
+        private Node<K> next;
+
+        private Node(K key) {
+            this.key = key;
+        }
+
+        static <K> Node<K> sentinel() {
+            Node<K> sentinel = new Node<>(null);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            return sentinel;
+        }
+
+        void linkBefore(Node<K> sentinel) {
+            prev = sentinel.prev;
+            next = sentinel;
+            sentinel.prev.next = this;
+            sentinel.prev = this;
+        }
+
+        void unlink() {
+            if (prev != null) {
+                prev.next = next;
+                next.prev = prev;
+                prev = null;
+                next = null;
+            }
+        }
+    }
+}
@@ -1,15 +1,19 @@
 package io.artur.bankaccount.infrastructure.persistence.eventstore;
 
+import io.artur.bankaccount.application.ports.outgoing.CachePort;
 import io.artur.bankaccount.application.ports.outgoing.EventStorePort;
+import io.artur.bankaccount.domain.account.events.AccountEventBase;
 import io.artur.bankaccount.domain.shared.events.DomainEvent;
+import io.artur.bankaccount.domain.shared.events.EventMetadata;
 import io.artur.bankaccount.infrastructure.persistence.eventstore.serialization.EventSerializer;
-import org.springframework.stereotype.Component;
 
 import javax.sql.DataSource;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
@@ -17,14 +21,19 @@ import java.util.concurrent.atomic.AtomicLong;
 /**
  * Native event store implementation that directly implements EventStorePort
  * without depending on legacy infrastructure
+ *
+ * With a cache, event counts and existence checks are answered from the cached count of the
+ * aggregate. Every committed append raises it to the version of its last event, so it only
+ * goes back to the database for aggregates it has not seen yet.
  */
-@Component
 public class NativeEventStore implements EventStorePort {
     
     private final DataSource dataSource;
     private final EventSerializer eventSerializer;
     private final ConcurrentHashMap<UUID, AtomicLong> versionCounters = new ConcurrentHashMap<>();
-    private final ExecutorService dbOperationExecutor;
+    private final Executor dbOperationExecutor;
+    private final CachePort cache;
+    private final ThreadLocal<Long> lastAppendedPosition = new ThreadLocal<>();
     
     // SQL statements
     private static final String INSERT_EVENT_SQL = """
@@ -32,6 +41,8 @@ public class NativeEventStore implements EventStorePort {
         VALUES (?, ?, ?, ?, ?, ?)
         """;
     
+    private static final String[] GENERATED_POSITION = {"event_id"};
+    
     private static final String SELECT_EVENTS_SQL = """
         SELECT event_type, event_data, event_version, created_at, correlation_id
         FROM events WHERE aggregate_id = ? ORDER BY event_version ASC
@@ -47,6 +58,14 @@ public class NativeEventStore implements EventStorePort {
         FROM events WHERE aggregate_id = ? AND event_version >= ? ORDER BY event_version ASC
         """;
     
+    private static final String SELECT_ALL_EVENTS_SQL = """
+        SELECT event_id, aggregate_id, event_type, event_data, event_version, created_at
+        FROM events WHERE event_id > ? ORDER BY event_id ASC LIMIT ?
+        """;
+    
+    private static final String MAX_POSITION_SQL = 
+        "SELECT MAX(event_id) FROM events";
+    
     private static final String COUNT_EVENTS_SQL = 
         "SELECT COUNT(*) FROM events WHERE aggregate_id = ?";
     
@@ -54,22 +73,36 @@ public class NativeEventStore implements EventStorePort {
         "SELECT MAX(event_version) FROM events WHERE aggregate_id = ?";
     
     public NativeEventStore(DataSource dataSource, EventSerializer eventSerializer) {
+        this(dataSource, eventSerializer, ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Run the *Async operations on the given executor, e.g. a virtual thread per task executor
+     * so that async and blocking callers share the same carrier model
+     */
+    public NativeEventStore(DataSource dataSource, EventSerializer eventSerializer, Executor dbOperationExecutor) {
+        this(dataSource, eventSerializer, dbOperationExecutor, null);
+    }
+    
+    /**
+     * Keep event counts in the given cache, or always count in the database when it is null
+     */
+    public NativeEventStore(DataSource dataSource, EventSerializer eventSerializer, Executor dbOperationExecutor,
+                            CachePort cache) {
         this.dataSource = dataSource;
         this.eventSerializer = eventSerializer;
-        this.dbOperationExecutor = Executors.newCachedThreadPool(r -> {
-            Thread t = new Thread(r, "db-operation");
-            t.setDaemon(true);
-            return t;
-        });
+        this.dbOperationExecutor = dbOperationExecutor;
+        this.cache = cache;
         initializeSchema();
     }
     
     @Override
     public void saveEvent(UUID aggregateId, DomainEvent event) {
         try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(INSERT_EVENT_SQL)) {
+             PreparedStatement stmt = conn.prepareStatement(INSERT_EVENT_SQL, GENERATED_POSITION)) {
             
             long version = getNextVersion(aggregateId);
+            stampVersion(event, version);
             String serializedEvent = eventSerializer.serialize(event);
             
             stmt.setString(1, aggregateId.toString());
@@ -83,12 +116,72 @@ public class NativeEventStore implements EventStorePort {
             if (rowsAffected == 0) {
                 throw new RuntimeException("Failed to save event for aggregate " + aggregateId);
             }
+            recordEventCount(aggregateId, version);
+            lastAppendedPosition.set(lastGeneratedPosition(stmt));
             
         } catch (SQLException e) {
             throw new RuntimeException("Error saving event for aggregate " + aggregateId, e);
         }
     }
     
+    @Override
+    public void saveEvents(UUID aggregateId, List<? extends DomainEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        saveEventBatch(Map.of(aggregateId, events));
+    }
+    
+    @Override
+    public void saveEventBatch(Map<UUID, ? extends List<? extends DomainEvent>> eventsByAggregate) {
+        if (eventsByAggregate.isEmpty()) {
+            return;
+        }
+        
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_EVENT_SQL, GENERATED_POSITION)) {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                Map<UUID, Long> lastVersions = new HashMap<>();
+                
+                for (Map.Entry<UUID, ? extends List<? extends DomainEvent>> entry : eventsByAggregate.entrySet()) {
+                    UUID aggregateId = entry.getKey();
+                    for (DomainEvent event : entry.getValue()) {
+                        long version = getNextVersion(aggregateId);
+                        stampVersion(event, version);
+                        stmt.setString(1, aggregateId.toString());
+                        stmt.setString(2, event.getClass().getSimpleName());
+                        stmt.setString(3, eventSerializer.serialize(event));
+                        stmt.setLong(4, version);
+                        stmt.setTimestamp(5, now);
+                        stmt.setString(6, event.getMetadata().getCorrelationId());
+                        stmt.addBatch();
+                        lastVersions.put(aggregateId, version);
+                    }
+                }
+                
+                stmt.executeBatch();
+                long appended = lastGeneratedPosition(stmt);
+                conn.commit();
+                lastVersions.forEach(this::recordEventCount);
+                lastAppendedPosition.set(appended);
+                
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                // Versions handed out for the rolled back rows must be re-read from the database
+                eventsByAggregate.keySet().forEach(versionCounters::remove);
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Error saving event batch for " + eventsByAggregate.size() + " aggregates", e);
+        }
+    }
+    
     @Override
     public CompletableFuture<Void> saveEventAsync(UUID aggregateId, DomainEvent event) {
         return CompletableFuture.runAsync(() -> {
@@ -109,6 +202,7 @@ public class NativeEventStore implements EventStorePort {
                     DomainEvent event = deserializeEvent(rs);
                     events.add(event);
                 }
+                recordEventCount(aggregateId, events.size());
                 return events;
             }
             
@@ -197,6 +291,19 @@ public class NativeEventStore implements EventStorePort {
     
     @Override
     public long getEventCount(UUID aggregateId) {
+        if (cache != null && cache.getCachedEventCount(aggregateId).isPresent()) {
+            return cache.getOrCreateEventCount(aggregateId, () -> countEvents(aggregateId));
+        }
+        // Zero is not cached: another instance may append the first event, and a cached zero
+        // would hide it until expiry. Cached counts only grow, so they stay safe to serve.
+        long count = countEvents(aggregateId);
+        if (count > 0) {
+            recordEventCount(aggregateId, count);
+        }
+        return count;
+    }
+    
+    private long countEvents(UUID aggregateId) {
         try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(COUNT_EVENTS_SQL)) {
             
@@ -234,25 +341,116 @@ public class NativeEventStore implements EventStorePort {
         }
     }
     
+    @Override
+    public List<StoredEvent> readAllEvents(long afterPosition, int limit) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_EVENTS_SQL)) {
+            
+            stmt.setLong(1, afterPosition);
+            stmt.setInt(2, limit);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<StoredEvent> events = new ArrayList<>(limit);
+                while (rs.next()) {
+                    events.add(new StoredEvent(
+                        rs.getLong("event_id"),
+                        UUID.fromString(rs.getString("aggregate_id")),
+                        rs.getLong("event_version"),
+                        rs.getTimestamp("created_at").toLocalDateTime(),
+                        deserializeEvent(rs)
+                    ));
+                }
+                return events;
+            }
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Error reading events after position " + afterPosition, e);
+        }
+    }
+    
+    @Override
+    public long takeLastAppendedPosition() {
+        Long position = lastAppendedPosition.get();
+        lastAppendedPosition.remove();
+        return position != null ? position : 0;
+    }
+    
+    @Override
+    public long getLatestPosition() {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(MAX_POSITION_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            if (rs.next()) {
+                long position = rs.getLong(1);
+                return rs.wasNull() ? 0 : position;
+            }
+            return 0;
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Error getting latest event position", e);
+        }
+    }
+    
+    /**
+     * Record the version the event is stored at in its metadata, so whoever committed it knows
+     * its place in the aggregate's stream. Metadata can be shared between the events of one
+     * command, so each event gets its own copy.
+     */
+    private static void stampVersion(DomainEvent event, long version) {
+        if (event instanceof AccountEventBase accountEvent) {
+            EventMetadata metadata = accountEvent.getMetadata();
+            accountEvent.setMetadata(metadata != null ? metadata.withVersion((int) version) : new EventMetadata((int) version));
+        }
+    }
+    
+    /**
+     * Highest generated key, i.e. the log position of the last event the statement inserted
+     */
+    private static long lastGeneratedPosition(PreparedStatement stmt) throws SQLException {
+        long last = 0;
+        try (ResultSet keys = stmt.getGeneratedKeys()) {
+            while (keys.next()) {
+                last = Math.max(last, keys.getLong(1));
+            }
+        }
+        return last;
+    }
+    
+    /**
+     * Versions are dense from 1, so the version of an aggregate's last event is its event count
+     */
+    private void recordEventCount(UUID aggregateId, long eventCount) {
+        if (cache != null) {
+            cache.updateEventCount(aggregateId, eventCount);
+        }
+    }
+    
     private long getNextVersion(UUID aggregateId) {
         return versionCounters.computeIfAbsent(aggregateId, k -> new AtomicLong(getLatestVersion(aggregateId)))
                              .incrementAndGet();
     }
     
+    /**
+     * The event of the current row, carrying the version it is stored at, so projections can
+     * tell an event they applied before from a new one
+     */
     private DomainEvent deserializeEvent(ResultSet rs) throws SQLException {
         String eventType = rs.getString("event_type");
         String eventData = rs.getString("event_data");
-        return eventSerializer.deserialize(eventData, eventType);
+        DomainEvent event = eventSerializer.deserialize(eventData, eventType, rs.getTimestamp("created_at").toLocalDateTime());
+        stampVersion(event, rs.getLong("event_version"));
+        return event;
     }
     
     private void initializeSchema() {
         try (Connection conn = dataSource.getConnection();
              Statement stmt = conn.createStatement()) {
             
-            // Create events table if it doesn't exist
+            // Create events table if it doesn't exist; event_id is the position in the global log
             String createTableSQL = """
                 CREATE TABLE IF NOT EXISTS events (
-                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    event_id BIGINT AUTO_INCREMENT PRIMARY KEY,
                     aggregate_id VARCHAR(36) NOT NULL,
                     event_type VARCHAR(255) NOT NULL,
                     event_data CLOB NOT NULL,
@@ -3,12 +3,14 @@ package io.artur.bankaccount.infrastructure.persistence.eventstore.serialization
 import io.artur.bankaccount.domain.shared.events.DomainEvent;
 import io.artur.bankaccount.domain.account.events.*;
 import io.artur.bankaccount.domain.shared.events.EventMetadata;
+import io.artur.bankaccount.domain.shared.valueobjects.Money;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -16,7 +18,6 @@ import java.util.UUID;
 /**
  * Native event serializer that handles domain events without depending on legacy infrastructure
  */
-@Component
 public class EventSerializer {
     
     private final ObjectMapper objectMapper;
@@ -34,6 +35,7 @@ public class EventSerializer {
             wrapper.eventType = event.getClass().getSimpleName();
             wrapper.aggregateId = event.getId();
             wrapper.metadata = event.getMetadata();
+            wrapper.timestamp = event.getTimestamp();
             
             // Serialize specific event data based on type
             if (event instanceof AccountOpenedEvent openedEvent) {
@@ -51,6 +53,21 @@ public class EventSerializer {
                 wrapper.amount = receivedEvent.getAmount();
                 wrapper.fromAccountId = receivedEvent.getFromAccountId();
                 wrapper.description = receivedEvent.getDescription();
+            } else if (event instanceof AccountFrozenEvent frozenEvent) {
+                wrapper.reason = frozenEvent.getReason();
+                wrapper.performedBy = frozenEvent.getFrozenBy();
+            } else if (event instanceof AccountClosedEvent closedEvent) {
+                wrapper.reason = closedEvent.getReason();
+                wrapper.performedBy = closedEvent.getClosedBy();
+                wrapper.amount = closedEvent.getFinalBalance() != null ? closedEvent.getFinalBalance().getAmount() : null;
+            } else if (event instanceof AccountReactivatedEvent reactivatedEvent) {
+                wrapper.reason = reactivatedEvent.getReason();
+                wrapper.performedBy = reactivatedEvent.getReactivatedBy();
+                wrapper.previousStatus = reactivatedEvent.getPreviousStatus();
+            } else if (event instanceof AccountMarkedDormantEvent dormantEvent) {
+                wrapper.reason = dormantEvent.getReason();
+                wrapper.performedBy = dormantEvent.getMarkedBy();
+                wrapper.lastActivity = dormantEvent.getLastActivity();
             }
             
             return objectMapper.writeValueAsString(wrapper);
@@ -61,6 +78,14 @@ public class EventSerializer {
     }
     
     public DomainEvent deserialize(String eventData, String eventType) {
+        return deserialize(eventData, eventType, null);
+    }
+    
+    /**
+     * Deserialize an event, restoring the time it happened. Events written before the timestamp
+     * was part of the payload get the fallback, e.g. the time the row was recorded.
+     */
+    public DomainEvent deserialize(String eventData, String eventType, LocalDateTime fallbackTimestamp) {
         try {
             Class<? extends DomainEvent> eventClass = eventTypeRegistry.get(eventType);
             if (eventClass == null) {
@@ -71,7 +96,7 @@ public class EventSerializer {
             EventWrapper wrapper = objectMapper.treeToValue(jsonNode, EventWrapper.class);
             
             // Create specific event based on type
-            return switch (eventType) {
+            DomainEvent event = switch (eventType) {
                 case "AccountOpenedEvent" -> new AccountOpenedEvent(
                     wrapper.aggregateId,
                     wrapper.accountHolder,
@@ -102,9 +127,43 @@ public class EventSerializer {
                     wrapper.description != null ? wrapper.description : "",
                     wrapper.metadata
                 );
+                case "AccountFrozenEvent" -> new AccountFrozenEvent(
+                    wrapper.aggregateId,
+                    wrapper.reason,
+                    wrapper.performedBy,
+                    wrapper.metadata
+                );
+                case "AccountClosedEvent" -> new AccountClosedEvent(
+                    wrapper.aggregateId,
+                    wrapper.reason,
+                    wrapper.performedBy,
+                    wrapper.amount != null ? Money.of(wrapper.amount) : Money.zero(),
+                    wrapper.metadata
+                );
+                case "AccountReactivatedEvent" -> new AccountReactivatedEvent(
+                    wrapper.aggregateId,
+                    wrapper.reason,
+                    wrapper.performedBy,
+                    wrapper.previousStatus,
+                    wrapper.metadata
+                );
+                case "AccountMarkedDormantEvent" -> new AccountMarkedDormantEvent(
+                    wrapper.aggregateId,
+                    wrapper.reason,
+                    wrapper.performedBy,
+                    wrapper.lastActivity,
+                    wrapper.metadata
+                );
                 default -> throw new IllegalArgumentException("Unsupported event type: " + eventType);
             };
             
+            // The constructors stamp the current time, which would make replayed events look new
+            LocalDateTime timestamp = wrapper.timestamp != null ? wrapper.timestamp : fallbackTimestamp;
+            if (timestamp != null && event instanceof AccountEventBase accountEvent) {
+                accountEvent.setTimestamp(timestamp);
+            }
+            return event;
+            
         } catch (Exception e) {
             throw new RuntimeException("Failed to deserialize event: " + eventType, e);
         }
@@ -117,6 +176,10 @@ public class EventSerializer {
         registry.put("MoneyWithdrawnEvent", MoneyWithdrawnEvent.class);
         registry.put("MoneyTransferredEvent", MoneyTransferredEvent.class);
         registry.put("MoneyReceivedEvent", MoneyReceivedEvent.class);
+        registry.put("AccountFrozenEvent", AccountFrozenEvent.class);
+        registry.put("AccountClosedEvent", AccountClosedEvent.class);
+        registry.put("AccountReactivatedEvent", AccountReactivatedEvent.class);
+        registry.put("AccountMarkedDormantEvent", AccountMarkedDormantEvent.class);
         return registry;
     }
     
@@ -127,6 +190,7 @@ public class EventSerializer {
         public String eventType;
         public UUID aggregateId;
         public EventMetadata metadata;
+        public LocalDateTime timestamp;
         
         // Event-specific fields
         public String accountHolder;
@@ -135,5 +199,9 @@ public class EventSerializer {
         public UUID toAccountId;
         public UUID fromAccountId;
         public String description;
+        public String reason;
+        public String performedBy;
+        public String previousStatus;
+        public Instant lastActivity;
     }
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package io.artur.bankaccount.infrastructure.persistence.queries;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running account statistics maintained from read model changes.
+ *
+ * Counts live in striped {@link LongAdder}s so concurrent projections do not contend on one
+ * counter. The total balance has to stay exact and is a single BigDecimal updated by CAS with
+ * the balance delta of each change. Readers get O(1) answers; counts and total are each exact
+ * but may be momentarily out of step with each other while a change is being applied.
+ */
+class AccountStatisticsAccumulator {
+
+    private final LongAdder accounts = new LongAdder();
+    private final ConcurrentMap<String, LongAdder> accountsByStatus = new ConcurrentHashMap<>();
+    private final AtomicReference<BigDecimal> totalBalance = new AtomicReference<>(BigDecimal.ZERO);
+
+    void added(String status, BigDecimal balance) {
+        accounts.increment();
+        counter(status).increment();
+        addBalance(balance);
+    }
+
+    void changed(String previousStatus, BigDecimal previousBalance, String status, BigDecimal balance) {
+        if (!Objects.equals(previousStatus, status)) {
+            counter(status).increment();
+            counter(previousStatus).decrement();
+        }
+        if (!Objects.equals(previousBalance, balance)) {
+            addBalance(orZero(balance).subtract(orZero(previousBalance)));
+        }
+    }
+
+    void removed(String status, BigDecimal balance) {
+        counter(status).decrement();
+        accounts.decrement();
+        addBalance(orZero(balance).negate());
+    }
+
+    long getAccountCount() {
+        return accounts.sum();
+    }
+
+    long getCount(String status) {
+        LongAdder counter = status != null ? accountsByStatus.get(status) : null;
+        return counter != null ? counter.sum() : 0;
+    }
+
+    BigDecimal getTotalBalance() {
+        return totalBalance.get();
+    }
+
+    private LongAdder counter(String status) {
+        // Read models always carry a status, the key only guards against a null from a bad projection
+        return accountsByStatus.computeIfAbsent(status != null ? status : "", s -> new LongAdder());
+    }
+
+    private void addBalance(BigDecimal delta) {
+        if (delta != null && delta.signum() != 0) {
+            totalBalance.accumulateAndGet(delta, BigDecimal::add);
+        }
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
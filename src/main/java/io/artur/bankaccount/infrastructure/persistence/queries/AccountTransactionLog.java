@@ -0,0 +1,315 @@
+package io.artur.bankaccount.infrastructure.persistence.queries;
+
+import io.artur.bankaccount.application.queries.models.TransactionHistoryQuery;
+import io.artur.bankaccount.application.queries.readmodels.PagedResult;
+import io.artur.bankaccount.application.queries.readmodels.TransactionReadModel;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Transactions of one account kept in stream order.
+ *
+ * Rows are ordered by the version of the event that produced them, so the running balance
+ * after each row follows the account's own event stream whatever order the rows arrive in
+ * and whatever the clocks that stamped them said. A second index by (timestamp, version)
+ * serves date ranges and the rollups. Newest-first pages and date ranges are views of the
+ * skip lists and need no sorting; sizes are tracked separately because counting a skip list
+ * is linear.
+ *
+ * Every row carries the running balance after it. Inserting or removing a row re-derives the
+ * rows after it, which for rows arriving in order is just the new row itself. Saving a row
+ * again under the same id replaces it, so replaying events leaves the log as it was. The
+ * rows whose balance changed are returned so a durable store knows what to write back.
+ *
+ * Day and month rollups are kept alongside, so statistics of a period merge buckets and only
+ * read rows for the partial days at its edges.
+ */
+class AccountTransactionLog {
+
+    private final ConcurrentSkipListMap<Long, TransactionReadModel> entries = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Position, TransactionReadModel> byTime = new ConcurrentSkipListMap<>();
+    private final LongAdder size = new LongAdder();
+    private final Map<String, LongAdder> sizeByType = new ConcurrentHashMap<>();
+    private final Map<UUID, Position> positions = new ConcurrentHashMap<>();
+    private final TransactionRollups rollups = new TransactionRollups();
+
+    /**
+     * Insert the row at the version of its event, replacing it if it was stored before. Rows
+     * without a version keep the one they were stored at, or go after the last row. Returns
+     * the rows whose running balance was (re-)derived, starting with the inserted one. Writers
+     * of one account are serialized so running balances are derived from a stable predecessor.
+     */
+    synchronized List<TransactionReadModel> put(TransactionReadModel transaction) {
+        List<TransactionReadModel> changed = new ArrayList<>();
+        changed.add(transaction);
+        Position stored = positions.get(transaction.getTransactionId());
+        long version = transaction.getVersion() > 0 ? transaction.getVersion()
+            : stored != null ? stored.getVersion()
+            : entries.isEmpty() ? 1 : entries.lastKey() + 1;
+        if (stored != null) {
+            changed.addAll(remove(transaction.getTransactionId()));
+        }
+        TransactionReadModel occupant = entries.get(version);
+        if (occupant != null) {
+            changed.addAll(remove(occupant.getTransactionId()));
+        }
+        transaction.setVersion(version);
+        Position position = new Position(transaction.getTimestamp(), version);
+        positions.put(transaction.getTransactionId(), position);
+
+        transaction.setBalanceAfter(balanceBefore(version).add(signedAmount(transaction)));
+        entries.put(version, transaction);
+        byTime.put(position, transaction);
+        size.increment();
+        counter(transaction.getTransactionType()).increment();
+        rollups.add(position.timestamp, transaction);
+        rebalanceAfter(version, transaction.getBalanceAfter(), changed);
+        changed.removeIf(row -> !positions.containsKey(row.getTransactionId()));
+        return changed;
+    }
+
+    /**
+     * Remove the row, returning the later rows whose running balance was re-derived
+     */
+    synchronized List<TransactionReadModel> remove(UUID transactionId) {
+        Position position = positions.remove(transactionId);
+        TransactionReadModel removed = position != null ? entries.remove(position.getVersion()) : null;
+        if (removed == null) {
+            return List.of();
+        }
+        byTime.remove(position);
+        size.decrement();
+        counter(removed.getTransactionType()).decrement();
+        List<TransactionReadModel> changed = new ArrayList<>();
+        rebalanceAfter(position.getVersion(), balanceBefore(position.getVersion()), changed);
+        LocalDate day = position.timestamp.toLocalDate();
+        rollups.rebuildDay(day, rowsFrom(day.atStartOfDay(), day.plusDays(1).atStartOfDay()));
+        return changed;
+    }
+
+    /**
+     * Version the row is stored at, null if it is not in the log
+     */
+    Long versionOf(UUID transactionId) {
+        Position position = positions.get(transactionId);
+        return position != null ? position.getVersion() : null;
+    }
+
+    /**
+     * One page of the rows matching the query, newest first. Without filters the total is known
+     * and the walk stops once the page is full.
+     */
+    PagedResult<TransactionReadModel> page(TransactionHistoryQuery query) {
+        boolean unfiltered = query.getFromDate() == null && query.getToDate() == null
+            && query.getTransactionType() == null && query.getMinAmount() == null && query.getMaxAmount() == null;
+        long offset = (long) query.getPage() * query.getSize();
+
+        List<TransactionReadModel> pageContent = new ArrayList<>(query.getSize());
+        long matched = 0;
+        for (TransactionReadModel transaction : newestFirst(query.getFromDate(), query.getToDate())) {
+            if (!matchesFilter(transaction, query)) {
+                continue;
+            }
+            if (matched >= offset && pageContent.size() < query.getSize()) {
+                pageContent.add(transaction);
+            }
+            matched++;
+            if (unfiltered && pageContent.size() >= query.getSize()) {
+                break;
+            }
+        }
+
+        return PagedResult.of(pageContent, query.getPage(), query.getSize(), unfiltered ? size() : matched);
+    }
+
+    /**
+     * Summary of the rows between the bounds inclusive; a null bound is open
+     */
+    synchronized TransactionRollups.Bucket summarize(LocalDateTime from, LocalDateTime to) {
+        if (from == null && to == null) {
+            return rollups.all();
+        }
+        LocalDateTime start = from != null ? from : LocalDateTime.MIN;
+        LocalDateTime end = to != null ? to : LocalDateTime.MAX;
+
+        LocalDate firstWholeDay = start.toLocalTime().equals(LocalTime.MIDNIGHT)
+            ? start.toLocalDate()
+            : start.toLocalDate().plusDays(1);
+        boolean endsWithWholeDay = end.toLocalTime().equals(LocalTime.MAX);
+        LocalDate lastWholeDay = endsWithWholeDay ? end.toLocalDate() : end.toLocalDate().minusDays(1);
+
+        if (firstWholeDay.isAfter(lastWholeDay)) {
+            TransactionRollups.Bucket bucket = new TransactionRollups.Bucket();
+            rowsThrough(start, end).forEach(bucket::add);
+            return bucket;
+        }
+
+        TransactionRollups.Bucket bucket = rollups.days(firstWholeDay, lastWholeDay);
+        rowsFrom(start, firstWholeDay.atStartOfDay()).forEach(bucket::add);
+        if (!endsWithWholeDay) {
+            rowsThrough(lastWholeDay.plusDays(1).atStartOfDay(), end).forEach(bucket::add);
+        }
+        return bucket;
+    }
+
+    /**
+     * Rows between the bounds inclusive, newest first; a null bound is open. Without bounds
+     * the rows come in stream order, with bounds in timestamp order.
+     */
+    Collection<TransactionReadModel> newestFirst(LocalDateTime from, LocalDateTime to) {
+        if (from == null && to == null) {
+            return entries.descendingMap().values();
+        }
+        NavigableMap<Position, TransactionReadModel> range = byTime;
+        if (from != null) {
+            range = range.tailMap(Position.lowest(from), true);
+        }
+        if (to != null) {
+            range = range.headMap(Position.highest(to), true);
+        }
+        return range.descendingMap().values();
+    }
+
+    long size() {
+        return size.sum();
+    }
+
+    long size(String transactionType) {
+        LongAdder counter = sizeByType.get(transactionType);
+        return counter != null ? counter.sum() : 0;
+    }
+
+    Optional<LocalDateTime> lastTimestamp() {
+        // Rows without a timestamp sort first, so the last key carries the latest timestamp if any
+        Map.Entry<Position, TransactionReadModel> last = byTime.lastEntry();
+        return last != null ? Optional.ofNullable(last.getValue().getTimestamp()) : Optional.empty();
+    }
+
+    // Rows from the first bound inclusive to the second exclusive
+    private Collection<TransactionReadModel> rowsFrom(LocalDateTime from, LocalDateTime until) {
+        return byTime.subMap(Position.lowest(from), true, Position.lowest(until), false).values();
+    }
+
+    // Rows between both bounds inclusive
+    private Collection<TransactionReadModel> rowsThrough(LocalDateTime from, LocalDateTime to) {
+        return byTime.subMap(Position.lowest(from), true, Position.highest(to), true).values();
+    }
+
+    private BigDecimal balanceBefore(long version) {
+        Map.Entry<Long, TransactionReadModel> previous = entries.lowerEntry(version);
+        return previous != null && previous.getValue().getBalanceAfter() != null
+            ? previous.getValue().getBalanceAfter()
+            : BigDecimal.ZERO;
+    }
+
+    /**
+     * Re-derive the running balance of every row after the version, stopping as soon as
+     * a row already carries the right balance
+     */
+    private void rebalanceAfter(long version, BigDecimal balance, List<TransactionReadModel> changed) {
+        BigDecimal running = balance;
+        for (TransactionReadModel later : entries.tailMap(version, false).values()) {
+            running = running.add(signedAmount(later));
+            if (later.getBalanceAfter() != null && running.compareTo(later.getBalanceAfter()) == 0) {
+                return;
+            }
+            later.setBalanceAfter(running);
+            changed.add(later);
+        }
+    }
+
+    private static boolean matchesFilter(TransactionReadModel transaction, TransactionHistoryQuery query) {
+        if (query.getFromDate() != null &&
+            (transaction.getTimestamp() == null || transaction.getTimestamp().isBefore(query.getFromDate()))) {
+            return false;
+        }
+
+        if (query.getToDate() != null &&
+            (transaction.getTimestamp() == null || transaction.getTimestamp().isAfter(query.getToDate()))) {
+            return false;
+        }
+
+        if (query.getTransactionType() != null &&
+            !query.getTransactionType().equals(transaction.getTransactionType())) {
+            return false;
+        }
+
+        if (query.getMinAmount() != null &&
+            (transaction.getAmount() == null || transaction.getAmount().compareTo(query.getMinAmount()) < 0)) {
+            return false;
+        }
+
+        if (query.getMaxAmount() != null &&
+            (transaction.getAmount() == null || transaction.getAmount().compareTo(query.getMaxAmount()) > 0)) {
+            return false;
+        }
+
+        return true;
+    }
+
+    static BigDecimal signedAmount(TransactionReadModel transaction) {
+        BigDecimal amount = transaction.getAmount() != null ? transaction.getAmount() : BigDecimal.ZERO;
+        if (transaction.isCredit()) {
+            return amount;
+        }
+        return transaction.isDebit() ? amount.negate() : BigDecimal.ZERO;
+    }
+
+    private LongAdder counter(String transactionType) {
+        return sizeByType.computeIfAbsent(transactionType != null ? transactionType : "", t -> new LongAdder());
+    }
+
+    /**
+     * Place of a row in the timestamp index
+     */
+    static final class Position implements Comparable<Position> {
+        private final LocalDateTime timestamp;
+        private final long version;
+
+        Position(LocalDateTime timestamp, long version) {
+            this.timestamp = timestamp != null ? timestamp : LocalDateTime.MIN;
+            this.version = version;
+        }
+
+        static Position lowest(LocalDateTime timestamp) {
+            return new Position(timestamp, Long.MIN_VALUE);
+        }
+
+        static Position highest(LocalDateTime timestamp) {
+            return new Position(timestamp, Long.MAX_VALUE);
+        }
+
+        long getVersion() {
+            return version;
+        }
+
+        @Override
+        public int compareTo(Position other) {
+            int byTimestamp = timestamp.compareTo(other.timestamp);
+            return byTimestamp != 0 ? byTimestamp : Long.compare(version, other.version);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Position other && version == other.version && timestamp.equals(other.timestamp);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(version) * 31 + timestamp.hashCode();
+        }
+    }
+}
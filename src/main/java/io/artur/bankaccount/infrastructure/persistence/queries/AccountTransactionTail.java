@@ -0,0 +1,171 @@
+package io.artur.bankaccount.infrastructure.persistence.queries;
+
+import io.artur.bankaccount.application.queries.readmodels.TransactionReadModel;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * The newest transactions of one account, the part of its stream that recent pages and new rows need.
+ *
+ * Rows are ordered by the version of their event as in {@link AccountTransactionLog}. Older rows
+ * stay in the table; the tail remembers the version and running balance of the last row in front
+ * of it, its floor, so a row arriving after the floor gets its running balance and re-derives the
+ * rows after it without reading them. A row at or below the floor cannot be placed here, the
+ * owner reloads the tail from below that row first. The number of rows of the whole account is
+ * counted once on load and kept up to date.
+ *
+ * All methods lock the tail; readers get copies, which are short since the tail is trimmed.
+ */
+class AccountTransactionTail {
+
+    private final TreeMap<Long, TransactionReadModel> entries = new TreeMap<>();
+    private final Map<UUID, Long> versions = new HashMap<>();
+    private long floor;
+    private BigDecimal floorBalance;
+    private long count;
+
+    /**
+     * A tail of the rows after the floor, given in stream order with their stored balances;
+     * floor 0 means the rows are the whole history
+     */
+    AccountTransactionTail(long floor, BigDecimal floorBalance, List<TransactionReadModel> rows, long count) {
+        this.floor = floor;
+        this.floorBalance = floorBalance != null ? floorBalance : BigDecimal.ZERO;
+        this.count = count;
+        for (TransactionReadModel row : rows) {
+            entries.put(row.getVersion(), row);
+            versions.put(row.getTransactionId(), row.getVersion());
+        }
+    }
+
+    /**
+     * Whether a row at the version can be placed or removed here
+     */
+    synchronized boolean covers(long version) {
+        return version > floor;
+    }
+
+    synchronized Long versionOf(UUID transactionId) {
+        return versions.get(transactionId);
+    }
+
+    /**
+     * Version a new row goes to when its event did not give it one
+     */
+    synchronized long nextVersion() {
+        return entries.isEmpty() ? floor + 1 : entries.lastKey() + 1;
+    }
+
+    /**
+     * Insert the row at its version, which must be after the floor, replacing the row stored
+     * under its id or at its version. Returns the held rows whose running balance was
+     * (re-)derived, starting with the inserted one.
+     */
+    synchronized List<TransactionReadModel> put(TransactionReadModel transaction) {
+        long version = transaction.getVersion();
+        List<TransactionReadModel> changed = new ArrayList<>();
+        changed.add(transaction);
+        if (versions.containsKey(transaction.getTransactionId())) {
+            changed.addAll(remove(transaction.getTransactionId()));
+        }
+        TransactionReadModel occupant = entries.get(version);
+        if (occupant != null) {
+            changed.addAll(remove(occupant.getTransactionId()));
+        }
+
+        transaction.setBalanceAfter(balanceBefore(version).add(AccountTransactionLog.signedAmount(transaction)));
+        entries.put(version, transaction);
+        versions.put(transaction.getTransactionId(), version);
+        count++;
+        rebalanceAfter(version, transaction.getBalanceAfter(), changed);
+        changed.removeIf(row -> !versions.containsKey(row.getTransactionId()));
+        return changed;
+    }
+
+    /**
+     * Remove the held row, returning the later rows whose running balance was re-derived
+     */
+    synchronized List<TransactionReadModel> remove(UUID transactionId) {
+        Long version = versions.remove(transactionId);
+        if (version == null) {
+            return List.of();
+        }
+        entries.remove(version);
+        count--;
+        List<TransactionReadModel> changed = new ArrayList<>();
+        rebalanceAfter(version, balanceBefore(version), changed);
+        return changed;
+    }
+
+    /**
+     * Drop the oldest rows beyond the limit, moving the floor up to the last one dropped
+     */
+    synchronized void trim(int maxRows) {
+        while (entries.size() > maxRows) {
+            TransactionReadModel dropped = entries.pollFirstEntry().getValue();
+            versions.remove(dropped.getTransactionId());
+            floor = dropped.getVersion();
+            floorBalance = dropped.getBalanceAfter() != null ? dropped.getBalanceAfter() : BigDecimal.ZERO;
+        }
+    }
+
+    synchronized Snapshot snapshot() {
+        return new Snapshot(new ArrayList<>(entries.descendingMap().values()), floor, count);
+    }
+
+    private BigDecimal balanceBefore(long version) {
+        Map.Entry<Long, TransactionReadModel> previous = entries.lowerEntry(version);
+        return previous != null && previous.getValue().getBalanceAfter() != null
+            ? previous.getValue().getBalanceAfter()
+            : floorBalance;
+    }
+
+    private void rebalanceAfter(long version, BigDecimal balance, List<TransactionReadModel> changed) {
+        BigDecimal running = balance;
+        for (TransactionReadModel later : entries.tailMap(version, false).values()) {
+            running = running.add(AccountTransactionLog.signedAmount(later));
+            if (later.getBalanceAfter() != null && running.compareTo(later.getBalanceAfter()) == 0) {
+                return;
+            }
+            later.setBalanceAfter(running);
+            changed.add(later);
+        }
+    }
+
+    /**
+     * The held rows newest first, the floor they end at and the number of rows of the account
+     */
+    static final class Snapshot {
+        private final List<TransactionReadModel> newestFirst;
+        private final long floor;
+        private final long count;
+
+        private Snapshot(List<TransactionReadModel> newestFirst, long floor, long count) {
+            this.newestFirst = newestFirst;
+            this.floor = floor;
+            this.count = count;
+        }
+
+        List<TransactionReadModel> newestFirst() {
+            return newestFirst;
+        }
+
+        long floor() {
+            return floor;
+        }
+
+        long count() {
+            return count;
+        }
+
+        boolean complete() {
+            return floor == 0;
+        }
+    }
+}
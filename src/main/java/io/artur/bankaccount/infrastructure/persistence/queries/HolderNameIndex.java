@@ -0,0 +1,151 @@
+package io.artur.bankaccount.infrastructure.persistence.queries;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Case-insensitive index on account holder names.
+ *
+ * Names are lower-cased and split into every 1, 2 and 3 character gram. A query of up to three
+ * characters is answered by one posting set, a longer one by intersecting the posting sets of
+ * its trigrams and verifying the survivors, so substring lookups never scan all accounts.
+ * Prefix lookups use a sorted map of the normalized names.
+ */
+class HolderNameIndex {
+
+    private static final int GRAM_LENGTH = 3;
+
+    private final Map<String, Set<UUID>> postings = new ConcurrentHashMap<>();
+    private final NavigableMap<String, Set<UUID>> names = new ConcurrentSkipListMap<>();
+    private final Map<UUID, String> normalizedNames = new ConcurrentHashMap<>();
+
+    /**
+     * Callers serialize updates of the same account
+     */
+    void update(UUID accountId, String previousName, String name) {
+        String previous = normalize(previousName);
+        String current = normalize(name);
+        if (previous != null && previous.equals(current)) {
+            return;
+        }
+        if (previous != null) {
+            remove(accountId, previousName);
+        }
+        if (current != null) {
+            for (String gram : grams(current)) {
+                addTo(postings, gram, accountId);
+            }
+            addTo(names, current, accountId);
+            normalizedNames.put(accountId, current);
+        }
+    }
+
+    void remove(UUID accountId, String name) {
+        String normalized = normalize(name);
+        if (normalized == null) {
+            return;
+        }
+        for (String gram : grams(normalized)) {
+            removeFrom(postings, gram, accountId);
+        }
+        removeFrom(names, normalized, accountId);
+        normalizedNames.remove(accountId, normalized);
+    }
+
+    /**
+     * Ids of accounts whose holder name contains the fragment, ignoring case
+     */
+    Set<UUID> containing(String fragment) {
+        String query = normalize(fragment);
+        if (query == null || query.isEmpty()) {
+            return new HashSet<>(normalizedNames.keySet());
+        }
+        if (query.length() <= GRAM_LENGTH) {
+            return new HashSet<>(postings.getOrDefault(query, Set.of()));
+        }
+
+        List<Set<UUID>> sets = new ArrayList<>(query.length() - GRAM_LENGTH + 1);
+        for (int i = 0; i + GRAM_LENGTH <= query.length(); i++) {
+            Set<UUID> posting = postings.get(query.substring(i, i + GRAM_LENGTH));
+            if (posting == null) {
+                return new HashSet<>();
+            }
+            sets.add(posting);
+        }
+        sets.sort(Comparator.comparingInt(Set::size));
+
+        // Sharing all trigrams does not guarantee they are adjacent, so survivors are verified
+        Set<UUID> result = new HashSet<>();
+        for (UUID accountId : sets.get(0)) {
+            if (inAll(sets, accountId)) {
+                String name = normalizedNames.get(accountId);
+                if (name != null && name.contains(query)) {
+                    result.add(accountId);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Ids of accounts whose holder name starts with the prefix, ignoring case
+     */
+    Set<UUID> startingWith(String prefix) {
+        String query = normalize(prefix);
+        if (query == null || query.isEmpty()) {
+            return new HashSet<>(normalizedNames.keySet());
+        }
+        Set<UUID> result = new HashSet<>();
+        names.subMap(query, true, query + Character.MAX_VALUE, false).values().forEach(result::addAll);
+        return result;
+    }
+
+    static String normalize(String name) {
+        return name != null ? name.toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static Set<String> grams(String normalized) {
+        Set<String> grams = new HashSet<>();
+        for (int length = 1; length <= GRAM_LENGTH; length++) {
+            for (int i = 0; i + length <= normalized.length(); i++) {
+                grams.add(normalized.substring(i, i + length));
+            }
+        }
+        return grams;
+    }
+
+    private static boolean inAll(List<Set<UUID>> sets, UUID accountId) {
+        for (int i = 1; i < sets.size(); i++) {
+            if (!sets.get(i).contains(accountId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Adds and removes both go through compute so a set emptied and dropped by a concurrent
+    // remove is never written to after it left the map
+    private static void addTo(Map<String, Set<UUID>> map, String key, UUID accountId) {
+        map.compute(key, (k, ids) -> {
+            Set<UUID> target = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            target.add(accountId);
+            return target;
+        });
+    }
+
+    private static void removeFrom(Map<String, Set<UUID>> map, String key, UUID accountId) {
+        map.computeIfPresent(key, (k, ids) -> {
+            ids.remove(accountId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+}
@@ -0,0 +1,673 @@
+package io.artur.bankaccount.infrastructure.persistence.queries;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.artur.bankaccount.application.ports.outgoing.AccountSummaryQueryRepository;
+import io.artur.bankaccount.application.queries.models.AccountSearchQuery;
+import io.artur.bankaccount.application.queries.readmodels.AccountSummaryReadModel;
+import io.artur.bankaccount.application.queries.readmodels.KeysetPage;
+import io.artur.bankaccount.application.queries.readmodels.PagedResult;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Account summaries stored in the account_summaries table, or a table of another generation.
+ *
+ * Saves from the projections are coalesced per account and written as batched MERGE statements,
+ * lookups by id are served from a bounded in-memory tier of recently used accounts and read
+ * through to the table on a miss. Searches and filters run as indexed SQL after flushing the
+ * pending writes. Nothing needs to be replayed on startup, the table is the read model.
+ *
+ * Statistics are counters kept in a one-row side table. Each batch reads the previous status and
+ * balance of the accounts it writes, with a row lock, and adds the difference to the counters in
+ * the same transaction, so reading them never aggregates the whole table.
+ */
+public class JdbcAccountSummaryQueryRepository implements AccountSummaryQueryRepository, AutoCloseable {
+
+    private static final String COLUMNS = """
+        account_id, account_number, account_holder_name, balance, overdraft_limit, available_balance,
+        account_status, last_transaction_date, account_opened_date, last_status_change,
+        status_changed_by, status_change_reason, total_transactions, version""";
+    private static final String STATISTICS_SUFFIX = "_statistics";
+
+    private final DataSource dataSource;
+    private final String table;
+    private final String statisticsTable;
+    private final String mergeSql;
+    private final String deleteSql;
+    private final String selectSql;
+    private final String statisticsSql;
+    private final ReadModelCheckpoint checkpoint;
+    private final WriteBehindBuffer<UUID, AccountSummaryReadModel> pendingWrites;
+    private final Cache<UUID, AccountSummaryReadModel> hotAccounts;
+
+    public JdbcAccountSummaryQueryRepository(DataSource dataSource, int batchSize, long flushIntervalMillis,
+                                             long hotAccountCapacity) {
+        this(dataSource, "account_summaries", batchSize, flushIntervalMillis, hotAccountCapacity);
+    }
+
+    /**
+     * Store the summaries in the given table, e.g. one generation of the read model built next
+     * to the active one
+     */
+    public JdbcAccountSummaryQueryRepository(DataSource dataSource, String table, int batchSize,
+                                             long flushIntervalMillis, long hotAccountCapacity) {
+        this(dataSource, table, batchSize, flushIntervalMillis, hotAccountCapacity, null);
+    }
+
+    JdbcAccountSummaryQueryRepository(DataSource dataSource, String table, int batchSize, long flushIntervalMillis,
+                                      long hotAccountCapacity, ReadModelCheckpoint checkpoint) {
+        this.dataSource = dataSource;
+        this.table = table;
+        this.statisticsTable = table + STATISTICS_SUFFIX;
+        this.checkpoint = checkpoint;
+        this.mergeSql = mergeSql(table);
+        this.deleteSql = "DELETE FROM " + table + " WHERE account_id = ?";
+        this.selectSql = "SELECT " + COLUMNS + " FROM " + table;
+        this.statisticsSql = "SELECT accounts, total_balance, active, frozen, closed, dormant FROM "
+            + statisticsTable + " WHERE id = 1";
+        this.pendingWrites = new WriteBehindBuffer<>("account-summaries", this::writeBatch, batchSize, flushIntervalMillis);
+        this.hotAccounts = Caffeine.newBuilder().maximumSize(hotAccountCapacity).build();
+        initializeSchema();
+    }
+
+    @Override
+    public Optional<AccountSummaryReadModel> findByAccountId(UUID accountId) {
+        Optional<AccountSummaryReadModel> pending = pendingWrites.pending(accountId);
+        if (pending != null) {
+            return pending;
+        }
+        AccountSummaryReadModel hot = hotAccounts.getIfPresent(accountId);
+        if (hot != null) {
+            return Optional.of(hot);
+        }
+
+        List<AccountSummaryReadModel> loaded = select(" WHERE account_id = ?", accountId);
+        if (loaded.isEmpty()) {
+            return Optional.empty();
+        }
+        // A concurrent save may have cached a newer instance meanwhile, which then wins
+        return Optional.of(hotAccounts.asMap().computeIfAbsent(accountId, id -> loaded.get(0)));
+    }
+
+    @Override
+    public List<AccountSummaryReadModel> findAll() {
+        return select("");
+    }
+
+    @Override
+    public PagedResult<AccountSummaryReadModel> search(AccountSearchQuery query) {
+        SortColumn sortColumn = SortColumn.of(query.getSortBy());
+        boolean descending = isDescending(query);
+        List<Object> parameters = new ArrayList<>();
+        String where = whereClause(query, parameters);
+
+        long total = count(where, parameters);
+        List<Object> pageParameters = new ArrayList<>(parameters);
+        pageParameters.add(query.getSize());
+        pageParameters.add((long) query.getPage() * query.getSize());
+        List<AccountSummaryReadModel> content = select(
+            where + orderBy(sortColumn, descending) + " LIMIT ? OFFSET ?", pageParameters.toArray());
+
+        return PagedResult.of(content, query.getPage(), query.getSize(), total);
+    }
+
+    @Override
+    public KeysetPage<AccountSummaryReadModel> searchAfter(AccountSearchQuery query) {
+        SortColumn sortColumn = SortColumn.of(query.getSortBy());
+        boolean descending = isDescending(query);
+        List<Object> parameters = new ArrayList<>();
+        StringBuilder where = new StringBuilder(whereClause(query, parameters));
+        if (query.getCursor() != null) {
+            where.append(where.length() == 0 ? " WHERE " : " AND ")
+                .append(afterCursor(decodeCursor(query.getCursor(), sortColumn), sortColumn, descending, parameters));
+        }
+
+        // One row more than requested tells whether there is a next page
+        parameters.add(query.getSize() + 1);
+        List<AccountSummaryReadModel> rows = select(
+            where + orderBy(sortColumn, descending) + " LIMIT ?", parameters.toArray());
+        if (rows.size() <= query.getSize()) {
+            return KeysetPage.of(rows, query.getSize(), null);
+        }
+
+        List<AccountSummaryReadModel> content = rows.subList(0, query.getSize());
+        return KeysetPage.of(new ArrayList<>(content), query.getSize(),
+            encodeCursor(sortColumn, content.get(content.size() - 1)));
+    }
+
+    @Override
+    public List<AccountSummaryReadModel> findByAccountHolderNameContaining(String holderName) {
+        return select(" WHERE account_holder_name_lower LIKE ? ESCAPE '\\'", "%" + likeFragment(holderName) + "%");
+    }
+
+    @Override
+    public List<AccountSummaryReadModel> findByAccountHolderNameStartingWith(String prefix) {
+        // A prefix pattern can use the index on the lower-cased name
+        return select(" WHERE account_holder_name_lower LIKE ? ESCAPE '\\'", likeFragment(prefix) + "%");
+    }
+
+    @Override
+    public List<AccountSummaryReadModel> findByAccountStatus(String status) {
+        return select(" WHERE account_status = ?", status);
+    }
+
+    @Override
+    public List<AccountSummaryReadModel> findByBalanceGreaterThan(BigDecimal threshold) {
+        return select(" WHERE balance > ?", threshold);
+    }
+
+    @Override
+    public List<AccountSummaryReadModel> findByBalanceLessThan(BigDecimal threshold) {
+        return select(" WHERE balance < ?", threshold);
+    }
+
+    @Override
+    public List<AccountSummaryReadModel> findDormantAccounts(int daysWithoutActivity) {
+        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(daysWithoutActivity);
+        return select(" WHERE last_transaction_date IS NULL OR last_transaction_date < ?", cutoffDate);
+    }
+
+    @Override
+    public AccountStatistics getAccountStatistics() {
+        pendingWrites.flush();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(statisticsSql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            if (!rs.next()) {
+                return new AccountStatistics(0, 0, 0, 0, 0, BigDecimal.ZERO, BigDecimal.ZERO);
+            }
+            long total = rs.getLong(1);
+            BigDecimal totalBalance = rs.getBigDecimal(2);
+            BigDecimal averageBalance = total > 0
+                ? totalBalance.divide(BigDecimal.valueOf(total), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+
+            return new AccountStatistics(total, rs.getLong(3), rs.getLong(4), rs.getLong(5), rs.getLong(6),
+                totalBalance, averageBalance);
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Error calculating account statistics", e);
+        }
+    }
+
+    @Override
+    public void save(AccountSummaryReadModel accountSummary) {
+        hotAccounts.put(accountSummary.getAccountId(), accountSummary);
+        pendingWrites.put(accountSummary.getAccountId(), accountSummary);
+    }
+
+    @Override
+    public void delete(UUID accountId) {
+        hotAccounts.invalidate(accountId);
+        pendingWrites.delete(accountId);
+    }
+
+    @Override
+    public boolean exists(UUID accountId) {
+        return findByAccountId(accountId).isPresent();
+    }
+
+    @Override
+    public long count() {
+        return getAccountStatistics().getTotalAccounts();
+    }
+
+    @Override
+    public long countByStatus(String status) {
+        return count(" WHERE account_status = ?", List.of(status));
+    }
+
+    /**
+     * Write all pending saves and deletes to the table
+     */
+    public void flush() {
+        pendingWrites.flush();
+    }
+
+    @Override
+    public void close() {
+        pendingWrites.close();
+    }
+
+    /**
+     * Record that the saves so far cover the event log up to the position, see {@link ReadModelCheckpoint}
+     */
+    void markApplied(long position) {
+        pendingWrites.mark(position);
+    }
+
+    /**
+     * Latest marked position committed with the rows, {@link WriteBehindBuffer#NO_POSITION} if none was
+     */
+    long appliedPosition() {
+        return pendingWrites.writtenPosition();
+    }
+
+    /**
+     * Stop writing and drop the table, once this generation of the read model has been replaced
+     */
+    public void drop() {
+        close();
+        dropTables(dataSource, table);
+    }
+
+    /**
+     * Drop the tables of the summaries stored in the given table, also when no repository has them open
+     */
+    static void dropTables(DataSource dataSource, String table) {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DROP TABLE IF EXISTS " + table);
+            stmt.executeUpdate("DROP TABLE IF EXISTS " + table + STATISTICS_SUFFIX);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error dropping " + table, e);
+        }
+    }
+
+    private void writeBatch(List<AccountSummaryReadModel> upserts, List<UUID> deletes, long position) {
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement merge = conn.prepareStatement(mergeSql);
+                 PreparedStatement delete = conn.prepareStatement(deleteSql)) {
+
+                AccountStatisticsAccumulator statistics = statisticsDelta(conn, upserts, deletes);
+                for (AccountSummaryReadModel account : upserts) {
+                    bind(merge, account);
+                    merge.addBatch();
+                }
+                for (UUID accountId : deletes) {
+                    delete.setObject(1, accountId);
+                    delete.addBatch();
+                }
+                if (!upserts.isEmpty()) {
+                    merge.executeBatch();
+                }
+                if (!deletes.isEmpty()) {
+                    delete.executeBatch();
+                }
+                addStatistics(conn, statistics);
+                if (checkpoint != null) {
+                    checkpoint.write(conn, position);
+                }
+                conn.commit();
+
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Error writing " + (upserts.size() + deletes.size()) + " account summaries", e);
+        }
+    }
+
+    /**
+     * How the batch changes the statistics. The current rows are locked until the batch commits,
+     * so another writer of the table cannot count the same change. Rows the merge will not
+     * replace, because the table holds a newer version, change nothing.
+     */
+    private AccountStatisticsAccumulator statisticsDelta(Connection conn, List<AccountSummaryReadModel> upserts,
+                                                         List<UUID> deletes) throws SQLException {
+        AccountStatisticsAccumulator delta = new AccountStatisticsAccumulator();
+        List<UUID> accountIds = new ArrayList<>(upserts.size() + deletes.size());
+        upserts.forEach(account -> accountIds.add(account.getAccountId()));
+        accountIds.addAll(deletes);
+        if (accountIds.isEmpty()) {
+            return delta;
+        }
+
+        Map<UUID, AccountSummaryReadModel> current = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT account_id, account_status, balance, version FROM "
+                + table + " WHERE account_id IN (" + "?, ".repeat(accountIds.size() - 1) + "?) FOR UPDATE")) {
+            bindAll(stmt, accountIds.toArray());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    AccountSummaryReadModel row = new AccountSummaryReadModel();
+                    row.setAccountStatus(rs.getString("account_status"));
+                    row.setBalance(rs.getBigDecimal("balance"));
+                    row.setVersion(rs.getLong("version"));
+                    current.put(rs.getObject("account_id", UUID.class), row);
+                }
+            }
+        }
+
+        for (AccountSummaryReadModel account : upserts) {
+            AccountSummaryReadModel previous = current.get(account.getAccountId());
+            if (previous == null) {
+                delta.added(account.getAccountStatus(), account.getBalance());
+            } else if (previous.getVersion() <= account.getVersion()) {
+                delta.changed(previous.getAccountStatus(), previous.getBalance(), account.getAccountStatus(), account.getBalance());
+            }
+        }
+        for (UUID accountId : deletes) {
+            AccountSummaryReadModel previous = current.get(accountId);
+            if (previous != null) {
+                delta.removed(previous.getAccountStatus(), previous.getBalance());
+            }
+        }
+        return delta;
+    }
+
+    private void addStatistics(Connection conn, AccountStatisticsAccumulator delta) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("UPDATE " + statisticsTable + " SET accounts = accounts + ?,"
+                + " total_balance = total_balance + ?, active = active + ?, frozen = frozen + ?,"
+                + " closed = closed + ?, dormant = dormant + ? WHERE id = 1")) {
+            stmt.setLong(1, delta.getAccountCount());
+            stmt.setBigDecimal(2, delta.getTotalBalance());
+            stmt.setLong(3, delta.getCount("ACTIVE"));
+            stmt.setLong(4, delta.getCount("FROZEN"));
+            stmt.setLong(5, delta.getCount("CLOSED"));
+            stmt.setLong(6, delta.getCount("DORMANT"));
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Upsert that never replaces a row with an older version of it, so replicas projecting into
+     * the same table, or a replay after a restart, cannot move an account back
+     */
+    private static String mergeSql(String table) {
+        String[] columns = COLUMNS.replaceAll("\\s+", "").split(",");
+        StringBuilder updates = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        for (String column : columns) {
+            if (!column.equals("account_id")) {
+                updates.append(updates.isEmpty() ? "" : ", ").append(column).append(" = source.").append(column);
+            }
+            values.append(values.isEmpty() ? "" : ", ").append("source.").append(column);
+        }
+        return "MERGE INTO " + table + " AS target USING (VALUES (" + "?, ".repeat(columns.length - 1) + "?)) AS source ("
+            + String.join(", ", columns) + ") ON target.account_id = source.account_id"
+            + " WHEN MATCHED AND target.version <= source.version THEN UPDATE SET " + updates
+            + " WHEN NOT MATCHED THEN INSERT (" + String.join(", ", columns) + ") VALUES (" + values + ")";
+    }
+
+    private static void bind(PreparedStatement stmt, AccountSummaryReadModel account) throws SQLException {
+        stmt.setObject(1, account.getAccountId());
+        stmt.setString(2, account.getAccountNumber());
+        stmt.setString(3, account.getAccountHolderName());
+        stmt.setBigDecimal(4, account.getBalance());
+        stmt.setBigDecimal(5, account.getOverdraftLimit());
+        stmt.setBigDecimal(6, account.getAvailableBalance());
+        stmt.setString(7, account.getAccountStatus());
+        stmt.setObject(8, account.getLastTransactionDate());
+        stmt.setObject(9, account.getAccountOpenedDate());
+        stmt.setObject(10, account.getLastStatusChange());
+        stmt.setString(11, account.getStatusChangedBy());
+        stmt.setString(12, account.getStatusChangeReason());
+        stmt.setLong(13, account.getTotalTransactions());
+        stmt.setLong(14, account.getVersion());
+    }
+
+    private static AccountSummaryReadModel map(ResultSet rs) throws SQLException {
+        AccountSummaryReadModel account = new AccountSummaryReadModel();
+        account.setAccountId(rs.getObject("account_id", UUID.class));
+        account.setAccountNumber(rs.getString("account_number"));
+        account.setAccountHolderName(rs.getString("account_holder_name"));
+        account.setBalance(rs.getBigDecimal("balance"));
+        account.setOverdraftLimit(rs.getBigDecimal("overdraft_limit"));
+        account.setAvailableBalance(rs.getBigDecimal("available_balance"));
+        account.setAccountStatus(rs.getString("account_status"));
+        account.setLastTransactionDate(rs.getObject("last_transaction_date", LocalDateTime.class));
+        account.setAccountOpenedDate(rs.getObject("account_opened_date", LocalDateTime.class));
+        account.setLastStatusChange(rs.getObject("last_status_change", LocalDateTime.class));
+        account.setStatusChangedBy(rs.getString("status_changed_by"));
+        account.setStatusChangeReason(rs.getString("status_change_reason"));
+        account.setTotalTransactions(rs.getLong("total_transactions"));
+        account.setVersion(rs.getLong("version"));
+        return account;
+    }
+
+    /**
+     * Rows of the table matching the clause, after writing the pending saves
+     */
+    private List<AccountSummaryReadModel> select(String clause, Object... parameters) {
+        pendingWrites.flush();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(selectSql + clause)) {
+
+            bindAll(stmt, parameters);
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<AccountSummaryReadModel> accounts = new ArrayList<>();
+                while (rs.next()) {
+                    accounts.add(map(rs));
+                }
+                return accounts;
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Error querying account summaries", e);
+        }
+    }
+
+    private long count(String where, List<Object> parameters) {
+        pendingWrites.flush();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM " + table + where)) {
+
+            bindAll(stmt, parameters.toArray());
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Error counting account summaries", e);
+        }
+    }
+
+    private static void bindAll(PreparedStatement stmt, Object[] parameters) throws SQLException {
+        for (int i = 0; i < parameters.length; i++) {
+            stmt.setObject(i + 1, parameters[i]);
+        }
+    }
+
+    private static String whereClause(AccountSearchQuery query, List<Object> parameters) {
+        List<String> conditions = new ArrayList<>();
+        if (query.getAccountHolderName() != null) {
+            conditions.add("account_holder_name_lower LIKE ? ESCAPE '\\'");
+            parameters.add("%" + likeFragment(query.getAccountHolderName()) + "%");
+        }
+        if (query.getAccountStatus() != null) {
+            conditions.add("account_status = ?");
+            parameters.add(query.getAccountStatus());
+        }
+        if (query.getMinBalance() != null) {
+            conditions.add("balance >= ?");
+            parameters.add(query.getMinBalance());
+        }
+        if (query.getMaxBalance() != null) {
+            conditions.add("balance <= ?");
+            parameters.add(query.getMaxBalance());
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    /**
+     * Nulls sort last in both directions, ties are broken by account id
+     */
+    private static String orderBy(SortColumn sortColumn, boolean descending) {
+        String direction = descending ? " DESC" : " ASC";
+        return " ORDER BY " + sortColumn.column + direction + " NULLS LAST, account_id" + direction;
+    }
+
+    private static String afterCursor(Cursor cursor, SortColumn sortColumn, boolean descending, List<Object> parameters) {
+        String after = descending ? " < " : " > ";
+        String column = sortColumn.column;
+        if (cursor.value == null) {
+            parameters.add(cursor.accountId);
+            return "(" + column + " IS NULL AND account_id" + after + "?)";
+        }
+        parameters.add(cursor.value);
+        parameters.add(cursor.value);
+        parameters.add(cursor.accountId);
+        return "(" + column + after + "? OR (" + column + " = ? AND account_id" + after + "?) OR " + column + " IS NULL)";
+    }
+
+    private static String likeFragment(String fragment) {
+        String normalized = HolderNameIndex.normalize(fragment != null ? fragment : "");
+        return normalized.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static boolean isDescending(AccountSearchQuery query) {
+        return "desc".equalsIgnoreCase(query.getSortDirection());
+    }
+
+    /**
+     * Cursor format before encoding: sortColumn:accountId:value, with value prefixed by V, or N for null
+     */
+    private static String encodeCursor(SortColumn sortColumn, AccountSummaryReadModel last) {
+        Object value = sortColumn.valueOf(last);
+        String encodedValue = value == null ? "N" : "V" + sortColumn.format(value);
+        String raw = sortColumn.name() + ":" + last.getAccountId() + ":" + encodedValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decodeCursor(String cursor, SortColumn sortColumn) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            if (parts.length != 3 || !sortColumn.name().equals(parts[0]) || parts[2].isEmpty()) {
+                throw new IllegalArgumentException("Cursor does not belong to a search sorted by " + sortColumn.property);
+            }
+            Object value = parts[2].charAt(0) == 'N' ? null : sortColumn.parse(parts[2].substring(1));
+            return new Cursor(value, UUID.fromString(parts[1]));
+        } catch (IllegalArgumentException | java.time.format.DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid search cursor", e);
+        }
+    }
+
+    private void initializeSchema() {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS %s (
+                    account_id UUID PRIMARY KEY,
+                    account_number VARCHAR(64),
+                    account_holder_name VARCHAR(255),
+                    account_holder_name_lower VARCHAR(255) GENERATED ALWAYS AS (LOWER(account_holder_name)),
+                    balance DECIMAL(19, 2) NOT NULL,
+                    overdraft_limit DECIMAL(19, 2),
+                    available_balance DECIMAL(19, 2),
+                    account_status VARCHAR(20) NOT NULL,
+                    last_transaction_date TIMESTAMP,
+                    account_opened_date TIMESTAMP,
+                    last_status_change TIMESTAMP,
+                    status_changed_by VARCHAR(255),
+                    status_change_reason VARCHAR(500),
+                    total_transactions BIGINT NOT NULL,
+                    version BIGINT NOT NULL
+                )
+                """.formatted(table));
+
+            // One index per sortable column, with the account id as tie-breaker for keyset pages
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_" + table + "_holder ON " + table + "(account_holder_name, account_id)");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_" + table + "_holder_lower ON " + table + "(account_holder_name_lower)");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_" + table + "_balance ON " + table + "(balance, account_id)");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_" + table + "_status ON " + table + "(account_status, account_id)");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_" + table + "_opened ON " + table + "(account_opened_date, account_id)");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_" + table + "_last_transaction ON " + table + "(last_transaction_date)");
+
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS %s (
+                    id INT PRIMARY KEY,
+                    accounts BIGINT NOT NULL,
+                    total_balance DECIMAL(38, 2) NOT NULL,
+                    active BIGINT NOT NULL,
+                    frozen BIGINT NOT NULL,
+                    closed BIGINT NOT NULL,
+                    dormant BIGINT NOT NULL
+                )
+                """.formatted(statisticsTable));
+            // Counted once from the summaries when the counters are new, e.g. for a table written before they existed
+            stmt.executeUpdate("""
+                INSERT INTO %s
+                SELECT 1, COUNT(*), COALESCE(SUM(balance), 0),
+                       COUNT(CASE WHEN account_status = 'ACTIVE' THEN 1 END),
+                       COUNT(CASE WHEN account_status = 'FROZEN' THEN 1 END),
+                       COUNT(CASE WHEN account_status = 'CLOSED' THEN 1 END),
+                       COUNT(CASE WHEN account_status = 'DORMANT' THEN 1 END)
+                FROM %s HAVING NOT EXISTS (SELECT 1 FROM %s)
+                """.formatted(statisticsTable, table, statisticsTable));
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to initialize account summary schema", e);
+        }
+    }
+
+    /**
+     * Sortable columns, matched case-insensitively against the sortBy of a query
+     */
+    private enum SortColumn {
+        ACCOUNT_HOLDER_NAME("accountHolderName", "account_holder_name"),
+        BALANCE("balance", "balance"),
+        STATUS("status", "account_status"),
+        OPENED_DATE("openedDate", "account_opened_date");
+
+        private final String property;
+        private final String column;
+
+        SortColumn(String property, String column) {
+            this.property = property;
+            this.column = column;
+        }
+
+        static SortColumn of(String sortBy) {
+            for (SortColumn column : values()) {
+                if (column.property.equalsIgnoreCase(sortBy)) {
+                    return column;
+                }
+            }
+            return ACCOUNT_HOLDER_NAME;
+        }
+
+        Object valueOf(AccountSummaryReadModel account) {
+            return switch (this) {
+                case ACCOUNT_HOLDER_NAME -> account.getAccountHolderName();
+                case BALANCE -> account.getBalance();
+                case STATUS -> account.getAccountStatus();
+                case OPENED_DATE -> account.getAccountOpenedDate();
+            };
+        }
+
+        Object parse(String value) {
+            return switch (this) {
+                case BALANCE -> new BigDecimal(value);
+                case OPENED_DATE -> LocalDateTime.parse(value);
+                default -> value;
+            };
+        }
+
+        String format(Object value) {
+            return value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        }
+    }
+
+    private static final class Cursor {
+        private final Object value;
+        private final UUID accountId;
+
+        private Cursor(Object value, UUID accountId) {
+            this.value = value;
+            this.accountId = accountId;
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package io.artur.bankaccount.infrastructure.persistence.queries;
+
+import io.artur.bankaccount.application.ports.outgoing.ReadModelStorePort;
+import jakarta.annotation.PreDestroy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Read model generations stored in database tables.
+ *
+ * Each generation has its own pair of tables, suffixed with the generation id; the generation
+ * with the empty id uses the plain account_summaries and transaction_history tables. The
+ * read_model_catalog table records which generation is active and the projection version
+ * that built it, so a promoted generation is picked up again after a restart. Tables from
+ * before the catalog existed count as version 0.
+ *
+ * The catalog also holds the log position each table of the active generation has committed up
+ * to, written in the transaction of every batch. The projector resumes from the lower of the two
+ * after a restart, and the buffered writes are flushed on shutdown.
+ *
+ * Several instances can share the tables. The catalog row carries a lease, so only one of them
+ * builds a new generation at a time; the others read the catalog again periodically and switch
+ * to the generation it activated. Each instance reports the generation it serves to
+ * read_model_instances on every poll, and read_model_generations tracks the state of each generation.
+ * A replaced generation is dropped once no instance has reported serving it within the lease
+ * timeout, and not before a grace period that lets queries which already resolved it finish; so
+ * is a generation left half built by an instance whose lease lapsed.
+ */
+public class JdbcReadModelStore implements ReadModelStorePort {
+
+    private static final String READ_MODEL = "default";
+    private static final long RELEASE_DELAY_MILLIS = 30_000;
+    private static final long DEFAULT_LEASE_TIMEOUT_MILLIS = 60_000;
+
+    private final DataSource dataSource;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final long hotAccountCapacity;
+    private final long leaseTimeoutMillis;
+    private final long releaseDelayMillis;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final AtomicReference<ReadModelGeneration> active;
+    private final AtomicReference<ReadModelGeneration> served;
+
+    public JdbcReadModelStore(DataSource dataSource, int batchSize, long flushIntervalMillis, long hotAccountCapacity) {
+        this(dataSource, batchSize, flushIntervalMillis, hotAccountCapacity, DEFAULT_LEASE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param leaseTimeoutMillis how long the rebuild lease and the report of a served generation
+     *                           last without being renewed; instances have to read the catalog
+     *                           again well within it
+     */
+    public JdbcReadModelStore(DataSource dataSource, int batchSize, long flushIntervalMillis, long hotAccountCapacity,
+                              long leaseTimeoutMillis) {
+        this(dataSource, batchSize, flushIntervalMillis, hotAccountCapacity, leaseTimeoutMillis, RELEASE_DELAY_MILLIS);
+    }
+
+    JdbcReadModelStore(DataSource dataSource, int batchSize, long flushIntervalMillis, long hotAccountCapacity,
+                       long leaseTimeoutMillis, long releaseDelayMillis) {
+        this.dataSource = dataSource;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.hotAccountCapacity = hotAccountCapacity;
+        this.leaseTimeoutMillis = leaseTimeoutMillis;
+        this.releaseDelayMillis = releaseDelayMillis;
+        initializeSchema();
+        this.active = new AtomicReference<>(loadActiveGeneration());
+        this.served = new AtomicReference<>(active.get());
+        reportServed(active.get());
+    }
+
+    @Override
+    public ReadModelGeneration getActiveGeneration() {
+        return active.get();
+    }
+
+    @Override
+    public ReadModelGeneration createGeneration(int projectionVersion) {
+        String id = "g" + System.currentTimeMillis();
+        while (id.equals(active.get().getId())) {
+            id = "g" + System.currentTimeMillis();
+        }
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("""
+                 INSERT INTO read_model_generations (read_model, generation, state) VALUES (?, ?, 'BUILDING')""")) {
+            stmt.setString(1, READ_MODEL);
+            stmt.setString(2, id);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error creating read model generation " + id, e);
+        }
+        return open(id, projectionVersion, ReadModelGeneration.UNKNOWN_POSITION);
+    }
+
+    @Override
+    public void activate(ReadModelGeneration generation) {
+        // Its tables take over the checkpoint, so they have to hold what they claim to have applied
+        long summariesPosition = WriteBehindBuffer.NO_POSITION;
+        long transactionsPosition = WriteBehindBuffer.NO_POSITION;
+        if (generation.getAccountSummaries() instanceof JdbcAccountSummaryQueryRepository accountSummaries) {
+            accountSummaries.flush();
+            summariesPosition = accountSummaries.appliedPosition();
+        }
+        if (generation.getTransactions() instanceof JdbcTransactionHistoryQueryRepository transactions) {
+            transactions.flush();
+            transactionsPosition = transactions.appliedPosition();
+        }
+
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement catalog = conn.prepareStatement("""
+                     MERGE INTO read_model_catalog (read_model, generation, projection_version, summaries_position, transactions_position)
+                     KEY (read_model) VALUES (?, ?, ?, ?, ?)""");
+                 PreparedStatement retire = conn.prepareStatement("""
+                     UPDATE read_model_generations SET state = 'RETIRED', retired_at = CURRENT_TIMESTAMP
+                     WHERE read_model = ? AND state = 'ACTIVE' AND generation <> ?""");
+                 PreparedStatement activated = conn.prepareStatement("""
+                     MERGE INTO read_model_generations (read_model, generation, state, retired_at)
+                     KEY (read_model, generation) VALUES (?, ?, 'ACTIVE', NULL)""")) {
+                catalog.setString(1, READ_MODEL);
+                catalog.setString(2, generation.getId());
+                catalog.setInt(3, generation.getProjectionVersion());
+                setPosition(catalog, 4, summariesPosition);
+                setPosition(catalog, 5, transactionsPosition);
+                catalog.executeUpdate();
+                retire.setString(1, READ_MODEL);
+                retire.setString(2, generation.getId());
+                retire.executeUpdate();
+                activated.setString(1, READ_MODEL);
+                activated.setString(2, generation.getId());
+                activated.executeUpdate();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error activating read model generation " + generation.getId(), e);
+        }
+
+        ReadModelGeneration previous = active.getAndSet(generation);
+        if (previous != generation && previous != served.get()) {
+            release(previous);
+        }
+        serve(generation);
+    }
+
+    @Override
+    public void discard(ReadModelGeneration generation) {
+        drop(generation);
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                 "DELETE FROM read_model_generations WHERE read_model = ? AND generation = ? AND state = 'BUILDING'")) {
+            stmt.setString(1, READ_MODEL);
+            stmt.setString(2, generation.getId());
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error discarding read model generation " + generation.getId(), e);
+        }
+    }
+
+    @Override
+    public boolean acquireRebuildLease() {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("""
+                 UPDATE read_model_catalog
+                 SET rebuild_owner = ?, rebuild_lease_until = DATEADD(MILLISECOND, ?, CURRENT_TIMESTAMP)
+                 WHERE read_model = ?
+                   AND (rebuild_owner IS NULL OR rebuild_owner = ? OR rebuild_lease_until < CURRENT_TIMESTAMP)""")) {
+            stmt.setString(1, instanceId);
+            stmt.setLong(2, leaseTimeoutMillis);
+            stmt.setString(3, READ_MODEL);
+            stmt.setString(4, instanceId);
+            return stmt.executeUpdate() == 1;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error acquiring the read model rebuild lease", e);
+        }
+    }
+
+    @Override
+    public void releaseRebuildLease() {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("""
+                 UPDATE read_model_catalog SET rebuild_owner = NULL, rebuild_lease_until = NULL
+                 WHERE read_model = ? AND rebuild_owner = ?""")) {
+            stmt.setString(1, READ_MODEL);
+            stmt.setString(2, instanceId);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error releasing the read model rebuild lease", e);
+        }
+    }
+
+    @Override
+    public ReadModelGeneration refreshActiveGeneration() {
+        ReadModelGeneration current = active.get();
+        ReadModelGeneration recorded = loadActiveGeneration(current.getId());
+        if (recorded == null) {
+            return current;
+        }
+        if (!active.compareAndSet(current, recorded)) {
+            release(recorded);
+            return active.get();
+        }
+        if (current != served.get()) {
+            release(current);
+        }
+        return recorded;
+    }
+
+    @Override
+    public void serve(ReadModelGeneration generation) {
+        ReadModelGeneration previous = served.getAndSet(generation);
+        if (previous != generation && previous != active.get()) {
+            // No longer written here; its tables stay until no instance serves them
+            release(previous);
+        }
+        reportServed(generation);
+        dropUnserved();
+    }
+
+    @Override
+    @PreDestroy
+    public void close() {
+        ReadModelGeneration generation = served.get();
+        release(generation);
+        if (active.get() != generation) {
+            release(active.get());
+        }
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM read_model_instances WHERE instance_id = ?")) {
+            stmt.setString(1, instanceId);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error deregistering read model instance " + instanceId, e);
+        }
+    }
+
+    private ReadModelGeneration open(String id, int projectionVersion, long appliedPosition) {
+        JdbcAccountSummaryQueryRepository accountSummaries = new JdbcAccountSummaryQueryRepository(dataSource,
+            summariesTable(id), batchSize, flushIntervalMillis, hotAccountCapacity,
+            new ReadModelCheckpoint(READ_MODEL, id, "summaries_position"));
+        JdbcTransactionHistoryQueryRepository transactions = new JdbcTransactionHistoryQueryRepository(dataSource,
+            transactionsTable(id), batchSize, flushIntervalMillis, hotAccountCapacity,
+            JdbcTransactionHistoryQueryRepository.DEFAULT_TAIL_ROWS,
+            new ReadModelCheckpoint(READ_MODEL, id, "transactions_position"));
+        return new ReadModelGeneration(id, projectionVersion, accountSummaries, transactions, appliedPosition,
+            position -> {
+                accountSummaries.markApplied(position);
+                transactions.markApplied(position);
+            });
+    }
+
+    private static void setPosition(PreparedStatement stmt, int index, long position) throws SQLException {
+        if (position == WriteBehindBuffer.NO_POSITION) {
+            stmt.setNull(index, Types.BIGINT);
+        } else {
+            stmt.setLong(index, position);
+        }
+    }
+
+    private static String summariesTable(String id) {
+        return "account_summaries" + (id.isEmpty() ? "" : "_" + id);
+    }
+
+    private static String transactionsTable(String id) {
+        return "transaction_history" + (id.isEmpty() ? "" : "_" + id);
+    }
+
+    private static void drop(ReadModelGeneration generation) {
+        if (generation.getAccountSummaries() instanceof JdbcAccountSummaryQueryRepository accountSummaries) {
+            accountSummaries.drop();
+        }
+        if (generation.getTransactions() instanceof JdbcTransactionHistoryQueryRepository transactions) {
+            transactions.drop();
+        }
+    }
+
+    /**
+     * Write out what the repositories of a generation this instance no longer uses still buffer
+     */
+    private static void release(ReadModelGeneration generation) {
+        if (generation.getAccountSummaries() instanceof JdbcAccountSummaryQueryRepository accountSummaries) {
+            accountSummaries.close();
+        }
+        if (generation.getTransactions() instanceof JdbcTransactionHistoryQueryRepository transactions) {
+            transactions.close();
+        }
+    }
+
+    private void reportServed(ReadModelGeneration generation) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("""
+                 MERGE INTO read_model_instances (instance_id, read_model, generation, seen_at)
+                 KEY (instance_id) VALUES (?, ?, ?, CURRENT_TIMESTAMP)""")) {
+            stmt.setString(1, instanceId);
+            stmt.setString(2, READ_MODEL);
+            stmt.setString(3, generation.getId());
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error recording the served read model generation " + generation.getId(), e);
+        }
+    }
+
+    /**
+     * Drop the replaced generations no live instance serves, and the ones left half built by a
+     * builder whose lease lapsed. Each is claimed by deleting its row, so only one instance drops it.
+     */
+    private void dropUnserved() {
+        List<String> unserved = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection()) {
+            // Instances that stopped reporting no longer hold anything; a live one reports again
+            try (PreparedStatement stmt = conn.prepareStatement(
+                     "DELETE FROM read_model_instances WHERE seen_at < DATEADD(MILLISECOND, ?, CURRENT_TIMESTAMP)")) {
+                stmt.setLong(1, -leaseTimeoutMillis);
+                stmt.executeUpdate();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("""
+                     SELECT g.generation FROM read_model_generations g
+                     WHERE g.read_model = ?
+                       AND ((g.state = 'RETIRED' AND g.retired_at <= DATEADD(MILLISECOND, ?, CURRENT_TIMESTAMP))
+                            OR (g.state = 'BUILDING' AND NOT EXISTS (
+                                SELECT 1 FROM read_model_catalog c
+                                WHERE c.read_model = g.read_model AND c.rebuild_lease_until >= CURRENT_TIMESTAMP)))
+                       AND NOT EXISTS (
+                           SELECT 1 FROM read_model_instances i
+                           WHERE i.read_model = g.read_model AND i.generation = g.generation)""")) {
+                stmt.setString(1, READ_MODEL);
+                stmt.setLong(2, -releaseDelayMillis);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        unserved.add(rs.getString(1));
+                    }
+                }
+            }
+            try (PreparedStatement claim = conn.prepareStatement(
+                     "DELETE FROM read_model_generations WHERE read_model = ? AND generation = ? AND state <> 'ACTIVE'")) {
+                for (String id : unserved) {
+                    claim.setString(1, READ_MODEL);
+                    claim.setString(2, id);
+                    if (claim.executeUpdate() == 1) {
+                        JdbcAccountSummaryQueryRepository.dropTables(dataSource, summariesTable(id));
+                        JdbcTransactionHistoryQueryRepository.dropTables(dataSource, transactionsTable(id));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error dropping unserved read model generations", e);
+        }
+    }
+
+    private ReadModelGeneration loadActiveGeneration() {
+        try (Connection conn = dataSource.getConnection()) {
+            // Catalog the plain tables on first use, so their batches have a row to record positions in
+            try (PreparedStatement insert = conn.prepareStatement("""
+                     INSERT INTO read_model_catalog (read_model, generation, projection_version)
+                     SELECT ?, '', 0 WHERE NOT EXISTS (SELECT 1 FROM read_model_catalog WHERE read_model = ?)""")) {
+                insert.setString(1, READ_MODEL);
+                insert.setString(2, READ_MODEL);
+                insert.executeUpdate();
+            }
+            // Generations activated before their states were tracked
+            try (PreparedStatement insert = conn.prepareStatement("""
+                     INSERT INTO read_model_generations (read_model, generation, state)
+                     SELECT read_model, generation, 'ACTIVE' FROM read_model_catalog c
+                     WHERE read_model = ? AND NOT EXISTS (
+                         SELECT 1 FROM read_model_generations g
+                         WHERE g.read_model = c.read_model AND g.generation = c.generation)""")) {
+                insert.setString(1, READ_MODEL);
+                insert.executeUpdate();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error reading the active read model generation", e);
+        }
+        return loadActiveGeneration(null);
+    }
+
+    /**
+     * Open the generation recorded as active, null if it is the one with the given id
+     */
+    private ReadModelGeneration loadActiveGeneration(String knownId) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("""
+                 SELECT generation, projection_version, summaries_position, transactions_position
+                 FROM read_model_catalog WHERE read_model = ?""")) {
+            stmt.setString(1, READ_MODEL);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                if (rs.getString(1).equals(knownId)) {
+                    return null;
+                }
+                long summariesPosition = rs.getLong(3);
+                boolean known = !rs.wasNull();
+                long transactionsPosition = rs.getLong(4);
+                known &= !rs.wasNull();
+                return open(rs.getString(1), rs.getInt(2), known
+                    ? Math.min(summariesPosition, transactionsPosition)
+                    : ReadModelGeneration.UNKNOWN_POSITION);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error reading the active read model generation", e);
+        }
+    }
+
+    private void initializeSchema() {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS read_model_catalog (
+                    read_model VARCHAR(64) PRIMARY KEY,
+                    generation VARCHAR(64) NOT NULL,
+                    projection_version INT NOT NULL DEFAULT 0
+                )
+                """);
+            stmt.executeUpdate("ALTER TABLE read_model_catalog ADD COLUMN IF NOT EXISTS projection_version INT NOT NULL DEFAULT 0");
+            stmt.executeUpdate("ALTER TABLE read_model_catalog ADD COLUMN IF NOT EXISTS summaries_position BIGINT");
+            stmt.executeUpdate("ALTER TABLE read_model_catalog ADD COLUMN IF NOT EXISTS transactions_position BIGINT");
+            stmt.executeUpdate("ALTER TABLE read_model_catalog ADD COLUMN IF NOT EXISTS rebuild_owner VARCHAR(64)");
+            stmt.executeUpdate("ALTER TABLE read_model_catalog ADD COLUMN IF NOT EXISTS rebuild_lease_until TIMESTAMP WITH TIME ZONE");
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS read_model_generations (
+                    read_model VARCHAR(64) NOT NULL,
+                    generation VARCHAR(64) NOT NULL,
+                    state VARCHAR(16) NOT NULL,
+                    retired_at TIMESTAMP WITH TIME ZONE,
+                    PRIMARY KEY (read_model, generation)
+                )
+                """);
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS read_model_instances (
+                    instance_id VARCHAR(64) PRIMARY KEY,
+                    read_model VARCHAR(64) NOT NULL,
+                    generation VARCHAR(64) NOT NULL,
+                    seen_at TIMESTAMP WITH TIME ZONE NOT NULL
+                )
+                """);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to initialize read model catalog schema", e);
+        }
+    }
+}
@@ -0,0 +1,550 @@
+package io.artur.bankaccount.infrastructure.persistence.queries;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.artur.bankaccount.application.ports.outgoing.TransactionHistoryQueryRepository;
+import io.artur.bankaccount.application.queries.models.TransactionHistoryQuery;
+import io.artur.bankaccount.application.queries.readmodels.PagedResult;
+import io.artur.bankaccount.application.queries.readmodels.TransactionReadModel;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Transaction history stored in the transaction_history table, or a table of another generation.
+ *
+ * Only the newest rows of recently used accounts are kept in memory, as an
+ * {@link AccountTransactionTail} per account in a bounded tier: enough to serve recent pages and
+ * to give new rows their running balance. Older pages are read with keyset queries on
+ * (account_id, sequence_number) below the tail, and filters, date ranges and statistics run as
+ * indexed SQL, after the pending writes are flushed. Every row a save touches (the new row and the
+ * later rows whose running balance was re-derived) is queued and written back with batched MERGE
+ * statements. Each row is stored with the version of its event as sequence_number, so pages and
+ * running balances follow stream order.
+ */
+public class JdbcTransactionHistoryQueryRepository implements TransactionHistoryQueryRepository, AutoCloseable {
+
+    static final int DEFAULT_TAIL_ROWS = 100;
+
+    private static final String COLUMNS = """
+        transaction_id, account_id, transaction_type, amount, description, transaction_time,
+        balance_after, status, related_account_id, metadata, sequence_number""";
+
+    private final DataSource dataSource;
+    private final String table;
+    private final String mergeSql;
+    private final String deleteSql;
+    private final String selectSql;
+    private final int tailRows;
+    private final ReadModelCheckpoint checkpoint;
+    private final WriteBehindBuffer<UUID, TransactionReadModel> pendingWrites;
+    private final Cache<UUID, AccountTransactionTail> hotTails;
+
+    public JdbcTransactionHistoryQueryRepository(DataSource dataSource, int batchSize, long flushIntervalMillis,
+                                                 long hotAccountCapacity) {
+        this(dataSource, "transaction_history", batchSize, flushIntervalMillis, hotAccountCapacity);
+    }
+
+    /**
+     * Store the history in the given table, e.g. one generation of the read model built next
+     * to the active one
+     */
+    public JdbcTransactionHistoryQueryRepository(DataSource dataSource, String table, int batchSize,
+                                                 long flushIntervalMillis, long hotAccountCapacity) {
+        this(dataSource, table, batchSize, flushIntervalMillis, hotAccountCapacity, DEFAULT_TAIL_ROWS, null);
+    }
+
+    JdbcTransactionHistoryQueryRepository(DataSource dataSource, String table, int batchSize, long flushIntervalMillis,
+                                          long hotAccountCapacity, int tailRows, ReadModelCheckpoint checkpoint) {
+        this.dataSource = dataSource;
+        this.table = table;
+        this.tailRows = Math.max(1, tailRows);
+        this.checkpoint = checkpoint;
+        this.mergeSql = "MERGE INTO " + table + " (" + COLUMNS + ") KEY (transaction_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        this.deleteSql = "DELETE FROM " + table + " WHERE transaction_id = ?";
+        this.selectSql = "SELECT " + COLUMNS + " FROM " + table;
+        this.pendingWrites = new WriteBehindBuffer<>("transaction-history", this::writeBatch, batchSize, flushIntervalMillis);
+        this.hotTails = Caffeine.newBuilder().maximumSize(hotAccountCapacity).build();
+        initializeSchema();
+    }
+
+    @Override
+    public Optional<TransactionReadModel> findByTransactionId(UUID transactionId) {
+        Optional<TransactionReadModel> pending = pendingWrites.pending(transactionId);
+        if (pending != null) {
+            return pending;
+        }
+        List<TransactionReadModel> rows = select(" WHERE transaction_id = ?", transactionId);
+        return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0));
+    }
+
+    @Override
+    public PagedResult<TransactionReadModel> getTransactionHistory(TransactionHistoryQuery query) {
+        boolean unfiltered = query.getFromDate() == null && query.getToDate() == null
+            && query.getTransactionType() == null && query.getMinAmount() == null && query.getMaxAmount() == null;
+        long offset = (long) query.getPage() * query.getSize();
+        if (unfiltered) {
+            AccountTransactionTail.Snapshot tail = tail(query.getAccountId()).snapshot();
+            return PagedResult.of(newestFirst(query.getAccountId(), tail, offset, query.getSize()),
+                query.getPage(), query.getSize(), tail.count());
+        }
+
+        List<Object> parameters = new ArrayList<>();
+        String where = filter(query, parameters);
+        long total = count(where, parameters.toArray());
+        parameters.add(query.getSize());
+        parameters.add(offset);
+        String order = query.getFromDate() != null || query.getToDate() != null
+            ? " ORDER BY transaction_time DESC, sequence_number DESC"
+            : " ORDER BY sequence_number DESC";
+        return PagedResult.of(select(where + order + " LIMIT ? OFFSET ?", parameters.toArray()),
+            query.getPage(), query.getSize(), total);
+    }
+
+    @Override
+    public List<TransactionReadModel> getRecentTransactions(UUID accountId, int limit) {
+        return newestFirst(accountId, tail(accountId).snapshot(), 0, limit);
+    }
+
+    @Override
+    public List<TransactionReadModel> findByAccountAndDateRange(UUID accountId, LocalDateTime from, LocalDateTime to) {
+        List<Object> parameters = new ArrayList<>(List.of(accountId));
+        StringBuilder where = new StringBuilder(" WHERE account_id = ? AND transaction_time IS NOT NULL");
+        if (from != null) {
+            where.append(" AND transaction_time >= ?");
+            parameters.add(from);
+        }
+        if (to != null) {
+            where.append(" AND transaction_time <= ?");
+            parameters.add(to);
+        }
+        String order = from != null || to != null
+            ? " ORDER BY transaction_time DESC, sequence_number DESC"
+            : " ORDER BY sequence_number DESC";
+        return select(where + order, parameters.toArray());
+    }
+
+    @Override
+    public List<TransactionReadModel> findByAccountAndType(UUID accountId, String transactionType) {
+        return select(" WHERE account_id = ? AND transaction_type = ? ORDER BY sequence_number DESC",
+            accountId, transactionType);
+    }
+
+    @Override
+    public List<TransactionReadModel> findByAccountAndAmountRange(UUID accountId, BigDecimal minAmount, BigDecimal maxAmount) {
+        return select(" WHERE account_id = ? AND amount >= ? AND amount <= ? ORDER BY sequence_number DESC",
+            accountId, minAmount, maxAmount);
+    }
+
+    @Override
+    public List<TransactionReadModel> findLargeTransactions(UUID accountId, BigDecimal threshold) {
+        return select(" WHERE account_id = ? AND amount > ? ORDER BY amount DESC, sequence_number DESC",
+            accountId, threshold);
+    }
+
+    @Override
+    public TransactionStatistics getTransactionStatistics(UUID accountId) {
+        return getTransactionStatistics(accountId, null, null);
+    }
+
+    @Override
+    public TransactionStatistics getTransactionStatistics(UUID accountId, LocalDateTime from, LocalDateTime to) {
+        List<Object> parameters = new ArrayList<>(List.of(accountId));
+        StringBuilder where = new StringBuilder(" WHERE account_id = ?");
+        if (from != null) {
+            where.append(" AND transaction_time >= ?");
+            parameters.add(from);
+        }
+        if (to != null) {
+            where.append(" AND transaction_time <= ?");
+            parameters.add(to);
+        }
+
+        pendingWrites.flush();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("""
+                 SELECT transaction_type, COUNT(*), SUM(amount), MIN(amount), MAX(amount),
+                        MIN(transaction_time), MAX(transaction_time)
+                 FROM %s%s GROUP BY transaction_type""".formatted(table, where))) {
+
+            bindAll(stmt, parameters.toArray());
+            TransactionRollups.Bucket bucket = new TransactionRollups.Bucket();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    bucket.add(rs.getString(1), rs.getLong(2), rs.getBigDecimal(3), rs.getBigDecimal(4),
+                        rs.getBigDecimal(5), rs.getObject(6, LocalDateTime.class), rs.getObject(7, LocalDateTime.class));
+                }
+            }
+            return bucket.toStatistics();
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Error calculating transaction statistics for account " + accountId, e);
+        }
+    }
+
+    @Override
+    public void save(TransactionReadModel transaction) {
+        UUID accountId = transaction.getAccountId();
+        // The table is read before the entry is locked, see modifyTail
+        AccountTransactionTail loaded = tail(accountId);
+        if (transaction.getVersion() <= 0) {
+            transaction.setVersion(storedVersion(loaded, transaction.getTransactionId()));
+        }
+        modifyTail(accountId, loaded, transaction.getVersion(), target -> target.put(transaction));
+    }
+
+    @Override
+    public void saveAll(List<TransactionReadModel> transactions) {
+        transactions.forEach(this::save);
+    }
+
+    @Override
+    public void delete(UUID transactionId) {
+        findByTransactionId(transactionId).ifPresent(transaction ->
+            modifyTail(transaction.getAccountId(), tail(transaction.getAccountId()), transaction.getVersion(), target -> {
+                List<TransactionReadModel> changed = target.remove(transactionId);
+                pendingWrites.stageDelete(transactionId);
+                return changed;
+            }));
+    }
+
+    @Override
+    public long countByAccount(UUID accountId) {
+        return tail(accountId).snapshot().count();
+    }
+
+    @Override
+    public long countByAccountAndType(UUID accountId, String transactionType) {
+        return count(" WHERE account_id = ? AND transaction_type = ?", accountId, transactionType);
+    }
+
+    @Override
+    public Optional<LocalDateTime> getLastTransactionDate(UUID accountId) {
+        pendingWrites.flush();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                 "SELECT MAX(transaction_time) FROM " + table + " WHERE account_id = ?")) {
+
+            stmt.setObject(1, accountId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? Optional.ofNullable(rs.getObject(1, LocalDateTime.class)) : Optional.empty();
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Error reading the last transaction date of account " + accountId, e);
+        }
+    }
+
+    /**
+     * Write all pending rows and deletes to the table
+     */
+    public void flush() {
+        pendingWrites.flush();
+    }
+
+    @Override
+    public void close() {
+        pendingWrites.close();
+    }
+
+    /**
+     * Record that the saves so far cover the event log up to the position, see {@link ReadModelCheckpoint}
+     */
+    void markApplied(long position) {
+        pendingWrites.mark(position);
+    }
+
+    /**
+     * Latest marked position committed with the rows, {@link WriteBehindBuffer#NO_POSITION} if none was
+     */
+    long appliedPosition() {
+        return pendingWrites.writtenPosition();
+    }
+
+    /**
+     * Stop writing and drop the table, once this generation of the read model has been replaced
+     */
+    public void drop() {
+        close();
+        dropTables(dataSource, table);
+    }
+
+    /**
+     * Drop the given history table, also when no repository has it open
+     */
+    static void dropTables(DataSource dataSource, String table) {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DROP TABLE IF EXISTS " + table);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error dropping " + table, e);
+        }
+    }
+
+    private AccountTransactionTail tail(UUID accountId) {
+        return hotTails.get(accountId, this::loadTail);
+    }
+
+    /**
+     * Rows of the account newest first from the offset: from the tail as far as it reaches,
+     * then from the table below its floor
+     */
+    private List<TransactionReadModel> newestFirst(UUID accountId, AccountTransactionTail.Snapshot tail,
+                                                   long offset, int limit) {
+        List<TransactionReadModel> held = tail.newestFirst();
+        List<TransactionReadModel> rows = new ArrayList<>(
+            held.subList((int) Math.min(offset, held.size()), (int) Math.min(offset + limit, held.size())));
+        if (rows.size() < limit && !tail.complete()) {
+            rows.addAll(select(" WHERE account_id = ? AND sequence_number <= ? ORDER BY sequence_number DESC LIMIT ? OFFSET ?",
+                accountId, tail.floor(), limit - rows.size(), Math.max(0, offset - held.size())));
+        }
+        return rows;
+    }
+
+    /**
+     * Version a row saved without one is kept at: the one it was stored at, or the next one
+     */
+    private long storedVersion(AccountTransactionTail tail, UUID transactionId) {
+        Long held = tail.versionOf(transactionId);
+        if (held != null) {
+            return held;
+        }
+        return findByTransactionId(transactionId)
+            .map(TransactionReadModel::getVersion)
+            .orElseGet(tail::nextVersion);
+    }
+
+    /**
+     * Change the tail of the account at the version and queue the rows the change touched. A tail
+     * that does not reach back to the version is read from the table first, so the compute,
+     * which keeps the tail from being evicted and reloaded before the rows are queued, only
+     * works in memory; a full batch is written once the entry is released. Rows of one account
+     * are saved by one projection worker at a time, so the tail read before is still current.
+     */
+    private void modifyTail(UUID accountId, AccountTransactionTail loaded, long version,
+                            Function<AccountTransactionTail, List<TransactionReadModel>> change) {
+        AccountTransactionTail reloaded = loaded.covers(version) ? null : loadTailFrom(accountId, version);
+        hotTails.asMap().compute(accountId, (id, tail) -> {
+            AccountTransactionTail target = reloaded != null ? reloaded
+                : tail != null && tail.covers(version) ? tail : loaded;
+            queue(target, change.apply(target));
+            target.trim(tailRows);
+            return target;
+        });
+        pendingWrites.flushIfFull();
+    }
+
+    private void queue(AccountTransactionTail tail, List<TransactionReadModel> changed) {
+        for (TransactionReadModel row : changed) {
+            if (tail.versionOf(row.getTransactionId()) != null) {
+                pendingWrites.stage(row.getTransactionId(), row);
+            }
+        }
+    }
+
+    /**
+     * The newest rows of one account, read with one more row that becomes the floor. Pending rows
+     * are written first, the tail of the account may have been evicted before they reached the table.
+     */
+    private AccountTransactionTail loadTail(UUID accountId) {
+        List<TransactionReadModel> newest = select(" WHERE account_id = ? ORDER BY sequence_number DESC LIMIT ?",
+            accountId, tailRows + 1);
+        Collections.reverse(newest);
+        if (newest.size() <= tailRows) {
+            return new AccountTransactionTail(0, BigDecimal.ZERO, newest, newest.size());
+        }
+        TransactionReadModel floor = newest.get(0);
+        return new AccountTransactionTail(floor.getVersion(), floor.getBalanceAfter(), newest.subList(1, newest.size()),
+            count(" WHERE account_id = ?", accountId));
+    }
+
+    /**
+     * A tail reaching back to the row in front of the version, for a row that arrived or is
+     * removed below the floor. Every row after it has its balance re-derived anyway.
+     */
+    private AccountTransactionTail loadTailFrom(UUID accountId, long version) {
+        List<TransactionReadModel> previous = select(
+            " WHERE account_id = ? AND sequence_number < ? ORDER BY sequence_number DESC LIMIT 1", accountId, version);
+        List<TransactionReadModel> rows = select(
+            " WHERE account_id = ? AND sequence_number >= ? ORDER BY sequence_number", accountId, version);
+        long count = previous.isEmpty() ? rows.size() : count(" WHERE account_id = ?", accountId);
+        return previous.isEmpty()
+            ? new AccountTransactionTail(0, BigDecimal.ZERO, rows, count)
+            : new AccountTransactionTail(previous.get(0).getVersion(), previous.get(0).getBalanceAfter(), rows, count);
+    }
+
+    /**
+     * Rows of the table matching the clause, after writing the pending rows
+     */
+    private List<TransactionReadModel> select(String clause, Object... parameters) {
+        pendingWrites.flush();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(selectSql + clause)) {
+
+            bindAll(stmt, parameters);
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<TransactionReadModel> rows = new ArrayList<>();
+                while (rs.next()) {
+                    rows.add(map(rs));
+                }
+                return rows;
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Error querying " + table, e);
+        }
+    }
+
+    private long count(String where, Object... parameters) {
+        pendingWrites.flush();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM " + table + where)) {
+
+            bindAll(stmt, parameters);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Error counting " + table, e);
+        }
+    }
+
+    private static String filter(TransactionHistoryQuery query, List<Object> parameters) {
+        StringBuilder where = new StringBuilder(" WHERE account_id = ?");
+        parameters.add(query.getAccountId());
+        if (query.getFromDate() != null) {
+            where.append(" AND transaction_time >= ?");
+            parameters.add(query.getFromDate());
+        }
+        if (query.getToDate() != null) {
+            where.append(" AND transaction_time <= ?");
+            parameters.add(query.getToDate());
+        }
+        if (query.getTransactionType() != null) {
+            where.append(" AND transaction_type = ?");
+            parameters.add(query.getTransactionType());
+        }
+        if (query.getMinAmount() != null) {
+            where.append(" AND amount >= ?");
+            parameters.add(query.getMinAmount());
+        }
+        if (query.getMaxAmount() != null) {
+            where.append(" AND amount <= ?");
+            parameters.add(query.getMaxAmount());
+        }
+        return where.toString();
+    }
+
+    private static void bindAll(PreparedStatement stmt, Object[] parameters) throws SQLException {
+        for (int i = 0; i < parameters.length; i++) {
+            stmt.setObject(i + 1, parameters[i]);
+        }
+    }
+
+    private void writeBatch(List<TransactionReadModel> upserts, List<UUID> deletes, long position) {
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement merge = conn.prepareStatement(mergeSql);
+                 PreparedStatement delete = conn.prepareStatement(deleteSql)) {
+
+                for (TransactionReadModel row : upserts) {
+                    bind(merge, row);
+                    merge.addBatch();
+                }
+                for (UUID transactionId : deletes) {
+                    delete.setObject(1, transactionId);
+                    delete.addBatch();
+                }
+                if (!upserts.isEmpty()) {
+                    merge.executeBatch();
+                }
+                if (!deletes.isEmpty()) {
+                    delete.executeBatch();
+                }
+                if (checkpoint != null) {
+                    checkpoint.write(conn, position);
+                }
+                conn.commit();
+
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Error writing " + (upserts.size() + deletes.size()) + " transactions", e);
+        }
+    }
+
+    private static void bind(PreparedStatement stmt, TransactionReadModel transaction) throws SQLException {
+        stmt.setObject(1, transaction.getTransactionId());
+        stmt.setObject(2, transaction.getAccountId());
+        stmt.setString(3, transaction.getTransactionType());
+        stmt.setBigDecimal(4, transaction.getAmount());
+        stmt.setString(5, transaction.getDescription());
+        stmt.setObject(6, transaction.getTimestamp());
+        stmt.setBigDecimal(7, transaction.getBalanceAfter());
+        stmt.setString(8, transaction.getStatus());
+        stmt.setObject(9, transaction.getRelatedAccountId());
+        stmt.setString(10, transaction.getMetadata());
+        stmt.setLong(11, transaction.getVersion());
+    }
+
+    private static TransactionReadModel map(ResultSet rs) throws SQLException {
+        TransactionReadModel transaction = new TransactionReadModel(
+            rs.getObject("transaction_id", UUID.class),
+            rs.getObject("account_id", UUID.class),
+            rs.getString("transaction_type"),
+            rs.getBigDecimal("amount"),
+            rs.getString("description"),
+            rs.getObject("transaction_time", LocalDateTime.class),
+            rs.getBigDecimal("balance_after"),
+            rs.getString("status"));
+        transaction.setRelatedAccountId(rs.getObject("related_account_id", UUID.class));
+        transaction.setMetadata(rs.getString("metadata"));
+        transaction.setVersion(rs.getLong("sequence_number"));
+        return transaction;
+    }
+
+    private void initializeSchema() {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS %s (
+                    transaction_id UUID PRIMARY KEY,
+                    account_id UUID NOT NULL,
+                    transaction_type VARCHAR(20) NOT NULL,
+                    amount DECIMAL(19, 2),
+                    description VARCHAR(500),
+                    transaction_time TIMESTAMP,
+                    balance_after DECIMAL(19, 2),
+                    status VARCHAR(20),
+                    related_account_id UUID,
+                    metadata CLOB,
+                    sequence_number BIGINT NOT NULL
+                )
+                """.formatted(table));
+
+            // Tails and older pages of an account are read in stream order straight off this index
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_" + table + "_account_sequence ON " + table + "(account_id, sequence_number)");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_" + table + "_account_time ON " + table + "(account_id, transaction_time)");
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to initialize transaction history schema", e);
+        }
+    }
+}
@@ -3,186 +3,433 @@ package io.artur.bankaccount.infrastructure.persistence.queries;
 import io.artur.bankaccount.application.ports.outgoing.AccountSummaryQueryRepository;
 import io.artur.bankaccount.application.queries.models.AccountSearchQuery;
 import io.artur.bankaccount.application.queries.readmodels.AccountSummaryReadModel;
+import io.artur.bankaccount.application.queries.readmodels.KeysetPage;
 import io.artur.bankaccount.application.queries.readmodels.PagedResult;
-import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
-@Repository
+/**
+ * In-memory account summaries with incrementally maintained secondary indexes.
+ *
+ * Every save updates one sorted index per sortable field, a bitmap per status, an n-gram index
+ * on holder names and the running statistics, so a search page is answered by walking an index
+ * in sort order instead of sorting all accounts, holder name lookups never scan, and statistics
+ * are read from counters instead of being recomputed.
+ */
 public class NativeAccountSummaryQueryRepository implements AccountSummaryQueryRepository {
-    
+
+    /**
+     * A filter backed by an id set (status bitmap, holder name index) drives the search, sorting
+     * only its members, when it matches less than 1/SELECTIVE_FILTER_RATIO of all accounts
+     */
+    private static final int SELECTIVE_FILTER_RATIO = 16;
+
     private final Map<UUID, AccountSummaryReadModel> storage = new ConcurrentHashMap<>();
-    
+
+    // Index keys as of the last save; projections mutate read models in place before saving them
+    private final Map<UUID, IndexedValues> indexedValues = new ConcurrentHashMap<>();
+    private final Map<SortField, SortedIndex> sortedIndexes = new EnumMap<>(SortField.class);
+    private final StatusBitmapIndex statusIndex = new StatusBitmapIndex();
+    private final HolderNameIndex holderNameIndex = new HolderNameIndex();
+    private final AccountStatisticsAccumulator statistics = new AccountStatisticsAccumulator();
+
+    public NativeAccountSummaryQueryRepository() {
+        for (SortField field : SortField.values()) {
+            sortedIndexes.put(field, new SortedIndex());
+        }
+    }
+
     @Override
     public Optional<AccountSummaryReadModel> findByAccountId(UUID accountId) {
         return Optional.ofNullable(storage.get(accountId));
     }
-    
+
     @Override
     public List<AccountSummaryReadModel> findAll() {
         return new ArrayList<>(storage.values());
     }
-    
+
     @Override
     public PagedResult<AccountSummaryReadModel> search(AccountSearchQuery query) {
-        List<AccountSummaryReadModel> allAccounts = findAll();
-        
-        // Apply filters
-        List<AccountSummaryReadModel> filtered = allAccounts.stream()
-            .filter(account -> matchesFilter(account, query))
-            .sorted(getComparator(query.getSortBy(), query.getSortDirection()))
-            .collect(Collectors.toList());
-        
-        // Apply pagination
-        int start = query.getPage() * query.getSize();
-        int end = Math.min(start + query.getSize(), filtered.size());
-        
-        List<AccountSummaryReadModel> pageContent = start < filtered.size() 
-            ? filtered.subList(start, end) 
-            : Collections.emptyList();
-        
-        return PagedResult.of(pageContent, query.getPage(), query.getSize(), filtered.size());
-    }
-    
+        SortField sortField = SortField.of(query.getSortBy());
+        boolean descending = isDescending(query);
+        long offset = (long) query.getPage() * query.getSize();
+        Set<UUID> holderMatches = holderMatches(query);
+
+        // Without filters that need a look at every candidate the total is known up front
+        // and the walk can stop as soon as the page is full
+        Long knownTotal = null;
+        if (query.getAccountHolderName() == null && query.getMinBalance() == null && query.getMaxBalance() == null) {
+            knownTotal = query.getAccountStatus() == null
+                ? (long) indexedValues.size()
+                : (long) statusIndex.cardinality(query.getAccountStatus());
+        }
+
+        List<AccountSummaryReadModel> pageContent = new ArrayList<>(query.getSize());
+        long matched = 0;
+        Iterator<SortedIndex.Entry> candidates = candidates(query, holderMatches, sortField, descending, null);
+        while (candidates.hasNext()) {
+            SortedIndex.Entry entry = candidates.next();
+            if (!matchesFilter(entry.getAccountId(), query, holderMatches)) {
+                continue;
+            }
+            if (matched >= offset && pageContent.size() < query.getSize()) {
+                AccountSummaryReadModel account = storage.get(entry.getAccountId());
+                if (account != null) {
+                    pageContent.add(account);
+                }
+            }
+            matched++;
+            if (knownTotal != null && pageContent.size() >= query.getSize()) {
+                break;
+            }
+        }
+
+        return PagedResult.of(pageContent, query.getPage(), query.getSize(), knownTotal != null ? knownTotal : matched);
+    }
+
+    @Override
+    public KeysetPage<AccountSummaryReadModel> searchAfter(AccountSearchQuery query) {
+        SortField sortField = SortField.of(query.getSortBy());
+        boolean descending = isDescending(query);
+        SortedIndex.Entry cursor = query.getCursor() != null ? decodeCursor(query.getCursor(), sortField) : null;
+        Set<UUID> holderMatches = holderMatches(query);
+
+        List<AccountSummaryReadModel> pageContent = new ArrayList<>(query.getSize());
+        SortedIndex.Entry last = null;
+        boolean hasNext = false;
+        Iterator<SortedIndex.Entry> candidates = candidates(query, holderMatches, sortField, descending, cursor);
+        while (candidates.hasNext()) {
+            SortedIndex.Entry entry = candidates.next();
+            if (!matchesFilter(entry.getAccountId(), query, holderMatches)) {
+                continue;
+            }
+            AccountSummaryReadModel account = storage.get(entry.getAccountId());
+            if (account == null) {
+                continue;
+            }
+            if (pageContent.size() == query.getSize()) {
+                hasNext = true;
+                break;
+            }
+            pageContent.add(account);
+            last = entry;
+        }
+
+        return KeysetPage.of(pageContent, query.getSize(), hasNext ? encodeCursor(sortField, last) : null);
+    }
+
     @Override
     public List<AccountSummaryReadModel> findByAccountHolderNameContaining(String holderName) {
-        return storage.values().stream()
-            .filter(account -> account.getAccountHolderName() != null && 
-                             account.getAccountHolderName().toLowerCase().contains(holderName.toLowerCase()))
-            .collect(Collectors.toList());
+        return resolve(holderNameIndex.containing(holderName));
     }
-    
+
+    @Override
+    public List<AccountSummaryReadModel> findByAccountHolderNameStartingWith(String prefix) {
+        return resolve(holderNameIndex.startingWith(prefix));
+    }
+
     @Override
     public List<AccountSummaryReadModel> findByAccountStatus(String status) {
-        return storage.values().stream()
-            .filter(account -> status.equals(account.getAccountStatus()))
-            .collect(Collectors.toList());
+        return resolve(statusIndex.members(status));
     }
-    
+
     @Override
     public List<AccountSummaryReadModel> findByBalanceGreaterThan(BigDecimal threshold) {
-        return storage.values().stream()
-            .filter(account -> account.getBalance() != null && 
-                             account.getBalance().compareTo(threshold) > 0)
-            .collect(Collectors.toList());
+        return resolve(sortedIndexes.get(SortField.BALANCE).range(threshold, null, false).stream()
+            .filter(entry -> entry.getValue() != null && ((BigDecimal) entry.getValue()).compareTo(threshold) > 0)
+            .map(SortedIndex.Entry::getAccountId)
+            .collect(Collectors.toList()));
     }
-    
+
     @Override
     public List<AccountSummaryReadModel> findByBalanceLessThan(BigDecimal threshold) {
-        return storage.values().stream()
-            .filter(account -> account.getBalance() != null && 
-                             account.getBalance().compareTo(threshold) < 0)
-            .collect(Collectors.toList());
+        return resolve(sortedIndexes.get(SortField.BALANCE).range(null, threshold, false).stream()
+            .filter(entry -> ((BigDecimal) entry.getValue()).compareTo(threshold) < 0)
+            .map(SortedIndex.Entry::getAccountId)
+            .collect(Collectors.toList()));
     }
-    
+
     @Override
     public List<AccountSummaryReadModel> findDormantAccounts(int daysWithoutActivity) {
         LocalDateTime cutoffDate = LocalDateTime.now().minusDays(daysWithoutActivity);
         return storage.values().stream()
-            .filter(account -> account.getLastTransactionDate() == null || 
+            .filter(account -> account.getLastTransactionDate() == null ||
                              account.getLastTransactionDate().isBefore(cutoffDate))
             .collect(Collectors.toList());
     }
-    
+
     @Override
     public AccountStatistics getAccountStatistics() {
-        List<AccountSummaryReadModel> allAccounts = findAll();
-        
-        long total = allAccounts.size();
-        long active = allAccounts.stream().mapToLong(a -> "ACTIVE".equals(a.getAccountStatus()) ? 1 : 0).sum();
-        long frozen = allAccounts.stream().mapToLong(a -> "FROZEN".equals(a.getAccountStatus()) ? 1 : 0).sum();
-        long closed = allAccounts.stream().mapToLong(a -> "CLOSED".equals(a.getAccountStatus()) ? 1 : 0).sum();
-        long dormant = allAccounts.stream().mapToLong(a -> "DORMANT".equals(a.getAccountStatus()) ? 1 : 0).sum();
-        
-        BigDecimal totalBalance = allAccounts.stream()
-            .map(AccountSummaryReadModel::getBalance)
-            .filter(Objects::nonNull)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        BigDecimal averageBalance = total > 0 
-            ? totalBalance.divide(BigDecimal.valueOf(total), 2, BigDecimal.ROUND_HALF_UP)
+        long total = statistics.getAccountCount();
+        BigDecimal totalBalance = statistics.getTotalBalance();
+
+        BigDecimal averageBalance = total > 0
+            ? totalBalance.divide(BigDecimal.valueOf(total), 2, RoundingMode.HALF_UP)
             : BigDecimal.ZERO;
-        
-        return new AccountStatistics(total, active, frozen, closed, dormant, totalBalance, averageBalance);
+
+        return new AccountStatistics(
+            total,
+            statistics.getCount("ACTIVE"),
+            statistics.getCount("FROZEN"),
+            statistics.getCount("CLOSED"),
+            statistics.getCount("DORMANT"),
+            totalBalance,
+            averageBalance
+        );
     }
-    
+
     @Override
     public void save(AccountSummaryReadModel accountSummary) {
-        storage.put(accountSummary.getAccountId(), accountSummary);
+        // compute serializes saves and deletes of the same account, keeping its index entries consistent
+        storage.compute(accountSummary.getAccountId(), (accountId, existing) -> {
+            IndexedValues current = IndexedValues.of(accountSummary);
+            reindex(accountId, indexedValues.put(accountId, current), current);
+            return accountSummary;
+        });
     }
-    
+
     @Override
     public void delete(UUID accountId) {
-        storage.remove(accountId);
+        storage.computeIfPresent(accountId, (id, existing) -> {
+            IndexedValues previous = indexedValues.remove(id);
+            if (previous != null) {
+                for (SortField field : SortField.values()) {
+                    sortedIndexes.get(field).remove(id, field.valueOf(previous));
+                }
+                statusIndex.remove(id, previous.status);
+                holderNameIndex.remove(id, previous.holderName);
+                statistics.removed(previous.status, previous.balance);
+            }
+            return null;
+        });
     }
-    
+
     @Override
     public boolean exists(UUID accountId) {
         return storage.containsKey(accountId);
     }
-    
+
     @Override
     public long count() {
         return storage.size();
     }
-    
+
     @Override
     public long countByStatus(String status) {
-        return storage.values().stream()
-            .mapToLong(account -> status.equals(account.getAccountStatus()) ? 1 : 0)
-            .sum();
-    }
-    
-    private boolean matchesFilter(AccountSummaryReadModel account, AccountSearchQuery query) {
-        if (query.getAccountHolderName() != null && 
-            (account.getAccountHolderName() == null || 
-             !account.getAccountHolderName().toLowerCase().contains(query.getAccountHolderName().toLowerCase()))) {
+        return statistics.getCount(status);
+    }
+
+    private void reindex(UUID accountId, IndexedValues previous, IndexedValues current) {
+        for (SortField field : SortField.values()) {
+            Object currentValue = field.valueOf(current);
+            SortedIndex index = sortedIndexes.get(field);
+            if (previous != null) {
+                Object previousValue = field.valueOf(previous);
+                if (Objects.equals(previousValue, currentValue)) {
+                    continue;
+                }
+                index.remove(accountId, previousValue);
+            }
+            index.add(accountId, currentValue);
+        }
+        statusIndex.update(accountId, previous != null ? previous.status : null, current.status);
+        holderNameIndex.update(accountId, previous != null ? previous.holderName : null, current.holderName);
+        if (previous == null) {
+            statistics.added(current.status, current.balance);
+        } else {
+            statistics.changed(previous.status, previous.balance, current.status, current.balance);
+        }
+    }
+
+    private Set<UUID> holderMatches(AccountSearchQuery query) {
+        return query.getAccountHolderName() != null ? holderNameIndex.containing(query.getAccountHolderName()) : null;
+    }
+
+    /**
+     * Index entries to check against the filters, in result order. Starts from the holder name
+     * matches or the status bitmap when one of them is selective, otherwise walks the index of the
+     * sort field, narrowed to the balance range when sorting by balance and to the entries after
+     * the cursor if there is one.
+     */
+    private Iterator<SortedIndex.Entry> candidates(AccountSearchQuery query, Set<UUID> holderMatches,
+                                                   SortField sortField, boolean descending, SortedIndex.Entry cursor) {
+        long accounts = indexedValues.size();
+        Collection<UUID> driver = null;
+        if (holderMatches != null && (long) holderMatches.size() * SELECTIVE_FILTER_RATIO < accounts) {
+            driver = holderMatches;
+        }
+        String status = query.getAccountStatus();
+        if (status != null) {
+            int members = statusIndex.cardinality(status);
+            if ((long) members * SELECTIVE_FILTER_RATIO < accounts && (driver == null || members < driver.size())) {
+                driver = statusIndex.members(status);
+            }
+        }
+
+        if (driver != null) {
+            Comparator<SortedIndex.Entry> order = SortedIndex.order(descending);
+            List<SortedIndex.Entry> entries = new ArrayList<>(driver.size());
+            for (UUID accountId : driver) {
+                IndexedValues values = indexedValues.get(accountId);
+                if (values == null) {
+                    continue;
+                }
+                SortedIndex.Entry entry = new SortedIndex.Entry(sortField.valueOf(values), accountId);
+                if (cursor == null || order.compare(entry, cursor) > 0) {
+                    entries.add(entry);
+                }
+            }
+            entries.sort(order);
+            return entries.iterator();
+        }
+
+        SortedIndex index = sortedIndexes.get(sortField);
+        NavigableSet<SortedIndex.Entry> view = sortField == SortField.BALANCE
+            ? index.range(query.getMinBalance(), query.getMaxBalance(), descending)
+            : index.view(descending);
+        if (cursor != null) {
+            view = view.tailSet(cursor, false);
+        }
+        return view.iterator();
+    }
+
+    /**
+     * Filters are checked against the indexed values so results agree with the index order
+     */
+    private boolean matchesFilter(UUID accountId, AccountSearchQuery query, Set<UUID> holderMatches) {
+        IndexedValues account = indexedValues.get(accountId);
+        if (account == null) {
             return false;
         }
-        
-        if (query.getAccountStatus() != null && 
-            !query.getAccountStatus().equals(account.getAccountStatus())) {
+
+        if (holderMatches != null && !holderMatches.contains(accountId)) {
             return false;
         }
-        
-        if (query.getMinBalance() != null && 
-            (account.getBalance() == null || account.getBalance().compareTo(query.getMinBalance()) < 0)) {
+
+        if (query.getAccountStatus() != null &&
+            !statusIndex.contains(accountId, query.getAccountStatus())) {
             return false;
         }
-        
-        if (query.getMaxBalance() != null && 
-            (account.getBalance() == null || account.getBalance().compareTo(query.getMaxBalance()) > 0)) {
+
+        if (query.getMinBalance() != null &&
+            (account.balance == null || account.balance.compareTo(query.getMinBalance()) < 0)) {
+            return false;
+        }
+
+        if (query.getMaxBalance() != null &&
+            (account.balance == null || account.balance.compareTo(query.getMaxBalance()) > 0)) {
             return false;
         }
-        
+
         return true;
     }
-    
-    private Comparator<AccountSummaryReadModel> getComparator(String sortBy, String sortDirection) {
-        Comparator<AccountSummaryReadModel> comparator;
-        
-        switch (sortBy != null ? sortBy.toLowerCase() : "accountholdername") {
-            case "balance":
-                comparator = Comparator.comparing(AccountSummaryReadModel::getBalance, 
-                    Comparator.nullsLast(Comparator.naturalOrder()));
-                break;
-            case "status":
-                comparator = Comparator.comparing(AccountSummaryReadModel::getAccountStatus, 
-                    Comparator.nullsLast(Comparator.naturalOrder()));
-                break;
-            case "openeddate":
-                comparator = Comparator.comparing(AccountSummaryReadModel::getAccountOpenedDate, 
-                    Comparator.nullsLast(Comparator.naturalOrder()));
-                break;
-            default:
-                comparator = Comparator.comparing(AccountSummaryReadModel::getAccountHolderName, 
-                    Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private List<AccountSummaryReadModel> resolve(Collection<UUID> accountIds) {
+        List<AccountSummaryReadModel> accounts = new ArrayList<>(accountIds.size());
+        for (UUID accountId : accountIds) {
+            AccountSummaryReadModel account = storage.get(accountId);
+            if (account != null) {
+                accounts.add(account);
+            }
+        }
+        return accounts;
+    }
+
+    private static boolean isDescending(AccountSearchQuery query) {
+        return "desc".equalsIgnoreCase(query.getSortDirection());
+    }
+
+    /**
+     * Cursor format before encoding: sortField:accountId:value, with value prefixed by V, or N for null
+     */
+    private static String encodeCursor(SortField sortField, SortedIndex.Entry entry) {
+        String value = entry.getValue() == null ? "N" : "V" + sortField.format(entry.getValue());
+        String raw = sortField.name() + ":" + entry.getAccountId() + ":" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static SortedIndex.Entry decodeCursor(String cursor, SortField sortField) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            if (parts.length != 3 || !sortField.name().equals(parts[0]) || parts[2].isEmpty()) {
+                throw new IllegalArgumentException("Cursor does not belong to a search sorted by " + sortField.property);
+            }
+            Object value = parts[2].charAt(0) == 'N' ? null : sortField.parse(parts[2].substring(1));
+            return new SortedIndex.Entry(value, UUID.fromString(parts[1]));
+        } catch (IllegalArgumentException | java.time.format.DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid search cursor", e);
+        }
+    }
+
+    /**
+     * Fields with a sorted index, matched case-insensitively against the sortBy of a query
+     */
+    private enum SortField {
+        ACCOUNT_HOLDER_NAME("accountHolderName", v -> v.holderName, s -> s),
+        BALANCE("balance", v -> v.balance, BigDecimal::new),
+        STATUS("status", v -> v.status, s -> s),
+        OPENED_DATE("openedDate", v -> v.openedDate, LocalDateTime::parse);
+
+        private final String property;
+        private final Function<IndexedValues, Object> extractor;
+        private final Function<String, Object> parser;
+
+        SortField(String property, Function<IndexedValues, Object> extractor, Function<String, Object> parser) {
+            this.property = property;
+            this.extractor = extractor;
+            this.parser = parser;
+        }
+
+        static SortField of(String sortBy) {
+            for (SortField field : values()) {
+                if (field.property.equalsIgnoreCase(sortBy)) {
+                    return field;
+                }
+            }
+            return ACCOUNT_HOLDER_NAME;
+        }
+
+        Object valueOf(IndexedValues values) {
+            return extractor.apply(values);
+        }
+
+        Object parse(String value) {
+            return parser.apply(value);
+        }
+
+        String format(Object value) {
+            return value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        }
+    }
+
+    /**
+     * Snapshot of the indexed fields of one read model
+     */
+    private static final class IndexedValues {
+        private final String holderName;
+        private final BigDecimal balance;
+        private final String status;
+        private final LocalDateTime openedDate;
+
+        private IndexedValues(String holderName, BigDecimal balance, String status, LocalDateTime openedDate) {
+            this.holderName = holderName;
+            this.balance = balance;
+            this.status = status;
+            this.openedDate = openedDate;
+        }
+
+        static IndexedValues of(AccountSummaryReadModel readModel) {
+            return new IndexedValues(readModel.getAccountHolderName(), readModel.getBalance(),
+                readModel.getAccountStatus(), readModel.getAccountOpenedDate());
         }
-        
-        return "desc".equalsIgnoreCase(sortDirection) ? comparator.reversed() : comparator;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,68 @@
+package io.artur.bankaccount.infrastructure.persistence.queries;
+
+import io.artur.bankaccount.application.ports.outgoing.ReadModelStorePort;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Read model generations kept in memory; a replaced generation is left to the garbage collector.
+ * The initial generation starts empty, so it is marked as not built from the log.
+ */
+public class NativeReadModelStore implements ReadModelStorePort {
+
+    private final AtomicLong generations = new AtomicLong();
+    private final AtomicReference<ReadModelGeneration> active = new AtomicReference<>(newGeneration(0));
+
+    @Override
+    public ReadModelGeneration getActiveGeneration() {
+        return active.get();
+    }
+
+    @Override
+    public ReadModelGeneration createGeneration(int projectionVersion) {
+        return newGeneration(projectionVersion);
+    }
+
+    @Override
+    public void activate(ReadModelGeneration generation) {
+        // Only recorded for this process, a restart starts with an empty generation again
+        active.set(generation);
+    }
+
+    @Override
+    public void discard(ReadModelGeneration generation) {
+        // Dropped with the last reference
+    }
+
+    @Override
+    public boolean acquireRebuildLease() {
+        // Nothing is shared with other instances
+        return true;
+    }
+
+    @Override
+    public void releaseRebuildLease() {
+        // Never contended
+    }
+
+    @Override
+    public ReadModelGeneration refreshActiveGeneration() {
+        return active.get();
+    }
+
+    @Override
+    public void serve(ReadModelGeneration generation) {
+        // Only this process serves its generations
+    }
+
+    @Override
+    public void close() {
+        // Nothing is buffered, and nothing survives the process anyway
+    }
+
+    private ReadModelGeneration newGeneration(int projectionVersion) {
+        return new ReadModelGeneration("g" + generations.incrementAndGet(), projectionVersion,
+            new NativeAccountSummaryQueryRepository(), new NativeTransactionHistoryQueryRepository());
+    }
+}
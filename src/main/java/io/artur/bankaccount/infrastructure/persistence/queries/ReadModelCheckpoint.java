@@ -0,0 +1,37 @@
+package io.artur.bankaccount.infrastructure.persistence.queries;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * The column of read_model_catalog in which one table of a generation records the log position
+ * its committed rows cover. It is written in the transaction of each batch, so the position
+ * never runs ahead of the rows; it only moves forward, so a lagging replica writing the same
+ * tables cannot move it back. Nothing is recorded while the generation is not the catalogued one.
+ */
+final class ReadModelCheckpoint {
+
+    private final String readModel;
+    private final String generation;
+    private final String updateSql;
+
+    ReadModelCheckpoint(String readModel, String generation, String column) {
+        this.readModel = readModel;
+        this.generation = generation;
+        this.updateSql = "UPDATE read_model_catalog SET " + column + " = GREATEST(COALESCE(" + column + ", -1), ?)"
+            + " WHERE read_model = ? AND generation = ?";
+    }
+
+    void write(Connection conn, long position) throws SQLException {
+        if (position == WriteBehindBuffer.NO_POSITION) {
+            return;
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(updateSql)) {
+            stmt.setLong(1, position);
+            stmt.setString(2, readModel);
+            stmt.setString(3, generation);
+            stmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package io.artur.bankaccount.infrastructure.persistence.queries;
+
+import java.util.Comparator;
+import java.util.NavigableSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Incrementally maintained secondary index ordered by one read model field.
+ *
+ * Entries are (value, accountId) pairs so equal values stay distinct and every position in the
+ * index is unique, which is what makes keyset pagination stable. Null values sort last.
+ */
+class SortedIndex {
+
+    private static final UUID LOWEST_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+    private static final UUID HIGHEST_ID = new UUID(Long.MAX_VALUE, Long.MAX_VALUE);
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static final Comparator<Entry> ORDER = Comparator
+        .comparing(Entry::getValue, Comparator.nullsLast((a, b) -> ((Comparable) a).compareTo(b)))
+        .thenComparing(Entry::getAccountId);
+
+    private final ConcurrentSkipListSet<Entry> entries = new ConcurrentSkipListSet<>(ORDER);
+
+    void add(UUID accountId, Object value) {
+        entries.add(new Entry(value, accountId));
+    }
+
+    void remove(UUID accountId, Object value) {
+        entries.remove(new Entry(value, accountId));
+    }
+
+    NavigableSet<Entry> view(boolean descending) {
+        return descending ? entries.descendingSet() : entries;
+    }
+
+    /**
+     * Entries with a value between {@code from} and {@code to} inclusive, a null bound is open
+     */
+    NavigableSet<Entry> range(Object from, Object to, boolean descending) {
+        NavigableSet<Entry> range = entries;
+        if (from != null) {
+            range = range.tailSet(new Entry(from, LOWEST_ID), true);
+        }
+        if (to != null) {
+            range = range.headSet(new Entry(to, HIGHEST_ID), true);
+        }
+        return descending ? range.descendingSet() : range;
+    }
+
+    static Comparator<Entry> order(boolean descending) {
+        return descending ? ORDER.reversed() : ORDER;
+    }
+
+    /**
+     * Position of one account in the index
+     */
+    static final class Entry {
+        private final Object value;
+        private final UUID accountId;
+
+        Entry(Object value, UUID accountId) {
+            this.value = value;
+            this.accountId = accountId;
+        }
+
+        Object getValue() { return value; }
+        UUID getAccountId() { return accountId; }
+    }
+}
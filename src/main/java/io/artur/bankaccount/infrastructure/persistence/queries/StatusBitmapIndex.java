@@ -0,0 +1,112 @@
+package io.artur.bankaccount.infrastructure.persistence.queries;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * One bitmap per account status over dense account ordinals.
+ *
+ * Membership tests and cardinalities are answered without touching the read models, and the
+ * members of a rare status can be listed without scanning every account. Ordinals of deleted
+ * accounts are reused so the bitmaps stay dense.
+ */
+class StatusBitmapIndex {
+
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final List<UUID> idsByOrdinal = new ArrayList<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final Map<String, BitSet> bitmaps = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    void update(UUID accountId, String previousStatus, String status) {
+        lock.writeLock().lock();
+        try {
+            int ordinal = ordinals.computeIfAbsent(accountId, this::allocate);
+            if (previousStatus != null && !previousStatus.equals(status)) {
+                BitSet previous = bitmaps.get(previousStatus);
+                if (previous != null) {
+                    previous.clear(ordinal);
+                }
+            }
+            if (status != null) {
+                bitmaps.computeIfAbsent(status, s -> new BitSet()).set(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(UUID accountId, String status) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(accountId);
+            if (ordinal == null) {
+                return;
+            }
+            BitSet bitmap = status != null ? bitmaps.get(status) : null;
+            if (bitmap != null) {
+                bitmap.clear(ordinal);
+            }
+            idsByOrdinal.set(ordinal, null);
+            freeOrdinals.push(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    boolean contains(UUID accountId, String status) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = ordinals.get(accountId);
+            BitSet bitmap = bitmaps.get(status);
+            return ordinal != null && bitmap != null && bitmap.get(ordinal);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int cardinality(String status) {
+        lock.readLock().lock();
+        try {
+            BitSet bitmap = bitmaps.get(status);
+            return bitmap != null ? bitmap.cardinality() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<UUID> members(String status) {
+        lock.readLock().lock();
+        try {
+            BitSet bitmap = bitmaps.get(status);
+            if (bitmap == null) {
+                return List.of();
+            }
+            List<UUID> members = new ArrayList<>(bitmap.cardinality());
+            for (int i = bitmap.nextSetBit(0); i >= 0; i = bitmap.nextSetBit(i + 1)) {
+                members.add(idsByOrdinal.get(i));
+            }
+            return members;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int allocate(UUID accountId) {
+        Integer reused = freeOrdinals.poll();
+        if (reused != null) {
+            idsByOrdinal.set(reused, accountId);
+            return reused;
+        }
+        idsByOrdinal.add(accountId);
+        return idsByOrdinal.size() - 1;
+    }
+}
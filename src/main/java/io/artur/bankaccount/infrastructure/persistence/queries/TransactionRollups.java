@@ -0,0 +1,198 @@
+package io.artur.bankaccount.infrastructure.persistence.queries;
+
+import io.artur.bankaccount.application.ports.outgoing.TransactionHistoryQueryRepository.TransactionStatistics;
+import io.artur.bankaccount.application.queries.readmodels.TransactionReadModel;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Day and month buckets summarizing the transactions of one account.
+ *
+ * Adding a transaction updates one day and one month bucket. Removing one rebuilds its day
+ * bucket from the remaining rows of that day, because a minimum or maximum cannot be taken
+ * back, and then its month from the day buckets. Not thread-safe, the owning log serializes
+ * access.
+ */
+class TransactionRollups {
+
+    static final List<String> TYPES = List.of("DEPOSIT", "WITHDRAWAL", "TRANSFER_IN", "TRANSFER_OUT");
+
+    private final NavigableMap<LocalDate, Bucket> days = new TreeMap<>();
+    private final NavigableMap<YearMonth, Bucket> months = new TreeMap<>();
+
+    void add(LocalDateTime bucketTime, TransactionReadModel transaction) {
+        days.computeIfAbsent(bucketTime.toLocalDate(), d -> new Bucket()).add(transaction);
+        months.computeIfAbsent(YearMonth.from(bucketTime), m -> new Bucket()).add(transaction);
+    }
+
+    /**
+     * Replace the bucket of one day after a transaction of that day was removed
+     */
+    void rebuildDay(LocalDate day, Iterable<TransactionReadModel> remainingRowsOfDay) {
+        Bucket bucket = new Bucket();
+        remainingRowsOfDay.forEach(bucket::add);
+        if (bucket.count == 0) {
+            days.remove(day);
+        } else {
+            days.put(day, bucket);
+        }
+
+        YearMonth month = YearMonth.from(day);
+        Bucket monthBucket = new Bucket();
+        days.subMap(month.atDay(1), true, month.atEndOfMonth(), true).values().forEach(monthBucket::merge);
+        if (monthBucket.count == 0) {
+            months.remove(month);
+        } else {
+            months.put(month, monthBucket);
+        }
+    }
+
+    Bucket all() {
+        Bucket total = new Bucket();
+        months.values().forEach(total::merge);
+        return total;
+    }
+
+    /**
+     * Merge the buckets of the whole days from {@code firstDay} to {@code lastDay} inclusive,
+     * using month buckets for the months that are covered entirely
+     */
+    Bucket days(LocalDate firstDay, LocalDate lastDay) {
+        Bucket total = new Bucket();
+        if (firstDay.isAfter(lastDay)) {
+            return total;
+        }
+
+        YearMonth firstWholeMonth = firstDay.getDayOfMonth() == 1
+            ? YearMonth.from(firstDay)
+            : YearMonth.from(firstDay).plusMonths(1);
+        YearMonth lastWholeMonth = lastDay.equals(YearMonth.from(lastDay).atEndOfMonth())
+            ? YearMonth.from(lastDay)
+            : YearMonth.from(lastDay).minusMonths(1);
+
+        if (firstWholeMonth.isAfter(lastWholeMonth)) {
+            days.subMap(firstDay, true, lastDay, true).values().forEach(total::merge);
+            return total;
+        }
+
+        days.subMap(firstDay, true, firstWholeMonth.atDay(1), false).values().forEach(total::merge);
+        months.subMap(firstWholeMonth, true, lastWholeMonth, true).values().forEach(total::merge);
+        days.subMap(lastWholeMonth.atEndOfMonth(), false, lastDay, true).values().forEach(total::merge);
+        return total;
+    }
+
+    /**
+     * Counts and sums per type, overall total, extremes and first/last timestamps of a period
+     */
+    static final class Bucket {
+        private long count;
+        private final long[] countByType = new long[TYPES.size()];
+        private final BigDecimal[] sumByType = new BigDecimal[TYPES.size()];
+        private BigDecimal totalAmount = BigDecimal.ZERO;
+        private BigDecimal minAmount;
+        private BigDecimal maxAmount;
+        private LocalDateTime first;
+        private LocalDateTime last;
+
+        Bucket() {
+            java.util.Arrays.fill(sumByType, BigDecimal.ZERO);
+        }
+
+        void add(TransactionReadModel transaction) {
+            count++;
+            BigDecimal amount = transaction.getAmount();
+            int type = TYPES.indexOf(transaction.getTransactionType());
+            if (type >= 0) {
+                countByType[type]++;
+                if (amount != null) {
+                    sumByType[type] = sumByType[type].add(amount);
+                }
+            }
+            if (amount != null) {
+                totalAmount = totalAmount.add(amount);
+                minAmount = minAmount == null || amount.compareTo(minAmount) < 0 ? amount : minAmount;
+                maxAmount = maxAmount == null || amount.compareTo(maxAmount) > 0 ? amount : maxAmount;
+            }
+            LocalDateTime timestamp = transaction.getTimestamp();
+            if (timestamp != null) {
+                first = first == null || timestamp.isBefore(first) ? timestamp : first;
+                last = last == null || timestamp.isAfter(last) ? timestamp : last;
+            }
+        }
+
+        /**
+         * Add the totals of rows of one type aggregated elsewhere, e.g. by the database
+         */
+        void add(String type, long rows, BigDecimal sum, BigDecimal min, BigDecimal max,
+                 LocalDateTime firstTimestamp, LocalDateTime lastTimestamp) {
+            Bucket other = new Bucket();
+            other.count = rows;
+            int index = TYPES.indexOf(type);
+            if (index >= 0) {
+                other.countByType[index] = rows;
+                other.sumByType[index] = sum != null ? sum : BigDecimal.ZERO;
+            }
+            other.totalAmount = sum != null ? sum : BigDecimal.ZERO;
+            other.minAmount = min;
+            other.maxAmount = max;
+            other.first = firstTimestamp;
+            other.last = lastTimestamp;
+            merge(other);
+        }
+
+        void merge(Bucket other) {
+            count += other.count;
+            for (int i = 0; i < countByType.length; i++) {
+                countByType[i] += other.countByType[i];
+                sumByType[i] = sumByType[i].add(other.sumByType[i]);
+            }
+            totalAmount = totalAmount.add(other.totalAmount);
+            if (other.minAmount != null && (minAmount == null || other.minAmount.compareTo(minAmount) < 0)) {
+                minAmount = other.minAmount;
+            }
+            if (other.maxAmount != null && (maxAmount == null || other.maxAmount.compareTo(maxAmount) > 0)) {
+                maxAmount = other.maxAmount;
+            }
+            if (other.first != null && (first == null || other.first.isBefore(first))) {
+                first = other.first;
+            }
+            if (other.last != null && (last == null || other.last.isAfter(last))) {
+                last = other.last;
+            }
+        }
+
+        TransactionStatistics toStatistics() {
+            if (count == 0) {
+                return new TransactionStatistics(0, 0, 0, 0, 0,
+                    BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO,
+                    BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, null, null);
+            }
+
+            BigDecimal averageTransactionAmount = totalAmount.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
+
+            return new TransactionStatistics(count, getCount("DEPOSIT"), getCount("WITHDRAWAL"),
+                getCount("TRANSFER_IN"), getCount("TRANSFER_OUT"), getSum("DEPOSIT"),
+                getSum("WITHDRAWAL"), getSum("TRANSFER_IN"), getSum("TRANSFER_OUT"),
+                averageTransactionAmount,
+                maxAmount != null ? maxAmount : BigDecimal.ZERO,
+                minAmount != null ? minAmount : BigDecimal.ZERO,
+                first, last);
+        }
+
+        long getCount() { return count; }
+        long getCount(String type) { return countByType[TYPES.indexOf(type)]; }
+        BigDecimal getSum(String type) { return sumByType[TYPES.indexOf(type)]; }
+        BigDecimal getTotalAmount() { return totalAmount; }
+        BigDecimal getMinAmount() { return minAmount; }
+        BigDecimal getMaxAmount() { return maxAmount; }
+        LocalDateTime getFirst() { return first; }
+        LocalDateTime getLast() { return last; }
+    }
+}
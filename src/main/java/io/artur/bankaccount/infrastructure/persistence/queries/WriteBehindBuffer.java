@@ -0,0 +1,231 @@
+package io.artur.bankaccount.infrastructure.persistence.queries;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalescing buffer of pending upserts and deletes for a durable read model.
+ *
+ * Writes to the same key replace each other, so a hot account saved many times between two
+ * flushes is written once. The buffer is flushed as one batch when it reaches the batch size,
+ * every flush interval, and whenever a reader is about to query the database directly. Entries
+ * stay visible to {@link #pending} until the batch carrying them is committed.
+ *
+ * The projector {@link #mark}s the log position its buffered writes cover. Each batch carries
+ * the latest mark taken before it, so the writer can commit the position with the rows.
+ *
+ * A batch that fails to write stays buffered and is retried by the next flush. Every failure is
+ * logged and counted. After {@link #MAX_ATTEMPTS} failures in a row the interval flushes stop
+ * and the buffer refuses new writes, so the projector stops and its checkpoint stays in front of
+ * the unwritten rows rather than the read model silently falling behind. Explicit flushes, such
+ * as the one on close, still try again and lift the refusal once a batch goes through.
+ */
+class WriteBehindBuffer<K, V> implements AutoCloseable {
+
+    static final long NO_POSITION = -1;
+    static final int MAX_ATTEMPTS = 5;
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindBuffer.class);
+
+    /**
+     * Writes one batch in a single transaction, together with the log position it covers
+     * unless that is {@link #NO_POSITION}
+     */
+    interface BatchWriter<K, V> {
+        void write(List<V> upserts, List<K> deletes, long position);
+    }
+
+    private final String name;
+    private final BatchWriter<K, V> writer;
+    private final int batchSize;
+    private final ScheduledExecutorService flusher;
+
+    // Optional.empty() marks a pending delete
+    private Map<K, Optional<V>> buffered = new LinkedHashMap<>();
+    private volatile Map<K, Optional<V>> inFlight = Map.of();
+    private long markedPosition = NO_POSITION;
+    private volatile long writtenPosition = NO_POSITION;
+    private volatile int consecutiveFailures;
+    private volatile long failedFlushes;
+    private volatile RuntimeException lastFailure;
+
+    WriteBehindBuffer(String name, BatchWriter<K, V> writer, int batchSize, long flushIntervalMillis) {
+        this.name = name;
+        this.writer = writer;
+        this.batchSize = Math.max(1, batchSize);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (flushIntervalMillis > 0) {
+            flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    void put(K key, V value) {
+        stage(key, value);
+        flushIfFull();
+    }
+
+    void delete(K key) {
+        stageDelete(key);
+        flushIfFull();
+    }
+
+    /**
+     * Buffer the row without writing a full batch, for a caller holding a lock; it calls
+     * {@link #flushIfFull} once it released the lock
+     */
+    void stage(K key, V value) {
+        enqueue(key, Optional.of(value));
+    }
+
+    void stageDelete(K key) {
+        enqueue(key, Optional.empty());
+    }
+
+    void flushIfFull() {
+        boolean full;
+        synchronized (this) {
+            full = buffered.size() >= batchSize;
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    /**
+     * Record that everything up to the log position has been put, to be written with the next batch
+     */
+    synchronized void mark(long position) {
+        markedPosition = Math.max(markedPosition, position);
+    }
+
+    /**
+     * Latest marked position committed by a batch, {@link #NO_POSITION} if none was
+     */
+    long writtenPosition() {
+        return writtenPosition;
+    }
+
+    /**
+     * Number of flushes whose batch failed to write since the buffer was created
+     */
+    long failedFlushes() {
+        return failedFlushes;
+    }
+
+    /**
+     * The value waiting to be written for the key, Optional.empty() if the key waits to be
+     * deleted, or null if nothing is pending
+     */
+    Optional<V> pending(K key) {
+        Optional<V> value;
+        synchronized (this) {
+            value = buffered.get(key);
+        }
+        return value != null ? value : inFlight.get(key);
+    }
+
+    /**
+     * Write everything buffered so far; returns once it is committed
+     */
+    void flush() {
+        // Batches are written one at a time so a later batch never overtakes an earlier one
+        synchronized (writer) {
+            Map<K, Optional<V>> batch;
+            long position;
+            synchronized (this) {
+                if (buffered.isEmpty() && markedPosition == writtenPosition) {
+                    return;
+                }
+                position = markedPosition;
+                batch = buffered;
+                buffered = new LinkedHashMap<>();
+                inFlight = batch;
+            }
+
+            List<V> upserts = new ArrayList<>(batch.size());
+            List<K> deletes = new ArrayList<>();
+            batch.forEach((key, value) -> {
+                if (value.isPresent()) {
+                    upserts.add(value.get());
+                } else {
+                    deletes.add(key);
+                }
+            });
+
+            try {
+                writer.write(upserts, deletes, position);
+                writtenPosition = position;
+                if (consecutiveFailures > 0) {
+                    logger.info("{} wrote its pending rows after {} failed attempts", name, consecutiveFailures);
+                    consecutiveFailures = 0;
+                    lastFailure = null;
+                }
+            } catch (RuntimeException e) {
+                // Keep the failed batch for the next flush unless it was overwritten meanwhile
+                synchronized (this) {
+                    Map<K, Optional<V>> retry = new LinkedHashMap<>(batch);
+                    retry.putAll(buffered);
+                    buffered = retry;
+                }
+                recordFailure(batch.size(), e);
+                throw e;
+            } finally {
+                inFlight = Map.of();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        flush();
+    }
+
+    private void enqueue(K key, Optional<V> value) {
+        RuntimeException failure = lastFailure;
+        if (consecutiveFailures >= MAX_ATTEMPTS) {
+            throw new IllegalStateException(name + " could not write its pending rows " + consecutiveFailures
+                + " times in a row and takes no more writes until a flush succeeds", failure);
+        }
+        synchronized (this) {
+            buffered.put(key, value);
+        }
+    }
+
+    private void recordFailure(int rows, RuntimeException e) {
+        failedFlushes++;
+        lastFailure = e;
+        int attempts = ++consecutiveFailures;
+        if (attempts < MAX_ATTEMPTS) {
+            logger.warn("{} could not write {} rows (attempt {} of {}), they stay buffered",
+                name, rows, attempts, MAX_ATTEMPTS, e);
+        } else {
+            logger.error("{} could not write {} rows {} times in a row, refusing further writes",
+                name, rows, attempts, e);
+        }
+    }
+
+    private void flushQuietly() {
+        if (consecutiveFailures >= MAX_ATTEMPTS) {
+            return;
+        }
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Logged and counted by flush, the batch stays buffered for the next tick
+        }
+    }
+}
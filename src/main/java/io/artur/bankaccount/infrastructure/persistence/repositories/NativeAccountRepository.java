@@ -2,49 +2,80 @@ package io.artur.bankaccount.infrastructure.persistence.repositories;
 
 import io.artur.bankaccount.application.ports.outgoing.AccountRepository;
 import io.artur.bankaccount.application.ports.outgoing.EventStorePort;
+import io.artur.bankaccount.application.ports.outgoing.MetricsPort;
 import io.artur.bankaccount.domain.account.aggregates.BankAccount;
 import io.artur.bankaccount.domain.account.events.AccountDomainEvent;
 import io.artur.bankaccount.domain.account.valueobjects.AccountNumber;
 import io.artur.bankaccount.domain.shared.events.DomainEvent;
-import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 /**
  * Native account repository implementation that uses the native event store
  * without depending on legacy infrastructure
  */
-@Repository
 public class NativeAccountRepository implements AccountRepository {
     
     private final EventStorePort eventStore;
+    private final Executor asyncExecutor;
+    private final MetricsPort metricsPort;
     
     public NativeAccountRepository(EventStorePort eventStore) {
+        this(eventStore, ForkJoinPool.commonPool());
+    }
+    
+    public NativeAccountRepository(EventStorePort eventStore, Executor asyncExecutor) {
+        this(eventStore, asyncExecutor, null);
+    }
+    
+    public NativeAccountRepository(EventStorePort eventStore, Executor asyncExecutor, MetricsPort metricsPort) {
         this.eventStore = eventStore;
+        this.asyncExecutor = asyncExecutor;
+        this.metricsPort = metricsPort; // Optional dependency
     }
     
     @Override
     public void save(BankAccount account) {
         List<AccountDomainEvent> uncommittedEvents = account.getUncommittedEvents();
         
-        for (AccountDomainEvent event : uncommittedEvents) {
-            eventStore.saveEvent(account.getAccountId(), event);
-        }
+        recordEventSave(() -> eventStore.saveEvents(account.getAccountId(), uncommittedEvents));
         
         account.markEventsAsCommitted();
     }
     
+    @Override
+    public void saveAll(Collection<BankAccount> accounts) {
+        Map<UUID, List<AccountDomainEvent>> eventsByAccount = new LinkedHashMap<>();
+        for (BankAccount account : accounts) {
+            List<AccountDomainEvent> uncommittedEvents = account.getUncommittedEvents();
+            if (!uncommittedEvents.isEmpty()) {
+                eventsByAccount.put(account.getAccountId(), uncommittedEvents);
+            }
+        }
+        
+        // All accounts are appended in one batch, so either every account commits or none does
+        recordEventSave(() -> eventStore.saveEventBatch(eventsByAccount));
+        
+        accounts.forEach(BankAccount::markEventsAsCommitted);
+    }
+    
     @Override
     public Optional<BankAccount> findById(UUID accountId) {
         if (!eventStore.hasEvents(accountId)) {
             return Optional.empty();
         }
         
-        List<DomainEvent> events = eventStore.loadEvents(accountId);
+        List<DomainEvent> events = recordEventLoad(() -> eventStore.loadEvents(accountId));
         if (events.isEmpty()) {
             return Optional.empty();
         }
@@ -55,7 +86,7 @@ public class NativeAccountRepository implements AccountRepository {
             .map(event -> (AccountDomainEvent) event)
             .collect(Collectors.toList());
         
-        BankAccount account = BankAccount.fromHistory(accountId, accountEvents);
+        BankAccount account = recordRehydration(() -> BankAccount.fromHistory(accountId, accountEvents));
         return Optional.of(account);
     }
     
@@ -174,16 +205,32 @@ public class NativeAccountRepository implements AccountRepository {
     
     @Override
     public CompletableFuture<Void> saveAsync(BankAccount account) {
-        return CompletableFuture.runAsync(() -> save(account));
+        return CompletableFuture.runAsync(() -> save(account), asyncExecutor);
     }
     
     @Override
     public CompletableFuture<Optional<BankAccount>> findByIdAsync(UUID accountId) {
-        return CompletableFuture.supplyAsync(() -> findById(accountId));
+        return CompletableFuture.supplyAsync(() -> findById(accountId), asyncExecutor);
     }
     
     @Override
     public CompletableFuture<List<BankAccount>> findAllAsync() {
-        return CompletableFuture.supplyAsync(this::findAll);
+        return CompletableFuture.supplyAsync(this::findAll, asyncExecutor);
+    }
+    
+    private void recordEventSave(Runnable operation) {
+        if (metricsPort != null) {
+            metricsPort.recordEventSave(operation);
+        } else {
+            operation.run();
+        }
+    }
+    
+    private <T> T recordEventLoad(Supplier<T> operation) {
+        return metricsPort != null ? metricsPort.recordEventLoad(operation) : operation.get();
+    }
+    
+    private <T> T recordRehydration(Supplier<T> operation) {
+        return metricsPort != null ? metricsPort.recordAggregateRehydration(operation) : operation.get();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,66 @@
+package io.artur.bankaccount.infrastructure.web;
+
+import io.artur.bankaccount.api.controller.AccountController;
+import io.artur.bankaccount.application.ports.outgoing.EventStorePort;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Set;
+
+/**
+ * Adds the log position to successful command responses of the account API, as the
+ * read-your-writes token for {@link ReadYourWritesInterceptor}. The position is the one the
+ * command's own last event was appended at, so waiting for it does not also wait for writes that
+ * other requests committed meanwhile. A command whose events were appended on another thread
+ * gets the end of the log at the time the response is written, which covers them as well.
+ *
+ * Streamed responses never pass through this advice, and their headers are sent before their
+ * commands append anything. The streaming endpoints report the position in their final NDJSON
+ * summary line instead, see {@link AccountController}.
+ *
+ * The advice is bound to the account controller rather than a URL, so it works under any
+ * context path.
+ */
+@ControllerAdvice(assignableTypes = AccountController.class)
+public class EventPositionResponseAdvice implements ResponseBodyAdvice<Object> {
+    
+    private static final Set<HttpMethod> WRITE_METHODS = Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+    
+    private final ObjectProvider<EventStorePort> eventStore;
+    
+    public EventPositionResponseAdvice(ObjectProvider<EventStorePort> eventStore) {
+        this.eventStore = eventStore;
+    }
+    
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+    
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!WRITE_METHODS.contains(request.getMethod())) {
+            return body;
+        }
+        eventStore.ifAvailable(store -> {
+            // Taken for failed commands too, so the thread does not carry it into its next request
+            long position = store.takeLastAppendedPosition();
+            if (response instanceof ServletServerHttpResponse servletResponse
+                    && servletResponse.getServletResponse().getStatus() < 300) {
+                response.getHeaders().set(ReadYourWritesInterceptor.EVENT_POSITION_HEADER,
+                    Long.toString(position > 0 ? position : store.getLatestPosition()));
+            }
+        });
+        return body;
+    }
+}
@@ -0,0 +1,48 @@
+package io.artur.bankaccount.infrastructure.web;
+
+import io.artur.bankaccount.application.services.EventLogProjector;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Lets a read wait for the projection to reach the position of the caller's last command.
+ *
+ * Commands report the log position they committed at in the X-Event-Position header, see
+ * {@link EventPositionResponseAdvice}. A GET carrying that value as the min-position parameter
+ * is held until the read models have applied the log up to it, or until the wait times out.
+ * Either way the read is served, and X-Projection-Position tells the client which position it
+ * reflects, so it can tell a stale answer from a current one without polling.
+ */
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+    
+    public static final String MIN_POSITION_PARAMETER = "min-position";
+    public static final String EVENT_POSITION_HEADER = "X-Event-Position";
+    public static final String PROJECTION_POSITION_HEADER = "X-Projection-Position";
+    
+    private final EventLogProjector projector;
+    private final long maxWaitMillis;
+    
+    public ReadYourWritesInterceptor(EventLogProjector projector, long maxWaitMillis) {
+        this.projector = projector;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String minPosition = request.getParameter(MIN_POSITION_PARAMETER);
+        if (minPosition == null || !"GET".equals(request.getMethod())) {
+            return true;
+        }
+        
+        long position;
+        try {
+            position = Long.parseLong(minPosition);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("min-position must be a log position, got: " + minPosition);
+        }
+        projector.awaitPosition(position, maxWaitMillis);
+        response.setHeader(PROJECTION_POSITION_HEADER, Long.toString(projector.getPosition()));
+        return true;
+    }
+}
@@ -0,0 +1,31 @@
+package io.artur.bankaccount.infrastructure.web;
+
+import io.artur.bankaccount.infrastructure.concurrency.AdmissionController;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Set;
+
+/**
+ * Runs every write request through the admission controller before it reaches the controller.
+ * Reads are never throttled.
+ */
+public class WriteAdmissionInterceptor implements HandlerInterceptor {
+    
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    
+    private final AdmissionController admissionController;
+    
+    public WriteAdmissionInterceptor(AdmissionController admissionController) {
+        this.admissionController = admissionController;
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (WRITE_METHODS.contains(request.getMethod())) {
+            admissionController.admit();
+        }
+        return true;
+    }
+}
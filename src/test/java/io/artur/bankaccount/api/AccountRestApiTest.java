@@ -2,10 +2,11 @@ package io.artur.bankaccount.api;
 
 import io.artur.bankaccount.api.controller.AccountController;
 import io.artur.bankaccount.application.services.AccountApplicationService;
+import io.artur.bankaccount.application.services.BatchTransactionProcessor;
+import io.artur.bankaccount.application.services.BulkCommandExecutor;
 import io.artur.bankaccount.application.queries.handlers.AccountQueryHandler;
 import io.artur.bankaccount.application.queries.handlers.TransactionQueryHandler;
-import io.artur.bankaccount.domain.account.aggregates.BankAccount;
-import io.artur.bankaccount.domain.shared.events.EventMetadata;
+import io.artur.bankaccount.application.queries.readmodels.AccountView;
 import io.artur.bankaccount.domain.shared.valueobjects.Money;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -52,6 +53,12 @@ class AccountRestApiTest {
     @MockBean
     private TransactionQueryHandler transactionQueryHandler;
     
+    @MockBean
+    private BulkCommandExecutor bulkCommandExecutor;
+    
+    @MockBean
+    private BatchTransactionProcessor batchTransactionProcessor;
+    
     @Test
     void shouldCreateAccountSuccessfully() throws Exception {
         // Given
@@ -83,17 +90,10 @@ class AccountRestApiTest {
     void shouldReturnAccountDetails() throws Exception {
         // Given
         UUID accountId = UUID.randomUUID();
-        EventMetadata metadata = new EventMetadata(1);
-        
-        BankAccount account = BankAccount.openNewAccount(
-            accountId,
-            "Jane Smith", 
-            BigDecimal.valueOf(500), 
-            metadata
-        );
-        account.deposit(BigDecimal.valueOf(250), metadata);
+        AccountView view = new AccountView(accountId, "Jane Smith", BigDecimal.valueOf(250),
+            BigDecimal.valueOf(500), "ACTIVE");
         
-        when(applicationService.findAccountById(accountId)).thenReturn(Optional.of(account));
+        when(applicationService.findAccountView(accountId)).thenReturn(Optional.of(view));
         
         // When & Then
         mockMvc.perform(get("/api/accounts/{accountId}", accountId))
@@ -104,20 +104,21 @@ class AccountRestApiTest {
                 .andExpect(jsonPath("$.balance").value(250))
                 .andExpect(jsonPath("$.availableBalance").value(750)); // 250 + 500 overdraft
         
-        verify(applicationService).findAccountById(accountId);
+        verify(applicationService).findAccountView(accountId);
+        verify(applicationService, never()).findAccountById(any());
     }
     
     @Test
     void shouldReturnNotFoundForNonexistentAccount() throws Exception {
         // Given
         UUID accountId = UUID.randomUUID();
-        when(applicationService.findAccountById(accountId)).thenReturn(Optional.empty());
+        when(applicationService.findAccountView(accountId)).thenReturn(Optional.empty());
         
         // When & Then
         mockMvc.perform(get("/api/accounts/{accountId}", accountId))
                 .andExpect(status().isNotFound());
         
-        verify(applicationService).findAccountById(accountId);
+        verify(applicationService).findAccountView(accountId);
     }
     
     @Test
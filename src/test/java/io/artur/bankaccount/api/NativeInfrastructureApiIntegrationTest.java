@@ -6,6 +6,8 @@ import io.artur.bankaccount.application.ports.outgoing.CachePort;
 import io.artur.bankaccount.application.ports.outgoing.EventStorePort;
 import io.artur.bankaccount.application.ports.outgoing.MetricsPort;
 import io.artur.bankaccount.application.services.AccountApplicationService;
+import io.artur.bankaccount.application.services.BatchTransactionProcessor;
+import io.artur.bankaccount.application.services.BulkCommandExecutor;
 import io.artur.bankaccount.application.queries.handlers.AccountQueryHandler;
 import io.artur.bankaccount.application.queries.handlers.TransactionQueryHandler;
 import io.artur.bankaccount.infrastructure.persistence.queries.NativeAccountSummaryQueryRepository;
@@ -15,12 +17,15 @@ import io.artur.bankaccount.infrastructure.persistence.cache.NativeCacheService;
 import io.artur.bankaccount.infrastructure.persistence.eventstore.NativeEventStore;
 import io.artur.bankaccount.infrastructure.persistence.eventstore.serialization.EventSerializer;
 import io.artur.bankaccount.infrastructure.persistence.repositories.NativeAccountRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.http.MediaType;
 import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import javax.sql.DataSource;
@@ -28,6 +33,7 @@ import java.sql.Connection;
 import java.sql.Statement;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -67,7 +73,11 @@ class NativeInfrastructureApiIntegrationTest {
         TransactionQueryHandler transactionQueryHandler = new TransactionQueryHandler(transactionRepo);
         
         // Create controller and MockMvc
-        AccountController controller = new AccountController(applicationService, accountQueryHandler, transactionQueryHandler);
+        DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+        beans.registerSingleton("eventStore", eventStorePort);
+        AccountController controller = new AccountController(applicationService, accountQueryHandler, transactionQueryHandler,
+            new BulkCommandExecutor(applicationService), new BatchTransactionProcessor(applicationService),
+            beans.getBeanProvider(EventStorePort.class));
         mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
         objectMapper = new ObjectMapper();
     }
@@ -338,4 +348,66 @@ class NativeInfrastructureApiIntegrationTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.status").value("FAILED"));
     }
-}
\ No newline at end of file
+    
+    @Test
+    void shouldApplyNdjsonBatchTransactionsAndStreamResults() throws Exception {
+        String response = mockMvc.perform(post("/api/accounts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                    {
+                        "accountHolderName": "Payroll Receiver",
+                        "overdraftLimit": 50.00
+                    }
+                    """))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        
+        UUID accountId = UUID.fromString(objectMapper.readTree(response).get("accountId").asText());
+        UUID unknownAccountId = UUID.randomUUID();
+        
+        String batch = String.join("\n",
+            "{\"accountId\":\"" + accountId + "\",\"type\":\"DEPOSIT\",\"amount\":1000.00}",
+            "{\"accountId\":\"" + accountId + "\",\"type\":\"WITHDRAW\",\"amount\":5000.00}",
+            "not json",
+            "",
+            "{\"accountId\":\"" + unknownAccountId + "\",\"type\":\"DEPOSIT\",\"amount\":10.00}",
+            "{\"accountId\":\"" + accountId + "\",\"type\":\"WITHDRAW\",\"amount\":250.00}",
+            "{\"accountId\":\"" + accountId + "\",\"type\":\"REFUND\",\"amount\":1.00}");
+        
+        MvcResult asyncResult = mockMvc.perform(post("/api/accounts/transactions/batch")
+                .contentType("application/x-ndjson")
+                .content(batch))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        String[] lines = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString()
+                .split("\n");
+        
+        assertEquals(7, lines.length, "One result per non-blank line plus the summary");
+        assertEquals("SUCCESS", objectMapper.readTree(lines[0]).get("status").asText());
+        assertEquals("FAILED", objectMapper.readTree(lines[1]).get("status").asText());
+        assertEquals(3, objectMapper.readTree(lines[2]).get("lineNumber").asLong());
+        assertEquals("FAILED", objectMapper.readTree(lines[2]).get("status").asText());
+        assertEquals("FAILED", objectMapper.readTree(lines[3]).get("status").asText());
+        assertEquals("SUCCESS", objectMapper.readTree(lines[4]).get("status").asText());
+        assertEquals("FAILED", objectMapper.readTree(lines[5]).get("status").asText());
+        
+        JsonNode summary = objectMapper.readTree(lines[6]);
+        assertEquals(6, summary.get("totalLines").asLong());
+        assertEquals(2, summary.get("successCount").asLong());
+        assertEquals(4, summary.get("failureCount").asLong());
+        // Appended on the processor's own threads, so the end of the log stands in for them
+        assertEquals(eventStorePort.getLatestPosition(), summary.get("eventPosition").asLong());
+        
+        mockMvc.perform(get("/api/accounts/{accountId}", accountId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(750));
+        assertEquals(3, eventStorePort.getEventCount(accountId));
+    }
+}
@@ -0,0 +1,34 @@
+package io.artur.bankaccount.api.controller;
+
+import io.artur.bankaccount.application.services.BatchTransactionProcessor.TransactionLine;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NdjsonTransactionLineReaderTest {
+
+    @Test
+    void shouldRejectLinesOverTheMaximumLengthAndKeepReading() {
+        UUID accountId = UUID.randomUUID();
+        String valid = "{\"accountId\":\"" + accountId + "\",\"type\":\"DEPOSIT\",\"amount\":10}";
+        String input = valid + "\r\n\n" + "x".repeat(500) + "\n" + valid;
+
+        List<TransactionLine> lines = new ArrayList<>();
+        new NdjsonTransactionLineReader(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), 200)
+            .forEachRemaining(lines::add);
+
+        assertEquals(3, lines.size());
+        assertNull(lines.get(0).getError());
+        assertEquals(accountId, lines.get(0).getAccountId());
+        assertEquals(3, lines.get(1).getLineNumber());
+        assertEquals("Line is longer than 200 characters", lines.get(1).getError());
+        assertEquals(4, lines.get(2).getLineNumber());
+        assertNull(lines.get(2).getError());
+    }
+}
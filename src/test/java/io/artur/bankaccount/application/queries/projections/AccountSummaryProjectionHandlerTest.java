@@ -0,0 +1,43 @@
+package io.artur.bankaccount.application.queries.projections;
+
+import io.artur.bankaccount.application.queries.readmodels.AccountSummaryReadModel;
+import io.artur.bankaccount.domain.account.events.AccountFrozenEvent;
+import io.artur.bankaccount.domain.account.events.AccountMarkedDormantEvent;
+import io.artur.bankaccount.domain.account.events.AccountOpenedEvent;
+import io.artur.bankaccount.domain.account.events.AccountReactivatedEvent;
+import io.artur.bankaccount.domain.shared.events.EventMetadata;
+import io.artur.bankaccount.infrastructure.persistence.queries.NativeAccountSummaryQueryRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountSummaryProjectionHandlerTest {
+
+    @Test
+    void shouldFollowDormancyAndReactivation() {
+        NativeAccountSummaryQueryRepository repository = new NativeAccountSummaryQueryRepository();
+        AccountSummaryProjectionHandler handler = new AccountSummaryProjectionHandler(repository);
+        UUID accountId = UUID.randomUUID();
+
+        handler.apply(new AccountOpenedEvent(accountId, "Dana Green", BigDecimal.ZERO, new EventMetadata(1)));
+        handler.apply(new AccountMarkedDormantEvent(accountId, "No activity", "system", null, new EventMetadata(2)));
+        AccountSummaryReadModel dormant = repository.findByAccountId(accountId).orElseThrow();
+        assertEquals("DORMANT", dormant.getAccountStatus());
+        assertEquals("system", dormant.getStatusChangedBy());
+        assertEquals(1, repository.getAccountStatistics().getDormantAccounts());
+
+        handler.apply(new AccountReactivatedEvent(accountId, "Customer request", "clerk", "DORMANT", new EventMetadata(3)));
+        assertEquals("ACTIVE", repository.findByAccountId(accountId).orElseThrow().getAccountStatus());
+
+        handler.apply(new AccountFrozenEvent(accountId, "Fraud check", "risk", new EventMetadata(4)));
+        handler.apply(new AccountReactivatedEvent(accountId, "Cleared", "risk", "FROZEN", new EventMetadata(5)));
+        AccountSummaryReadModel reactivated = repository.findByAccountId(accountId).orElseThrow();
+        assertEquals("ACTIVE", reactivated.getAccountStatus());
+        assertEquals(5, reactivated.getVersion());
+        assertEquals(1, repository.getAccountStatistics().getActiveAccounts());
+        assertEquals(0, repository.getAccountStatistics().getDormantAccounts());
+    }
+}
@@ -2,15 +2,30 @@ package io.artur.bankaccount.application.services;
 
 import io.artur.bankaccount.application.commands.models.*;
 import io.artur.bankaccount.application.ports.outgoing.AccountRepository;
+import io.artur.bankaccount.application.ports.outgoing.CachePort;
+import io.artur.bankaccount.application.queries.handlers.AccountQueryHandler;
+import io.artur.bankaccount.application.queries.readmodels.AccountSummaryReadModel;
+import io.artur.bankaccount.application.queries.readmodels.AccountView;
 import io.artur.bankaccount.domain.account.aggregates.BankAccount;
 import io.artur.bankaccount.domain.shared.events.EventMetadata;
+import io.artur.bankaccount.domain.shared.valueobjects.Money;
+import io.artur.bankaccount.application.queries.projections.ReadModelProjection;
+import io.artur.bankaccount.infrastructure.monitoring.NativeMetricsCollector;
+import io.artur.bankaccount.infrastructure.persistence.cache.NativeCacheService;
+import io.artur.bankaccount.infrastructure.persistence.eventstore.NativeEventStore;
+import io.artur.bankaccount.infrastructure.persistence.eventstore.serialization.EventSerializer;
+import io.artur.bankaccount.infrastructure.persistence.queries.NativeReadModelStore;
+import io.artur.bankaccount.infrastructure.persistence.repositories.NativeAccountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -124,4 +139,79 @@ class AccountApplicationServiceTest {
         
         assertTrue(exception.getMessage().contains("Account not found"));
     }
-}
\ No newline at end of file
+    
+    @Test
+    void shouldServeAccountViewFromCacheOrProjectionWithoutReplay() {
+        CachePort cachePort = mock(CachePort.class);
+        AccountQueryHandler queryHandler = mock(AccountQueryHandler.class);
+        AccountApplicationService readService = new AccountApplicationService(accountRepository, cachePort, null, null, queryHandler);
+        UUID cachedId = UUID.randomUUID();
+        UUID projectedId = UUID.randomUUID();
+        
+        CachePort.AccountSummary summary = new CachePort.AccountSummary(cachedId, "John Doe", Money.of(100), LocalDateTime.now());
+        summary.setCurrentBalance(Money.of(40));
+        summary.setStatus("FROZEN");
+        when(cachePort.getCachedAccountSummary(cachedId)).thenReturn(Optional.of(summary));
+        when(cachePort.getCachedAccountSummary(projectedId)).thenReturn(Optional.empty());
+        when(queryHandler.getAccountSummary(any())).thenReturn(Optional.of(new AccountSummaryReadModel(projectedId,
+            projectedId.toString(), "Jane Doe", BigDecimal.TEN, BigDecimal.ONE, "ACTIVE", LocalDateTime.now())));
+        
+        AccountView cached = readService.findAccountView(cachedId).orElseThrow();
+        AccountView projected = readService.findAccountView(projectedId).orElseThrow();
+        
+        assertEquals(0, BigDecimal.valueOf(140).compareTo(cached.getAvailableBalance()));
+        assertFalse(cached.canPerformTransactions());
+        assertEquals("Jane Doe", projected.getAccountHolderName());
+        assertTrue(projected.isActive());
+        verifyNoInteractions(accountRepository);
+    }
+
+    @Test
+    void shouldTimeOnlyASampleOfCacheLookups() {
+        BankAccount account = BankAccount.openNewAccount("John Doe", BigDecimal.valueOf(100), metadata);
+        NativeCacheService cache = new NativeCacheService();
+        cache.updateBalance(account.getAccountId(), account.getBalance(), account.getVersion());
+        NativeMetricsCollector metrics = new NativeMetricsCollector();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        metrics.bindTo(registry);
+        AccountApplicationService service = new AccountApplicationService(accountRepository, cache, metrics);
+
+        int reads = 100 * AccountApplicationService.CACHE_ACCESS_SAMPLE_RATE;
+        for (int i = 0; i < reads; i++) {
+            assertEquals(account.getBalance(), service.getAccountBalance(account.getAccountId()));
+        }
+
+        // About 100 timed, never all of them, while every hit is counted
+        long timed = registry.get(NativeMetricsCollector.LATENCY_METRIC).tag("operation", "cache_access").timer().count();
+        assertTrue(timed > 0 && timed < reads / 4, "timed " + timed);
+        assertEquals(reads, metrics.getPerformanceSummary().getCacheMetrics().getTotalHits());
+        verifyNoInteractions(accountRepository);
+    }
+
+    @Test
+    void shouldProjectStatusChangesForViewsServedAfterACacheMiss() {
+        NativeEventStore eventStore = new NativeEventStore(new DriverManagerDataSource(
+            "jdbc:h2:mem:status_view_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""), new EventSerializer());
+        EventLogProjector projector = new EventLogProjector(eventStore,
+            new ReadModelProjection(new NativeReadModelStore().getActiveGeneration()),
+            0, Runnable::run, Runnable::run, Runnable::run, 100, 60_000, 600_000);
+        NativeCacheService cache = new NativeCacheService();
+        AccountApplicationService service = new AccountApplicationService(new NativeAccountRepository(eventStore),
+            cache, null, new AsyncEventProcessor(projector),
+            new AccountQueryHandler(() -> projector.getActive().getAccountSummaries()));
+        UUID accountId = service.openAccount(new OpenAccountCommand(UUID.randomUUID(), "John Doe", BigDecimal.ZERO, metadata));
+
+        service.freezeAccount(new FreezeAccountCommand(accountId, "Fraud check", "risk", metadata));
+        cache.invalidateAccount(accountId);
+        assertEquals("FROZEN", service.findAccountView(accountId).orElseThrow().getStatus());
+
+        service.reactivateAccount(new ReactivateAccountCommand(accountId, "Cleared", "risk", metadata));
+        service.markAccountDormant(new MarkAccountDormantCommand(accountId, "No activity", "system", metadata));
+        cache.invalidateAccount(accountId);
+        assertEquals("DORMANT", service.findAccountView(accountId).orElseThrow().getStatus());
+
+        service.closeAccount(new CloseAccountCommand(accountId, "Customer request", "clerk", metadata));
+        cache.invalidateAccount(accountId);
+        assertEquals("CLOSED", service.findAccountView(accountId).orElseThrow().getStatus());
+    }
+}
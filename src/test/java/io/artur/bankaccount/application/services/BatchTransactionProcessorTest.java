@@ -0,0 +1,121 @@
+package io.artur.bankaccount.application.services;
+
+import io.artur.bankaccount.application.ports.outgoing.AccountRepository;
+import io.artur.bankaccount.application.services.BatchTransactionProcessor.LineResult;
+import io.artur.bankaccount.application.services.BatchTransactionProcessor.TransactionLine;
+import io.artur.bankaccount.domain.account.aggregates.BankAccount;
+import io.artur.bankaccount.domain.shared.events.EventMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchTransactionProcessorTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    private AccountApplicationService applicationService;
+    private EventMetadata metadata;
+
+    @BeforeEach
+    void setUp() {
+        applicationService = new AccountApplicationService(accountRepository);
+        metadata = new EventMetadata(1);
+    }
+
+    @Test
+    void shouldAppendEachChunkOnceAndReportInLineOrder() {
+        UUID first = openAccount();
+        UUID second = openAccount();
+        List<TransactionLine> lines = List.of(
+            TransactionLine.of(1, first, "deposit", BigDecimal.TEN),
+            TransactionLine.of(2, second, "DEPOSIT", BigDecimal.ONE),
+            TransactionLine.of(3, first, "WITHDRAW", BigDecimal.ONE),
+            TransactionLine.of(4, second, "TRANSFER", BigDecimal.ONE),
+            TransactionLine.invalid(5, "Malformed line"));
+
+        List<LineResult> results = new ArrayList<>();
+        BatchTransactionProcessor.Summary summary = new BatchTransactionProcessor(applicationService, 4, 2)
+            .process(lines.iterator(), metadata, results::add);
+
+        assertEquals(5, summary.getTotalLines());
+        assertEquals(3, summary.getSuccessCount());
+        assertEquals(2, summary.getFailureCount());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), results.stream().map(LineResult::getLineNumber).toList());
+        assertEquals("Transaction type must be DEPOSIT or WITHDRAW", results.get(3).getReason());
+        // Two chunks touch accounts, the last one only holds an invalid line
+        verify(accountRepository, times(2)).saveAll(anyCollection());
+        verify(accountRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldRejectLinesOfOneAccountWithoutFailingItsOtherLines() {
+        UUID accountId = openAccount();
+        UUID missingAccount = UUID.randomUUID();
+        when(accountRepository.findById(missingAccount)).thenReturn(Optional.empty());
+        List<TransactionLine> lines = List.of(
+            TransactionLine.of(1, accountId, "WITHDRAW", new BigDecimal("500")),
+            TransactionLine.of(2, accountId, "DEPOSIT", BigDecimal.TEN),
+            TransactionLine.of(3, missingAccount, "DEPOSIT", BigDecimal.TEN));
+
+        List<LineResult> results = new ArrayList<>();
+        new BatchTransactionProcessor(applicationService).process(lines.iterator(), metadata, results::add);
+
+        assertFalse(results.get(0).isSuccess());
+        assertTrue(results.get(1).isSuccess());
+        assertFalse(results.get(2).isSuccess());
+        assertTrue(results.get(2).getReason().contains("Account not found"));
+    }
+
+    @Test
+    void shouldReloadAccountsAndRetryThemOneByOneWhenTheChunkAppendFails() {
+        UUID accountId = openAccount();
+        UUID rejectedAccount = openAccount();
+        doAnswer(invocation -> {
+            Collection<BankAccount> accounts = invocation.getArgument(0);
+            if (accounts.stream().anyMatch(account -> account.getAccountId().equals(rejectedAccount))) {
+                throw new IllegalStateException("Concurrent modification");
+            }
+            return null;
+        }).when(accountRepository).saveAll(anyCollection());
+        List<TransactionLine> lines = List.of(
+            TransactionLine.of(1, accountId, "DEPOSIT", BigDecimal.TEN),
+            TransactionLine.of(2, rejectedAccount, "DEPOSIT", BigDecimal.TEN),
+            TransactionLine.of(3, accountId, "WITHDRAW", BigDecimal.ONE));
+
+        List<LineResult> results = new ArrayList<>();
+        BatchTransactionProcessor.Summary summary = new BatchTransactionProcessor(applicationService)
+            .process(lines.iterator(), metadata, results::add);
+
+        assertEquals(2, summary.getSuccessCount());
+        assertEquals(List.of(true, false, true), results.stream().map(LineResult::isSuccess).toList());
+        assertEquals("Concurrent modification", results.get(1).getReason());
+        // Retried on freshly loaded aggregates, never by appending the prepared events again
+        verify(accountRepository, times(2)).findById(accountId);
+        verify(accountRepository, times(2)).findById(rejectedAccount);
+    }
+
+    private UUID openAccount() {
+        UUID accountId = UUID.randomUUID();
+        lenient().when(accountRepository.findById(accountId)).thenAnswer(invocation -> {
+            BankAccount account = BankAccount.openNewAccount(accountId, "Jane Doe", BigDecimal.valueOf(100), metadata);
+            account.markEventsAsCommitted();
+            return Optional.of(account);
+        });
+        return accountId;
+    }
+}
@@ -0,0 +1,138 @@
+package io.artur.bankaccount.application.services;
+
+import io.artur.bankaccount.application.commands.models.BulkAccountCommand;
+import io.artur.bankaccount.application.ports.outgoing.AccountRepository;
+import io.artur.bankaccount.domain.account.aggregates.BankAccount;
+import io.artur.bankaccount.domain.shared.events.EventMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkCommandExecutorTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    private AccountApplicationService applicationService;
+    private EventMetadata metadata;
+
+    @BeforeEach
+    void setUp() {
+        applicationService = new AccountApplicationService(accountRepository);
+        metadata = new EventMetadata(1);
+    }
+
+    @Test
+    void shouldApplyBestEffortOperationToAllAccountsInBatches() {
+        List<UUID> accountIds = openAccounts(5);
+        BulkCommandExecutor executor = new BulkCommandExecutor(applicationService, 4, 2);
+
+        List<BulkCommandExecutor.ItemResult> results = new ArrayList<>();
+        BulkCommandExecutor.Summary summary = executor.execute(
+            command(accountIds, "DEPOSIT", BigDecimal.valueOf(25), BulkAccountCommand.BEST_EFFORT), results::add);
+
+        assertEquals(5, summary.getTotalAccounts());
+        assertEquals(5, summary.getSuccessCount());
+        assertEquals(0, summary.getFailureCount());
+        assertEquals(5, results.size());
+        assertTrue(results.stream().allMatch(BulkCommandExecutor.ItemResult::isSuccess));
+        verify(accountRepository, never()).save(any());
+        verify(accountRepository, atLeast(3)).saveAll(anyCollection());
+    }
+
+    @Test
+    void shouldReportFailuresWithoutStoppingInBestEffortMode() {
+        List<UUID> accountIds = new ArrayList<>(openAccounts(2));
+        UUID missingAccount = UUID.randomUUID();
+        accountIds.add(1, missingAccount);
+        when(accountRepository.findById(missingAccount)).thenReturn(Optional.empty());
+
+        List<BulkCommandExecutor.ItemResult> results = new ArrayList<>();
+        BulkCommandExecutor.Summary summary = new BulkCommandExecutor(applicationService).execute(
+            command(accountIds, "FREEZE", null, BulkAccountCommand.BEST_EFFORT), results::add);
+
+        assertEquals(2, summary.getSuccessCount());
+        assertEquals(1, summary.getFailureCount());
+        BulkCommandExecutor.ItemResult failure = results.stream()
+            .filter(result -> !result.isSuccess())
+            .findFirst()
+            .orElseThrow();
+        assertEquals(missingAccount, failure.getAccountId());
+        assertTrue(failure.getReason().contains("Account not found"));
+    }
+
+    @Test
+    void shouldRetryAccountsIndividuallyWhenBatchAppendFails() {
+        List<UUID> accountIds = openAccounts(3);
+        UUID rejectedAccount = accountIds.get(1);
+        doAnswer(invocation -> {
+            Collection<BankAccount> accounts = invocation.getArgument(0);
+            if (accounts.stream().anyMatch(account -> account.getAccountId().equals(rejectedAccount))) {
+                throw new IllegalStateException("Concurrent modification");
+            }
+            return null;
+        }).when(accountRepository).saveAll(anyCollection());
+
+        List<BulkCommandExecutor.ItemResult> results = new ArrayList<>();
+        BulkCommandExecutor.Summary summary = new BulkCommandExecutor(applicationService, 1, 10).execute(
+            command(accountIds, "DEPOSIT", BigDecimal.TEN, BulkAccountCommand.BEST_EFFORT), results::add);
+
+        assertEquals(2, summary.getSuccessCount());
+        assertEquals(1, summary.getFailureCount());
+        assertTrue(results.stream().anyMatch(result ->
+            result.getAccountId().equals(rejectedAccount) && !result.isSuccess()));
+        // Retried on freshly loaded aggregates, never by appending the prepared events again
+        verify(accountRepository, times(2)).findById(rejectedAccount);
+    }
+
+    @Test
+    void shouldStopOnFirstFailureInStrictModeAndKeepOrder() {
+        List<UUID> accountIds = new ArrayList<>(openAccounts(3));
+        UUID missingAccount = UUID.randomUUID();
+        accountIds.add(1, missingAccount);
+        when(accountRepository.findById(missingAccount)).thenReturn(Optional.empty());
+
+        List<BulkCommandExecutor.ItemResult> results = new ArrayList<>();
+        BulkCommandExecutor.Summary summary = new BulkCommandExecutor(applicationService).execute(
+            command(accountIds, "MARK_DORMANT", null, BulkAccountCommand.STRICT), results::add);
+
+        assertEquals(1, summary.getSuccessCount());
+        assertEquals(1, summary.getFailureCount());
+        assertEquals(List.of(accountIds.get(0), missingAccount),
+            results.stream().map(BulkCommandExecutor.ItemResult::getAccountId).toList());
+        verify(accountRepository, never()).findById(accountIds.get(2));
+    }
+
+    private List<UUID> openAccounts(int count) {
+        List<UUID> accountIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            UUID accountId = UUID.randomUUID();
+            lenient().when(accountRepository.findById(accountId)).thenAnswer(invocation -> {
+                BankAccount account = BankAccount.openNewAccount(accountId, "John Doe", BigDecimal.valueOf(100), metadata);
+                account.markEventsAsCommitted();
+                return Optional.of(account);
+            });
+            accountIds.add(accountId);
+        }
+        return accountIds;
+    }
+
+    private BulkAccountCommand command(List<UUID> accountIds, String operationType, BigDecimal amount, String mode) {
+        return new BulkAccountCommand(accountIds, operationType, "Scheduled bulk maintenance", "ops-team", amount, mode, metadata);
+    }
+}
@@ -0,0 +1,83 @@
+package io.artur.bankaccount.application.services;
+
+import io.artur.bankaccount.application.commands.models.DepositMoneyCommand;
+import io.artur.bankaccount.application.commands.models.FreezeAccountCommand;
+import io.artur.bankaccount.application.commands.models.OpenAccountCommand;
+import io.artur.bankaccount.application.ports.outgoing.CachePort;
+import io.artur.bankaccount.application.ports.outgoing.EventStorePort;
+import io.artur.bankaccount.domain.shared.events.EventMetadata;
+import io.artur.bankaccount.domain.shared.valueobjects.Money;
+import io.artur.bankaccount.infrastructure.monitoring.NativeMetricsCollector;
+import io.artur.bankaccount.infrastructure.persistence.cache.NativeCacheService;
+import io.artur.bankaccount.infrastructure.persistence.eventstore.NativeEventStore;
+import io.artur.bankaccount.infrastructure.persistence.eventstore.serialization.EventSerializer;
+import io.artur.bankaccount.infrastructure.persistence.repositories.NativeAccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class CacheCoherenceTailerTest {
+
+    private NativeEventStore eventStore;
+
+    @BeforeEach
+    void setUp() {
+        // One store shared in process stands in for the database the replicas have in common
+        eventStore = new NativeEventStore(new DriverManagerDataSource(
+            "jdbc:h2:mem:coherence_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""), new EventSerializer());
+    }
+
+    @Test
+    void shouldAdvanceEntriesWithWritesMadeOnAnotherReplica() {
+        NativeCacheService writerCache = new NativeCacheService();
+        NativeCacheService readerCache = new NativeCacheService();
+        AccountApplicationService writer = new AccountApplicationService(
+            new NativeAccountRepository(eventStore), writerCache, new NativeMetricsCollector());
+        CacheCoherenceTailer tailer = new CacheCoherenceTailer(eventStore, readerCache, eventStore.getLatestPosition(), 100, 60_000, 600_000, 60_000);
+        UUID accountId = UUID.randomUUID();
+
+        writer.openAccount(new OpenAccountCommand(accountId, "Carol White", BigDecimal.ZERO, new EventMetadata(1)));
+        writer.deposit(new DepositMoneyCommand(accountId, BigDecimal.valueOf(100), new EventMetadata(1)));
+        assertTrue(readerCache.getCachedBalance(accountId).isEmpty());
+
+        assertTrue(tailer.poll());
+        assertEquals(Money.of(100), readerCache.getCachedBalance(accountId).orElseThrow());
+
+        writer.deposit(new DepositMoneyCommand(accountId, BigDecimal.valueOf(50), new EventMetadata(1)));
+        writer.freezeAccount(new FreezeAccountCommand(accountId, "check", "ops", new EventMetadata(1)));
+        assertTrue(tailer.poll());
+
+        assertEquals(Money.of(150), readerCache.getCachedBalance(accountId).orElseThrow());
+        CachePort.AccountSummary summary = readerCache.getCachedAccountSummary(accountId).orElseThrow();
+        assertEquals("FROZEN", summary.getStatus());
+        assertEquals(4, summary.getVersion());
+        assertEquals(eventStore.getLatestPosition(), tailer.getPosition());
+        assertEquals(4, tailer.getAppliedEventCount());
+
+        // Replaying what was applied already changes nothing
+        CacheCoherenceTailer replay = new CacheCoherenceTailer(eventStore, writerCache, 0, 2, 60_000, 600_000, 60_000);
+        assertTrue(replay.poll());
+        assertEquals(Money.of(150), writerCache.getCachedBalance(accountId).orElseThrow());
+    }
+
+    @Test
+    void shouldInvalidateCacheWhenFallingBehindStalenessBound() {
+        EventStorePort unreachable = mock(EventStorePort.class);
+        CachePort cache = mock(CachePort.class);
+        when(unreachable.readAllEvents(anyLong(), anyInt())).thenThrow(new RuntimeException("Connection refused"));
+        CacheCoherenceTailer tailer = new CacheCoherenceTailer(unreachable, cache, 0, 100, 1000, 600_000, 0);
+
+        assertThrows(RuntimeException.class, tailer::poll);
+
+        verify(cache).invalidateAll();
+        assertEquals(1, tailer.getInvalidationCount());
+    }
+}
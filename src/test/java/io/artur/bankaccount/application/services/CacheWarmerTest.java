@@ -0,0 +1,97 @@
+package io.artur.bankaccount.application.services;
+
+import io.artur.bankaccount.application.commands.models.DepositMoneyCommand;
+import io.artur.bankaccount.application.commands.models.OpenAccountCommand;
+import io.artur.bankaccount.application.ports.outgoing.CachePort;
+import io.artur.bankaccount.domain.account.events.MoneyDepositedEvent;
+import io.artur.bankaccount.domain.shared.events.EventMetadata;
+import io.artur.bankaccount.domain.shared.valueobjects.Money;
+import io.artur.bankaccount.infrastructure.monitoring.NativeMetricsCollector;
+import io.artur.bankaccount.infrastructure.persistence.cache.JdbcHotAccountStore;
+import io.artur.bankaccount.infrastructure.persistence.cache.NativeCacheService;
+import io.artur.bankaccount.infrastructure.persistence.eventstore.NativeEventStore;
+import io.artur.bankaccount.infrastructure.persistence.eventstore.serialization.EventSerializer;
+import io.artur.bankaccount.infrastructure.persistence.repositories.NativeAccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheWarmerTest {
+
+    private NativeAccountRepository repository;
+    private JdbcHotAccountStore hotAccountStore;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:warm_up_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        repository = new NativeAccountRepository(new NativeEventStore(dataSource, new EventSerializer()));
+        hotAccountStore = new JdbcHotAccountStore(dataSource, Duration.ofHours(1), Duration.ofMinutes(10));
+    }
+
+    @Test
+    void shouldLoadHottestAccountsIntoCacheOfRestartedInstance() {
+        CacheWarmer tracker = new CacheWarmer(repository, new NativeCacheService(), hotAccountStore, 100);
+        AccountApplicationService running = new AccountApplicationService(
+            repository, new NativeCacheService(), new NativeMetricsCollector(), null, null, tracker);
+        UUID hot = openWithDeposit(running, "Alice Smith", 100);
+        UUID warm = openWithDeposit(running, "Bob Jones", 200);
+        UUID cold = openWithDeposit(running, "Carol White", 300);
+
+        for (int i = 0; i < 5; i++) {
+            running.getAccountBalance(hot);
+        }
+        running.findAccountView(warm);
+        running.findAccountView(warm);
+        running.getAccountBalance(cold);
+        tracker.close();
+        assertEquals(List.of(hot, warm, cold), hotAccountStore.findHottestAccounts(10));
+
+        NativeCacheService restartedCache = new NativeCacheService();
+        CacheWarmer warmer = new CacheWarmer(repository, restartedCache, hotAccountStore, 100);
+        assertFalse(warmer.isWarmUpFinished());
+
+        assertEquals(2, warmer.warmUp(2, 2, 10_000));
+
+        assertTrue(warmer.isWarmUpFinished());
+        assertEquals(Money.of(100), restartedCache.getCachedBalance(hot).orElseThrow());
+        CachePort.AccountSummary summary = restartedCache.getCachedAccountSummary(warm).orElseThrow();
+        assertEquals(Money.of(200), summary.getCurrentBalance());
+        assertEquals(2, summary.getVersion());
+        assertEquals(2L, restartedCache.getCachedEventCount(warm).orElseThrow());
+        assertTrue(restartedCache.getCachedBalance(cold).isEmpty());
+
+        // Warmed entries advance with the events committed afterwards
+        restartedCache.applyCommittedEvents(hot, List.of(
+            new MoneyDepositedEvent(hot, BigDecimal.valueOf(25), new EventMetadata(3))));
+        assertEquals(Money.of(125), restartedCache.getCachedBalance(hot).orElseThrow());
+    }
+
+    @Test
+    void shouldStopTrackingNewAccountsOnceFull() {
+        CacheWarmer tracker = new CacheWarmer(repository, new NativeCacheService(), hotAccountStore, 1);
+        UUID first = UUID.randomUUID();
+
+        tracker.recordAccess(first);
+        tracker.recordAccess(UUID.randomUUID());
+        tracker.recordAccess(first);
+        tracker.flush();
+
+        assertEquals(List.of(first), hotAccountStore.findHottestAccounts(10));
+    }
+
+    private UUID openWithDeposit(AccountApplicationService service, String holder, long amount) {
+        UUID accountId = UUID.randomUUID();
+        service.openAccount(new OpenAccountCommand(accountId, holder, BigDecimal.ZERO, new EventMetadata(1)));
+        service.deposit(new DepositMoneyCommand(accountId, BigDecimal.valueOf(amount), new EventMetadata(1)));
+        return accountId;
+    }
+}
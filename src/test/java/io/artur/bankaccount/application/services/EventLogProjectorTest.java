@@ -0,0 +1,149 @@
+package io.artur.bankaccount.application.services;
+
+import io.artur.bankaccount.application.queries.projections.ReadModelProjection;
+import io.artur.bankaccount.domain.account.events.AccountOpenedEvent;
+import io.artur.bankaccount.domain.account.events.MoneyDepositedEvent;
+import io.artur.bankaccount.domain.shared.events.EventMetadata;
+import io.artur.bankaccount.infrastructure.persistence.eventstore.NativeEventStore;
+import io.artur.bankaccount.infrastructure.persistence.eventstore.serialization.EventSerializer;
+import io.artur.bankaccount.infrastructure.persistence.queries.JdbcReadModelStore;
+import io.artur.bankaccount.infrastructure.persistence.queries.NativeReadModelStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventLogProjectorTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+    private DataSource dataSource;
+    private NativeEventStore eventStore;
+    private EventLogProjector projector;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:projector_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        eventStore = new NativeEventStore(dataSource, new EventSerializer());
+        projector = new EventLogProjector(eventStore, new ReadModelProjection(new NativeReadModelStore().getActiveGeneration()),
+            0, executor, executor, executor, 100, 60_000, 600_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldServeTheCommittedWriteOnceThePositionIsAwaited() {
+        UUID accountId = UUID.randomUUID();
+        eventStore.saveEvent(accountId, new AccountOpenedEvent(accountId, "Frank", BigDecimal.ZERO, new EventMetadata(1)));
+        eventStore.saveEvent(accountId, new MoneyDepositedEvent(accountId, new BigDecimal("25"), new EventMetadata(2)));
+        long token = eventStore.getLatestPosition();
+
+        assertTrue(projector.awaitPosition(token, 5000));
+
+        assertEquals(token, projector.getPosition());
+        assertEquals(0, new BigDecimal("25").compareTo(
+            projector.getActive().getAccountSummaries().findByAccountId(accountId).orElseThrow().getBalance()));
+    }
+
+    @Test
+    void shouldGiveUpOnPositionThatWasNeverCommitted() {
+        UUID accountId = UUID.randomUUID();
+        eventStore.saveEvent(accountId, new AccountOpenedEvent(accountId, "Grace", BigDecimal.ZERO, new EventMetadata(1)));
+
+        assertFalse(projector.awaitPosition(eventStore.getLatestPosition() + 10, 200));
+        assertTrue(projector.awaitPosition(0, 0));
+        assertEquals(eventStore.getLatestPosition(), projector.getPosition());
+    }
+
+    @Test
+    void shouldResumeFromTheStoredPositionAndApplyReplayedEventsOnce() {
+        UUID accountId = UUID.randomUUID();
+        eventStore.saveEvent(accountId, new AccountOpenedEvent(accountId, "Heidi", BigDecimal.ZERO, new EventMetadata(1)));
+        eventStore.saveEvent(accountId, new MoneyDepositedEvent(accountId, new BigDecimal("25"), new EventMetadata(2)));
+        JdbcReadModelStore store = new JdbcReadModelStore(dataSource, 100, 0, 10);
+        EventLogProjector first = new EventLogProjector(eventStore, new ReadModelProjection(store.getActiveGeneration()),
+            0, executor, executor, executor, 100, 60_000, 600_000);
+        assertTrue(first.awaitPosition(eventStore.getLatestPosition(), 5000));
+        first.close();
+        store.close();
+
+        // Committed while no projector was running
+        eventStore.saveEvent(accountId, new MoneyDepositedEvent(accountId, new BigDecimal("10"), new EventMetadata(3)));
+
+        JdbcReadModelStore restarted = new JdbcReadModelStore(dataSource, 100, 0, 10);
+        long resumeAt = restarted.getActiveGeneration().getAppliedPosition();
+        assertEquals(first.getPosition(), resumeAt);
+        ReadModelProjection projection = new ReadModelProjection(restarted.getActiveGeneration());
+        EventLogProjector resumed = new EventLogProjector(eventStore, projection, resumeAt,
+            executor, executor, executor, 100, 60_000, 600_000);
+        assertTrue(resumed.awaitPosition(eventStore.getLatestPosition(), 5000));
+
+        // A replica starting from scratch against the same read models
+        EventLogProjector replica = new EventLogProjector(eventStore, projection, 0,
+            executor, executor, executor, 100, 60_000, 600_000);
+        assertTrue(replica.awaitPosition(eventStore.getLatestPosition(), 5000));
+
+        try {
+            assertEquals(0, new BigDecimal("35").compareTo(
+                projection.getAccountSummaries().findByAccountId(accountId).orElseThrow().getBalance()));
+            assertEquals(2, projection.getTransactions().countByAccount(accountId));
+        } finally {
+            restarted.close();
+        }
+    }
+
+    @Test
+    void shouldApplyAnEventThatCommittedAfterItsPositionWasSteppedOver() throws Exception {
+        UUID accountId = UUID.randomUUID();
+        UUID otherAccount = UUID.randomUUID();
+        eventStore.saveEvent(accountId, new AccountOpenedEvent(accountId, "Ivan", BigDecimal.ZERO, new EventMetadata(1)));
+        eventStore.saveEvent(accountId, new MoneyDepositedEvent(accountId, new BigDecimal("25"), new EventMetadata(2)));
+        // No gap timeout: the projector steps over an open gap at once
+        EventLogProjector projector = new EventLogProjector(eventStore,
+            new ReadModelProjection(new NativeReadModelStore().getActiveGeneration()),
+            0, executor, executor, executor, 100, 0, 600_000);
+
+        try (Connection slow = dataSource.getConnection()) {
+            slow.setAutoCommit(false);
+            MoneyDepositedEvent late = new MoneyDepositedEvent(accountId, new BigDecimal("10"), new EventMetadata(3));
+            try (PreparedStatement insert = slow.prepareStatement("""
+                INSERT INTO events (aggregate_id, event_type, event_data, event_version, created_at, correlation_id)
+                VALUES (?, ?, ?, 3, ?, NULL)""")) {
+                insert.setString(1, accountId.toString());
+                insert.setString(2, late.getClass().getSimpleName());
+                insert.setString(3, new EventSerializer().serialize(late));
+                insert.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+                insert.executeUpdate();
+            }
+            eventStore.saveEvent(otherAccount, new AccountOpenedEvent(otherAccount, "Judy", BigDecimal.ZERO, new EventMetadata(1)));
+
+            assertTrue(projector.awaitPosition(eventStore.getLatestPosition(), 5000));
+            assertTrue(projector.getActive().getAccountSummaries().exists(otherAccount));
+            assertEquals(0, new BigDecimal("25").compareTo(
+                projector.getActive().getAccountSummaries().findByAccountId(accountId).orElseThrow().getBalance()));
+
+            slow.commit();
+        }
+
+        projector.catchUpAsync().get();
+
+        assertEquals(0, new BigDecimal("35").compareTo(
+            projector.getActive().getAccountSummaries().findByAccountId(accountId).orElseThrow().getBalance()));
+        assertEquals(2, projector.getActive().getTransactions().countByAccount(accountId));
+    }
+}
@@ -0,0 +1,51 @@
+package io.artur.bankaccount.application.services;
+
+import io.artur.bankaccount.application.ports.outgoing.EventStorePort;
+import io.artur.bankaccount.application.ports.outgoing.EventStorePort.StoredEvent;
+import io.artur.bankaccount.domain.account.events.MoneyDepositedEvent;
+import io.artur.bankaccount.domain.shared.events.EventMetadata;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LogGapTrackerTest {
+
+    private final UUID accountId = UUID.randomUUID();
+
+    @Test
+    void shouldWaitInFrontOfAFreshGap() {
+        LogGapTracker gaps = new LogGapTracker("test", 60_000, 600_000);
+
+        assertEquals(1, gaps.settledPrefix(List.of(event(1, LocalDateTime.now()), event(3, LocalDateTime.now())), 0));
+        assertEquals(0, gaps.skippedCount());
+    }
+
+    @Test
+    void shouldStepOverAnOldGapAndRecoverTheLateEvent() {
+        LogGapTracker gaps = new LogGapTracker("test", 0, 600_000);
+        LocalDateTime old = LocalDateTime.now().minusSeconds(1);
+
+        assertEquals(2, gaps.settledPrefix(List.of(event(1, old), event(4, old)), 0));
+        assertEquals(2, gaps.skippedCount());
+        assertEquals(2, gaps.lowestSkipped());
+
+        StoredEvent late = event(3, old);
+        EventStorePort eventStore = mock(EventStorePort.class);
+        when(eventStore.readAllEvents(1, 2)).thenReturn(List.of(late, event(4, old)));
+
+        assertEquals(List.of(late), gaps.recover(eventStore));
+        assertEquals(1, gaps.skippedCount());
+        assertEquals(2, gaps.lowestSkipped());
+    }
+
+    private StoredEvent event(long position, LocalDateTime recordedAt) {
+        return new StoredEvent(position, accountId, position, recordedAt,
+            new MoneyDepositedEvent(accountId, BigDecimal.ONE, new EventMetadata((int) position)));
+    }
+}
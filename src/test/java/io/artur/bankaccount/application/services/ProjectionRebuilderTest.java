@@ -0,0 +1,206 @@
+package io.artur.bankaccount.application.services;
+
+import io.artur.bankaccount.application.ports.outgoing.ReadModelStorePort;
+import io.artur.bankaccount.application.queries.projections.ReadModelProjection;
+import io.artur.bankaccount.application.queries.readmodels.AccountSummaryReadModel;
+import io.artur.bankaccount.domain.account.events.AccountOpenedEvent;
+import io.artur.bankaccount.domain.account.events.MoneyDepositedEvent;
+import io.artur.bankaccount.domain.account.events.MoneyWithdrawnEvent;
+import io.artur.bankaccount.domain.shared.events.EventMetadata;
+import io.artur.bankaccount.infrastructure.persistence.eventstore.NativeEventStore;
+import io.artur.bankaccount.infrastructure.persistence.eventstore.serialization.EventSerializer;
+import io.artur.bankaccount.infrastructure.persistence.queries.JdbcReadModelStore;
+import io.artur.bankaccount.infrastructure.persistence.queries.NativeReadModelStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+class ProjectionRebuilderTest {
+
+    private DataSource dataSource;
+    private NativeEventStore eventStore;
+    private NativeReadModelStore readModelStore;
+    private EventLogProjector projector;
+    private ProjectionRebuilder rebuilder;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:rebuild_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        eventStore = new NativeEventStore(dataSource, new EventSerializer());
+        readModelStore = new NativeReadModelStore();
+    }
+
+    private void startProjector() {
+        projector = projectorOn(readModelStore);
+        rebuilder = new ProjectionRebuilder(eventStore, readModelStore, projector, 4, 2);
+    }
+
+    private EventLogProjector projectorOn(ReadModelStorePort store) {
+        return new EventLogProjector(eventStore, new ReadModelProjection(store.getActiveGeneration()),
+            eventStore.getLatestPosition(), Runnable::run, Runnable::run, Runnable::run, 3, 60_000, 600_000);
+    }
+
+    @Test
+    void shouldRebuildHistoryIntoNewGenerationAndSwapItIn() {
+        UUID first = openWithDeposits("Alice", 100, 50);
+        UUID second = openWithDeposits("Bob", 20);
+        eventStore.saveEvent(second, new MoneyWithdrawnEvent(second, new BigDecimal("5"), new EventMetadata(3)));
+        startProjector();
+        ReadModelProjection original = projector.getActive();
+        assertTrue(original.getAccountSummaries().findByAccountId(first).isEmpty());
+
+        ProjectionRebuilder.RebuildProgress progress = rebuilder.rebuild();
+
+        assertEquals(ProjectionRebuilder.RebuildProgress.State.COMPLETED, progress.getState());
+        assertEquals(6, progress.getEventsApplied());
+        assertEquals(eventStore.getLatestPosition(), progress.getPosition());
+        assertNotSame(original, projector.getActive());
+        assertSame(projector.getActive().getGeneration(), readModelStore.getActiveGeneration());
+
+        AccountSummaryReadModel alice = projector.getActive().getAccountSummaries().findByAccountId(first).orElseThrow();
+        assertEquals(0, new BigDecimal("150").compareTo(alice.getBalance()));
+        AccountSummaryReadModel bob = projector.getActive().getAccountSummaries().findByAccountId(second).orElseThrow();
+        assertEquals(0, new BigDecimal("15").compareTo(bob.getBalance()));
+        assertEquals(2, projector.getActive().getTransactions().getRecentTransactions(first, 10).size());
+    }
+
+    @Test
+    void shouldKeepProjectingLiveEventsIntoPromotedGeneration() throws Exception {
+        UUID accountId = openWithDeposits("Carol", 10);
+        startProjector();
+        rebuilder.rebuild();
+
+        eventStore.saveEvent(accountId, new MoneyDepositedEvent(accountId, new BigDecimal("7"), new EventMetadata(3)));
+        projector.catchUpAsync().get(5, TimeUnit.SECONDS);
+
+        AccountSummaryReadModel carol = projector.getActive().getAccountSummaries().findByAccountId(accountId).orElseThrow();
+        assertEquals(0, new BigDecimal("17").compareTo(carol.getBalance()));
+        assertEquals(eventStore.getLatestPosition(), projector.getPosition());
+    }
+
+    @Test
+    void shouldAllowNewRebuildOnceThePreviousCompleted() {
+        startProjector();
+        assertEquals(ProjectionRebuilder.RebuildProgress.State.COMPLETED, rebuilder.rebuild().getState());
+        assertNotNull(rebuilder.getProgress().getFinishedAt());
+        assertEquals(ProjectionRebuilder.RebuildProgress.State.COMPLETED, rebuilder.rebuild().getState());
+    }
+
+    @Test
+    void shouldBuildCurrentVersionWhenActiveGenerationIsOutdated() throws Exception {
+        UUID accountId = openWithDeposits("Dave", 40);
+        startProjector();
+        assertEquals(0, projector.getActive().getGeneration().getProjectionVersion());
+
+        ProjectionRebuilder.RebuildProgress started = rebuilder.startIfOutdated();
+        assertNotNull(started);
+        assertEquals(ReadModelProjection.VERSION, started.getProjectionVersion());
+        for (int i = 0; i < 100 && rebuilder.getProgress().getState() == ProjectionRebuilder.RebuildProgress.State.RUNNING; i++) {
+            Thread.sleep(20);
+        }
+
+        assertEquals(ProjectionRebuilder.RebuildProgress.State.COMPLETED, rebuilder.getProgress().getState());
+        assertEquals(ReadModelProjection.VERSION, projector.getActive().getGeneration().getProjectionVersion());
+        assertTrue(projector.getActive().getAccountSummaries().findByAccountId(accountId).isPresent());
+        assertNull(rebuilder.startIfOutdated());
+    }
+
+    @Test
+    void shouldLetOneInstanceBuildWhileTheOthersFollowTheSharedStore() {
+        UUID accountId = openWithDeposits("Erin Example", 30, 12);
+        JdbcReadModelStore firstStore = new JdbcReadModelStore(dataSource, 1, 0, 10);
+        JdbcReadModelStore secondStore = new JdbcReadModelStore(dataSource, 1, 0, 10);
+        EventLogProjector firstProjector = projectorOn(firstStore);
+        EventLogProjector secondProjector = projectorOn(secondStore);
+        ProjectionRebuilder first = new ProjectionRebuilder(eventStore, firstStore, firstProjector, 4, 2);
+        ProjectionRebuilder second = new ProjectionRebuilder(eventStore, secondStore, secondProjector, 4, 2);
+
+        assertTrue(firstStore.acquireRebuildLease());
+        assertThrows(IllegalStateException.class, second::rebuild);
+        assertNull(second.getProgress());
+        firstStore.releaseRebuildLease();
+
+        assertEquals(ProjectionRebuilder.RebuildProgress.State.COMPLETED, first.rebuild().getState());
+        assertTrue(second.followActiveGeneration());
+
+        ReadModelProjection followed = secondProjector.getActive();
+        assertEquals(firstProjector.getActive().getGeneration().getId(), followed.getGeneration().getId());
+        AccountSummaryReadModel erin = followed.getAccountSummaries().findByAccountId(accountId).orElseThrow();
+        assertEquals(0, new BigDecimal("42").compareTo(erin.getBalance()));
+        assertFalse(second.followActiveGeneration());
+        assertNull(second.startIfOutdated());
+    }
+
+    @Test
+    void shouldCarryAnEventCommittedLateDuringTheRebuildIntoTheNewGeneration() throws Exception {
+        UUID accountId = openWithDeposits("Frank Late", 25);
+        // No gap timeout: the projector steps over an open gap at once
+        projector = new EventLogProjector(eventStore, new ReadModelProjection(readModelStore.getActiveGeneration()),
+            0, Runnable::run, Runnable::run, Runnable::run, 3, 0, 600_000);
+
+        try (Connection slow = dataSource.getConnection()) {
+            slow.setAutoCommit(false);
+            MoneyDepositedEvent late = new MoneyDepositedEvent(accountId, new BigDecimal("10"), new EventMetadata(3));
+            try (PreparedStatement insert = slow.prepareStatement("""
+                INSERT INTO events (aggregate_id, event_type, event_data, event_version, created_at, correlation_id)
+                VALUES (?, ?, ?, 3, ?, NULL)""")) {
+                insert.setString(1, accountId.toString());
+                insert.setString(2, late.getClass().getSimpleName());
+                insert.setString(3, new EventSerializer().serialize(late));
+                insert.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+                insert.executeUpdate();
+            }
+            openWithDeposits("Grace Other");
+            assertTrue(projector.awaitPosition(eventStore.getLatestPosition(), 5000));
+            assertEquals(2, projector.getCheckpoint());
+
+            // Once the rebuild scanned up to its target the late event commits, and the live
+            // projector recovers it into the old generation before the new one is promoted
+            EventLogProjector live = spy(projector);
+            AtomicInteger checks = new AtomicInteger();
+            doAnswer(invocation -> {
+                if (checks.incrementAndGet() == 2) {
+                    slow.commit();
+                    live.catchUpAsync().join();
+                }
+                return invocation.callRealMethod();
+            }).when(live).getCheckpoint();
+            rebuilder = new ProjectionRebuilder(eventStore, readModelStore, live, 4, 2);
+
+            assertEquals(ProjectionRebuilder.RebuildProgress.State.COMPLETED, rebuilder.rebuild().getState());
+            assertEquals(2, checks.get());
+            projector = live;
+        }
+
+        ReadModelProjection rebuilt = projector.getActive();
+        assertEquals(ReadModelProjection.VERSION, rebuilt.getGeneration().getProjectionVersion());
+        assertEquals(0, new BigDecimal("35").compareTo(
+            rebuilt.getAccountSummaries().findByAccountId(accountId).orElseThrow().getBalance()));
+        assertEquals(2, rebuilt.getTransactions().countByAccount(accountId));
+    }
+
+    private UUID openWithDeposits(String holder, int... amounts) {
+        UUID accountId = UUID.randomUUID();
+        eventStore.saveEvent(accountId, new AccountOpenedEvent(accountId, holder, BigDecimal.ZERO, new EventMetadata(1)));
+        int version = 2;
+        for (int amount : amounts) {
+            eventStore.saveEvent(accountId, new MoneyDepositedEvent(accountId, BigDecimal.valueOf(amount), new EventMetadata(version++)));
+        }
+        return accountId;
+    }
+}
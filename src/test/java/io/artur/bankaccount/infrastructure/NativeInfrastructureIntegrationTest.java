@@ -24,8 +24,10 @@ import javax.sql.DataSource;
 import java.math.BigDecimal;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
 
 /**
  * Integration test to verify native infrastructure works correctly
@@ -105,6 +107,21 @@ class NativeInfrastructureIntegrationTest {
         assertEquals(2, eventStorePort.getEventCount(accountId));
     }
     
+    @Test
+    void shouldAdvanceCachedBalanceWithCommittedEvents() {
+        UUID accountId = UUID.randomUUID();
+        accountApplicationService.openAccount(new OpenAccountCommand(accountId, "Cached Balance Test", BigDecimal.ZERO, new EventMetadata(1)));
+        accountApplicationService.deposit(new DepositMoneyCommand(accountId, BigDecimal.valueOf(300), new EventMetadata(1)));
+        accountApplicationService.withdraw(new WithdrawMoneyCommand(accountId, BigDecimal.valueOf(120), new EventMetadata(1)));
+        
+        // Entries started by the opened event and moved forward by each committed event
+        assertEquals(0, BigDecimal.valueOf(180).compareTo(cachePort.getCachedBalance(accountId).orElseThrow().getAmount()));
+        CachePort.AccountSummary summary = cachePort.getCachedAccountSummary(accountId).orElseThrow();
+        assertEquals(3, summary.getVersion());
+        assertEquals(2, summary.getTransactionCount());
+        assertEquals(3, accountRepository.findById(accountId).orElseThrow().getVersion());
+    }
+    
     @Test
     void shouldUseNativeCaching() {
         // Given
@@ -178,4 +195,35 @@ class NativeInfrastructureIntegrationTest {
         assertEquals(accountHolderName, account.getAccountHolder().getFullName());
         assertEquals(0, overdraftLimit.compareTo(account.getOverdraftLimit().getAmount()));
     }
-}
\ No newline at end of file
+    
+    @Test
+    void shouldAnswerCountAndExistenceChecksFromCachedEventCounts() throws Exception {
+        DataSource dataSource = spy(new DriverManagerDataSource(
+            "jdbc:h2:mem:counts_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        NativeCacheService cache = new NativeCacheService();
+        NativeEventStore eventStore = new NativeEventStore(dataSource, new EventSerializer(), ForkJoinPool.commonPool(), cache);
+        NativeAccountRepository repository = new NativeAccountRepository(eventStore);
+        BankAccount account = BankAccount.openNewAccount("Count Cache Test", BigDecimal.ZERO, new EventMetadata(1));
+        account.deposit(BigDecimal.TEN, new EventMetadata(1));
+        repository.save(account);
+        
+        clearInvocations(dataSource);
+        assertTrue(repository.exists(account.getAccountId()));
+        assertEquals(2, repository.getEventCount(account.getAccountId()));
+        verify(dataSource, never()).getConnection();
+        
+        // An aggregate without events is not cached, its first event appended elsewhere shows
+        BankAccount other = BankAccount.openNewAccount("Other Instance", BigDecimal.ZERO, new EventMetadata(1));
+        assertFalse(repository.exists(other.getAccountId()));
+        assertTrue(cache.getCachedEventCount(other.getAccountId()).isEmpty());
+        new NativeAccountRepository(new NativeEventStore(dataSource, new EventSerializer())).save(other);
+        assertTrue(repository.exists(other.getAccountId()));
+        
+        // Appends raise the cached count
+        BankAccount loaded = repository.findById(account.getAccountId()).orElseThrow();
+        loaded.withdraw(BigDecimal.ONE, new EventMetadata(1));
+        repository.save(loaded);
+        assertEquals(3, cache.getCachedEventCount(account.getAccountId()).orElseThrow());
+        assertEquals(3, eventStore.getEventCount(account.getAccountId()));
+    }
+}
@@ -0,0 +1,66 @@
+package io.artur.bankaccount.infrastructure.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControllerTest {
+
+    private final AtomicLong lag = new AtomicLong();
+    private final AdmissionController controller = new AdmissionController(lag::get, () -> 0.0, settings());
+
+    @Test
+    void shouldAdmitWithoutWaitingBelowSoftWatermark() {
+        lag.set(100);
+
+        controller.admit();
+
+        assertEquals(AdmissionController.State.NORMAL, controller.getState());
+        assertEquals(1, controller.getAdmittedCount());
+        assertEquals(0, controller.getThrottledCount());
+    }
+
+    @Test
+    void shouldThrottleProportionallyBetweenWatermarks() {
+        lag.set(150);
+
+        long start = System.nanoTime();
+        controller.admit();
+        long waitedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(AdmissionController.State.THROTTLING, controller.getState());
+        assertEquals(0.5, controller.currentPressure(), 0.001);
+        assertTrue(waitedMillis >= 25, "Expected a wait of about half the max throttle, waited " + waitedMillis);
+        assertEquals(1, controller.getThrottledCount());
+    }
+
+    @Test
+    void shouldRejectWithRetryAfterAtHardWatermark() {
+        lag.set(200);
+
+        AdmissionRejectedException rejection = assertThrows(AdmissionRejectedException.class, controller::admit);
+
+        assertEquals(3, rejection.getRetryAfterSeconds());
+        assertEquals(AdmissionController.State.SHEDDING, controller.getState());
+        assertEquals(1, controller.getRejectedCount());
+        assertEquals(0, controller.getAdmittedCount());
+    }
+
+    @Test
+    void shouldUseQueueUtilizationWhenItIsTheHigherPressure() {
+        AdmissionController queueBound = new AdmissionController(() -> 0L, () -> 0.95, settings());
+
+        assertEquals(AdmissionController.State.SHEDDING, queueBound.getState());
+    }
+
+    private static AdmissionController.Settings settings() {
+        AdmissionController.Settings settings = new AdmissionController.Settings();
+        settings.setLagSoftWatermark(100);
+        settings.setLagHardWatermark(200);
+        settings.setMaxThrottleMillis(60);
+        settings.setRetryAfterSeconds(3);
+        return settings;
+    }
+}
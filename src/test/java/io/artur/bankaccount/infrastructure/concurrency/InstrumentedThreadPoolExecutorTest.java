@@ -0,0 +1,90 @@
+package io.artur.bankaccount.infrastructure.concurrency;
+
+import io.artur.bankaccount.infrastructure.concurrency.InstrumentedThreadPoolExecutor.SaturationPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstrumentedThreadPoolExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private InstrumentedThreadPoolExecutor executor;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shouldRunTaskOnCallerWhenSaturatedWithCallerRunsPolicy() {
+        executor = saturatedExecutor(SaturationPolicy.CALLER_RUNS, 0);
+
+        AtomicReference<Thread> runner = new AtomicReference<>();
+        executor.execute(() -> runner.set(Thread.currentThread()));
+
+        assertSame(Thread.currentThread(), runner.get());
+        assertEquals(1, executor.getStats().getCallerRunsTasks());
+        assertEquals(0, executor.getStats().getRejectedTasks());
+    }
+
+    @Test
+    void shouldRejectAfterBlockTimeoutWhenSaturatedWithBlockPolicy() {
+        executor = saturatedExecutor(SaturationPolicy.BLOCK, 50);
+
+        long start = System.nanoTime();
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50);
+        assertEquals(1, executor.getStats().getRejectedTasks());
+    }
+
+    @Test
+    void shouldReportQueueDepthAndActiveThreads() {
+        executor = saturatedExecutor(SaturationPolicy.ABORT, 0);
+
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+
+        InstrumentedThreadPoolExecutor.Stats stats = executor.getStats();
+        assertEquals(1, stats.getActiveThreads());
+        assertEquals(1, stats.getQueueDepth());
+        assertEquals(1.0, stats.getQueueUtilization());
+        assertEquals(1, stats.getRejectedTasks());
+    }
+
+    /**
+     * One thread blocked on the latch and one task waiting in a queue of one
+     */
+    private InstrumentedThreadPoolExecutor saturatedExecutor(SaturationPolicy policy, long blockTimeoutMillis) {
+        InstrumentedThreadPoolExecutor pool = new InstrumentedThreadPoolExecutor(
+            "test", 1, 1, 1, policy, blockTimeoutMillis, Executors.defaultThreadFactory());
+        CountDownLatch started = new CountDownLatch(1);
+        pool.execute(() -> {
+            started.countDown();
+            awaitRelease();
+        });
+        pool.execute(this::awaitRelease);
+        try {
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        return pool;
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package io.artur.bankaccount.infrastructure.config;
+
+import io.artur.bankaccount.infrastructure.concurrency.ExecutorRegistry;
+import io.artur.bankaccount.infrastructure.config.NativeInfrastructureConfig.NativeInfrastructureProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncConfigTest {
+
+    private final AsyncConfig config = new AsyncConfig();
+
+    @Test
+    void shouldRunAsyncPortsOnVirtualThreadsWhenEnabled() throws Exception {
+        ExecutorRegistry registry = registry(new MockEnvironment()
+            .withProperty(AsyncConfig.VIRTUAL_THREADS_PROPERTY, "true"));
+        try {
+            for (Executor executor : List.of(config.eventProcessingExecutor(registry),
+                    config.accountProjectionExecutor(registry), config.transactionProjectionExecutor(registry),
+                    config.dbOperationExecutor(registry))) {
+                Thread thread = threadOf(executor);
+                assertTrue(thread.isVirtual(), thread.getName());
+            }
+        } finally {
+            registry.shutdown();
+        }
+    }
+
+    @Test
+    void shouldRunAsyncPortsOnPlatformThreadsByDefault() throws Exception {
+        ExecutorRegistry registry = registry(new MockEnvironment());
+        try {
+            Thread thread = threadOf(config.dbOperationExecutor(registry));
+            assertFalse(thread.isVirtual());
+            assertTrue(thread.getName().startsWith(ExecutorRegistry.DB_OPERATION + "-"));
+        } finally {
+            registry.shutdown();
+        }
+    }
+
+    private ExecutorRegistry registry(MockEnvironment env) {
+        return config.executorRegistry(
+            new DefaultListableBeanFactory().getBeanProvider(NativeInfrastructureProperties.class), env);
+    }
+
+    private static Thread threadOf(Executor executor) throws Exception {
+        return CompletableFuture.supplyAsync(Thread::currentThread, executor).get(5, TimeUnit.SECONDS);
+    }
+}
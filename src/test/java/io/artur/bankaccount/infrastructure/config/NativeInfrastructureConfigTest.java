@@ -0,0 +1,31 @@
+package io.artur.bankaccount.infrastructure.config;
+
+import io.artur.bankaccount.infrastructure.persistence.cache.CaffeineCacheService;
+import io.artur.bankaccount.infrastructure.persistence.cache.NativeCacheService;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NativeInfrastructureConfigTest {
+
+    private final NativeInfrastructureConfig config = new NativeInfrastructureConfig();
+
+    @Test
+    void shouldUseCaffeineCacheByDefault() {
+        NativeInfrastructureConfig.NativeInfrastructureProperties properties =
+            config.nativeInfrastructureProperties(new MockEnvironment());
+
+        assertInstanceOf(CaffeineCacheService.class, config.nativeCacheService(Runnable::run, properties));
+    }
+
+    @Test
+    void shouldUseNativeCacheWhenConfigured() {
+        NativeInfrastructureConfig.NativeInfrastructureProperties properties = config.nativeInfrastructureProperties(
+            new MockEnvironment().withProperty("bankaccount.infrastructure.native.cache.implementation", "NATIVE"));
+
+        assertEquals(NativeInfrastructureConfig.NativeInfrastructureProperties.CacheImplementation.NATIVE,
+            properties.getCacheImplementation());
+        assertInstanceOf(NativeCacheService.class, config.nativeCacheService(Runnable::run, properties));
+    }
+}
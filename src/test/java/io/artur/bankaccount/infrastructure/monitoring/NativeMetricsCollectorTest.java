@@ -0,0 +1,47 @@
+package io.artur.bankaccount.infrastructure.monitoring;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NativeMetricsCollectorTest {
+
+    @Test
+    void shouldExportTailLatencyPerOperation() {
+        NativeMetricsCollector collector = new NativeMetricsCollector();
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        collector.bindTo(registry);
+
+        for (int i = 0; i < 200; i++) {
+            collector.recordEventLoad(() -> "events");
+        }
+        // One slow save in a hundred puts p99 and above far from the median
+        for (int i = 0; i < 100; i++) {
+            long sleepNanos = i == 0 ? TimeUnit.MILLISECONDS.toNanos(50) : 0;
+            collector.recordEventSave(() -> LockSupport.parkNanos(sleepNanos));
+        }
+
+        Timer loads = registry.get(NativeMetricsCollector.LATENCY_METRIC).tag("operation", "event_load").timer();
+        assertEquals(200, loads.count());
+        HistogramSnapshot saves = collector.getLatencySnapshot("event_save").orElseThrow();
+        assertEquals(100, saves.count());
+        ValueAtPercentile[] percentiles = saves.percentileValues();
+        assertEquals(3, percentiles.length);
+        assertTrue(percentiles[0].value(TimeUnit.MILLISECONDS) < 10);
+        assertTrue(percentiles[2].value(TimeUnit.MILLISECONDS) >= 40);
+        assertTrue(collector.getLatencySnapshot("aggregate_rehydration").isEmpty());
+
+        // Prometheus gets the buckets, so quantiles can be computed across instances
+        String scrape = registry.scrape();
+        assertTrue(scrape.contains("bankaccount_operation_latency_seconds_bucket{operation=\"event_save\",le=\"+Inf\"} 100"));
+        assertTrue(scrape.contains("bankaccount_operation_latency_seconds_count{operation=\"event_load\"} 200"));
+    }
+}
@@ -0,0 +1,113 @@
+package io.artur.bankaccount.infrastructure.persistence.cache;
+
+import io.artur.bankaccount.application.ports.outgoing.CachePort;
+import io.artur.bankaccount.domain.account.events.AccountFrozenEvent;
+import io.artur.bankaccount.domain.account.events.AccountOpenedEvent;
+import io.artur.bankaccount.domain.account.events.MoneyDepositedEvent;
+import io.artur.bankaccount.domain.account.events.MoneyWithdrawnEvent;
+import io.artur.bankaccount.domain.shared.events.EventMetadata;
+import io.artur.bankaccount.domain.shared.valueobjects.Money;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CaffeineCacheServiceTest {
+
+    @Test
+    void shouldBoundBalancesBySizeAndReportEvictions() {
+        CaffeineCacheService cache = new CaffeineCacheService(100, 1000, Duration.ofMinutes(30), Duration.ofMinutes(25), Runnable::run);
+
+        IntStream.range(0, 1000).forEach(i -> cache.updateBalance(UUID.randomUUID(), new Money(BigDecimal.valueOf(i))));
+        cache.cleanUp();
+
+        CachePort.CacheTypeStats balances = cache.getStatistics().getBalanceStats();
+        assertEquals(900, balances.getEvictionCount());
+    }
+
+    @Test
+    void shouldBoundHolderIndexByNumberOfAccountIds() {
+        CaffeineCacheService cache = new CaffeineCacheService(100, 3, Duration.ofMinutes(30), Duration.ofMinutes(25), Runnable::run);
+
+        cache.updateAccountsByHolder("Alice", List.of(UUID.randomUUID(), UUID.randomUUID()));
+        cache.updateAccountsByHolder("Bob", List.of(UUID.randomUUID(), UUID.randomUUID()));
+        cache.cleanUp();
+
+        long held = (cache.getCachedAccountsByHolder("Alice").isPresent() ? 1 : 0)
+            + (cache.getCachedAccountsByHolder("Bob").isPresent() ? 1 : 0);
+        assertEquals(1, held);
+    }
+
+    @Test
+    void shouldKeepPerCacheStatistics() {
+        CaffeineCacheService cache = new CaffeineCacheService(100, 100, Duration.ofMinutes(30), Duration.ofMinutes(25), Runnable::run);
+        UUID accountId = UUID.randomUUID();
+
+        cache.updateBalance(accountId, new Money(BigDecimal.TEN));
+        cache.getCachedBalance(accountId);
+        cache.getCachedBalance(UUID.randomUUID());
+        cache.getOrCreateEventCount(accountId, () -> 3L);
+        cache.getOrCreateEventCount(accountId, () -> 4L);
+
+        CachePort.CacheStatistics stats = cache.getStatistics();
+        assertEquals(2, stats.getBalanceStats().getRequestCount());
+        assertEquals(1, stats.getBalanceStats().getHitCount());
+        assertEquals(1, stats.getEventCountStats().getMissCount());
+        assertEquals(1, stats.getEventCountStats().getHitCount());
+        assertEquals(4, stats.getTotalRequests());
+        assertEquals(0.5, stats.getOverallHitRate());
+        assertEquals(3L, cache.getCachedEventCount(accountId).orElseThrow());
+    }
+
+    @Test
+    void shouldServeStaleEntryWhileReloadingIt() {
+        CaffeineCacheService cache = new CaffeineCacheService(100, 100, Duration.ofMinutes(30), Duration.ZERO, Runnable::run);
+        UUID accountId = UUID.randomUUID();
+        cache.updateEventCount(accountId, 5);
+
+        assertEquals(5L, cache.getOrCreateEventCount(accountId, () -> 7L));
+        assertEquals(7L, cache.getCachedEventCount(accountId).orElseThrow());
+    }
+
+    @Test
+    void shouldAdvanceEntriesWithCommittedEventsInVersionOrder() {
+        CaffeineCacheService cache = new CaffeineCacheService(100, 100, Duration.ofMinutes(30), Duration.ofMinutes(25), Runnable::run);
+        UUID accountId = UUID.randomUUID();
+        MoneyDepositedEvent deposited = new MoneyDepositedEvent(accountId, new BigDecimal("100"), new EventMetadata(2));
+
+        cache.applyCommittedEvents(accountId, List.of(
+            new AccountOpenedEvent(accountId, "Alice", BigDecimal.ZERO, new EventMetadata(1)),
+            deposited,
+            new MoneyWithdrawnEvent(accountId, new BigDecimal("30"), new EventMetadata(3)),
+            new AccountFrozenEvent(accountId, "review", "ops", new EventMetadata(4))));
+        // Delivered again, e.g. by another path, and ignored
+        cache.applyCommittedEvents(accountId, List.of(deposited));
+
+        assertEquals(new Money(new BigDecimal("70")), cache.getCachedBalance(accountId).orElseThrow());
+        CachePort.AccountSummary summary = cache.getCachedAccountSummary(accountId).orElseThrow();
+        assertEquals(4, summary.getVersion());
+        assertEquals(2, summary.getTransactionCount());
+        assertEquals(new Money(new BigDecimal("70")), summary.getCurrentBalance());
+    }
+
+    @Test
+    void shouldDropEntriesWhenCommittedEventsAreMissing() {
+        CaffeineCacheService cache = new CaffeineCacheService(100, 100, Duration.ofMinutes(30), Duration.ofMinutes(25), Runnable::run);
+        UUID accountId = UUID.randomUUID();
+        UUID unknownId = UUID.randomUUID();
+        cache.updateBalance(accountId, new Money(BigDecimal.TEN), 2);
+        cache.updateBalance(accountId, new Money(BigDecimal.ONE), 1);
+        assertEquals(new Money(BigDecimal.TEN), cache.getCachedBalance(accountId).orElseThrow());
+
+        cache.applyCommittedEvents(accountId, List.of(new MoneyDepositedEvent(accountId, BigDecimal.ONE, new EventMetadata(4))));
+        cache.applyCommittedEvents(unknownId, List.of(new MoneyDepositedEvent(unknownId, BigDecimal.ONE, new EventMetadata(2))));
+
+        assertTrue(cache.getCachedBalance(accountId).isEmpty());
+        assertTrue(cache.getCachedBalance(unknownId).isEmpty());
+    }
+}
@@ -0,0 +1,43 @@
+package io.artur.bankaccount.infrastructure.persistence.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcHotAccountStoreTest {
+
+    @Test
+    void shouldDecayScoresOfAccountsNotAccessedSince() {
+        AtomicReference<LocalDateTime> now = new AtomicReference<>(LocalDateTime.of(2024, 1, 1, 12, 0));
+        JdbcHotAccountStore store = new JdbcHotAccountStore(new DriverManagerDataSource(
+            "jdbc:h2:mem:hot_accounts_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""),
+            Duration.ofHours(24), Duration.ofMinutes(10), now::get);
+        UUID formerlyBusy = UUID.randomUUID();
+        UUID steady = UUID.randomUUID();
+
+        store.recordAccesses(Map.of(formerlyBusy, 100L, steady, 10L));
+        assertEquals(List.of(formerlyBusy, steady), store.findHottestAccounts(10));
+
+        // Only the steady account is accessed for an hour, six half-lives: 100 decays to about 1.6
+        for (int minute = 10; minute <= 60; minute += 10) {
+            now.set(now.get().plusMinutes(10));
+            store.recordAccesses(Map.of(steady, 10L));
+        }
+        assertEquals(List.of(steady, formerlyBusy), store.findHottestAccounts(10));
+
+        // Ranking decays to the present, not to the last write: the steady account's score of
+        // about 20 falls below a fresh 5 after two hours without accesses
+        now.set(now.get().plusHours(2));
+        UUID fresh = UUID.randomUUID();
+        store.recordAccesses(Map.of(fresh, 5L));
+        assertEquals(List.of(fresh, steady, formerlyBusy), store.findHottestAccounts(10));
+    }
+}
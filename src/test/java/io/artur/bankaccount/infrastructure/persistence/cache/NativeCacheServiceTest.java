@@ -0,0 +1,223 @@
+package io.artur.bankaccount.infrastructure.persistence.cache;
+
+import io.artur.bankaccount.application.ports.outgoing.CachePort.AccountSummary;
+import io.artur.bankaccount.domain.account.aggregates.BankAccount;
+import io.artur.bankaccount.domain.account.events.AccountOpenedEvent;
+import io.artur.bankaccount.domain.account.events.MoneyDepositedEvent;
+import io.artur.bankaccount.domain.shared.events.EventMetadata;
+import io.artur.bankaccount.domain.shared.valueobjects.Money;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NativeCacheServiceTest {
+
+    @Test
+    void shouldLoadOnceForConcurrentMisses() throws Exception {
+        NativeCacheService cache = new NativeCacheService();
+        BankAccount account = BankAccount.openNewAccount("Alice Smith", BigDecimal.ZERO, new EventMetadata(1));
+        account.deposit(BigDecimal.valueOf(50), new EventMetadata(1));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService readers = Executors.newFixedThreadPool(16);
+
+        try {
+            List<CompletableFuture<Money>> reads = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                reads.add(CompletableFuture.supplyAsync(() -> cache.getOrCreateBalance(account.getAccountId(), id -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return account;
+                }), readers));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (CompletableFuture<Money> read : reads) {
+                assertEquals(Money.of(50), read.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldNotStoreLoadOvertakenByCommittedEvent() throws Exception {
+        NativeCacheService cache = new NativeCacheService();
+        BankAccount account = BankAccount.openNewAccount("Bob Jones", BigDecimal.ZERO, new EventMetadata(1));
+        UUID accountId = account.getAccountId();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Money> read = CompletableFuture.supplyAsync(() -> cache.getOrCreateBalance(accountId, id -> {
+            loading.countDown();
+            await(release);
+            return account;
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        cache.applyCommittedEvents(accountId, List.of(new MoneyDepositedEvent(accountId, BigDecimal.TEN, new EventMetadata(2))));
+        release.countDown();
+
+        assertEquals(Money.zero(), read.get(5, TimeUnit.SECONDS));
+        assertTrue(cache.getCachedBalance(accountId).isEmpty());
+    }
+
+    @Test
+    void shouldPassLoaderFailureToEveryWaiter() {
+        NativeCacheService cache = new NativeCacheService();
+
+        IllegalArgumentException failure = assertThrows(IllegalArgumentException.class,
+            () -> cache.getOrCreateBalance(UUID.randomUUID(), id -> {
+                throw new IllegalArgumentException("Account not found: " + id);
+            }));
+        assertTrue(failure.getMessage().startsWith("Account not found"));
+    }
+
+    @Test
+    void shouldRunEarlyRefreshesAndAsyncLookupsOnTheLoadExecutor() throws Exception {
+        AtomicLong now = new AtomicLong();
+        List<Runnable> submitted = new ArrayList<>();
+        NativeCacheService cache = new NativeCacheService(Duration.ofMinutes(1), 1000, submitted::add, now::get);
+        BankAccount account = BankAccount.openNewAccount("Alice Smith", BigDecimal.ZERO, new EventMetadata(1));
+        Function<UUID, BankAccount> slowLoader = id -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return account;
+        };
+        cache.getOrCreateBalance(account.getAccountId(), slowLoader);
+
+        // A nanosecond before expiry a load of 20 ms is due for an early refresh
+        now.addAndGet(Duration.ofMinutes(1).toNanos() - 1);
+        cache.getOrCreateBalance(account.getAccountId(), slowLoader);
+        assertEquals(1, submitted.size());
+
+        CompletableFuture<AccountSummary> summary = cache.getOrCreateAccountSummaryAsync(account.getAccountId(), slowLoader);
+        assertEquals(2, submitted.size());
+        assertFalse(summary.isDone());
+        submitted.forEach(Runnable::run);
+        assertEquals(account.getAccountId(), summary.get(5, TimeUnit.SECONDS).getAccountId());
+    }
+
+    @Test
+    void shouldExpireEntriesIncrementallyByDeadline() {
+        AtomicLong now = new AtomicLong(-Duration.ofMinutes(5).toNanos());
+        NativeCacheService cache = new NativeCacheService(Duration.ofMinutes(1), 1000, now::get);
+        UUID early = UUID.randomUUID();
+        UUID late = UUID.randomUUID();
+        cache.updateBalance(early, Money.of(1));
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        cache.updateBalance(late, Money.of(2));
+
+        now.addAndGet(Duration.ofSeconds(45).toNanos());
+        assertTrue(cache.getCachedBalance(early).isEmpty());
+        assertEquals(Money.of(2), cache.getCachedBalance(late).orElseThrow());
+
+        cache.cleanUp();
+        assertEquals(1, cache.entryCount());
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        cache.cleanUp();
+        assertEquals(0, cache.entryCount());
+        assertTrue(cache.getCachedBalance(late).isEmpty());
+    }
+
+    @Test
+    void shouldKeepOneTimerPerEntryAcrossRewrites() {
+        AtomicLong now = new AtomicLong(-Duration.ofMinutes(5).toNanos());
+        NativeCacheService cache = new NativeCacheService(Duration.ofMinutes(1), 1000, now::get);
+        UUID accountId = UUID.randomUUID();
+        for (int i = 0; i < 1000; i++) {
+            cache.updateBalance(accountId, Money.of(i));
+            now.addAndGet(Duration.ofMillis(10).toNanos());
+        }
+        assertEquals(1, cache.scheduledCount());
+
+        // Rewritten within its time to live, the entry outlives its first deadline
+        cache.cleanUp();
+        assertEquals(Money.of(999), cache.getCachedBalance(accountId).orElseThrow());
+        now.addAndGet(Duration.ofMinutes(2).toNanos());
+        cache.cleanUp();
+        assertEquals(0, cache.entryCount());
+        assertEquals(0, cache.scheduledCount());
+
+        cache.updateBalance(accountId, Money.of(1));
+        cache.invalidateAccount(accountId);
+        assertEquals(0, cache.scheduledCount());
+    }
+
+    @Test
+    void shouldNotAllocateOnCacheHits() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        NativeCacheService cache = new NativeCacheService();
+        BankAccount account = BankAccount.openNewAccount("Alice Smith", BigDecimal.ZERO, new EventMetadata(1));
+        UUID accountId = account.getAccountId();
+        Function<UUID, BankAccount> loader = id -> account;
+        cache.getOrCreateBalance(accountId, loader);
+        cache.getOrCreateAccountSummary(accountId, loader);
+
+        int reads = 1_000_000;
+        readHits(cache, accountId, loader, reads);
+        long thread = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        readHits(cache, accountId, loader, reads);
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        // Three reads per round; a few bytes in total leave room for the measurement itself
+        assertTrue(allocated < reads / 10, "Allocated " + allocated + " bytes for " + 3L * reads + " hits");
+    }
+
+    @Test
+    void shouldKeepEventCountsAndHolderListsCurrentWithCommittedEvents() {
+        NativeCacheService cache = new NativeCacheService();
+        UUID existingId = UUID.randomUUID();
+        cache.updateAccountsByHolder("Carol White", List.of(existingId));
+        UUID accountId = UUID.randomUUID();
+
+        cache.applyCommittedEvents(accountId, List.of(
+            new AccountOpenedEvent(accountId, "Carol White", BigDecimal.ZERO, new EventMetadata(1)),
+            new MoneyDepositedEvent(accountId, BigDecimal.TEN, new EventMetadata(2))));
+
+        assertEquals(2, cache.getCachedEventCount(accountId).orElseThrow());
+        assertEquals(List.of(existingId, accountId), cache.getCachedAccountsByHolder("Carol White").orElseThrow());
+
+        // Counts only grow, a count loaded before the last append does not replace it
+        cache.updateEventCount(accountId, 1);
+        assertEquals(2, cache.getOrCreateEventCount(accountId, () -> 1L));
+        cache.invalidateAccountHolder("Carol White");
+        assertTrue(cache.getCachedAccountsByHolder("Carol White").isEmpty());
+    }
+
+    private static void readHits(NativeCacheService cache, UUID accountId, Function<UUID, BankAccount> loader, int reads) {
+        for (int i = 0; i < reads; i++) {
+            assertTrue(cache.getCachedBalance(accountId).isPresent());
+            assertNotNull(cache.getOrCreateBalance(accountId, loader));
+            assertTrue(cache.getCachedAccountSummary(accountId).isPresent());
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package io.artur.bankaccount.infrastructure.persistence.cache;
+
+import io.artur.bankaccount.application.ports.outgoing.CachePort;
+import io.artur.bankaccount.domain.account.events.AccountOpenedEvent;
+import io.artur.bankaccount.domain.account.events.MoneyDepositedEvent;
+import io.artur.bankaccount.domain.account.events.MoneyWithdrawnEvent;
+import io.artur.bankaccount.domain.shared.events.EventMetadata;
+import io.artur.bankaccount.domain.shared.valueobjects.Money;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapBalanceCacheServiceTest {
+
+    private final CaffeineCacheService delegate =
+        new CaffeineCacheService(100, 100, Duration.ofMinutes(30), Duration.ofMinutes(25), Runnable::run);
+    private final OffHeapBalanceCacheService cache = new OffHeapBalanceCacheService(1000, Duration.ofMinutes(30), delegate);
+
+    @Test
+    void shouldKeepBalancesInMinorUnitsAdvancedByCommittedEvents() {
+        UUID accountId = UUID.randomUUID();
+
+        cache.applyCommittedEvents(accountId, List.of(
+            new AccountOpenedEvent(accountId, "Alice Smith", BigDecimal.ZERO, new EventMetadata(1)),
+            new MoneyDepositedEvent(accountId, new BigDecimal("100.25"), new EventMetadata(2)),
+            new MoneyWithdrawnEvent(accountId, new BigDecimal("30.10"), new EventMetadata(3))));
+
+        assertEquals(Money.of("70.15"), cache.getCachedBalance(accountId).orElseThrow());
+        // Summaries stay with the delegate
+        assertEquals(3, cache.getCachedAccountSummary(accountId).orElseThrow().getVersion());
+
+        cache.applyCommittedEvents(accountId, List.of(new MoneyDepositedEvent(accountId, BigDecimal.ONE, new EventMetadata(5))));
+        assertTrue(cache.getCachedBalance(accountId).isEmpty());
+    }
+
+    @Test
+    void shouldReportOffHeapBalanceStatistics() {
+        UUID accountId = UUID.randomUUID();
+        cache.updateBalance(accountId, Money.of("-12.50"), 4);
+        cache.updateBalance(accountId, Money.of("99.00"), 3);
+
+        assertEquals(Money.of("-12.50"), cache.getCachedBalance(accountId).orElseThrow());
+        assertTrue(cache.getCachedBalance(UUID.randomUUID()).isEmpty());
+
+        CachePort.CacheTypeStats balances = cache.getStatistics().getBalanceStats();
+        assertEquals(2, balances.getRequestCount());
+        assertEquals(1, balances.getHitCount());
+        assertEquals(1, cache.getBalanceCount());
+    }
+}
@@ -0,0 +1,54 @@
+package io.artur.bankaccount.infrastructure.persistence.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapBalanceTableTest {
+
+    @Test
+    void shouldFindRemainingRecordsAfterRemovalsInProbeRuns() {
+        // One segment, so random keys cannot fill a segment early and evict
+        OffHeapBalanceTable table = new OffHeapBalanceTable(3000, 1);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            long minorUnits = i;
+            table.compute(id.getMostSignificantBits(), id.getLeastSignificantBits(),
+                current -> new OffHeapBalanceTable.Record(minorUnits, 1, 0));
+        }
+        for (int i = 0; i < ids.size(); i += 2) {
+            table.remove(ids.get(i).getMostSignificantBits(), ids.get(i).getLeastSignificantBits());
+        }
+
+        assertEquals(1500, table.size());
+        for (int i = 0; i < ids.size(); i++) {
+            OffHeapBalanceTable.Record record = table.get(ids.get(i).getMostSignificantBits(), ids.get(i).getLeastSignificantBits());
+            if (i % 2 == 0) {
+                assertNull(record);
+            } else {
+                assertEquals(i, record.minorUnits);
+            }
+        }
+    }
+
+    @Test
+    void shouldEvictOldestWhenSegmentIsFull() {
+        OffHeapBalanceTable table = new OffHeapBalanceTable(12, 1);
+        for (int i = 0; i < 100; i++) {
+            UUID id = UUID.randomUUID();
+            long writtenAt = i;
+            table.compute(id.getMostSignificantBits(), id.getLeastSignificantBits(),
+                current -> new OffHeapBalanceTable.Record(0, 1, writtenAt));
+        }
+
+        assertEquals(12, table.size());
+        assertEquals(88, table.evictionCount());
+        assertEquals(16L * OffHeapBalanceTable.RECORD_BYTES, table.capacityBytes());
+    }
+}
@@ -0,0 +1,164 @@
+package io.artur.bankaccount.infrastructure.persistence.queries;
+
+import io.artur.bankaccount.application.queries.models.AccountSearchQuery;
+import io.artur.bankaccount.application.queries.readmodels.AccountSummaryReadModel;
+import io.artur.bankaccount.application.queries.readmodels.KeysetPage;
+import io.artur.bankaccount.application.queries.readmodels.PagedResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcAccountSummaryQueryRepositoryTest {
+
+    private DataSource dataSource;
+    private JdbcAccountSummaryQueryRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:summaries_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        // No periodic flush, batches are written when full or before a query
+        repository = new JdbcAccountSummaryQueryRepository(dataSource, 3, 0, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    @Test
+    void shouldServeSavedAccountsAfterRestartWithoutReplay() {
+        AccountSummaryReadModel alice = account("Alice Smith", 100, "ACTIVE");
+        repository.save(alice);
+        repository.save(account("Bob Jones", 50, "FROZEN"));
+        alice.updateBalance(new BigDecimal("175.25"));
+        repository.save(alice);
+        repository.close();
+
+        JdbcAccountSummaryQueryRepository restarted = new JdbcAccountSummaryQueryRepository(dataSource, 3, 0, 100);
+        try {
+            AccountSummaryReadModel reloaded = restarted.findByAccountId(alice.getAccountId()).orElseThrow();
+            assertEquals(0, new BigDecimal("175.25").compareTo(reloaded.getBalance()));
+            assertEquals(alice.getVersion(), reloaded.getVersion());
+            // Read through once, then served from the hot tier
+            assertSame(reloaded, restarted.findByAccountId(alice.getAccountId()).orElseThrow());
+
+            var statistics = restarted.getAccountStatistics();
+            assertEquals(2, statistics.getTotalAccounts());
+            assertEquals(1, statistics.getFrozenAccounts());
+            assertEquals(0, new BigDecimal("225.25").compareTo(statistics.getTotalBalance()));
+        } finally {
+            restarted.close();
+        }
+    }
+
+    @Test
+    void shouldSearchFilterAndPageInSql() {
+        for (int i = 1; i <= 12; i++) {
+            repository.save(account(i % 2 == 0 ? "Mary Johnson " + i : "Anna Smith " + i, i * 10, "ACTIVE"));
+        }
+        AccountSummaryReadModel deleted = account("John Removed", 500, "ACTIVE");
+        repository.save(deleted);
+        repository.delete(deleted.getAccountId());
+
+        PagedResult<AccountSummaryReadModel> page = repository.search(
+            new AccountSearchQuery("JOHN", null, new BigDecimal("30"), null, 1, 2, "balance", "DESC"));
+        assertEquals(5, page.getTotalElements());
+        assertEquals(0, new BigDecimal("80").compareTo(page.getContent().get(0).getBalance()));
+
+        List<AccountSummaryReadModel> visited = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetPage<AccountSummaryReadModel> keysetPage = repository.searchAfter(
+                new AccountSearchQuery(null, "ACTIVE", null, null, 0, 5, "balance", "ASC", cursor));
+            visited.addAll(keysetPage.getContent());
+            cursor = keysetPage.getNextCursor();
+        } while (cursor != null);
+        assertEquals(12, visited.size());
+        assertEquals(0, new BigDecimal("120").compareTo(visited.get(11).getBalance()));
+
+        assertEquals(6, repository.findByAccountHolderNameStartingWith("mary").size());
+        assertTrue(repository.findByAccountId(deleted.getAccountId()).isEmpty());
+    }
+
+    @Test
+    void shouldNotMoveAnAccountBackToAnOlderVersion() {
+        AccountSummaryReadModel current = account("Carol White", 80, "ACTIVE");
+        current.setVersion(5);
+        repository.save(current);
+        repository.flush();
+
+        // A lagging replica writing the same table with its older copy of the account
+        JdbcAccountSummaryQueryRepository lagging = new JdbcAccountSummaryQueryRepository(dataSource, 3, 0, 100);
+        try {
+            AccountSummaryReadModel stale = account("Carol White", 20, "ACTIVE");
+            stale.setAccountId(current.getAccountId());
+            stale.setVersion(3);
+            lagging.save(stale);
+            lagging.flush();
+        } finally {
+            lagging.close();
+        }
+
+        JdbcAccountSummaryQueryRepository restarted = new JdbcAccountSummaryQueryRepository(dataSource, 3, 0, 100);
+        try {
+            AccountSummaryReadModel stored = restarted.findByAccountId(current.getAccountId()).orElseThrow();
+            assertEquals(5, stored.getVersion());
+            assertEquals(0, new BigDecimal("80").compareTo(stored.getBalance()));
+            // The skipped write is not counted either
+            assertEquals(1, restarted.count());
+            assertEquals(0, new BigDecimal("80").compareTo(restarted.getAccountStatistics().getTotalBalance()));
+        } finally {
+            restarted.close();
+        }
+    }
+
+    @Test
+    void shouldKeepStatisticsAcrossStatusChangesAndDeletes() throws Exception {
+        AccountSummaryReadModel dana = account("Dana Brown", 40, "ACTIVE");
+        AccountSummaryReadModel eve = account("Eve Green", 60, "ACTIVE");
+        repository.save(dana);
+        repository.save(eve);
+        repository.flush();
+        dana.updateStatus("DORMANT", "system", "inactive");
+        dana.updateBalance(new BigDecimal("45"));
+        repository.save(dana);
+        repository.delete(eve.getAccountId());
+
+        var statistics = repository.getAccountStatistics();
+        assertEquals(1, statistics.getTotalAccounts());
+        assertEquals(0, statistics.getActiveAccounts());
+        assertEquals(1, statistics.getDormantAccounts());
+        assertEquals(0, new BigDecimal("45").compareTo(statistics.getTotalBalance()));
+        repository.close();
+
+        // A table written before the counters existed is counted once when it is opened
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DROP TABLE account_summaries_statistics");
+        }
+        JdbcAccountSummaryQueryRepository upgraded = new JdbcAccountSummaryQueryRepository(dataSource, 3, 0, 100);
+        try {
+            assertEquals(1, upgraded.getAccountStatistics().getDormantAccounts());
+            assertEquals(0, new BigDecimal("45").compareTo(upgraded.getAccountStatistics().getTotalBalance()));
+        } finally {
+            upgraded.close();
+        }
+    }
+
+    private static AccountSummaryReadModel account(String holderName, long balance, String status) {
+        return new AccountSummaryReadModel(UUID.randomUUID(), "ACC", holderName, BigDecimal.valueOf(balance),
+            BigDecimal.ZERO, status, LocalDateTime.now());
+    }
+}
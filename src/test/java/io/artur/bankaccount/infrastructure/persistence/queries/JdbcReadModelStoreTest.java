@@ -0,0 +1,153 @@
+package io.artur.bankaccount.infrastructure.persistence.queries;
+
+import io.artur.bankaccount.application.ports.outgoing.ReadModelStorePort.ReadModelGeneration;
+import io.artur.bankaccount.application.queries.readmodels.AccountSummaryReadModel;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcReadModelStoreTest {
+
+    private final DataSource dataSource = new DriverManagerDataSource(
+        "jdbc:h2:mem:catalog_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+
+    @Test
+    void shouldStartWithUnversionedPlainTables() {
+        ReadModelGeneration active = new JdbcReadModelStore(dataSource, 2, 0, 10).getActiveGeneration();
+
+        assertEquals("", active.getId());
+        assertEquals(0, active.getProjectionVersion());
+        assertEquals(ReadModelGeneration.UNKNOWN_POSITION, active.getAppliedPosition());
+    }
+
+    @Test
+    void shouldRecordAppliedPositionWithTheRowsAndFlushThemOnClose() {
+        JdbcReadModelStore store = new JdbcReadModelStore(dataSource, 100, 0, 10);
+        ReadModelGeneration active = store.getActiveGeneration();
+        UUID accountId = UUID.randomUUID();
+        active.getAccountSummaries().save(AccountSummaryReadModel.fromAccountOpened(
+            accountId, accountId.toString(), "Faye", BigDecimal.ZERO));
+        active.markApplied(7);
+
+        // Nothing was written yet, so a crash here must not claim position 7
+        assertEquals(ReadModelGeneration.UNKNOWN_POSITION,
+            new JdbcReadModelStore(dataSource, 100, 0, 10).getActiveGeneration().getAppliedPosition());
+
+        store.close();
+        ReadModelGeneration reopened = new JdbcReadModelStore(dataSource, 100, 0, 10).getActiveGeneration();
+
+        assertEquals(7, reopened.getAppliedPosition());
+        assertTrue(reopened.getAccountSummaries().findByAccountId(accountId).isPresent());
+    }
+
+    @Test
+    void shouldCarryTheBuiltPositionOverWhenActivating() {
+        JdbcReadModelStore store = new JdbcReadModelStore(dataSource, 100, 0, 10);
+        ReadModelGeneration next = store.createGeneration(3);
+        next.markApplied(12);
+        store.activate(next);
+
+        assertEquals(12, new JdbcReadModelStore(dataSource, 100, 0, 10).getActiveGeneration().getAppliedPosition());
+    }
+
+    @Test
+    void shouldReopenActivatedGenerationWithItsVersionAfterRestart() {
+        JdbcReadModelStore store = new JdbcReadModelStore(dataSource, 2, 0, 10);
+        ReadModelGeneration next = store.createGeneration(3);
+        UUID accountId = UUID.randomUUID();
+        next.getAccountSummaries().save(AccountSummaryReadModel.fromAccountOpened(
+            accountId, accountId.toString(), "Erin", BigDecimal.TEN));
+        store.activate(next);
+        ((JdbcAccountSummaryQueryRepository) next.getAccountSummaries()).close();
+
+        ReadModelGeneration reopened = new JdbcReadModelStore(dataSource, 2, 0, 10).getActiveGeneration();
+
+        assertEquals(next.getId(), reopened.getId());
+        assertEquals(3, reopened.getProjectionVersion());
+        assertTrue(reopened.getAccountSummaries().findByAccountId(accountId).isPresent());
+    }
+
+    @Test
+    void shouldLetOneInstanceAtATimeHoldTheRebuildLease() {
+        JdbcReadModelStore first = new JdbcReadModelStore(dataSource, 2, 0, 10);
+        JdbcReadModelStore second = new JdbcReadModelStore(dataSource, 2, 0, 10);
+
+        assertTrue(first.acquireRebuildLease());
+        assertFalse(second.acquireRebuildLease());
+        assertTrue(first.acquireRebuildLease());
+
+        first.releaseRebuildLease();
+        assertTrue(second.acquireRebuildLease());
+        assertFalse(first.acquireRebuildLease());
+    }
+
+    @Test
+    void shouldHandTheRebuildLeaseOverOnceItLapsed() throws Exception {
+        JdbcReadModelStore first = new JdbcReadModelStore(dataSource, 2, 0, 10, 1);
+        JdbcReadModelStore second = new JdbcReadModelStore(dataSource, 2, 0, 10, 1);
+        assertTrue(first.acquireRebuildLease());
+
+        Thread.sleep(20);
+
+        assertTrue(second.acquireRebuildLease());
+    }
+
+    @Test
+    void shouldFollowAndDropAReplacedGenerationOnlyOnceNoInstanceServesIt() throws Exception {
+        JdbcReadModelStore builder = new JdbcReadModelStore(dataSource, 1, 0, 10, 60_000, 0);
+        JdbcReadModelStore follower = new JdbcReadModelStore(dataSource, 1, 0, 10, 60_000, 0);
+        ReadModelGeneration original = follower.getActiveGeneration();
+
+        ReadModelGeneration next = builder.createGeneration(3);
+        builder.activate(next);
+
+        // Still served by the follower
+        assertTrue(tableExists("ACCOUNT_SUMMARIES"));
+        assertSame(original, follower.getActiveGeneration());
+
+        ReadModelGeneration followed = follower.refreshActiveGeneration();
+        assertEquals(next.getId(), followed.getId());
+        assertEquals(3, followed.getProjectionVersion());
+        assertSame(followed, follower.refreshActiveGeneration());
+
+        follower.serve(followed);
+
+        assertFalse(tableExists("ACCOUNT_SUMMARIES"));
+        assertFalse(tableExists("TRANSACTION_HISTORY"));
+        assertTrue(tableExists("ACCOUNT_SUMMARIES_" + next.getId().toUpperCase()));
+    }
+
+    @Test
+    void shouldDropAGenerationLeftBehindByABuilderWhoseLeaseLapsed() throws Exception {
+        JdbcReadModelStore builder = new JdbcReadModelStore(dataSource, 2, 0, 10, 1, 0);
+        JdbcReadModelStore other = new JdbcReadModelStore(dataSource, 2, 0, 10, 1, 0);
+        assertTrue(builder.acquireRebuildLease());
+        ReadModelGeneration abandoned = builder.createGeneration(3);
+
+        Thread.sleep(20);
+        other.serve(other.getActiveGeneration());
+
+        assertFalse(tableExists("ACCOUNT_SUMMARIES_" + abandoned.getId().toUpperCase()));
+        assertTrue(tableExists("ACCOUNT_SUMMARIES"));
+    }
+
+    private boolean tableExists(String table) throws Exception {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                 "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = ?")) {
+            stmt.setString(1, table);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1) > 0;
+            }
+        }
+    }
+}
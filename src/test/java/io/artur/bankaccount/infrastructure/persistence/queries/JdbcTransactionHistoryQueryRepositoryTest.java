@@ -0,0 +1,134 @@
+package io.artur.bankaccount.infrastructure.persistence.queries;
+
+import io.artur.bankaccount.application.queries.models.TransactionHistoryQuery;
+import io.artur.bankaccount.application.queries.readmodels.PagedResult;
+import io.artur.bankaccount.application.queries.readmodels.TransactionReadModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcTransactionHistoryQueryRepositoryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 9, 0);
+
+    private final UUID accountId = UUID.randomUUID();
+    private DataSource dataSource;
+    private JdbcTransactionHistoryQueryRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:history_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        repository = new JdbcTransactionHistoryQueryRepository(dataSource, 2, 0, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    @Test
+    void shouldWriteBackReDerivedBalancesAndReloadInLogOrder() {
+        TransactionReadModel first = deposit(START, 100, 2);
+        TransactionReadModel sameTime = withdrawal(START, 30, 3);
+        TransactionReadModel late = deposit(START.minusMinutes(1), 50, 1);
+        repository.save(first);
+        repository.save(sameTime);
+        repository.save(late);
+        repository.close();
+
+        JdbcTransactionHistoryQueryRepository restarted = new JdbcTransactionHistoryQueryRepository(dataSource, 2, 0, 1);
+        try {
+            List<TransactionReadModel> history = restarted.getRecentTransactions(accountId, 10);
+            assertEquals(List.of(sameTime, first, late), history);
+            assertEquals(0, new BigDecimal("120").compareTo(history.get(0).getBalanceAfter()));
+            assertEquals(0, new BigDecimal("150").compareTo(
+                restarted.findByTransactionId(first.getTransactionId()).orElseThrow().getBalanceAfter()));
+            assertEquals(3, restarted.getTransactionStatistics(accountId).getTotalTransactions());
+        } finally {
+            restarted.close();
+        }
+    }
+
+    @Test
+    void shouldKeepAccountsConsistentWhenTheirLogsAreEvicted() {
+        UUID otherAccount = UUID.randomUUID();
+        TransactionReadModel toDelete = deposit(START, 10);
+        repository.save(toDelete);
+        repository.save(TransactionReadModel.createDeposit(otherAccount, BigDecimal.ONE, "other", START, null));
+        repository.save(withdrawal(START.plusHours(1), 4));
+        repository.delete(toDelete.getTransactionId());
+
+        // The hot tier holds a single account, so every switch reloads from the table
+        assertEquals(1, repository.countByAccount(otherAccount));
+        List<TransactionReadModel> history = repository.getRecentTransactions(accountId, 10);
+        assertEquals(1, history.size());
+        assertEquals(0, new BigDecimal("-4").compareTo(history.get(0).getBalanceAfter()));
+        assertTrue(repository.findByTransactionId(toDelete.getTransactionId()).isEmpty());
+    }
+
+    @Test
+    void shouldPageBelowTheHotTailAndPlaceLateRowsUnderIt() {
+        repository.close();
+        // Two rows per account are kept in memory, everything older is read from the table
+        repository = new JdbcTransactionHistoryQueryRepository(dataSource, "transaction_history", 2, 0, 10, 2, null);
+        repository.save(deposit(START, 10, 1));
+        repository.save(deposit(START.plusHours(2), 10, 3));
+        repository.save(deposit(START.plusHours(3), 10, 4));
+        repository.save(deposit(START.plusHours(4), 10, 5));
+
+        PagedResult<TransactionReadModel> olderPage = repository.getTransactionHistory(
+            TransactionHistoryQuery.forAccountWithPaging(accountId, 1, 2));
+        assertEquals(4, olderPage.getTotalElements());
+        assertEquals(List.of(3L, 1L), olderPage.getContent().stream().map(TransactionReadModel::getVersion).toList());
+
+        // Version 2 commits late, below the rows held in memory
+        repository.save(withdrawal(START.plusHours(1), 5, 2));
+        repository.close();
+
+        repository = new JdbcTransactionHistoryQueryRepository(dataSource, "transaction_history", 2, 0, 10, 2, null);
+        List<TransactionReadModel> history = repository.getRecentTransactions(accountId, 10);
+        assertEquals(List.of(5L, 4L, 3L, 2L, 1L), history.stream().map(TransactionReadModel::getVersion).toList());
+        assertEquals(List.of("35.00", "25.00", "15.00", "5.00", "10.00"),
+            history.stream().map(row -> row.getBalanceAfter().setScale(2).toPlainString()).toList());
+        assertEquals(5, repository.countByAccount(accountId));
+
+        var statistics = repository.getTransactionStatistics(accountId);
+        assertEquals(5, statistics.getTotalTransactions());
+        assertEquals(1, statistics.getWithdrawalCount());
+        assertEquals(0, new BigDecimal("40").compareTo(statistics.getTotalDeposits()));
+        assertEquals(1, repository.getTransactionStatistics(accountId, START.plusMinutes(30), START.plusHours(2))
+            .getDepositCount());
+    }
+
+    private TransactionReadModel deposit(LocalDateTime timestamp, long amount) {
+        return TransactionReadModel.createDeposit(accountId, BigDecimal.valueOf(amount), "deposit", timestamp, null);
+    }
+
+    private TransactionReadModel withdrawal(LocalDateTime timestamp, long amount) {
+        return TransactionReadModel.createWithdrawal(accountId, BigDecimal.valueOf(amount), "withdrawal", timestamp, null);
+    }
+
+    private TransactionReadModel deposit(LocalDateTime timestamp, long amount, long version) {
+        return fromEvent(deposit(timestamp, amount), version);
+    }
+
+    private TransactionReadModel withdrawal(LocalDateTime timestamp, long amount, long version) {
+        return fromEvent(withdrawal(timestamp, amount), version);
+    }
+
+    private TransactionReadModel fromEvent(TransactionReadModel transaction, long version) {
+        transaction.setTransactionId(TransactionReadModel.idForEvent(accountId, version));
+        transaction.setVersion(version);
+        return transaction;
+    }
+}
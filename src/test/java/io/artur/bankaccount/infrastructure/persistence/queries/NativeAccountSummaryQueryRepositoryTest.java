@@ -0,0 +1,162 @@
+package io.artur.bankaccount.infrastructure.persistence.queries;
+
+import io.artur.bankaccount.application.queries.models.AccountSearchQuery;
+import io.artur.bankaccount.application.queries.readmodels.AccountSummaryReadModel;
+import io.artur.bankaccount.application.queries.readmodels.KeysetPage;
+import io.artur.bankaccount.application.queries.readmodels.PagedResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NativeAccountSummaryQueryRepositoryTest {
+
+    private NativeAccountSummaryQueryRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new NativeAccountSummaryQueryRepository();
+    }
+
+    @Test
+    void shouldPageThroughBalanceIndexWithOffsetAndTotal() {
+        for (int i = 1; i <= 25; i++) {
+            repository.save(account("Holder " + i, i * 10, "ACTIVE"));
+        }
+
+        PagedResult<AccountSummaryReadModel> page = repository.search(
+            new AccountSearchQuery(null, null, null, null, 1, 10, "balance", "DESC"));
+
+        assertEquals(25, page.getTotalElements());
+        assertEquals(10, page.getContent().size());
+        assertEquals(0, new BigDecimal("150").compareTo(page.getContent().get(0).getBalance()));
+        assertEquals(0, new BigDecimal("60").compareTo(page.getContent().get(9).getBalance()));
+    }
+
+    @Test
+    void shouldReindexReadModelsMutatedInPlace() {
+        AccountSummaryReadModel first = account("Alice Smith", 100, "ACTIVE");
+        AccountSummaryReadModel second = account("Bob Jones", 200, "ACTIVE");
+        repository.save(first);
+        repository.save(second);
+
+        // Projections update the stored instance and save it again
+        first.updateBalance(new BigDecimal("300"));
+        first.updateStatus("FROZEN", "admin", "Suspicious activity");
+        repository.save(first);
+
+        PagedResult<AccountSummaryReadModel> byBalance = repository.search(
+            new AccountSearchQuery(null, null, new BigDecimal("250"), null, 0, 10, "balance", "ASC"));
+        assertEquals(List.of(first), byBalance.getContent());
+        assertEquals(1, byBalance.getTotalElements());
+
+        assertEquals(List.of(second), repository.findByAccountStatus("ACTIVE"));
+        assertEquals(List.of(first), repository.findByAccountStatus("FROZEN"));
+        assertEquals(List.of(second), repository.findByBalanceLessThan(new BigDecimal("250")));
+    }
+
+    @Test
+    void shouldVisitEveryMatchOnceWithKeysetPagination() {
+        List<AccountSummaryReadModel> expected = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            // Equal balances force the account id tie-breaker
+            AccountSummaryReadModel account = account("Holder " + i, i % 5, i % 3 == 0 ? "CLOSED" : "ACTIVE");
+            repository.save(account);
+            if (!"CLOSED".equals(account.getAccountStatus())) {
+                expected.add(account);
+            }
+        }
+
+        List<AccountSummaryReadModel> visited = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetPage<AccountSummaryReadModel> page = repository.searchAfter(
+                new AccountSearchQuery(null, "ACTIVE", null, null, 0, 4, "balance", "ASC", cursor));
+            visited.addAll(page.getContent());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(expected.size(), visited.size());
+        assertTrue(visited.containsAll(expected));
+        for (int i = 1; i < visited.size(); i++) {
+            assertTrue(visited.get(i - 1).getBalance().compareTo(visited.get(i).getBalance()) <= 0);
+        }
+    }
+
+    @Test
+    void shouldRejectCursorOfDifferentSortField() {
+        for (int i = 0; i < 3; i++) {
+            repository.save(account("Holder " + i, i, "ACTIVE"));
+        }
+        String cursor = repository.searchAfter(
+            new AccountSearchQuery(null, null, null, null, 0, 1, "balance", "ASC", null)).getNextCursor();
+
+        assertThrows(IllegalArgumentException.class, () -> repository.searchAfter(
+            new AccountSearchQuery(null, null, null, null, 0, 1, "openedDate", "ASC", cursor)));
+    }
+
+    @Test
+    void shouldKeepStatisticsInStepWithSavesAndDeletes() {
+        AccountSummaryReadModel first = account("Alice Smith", 100, "ACTIVE");
+        AccountSummaryReadModel second = account("Bob Jones", 50, "ACTIVE");
+        AccountSummaryReadModel third = account("Carol White", 25, "DORMANT");
+        repository.save(first);
+        repository.save(second);
+        repository.save(third);
+
+        first.updateBalance(new BigDecimal("160.50"));
+        repository.save(first);
+        second.updateStatus("FROZEN", "admin", "Review");
+        repository.save(second);
+        repository.delete(third.getAccountId());
+
+        var statistics = repository.getAccountStatistics();
+        assertEquals(2, statistics.getTotalAccounts());
+        assertEquals(1, statistics.getActiveAccounts());
+        assertEquals(1, statistics.getFrozenAccounts());
+        assertEquals(0, statistics.getDormantAccounts());
+        assertEquals(0, new BigDecimal("210.50").compareTo(statistics.getTotalBalance()));
+        assertEquals(0, new BigDecimal("105.25").compareTo(statistics.getAverageBalance()));
+        assertEquals(1, repository.countByStatus("FROZEN"));
+    }
+
+    @Test
+    void shouldFindHolderNamesBySubstringAndPrefixIgnoringCase() {
+        AccountSummaryReadModel johnson = account("Mary Johnson", 10, "ACTIVE");
+        AccountSummaryReadModel john = account("John Doe", 20, "ACTIVE");
+        AccountSummaryReadModel other = account("Anna Smith", 30, "ACTIVE");
+        repository.save(johnson);
+        repository.save(john);
+        repository.save(other);
+
+        assertEquals(Set.of(johnson, john), Set.copyOf(repository.findByAccountHolderNameContaining("JOHN")));
+        assertEquals(Set.of(johnson), Set.copyOf(repository.findByAccountHolderNameContaining("y joh")));
+        // Longer than a trigram and only partly present
+        assertTrue(repository.findByAccountHolderNameContaining("johnsohn").isEmpty());
+        assertEquals(List.of(john), repository.findByAccountHolderNameStartingWith("jo"));
+
+        other.setAccountHolderName("Anna Johns");
+        repository.save(other);
+        repository.delete(john.getAccountId());
+
+        assertEquals(Set.of(johnson, other), Set.copyOf(repository.findByAccountHolderNameContaining("johns")));
+        assertTrue(repository.findByAccountHolderNameStartingWith("john").isEmpty());
+
+        PagedResult<AccountSummaryReadModel> page = repository.search(
+            new AccountSearchQuery("JOHNS", null, null, null, 0, 10, "balance", "DESC"));
+        assertEquals(List.of(other, johnson), page.getContent());
+        assertEquals(2, page.getTotalElements());
+    }
+
+    private static AccountSummaryReadModel account(String holderName, long balance, String status) {
+        return new AccountSummaryReadModel(UUID.randomUUID(), "ACC", holderName, BigDecimal.valueOf(balance),
+            BigDecimal.ZERO, status, LocalDateTime.now());
+    }
+}
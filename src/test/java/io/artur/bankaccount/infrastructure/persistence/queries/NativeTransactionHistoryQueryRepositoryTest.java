@@ -0,0 +1,173 @@
+package io.artur.bankaccount.infrastructure.persistence.queries;
+
+import io.artur.bankaccount.application.queries.models.TransactionHistoryQuery;
+import io.artur.bankaccount.application.queries.readmodels.PagedResult;
+import io.artur.bankaccount.application.queries.readmodels.TransactionReadModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NativeTransactionHistoryQueryRepositoryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 9, 0);
+
+    private final UUID accountId = UUID.randomUUID();
+    private NativeTransactionHistoryQueryRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new NativeTransactionHistoryQueryRepository();
+    }
+
+    @Test
+    void shouldReturnHistoryNewestFirstRegardlessOfArrivalOrder() {
+        TransactionReadModel second = deposit(START.plusHours(2), 20, 2);
+        TransactionReadModel first = deposit(START.plusHours(1), 10, 1);
+        TransactionReadModel sameTimeLater = withdrawal(START.plusHours(2), 5, 3);
+        repository.save(second);
+        repository.save(first);
+        repository.save(sameTimeLater);
+
+        assertEquals(List.of(sameTimeLater, second, first), repository.getRecentTransactions(accountId, 10));
+        assertEquals(List.of(sameTimeLater, second), repository.getRecentTransactions(accountId, 2));
+        assertEquals(START.plusHours(2), repository.getLastTransactionDate(accountId).orElseThrow());
+        assertEquals(3, repository.countByAccount(accountId));
+        assertEquals(1, repository.countByAccountAndType(accountId, "WITHDRAWAL"));
+
+        repository.delete(second.getTransactionId());
+
+        assertEquals(List.of(sameTimeLater, first), repository.getRecentTransactions(accountId, 10));
+        assertEquals(2, repository.countByAccount(accountId));
+    }
+
+    @Test
+    void shouldPageAndFilterDateRangesFromTheLog() {
+        for (int day = 0; day < 10; day++) {
+            repository.save(deposit(START.plusDays(day), 100 + day));
+        }
+
+        PagedResult<TransactionReadModel> page = repository.getTransactionHistory(
+            TransactionHistoryQuery.forAccountWithPaging(accountId, 1, 3));
+        assertEquals(10, page.getTotalElements());
+        assertEquals(START.plusDays(6), page.getContent().get(0).getTimestamp());
+
+        List<TransactionReadModel> range = repository.findByAccountAndDateRange(
+            accountId, START.plusDays(2), START.plusDays(4));
+        assertEquals(3, range.size());
+        assertEquals(START.plusDays(4), range.get(0).getTimestamp());
+
+        PagedResult<TransactionReadModel> filtered = repository.getTransactionHistory(new TransactionHistoryQuery(
+            accountId, START.plusDays(3), null, "DEPOSIT", new BigDecimal("105"), null, 0, 20));
+        assertEquals(5, filtered.getTotalElements());
+    }
+
+    @Test
+    void shouldDeriveRunningBalanceEvenWhenRowsArriveLate() {
+        TransactionReadModel first = deposit(START, 100, 1);
+        TransactionReadModel third = withdrawal(START.plusMinutes(2), 30, 3);
+        TransactionReadModel second = deposit(START.plusMinutes(1), 50, 2);
+        repository.save(first);
+        repository.save(third);
+        repository.save(second);
+
+        assertBalance("100", first);
+        assertBalance("150", second);
+        assertBalance("120", third);
+
+        repository.delete(first.getTransactionId());
+
+        assertBalance("50", second);
+        assertBalance("20", third);
+    }
+
+    @Test
+    void shouldFollowEventVersionsAndReplaceReplayedRows() {
+        // Stamped by a clock that ran behind, yet it comes after the first deposit in the stream
+        TransactionReadModel skewed = withdrawal(START.minusMinutes(5), 30, 2);
+        TransactionReadModel first = deposit(START, 100, 1);
+        repository.save(skewed);
+        repository.save(first);
+
+        assertBalance("100", first);
+        assertBalance("70", skewed);
+
+        // Projecting the same events again addresses the same rows
+        repository.save(withdrawal(START.minusMinutes(5), 30, 2));
+        repository.save(deposit(START, 100, 1));
+
+        assertEquals(2, repository.countByAccount(accountId));
+        assertEquals(List.of(skewed.getTransactionId(), first.getTransactionId()),
+            repository.getRecentTransactions(accountId, 10).stream().map(TransactionReadModel::getTransactionId).toList());
+        assertBalance("70", repository.getRecentTransactions(accountId, 1).get(0));
+        assertEquals(0, new BigDecimal("70").compareTo(repository.getTransactionStatistics(accountId).getNetFlow()));
+    }
+
+    @Test
+    void shouldMergeRollupsIntoStatisticsMatchingTheRows() {
+        List<TransactionReadModel> saved = new ArrayList<>();
+        for (int i = 0; i < 90; i++) {
+            LocalDateTime timestamp = START.plusHours(i * 17L);
+            TransactionReadModel transaction = i % 3 == 0 ? withdrawal(timestamp, 5 + i) : deposit(timestamp, 10 + i);
+            repository.save(transaction);
+            saved.add(transaction);
+        }
+        // Removing the largest amount forces its day and month to be rebuilt
+        repository.delete(saved.get(89).getTransactionId());
+
+        LocalDateTime[][] ranges = {
+            {START.plusDays(3).plusHours(5), START.plusDays(50).withHour(23).withMinute(59).withSecond(59)},
+            {LocalDateTime.of(2024, 4, 1, 0, 0), LocalDateTime.of(2024, 4, 30, 23, 59, 59)},
+            {START.plusHours(30), START.plusHours(40)},
+            {START.minusYears(1), START.plusYears(1)}
+        };
+        for (LocalDateTime[] range : ranges) {
+            var statistics = repository.getTransactionStatistics(accountId, range[0], range[1]);
+            List<TransactionReadModel> rows = repository.findByAccountAndDateRange(accountId, range[0], range[1]);
+
+            assertEquals(rows.size(), statistics.getTotalTransactions());
+            assertEquals(rows.stream().filter(t -> "DEPOSIT".equals(t.getTransactionType())).count(), statistics.getDepositCount());
+            assertEquals(0, rows.stream().filter(t -> "WITHDRAWAL".equals(t.getTransactionType()))
+                .map(TransactionReadModel::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add)
+                .compareTo(statistics.getTotalWithdrawals()));
+            assertEquals(0, rows.stream().map(TransactionReadModel::getAmount).max(BigDecimal::compareTo).orElseThrow()
+                .compareTo(statistics.getLargestTransaction()));
+            assertEquals(rows.get(rows.size() - 1).getTimestamp(), statistics.getFirstTransactionDate());
+            assertEquals(rows.get(0).getTimestamp(), statistics.getLastTransactionDate());
+        }
+        assertEquals(89, repository.getTransactionStatistics(accountId).getTotalTransactions());
+    }
+
+    private static void assertBalance(String expected, TransactionReadModel transaction) {
+        assertEquals(0, new BigDecimal(expected).compareTo(transaction.getBalanceAfter()),
+            () -> "balanceAfter was " + transaction.getBalanceAfter());
+    }
+
+    private TransactionReadModel deposit(LocalDateTime timestamp, long amount) {
+        return TransactionReadModel.createDeposit(accountId, BigDecimal.valueOf(amount), "deposit", timestamp, BigDecimal.ZERO);
+    }
+
+    private TransactionReadModel withdrawal(LocalDateTime timestamp, long amount) {
+        return TransactionReadModel.createWithdrawal(accountId, BigDecimal.valueOf(amount), "withdrawal", timestamp, BigDecimal.ZERO);
+    }
+
+    private TransactionReadModel deposit(LocalDateTime timestamp, long amount, long version) {
+        return fromEvent(deposit(timestamp, amount), version);
+    }
+
+    private TransactionReadModel withdrawal(LocalDateTime timestamp, long amount, long version) {
+        return fromEvent(withdrawal(timestamp, amount), version);
+    }
+
+    private TransactionReadModel fromEvent(TransactionReadModel transaction, long version) {
+        transaction.setTransactionId(TransactionReadModel.idForEvent(accountId, version));
+        transaction.setVersion(version);
+        return transaction;
+    }
+}
@@ -0,0 +1,41 @@
+package io.artur.bankaccount.infrastructure.persistence.queries;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindBufferTest {
+
+    @Test
+    void shouldCountFailedFlushesAndRefuseWritesOnceTheyKeepFailing() {
+        List<String> written = new ArrayList<>();
+        boolean[] failing = {true};
+        WriteBehindBuffer<String, String> buffer = new WriteBehindBuffer<>("test", (upserts, deletes, position) -> {
+            if (failing[0]) {
+                throw new IllegalStateException("database unavailable");
+            }
+            written.addAll(upserts);
+        }, 10, 0);
+
+        buffer.put("a", "first");
+        for (int attempt = 1; attempt <= WriteBehindBuffer.MAX_ATTEMPTS; attempt++) {
+            assertThrows(IllegalStateException.class, buffer::flush);
+            assertEquals(attempt, buffer.failedFlushes());
+        }
+        assertEquals(Optional.of("first"), buffer.pending("a"));
+        IllegalStateException refused = assertThrows(IllegalStateException.class, () -> buffer.put("b", "second"));
+        assertEquals("database unavailable", refused.getCause().getMessage());
+
+        // An explicit flush still tries, and a successful one takes writes again
+        failing[0] = false;
+        buffer.flush();
+        buffer.put("b", "second");
+        buffer.close();
+        assertEquals(List.of("first", "second"), written);
+        assertNull(buffer.pending("a"));
+    }
+}
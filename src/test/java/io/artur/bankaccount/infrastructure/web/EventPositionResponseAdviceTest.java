@@ -0,0 +1,140 @@
+package io.artur.bankaccount.infrastructure.web;
+
+import io.artur.bankaccount.api.controller.AccountController;
+import io.artur.bankaccount.application.ports.outgoing.EventStorePort;
+import io.artur.bankaccount.application.ports.outgoing.EventStorePort.StoredEvent;
+import io.artur.bankaccount.application.queries.handlers.AccountQueryHandler;
+import io.artur.bankaccount.application.queries.handlers.TransactionQueryHandler;
+import io.artur.bankaccount.application.services.AccountApplicationService;
+import io.artur.bankaccount.application.services.BatchTransactionProcessor;
+import io.artur.bankaccount.application.services.BulkCommandExecutor;
+import io.artur.bankaccount.domain.account.events.AccountFrozenEvent;
+import io.artur.bankaccount.domain.account.events.MoneyDepositedEvent;
+import io.artur.bankaccount.infrastructure.monitoring.NativeMetricsCollector;
+import io.artur.bankaccount.infrastructure.persistence.cache.NativeCacheService;
+import io.artur.bankaccount.infrastructure.persistence.eventstore.NativeEventStore;
+import io.artur.bankaccount.infrastructure.persistence.eventstore.serialization.EventSerializer;
+import io.artur.bankaccount.infrastructure.persistence.queries.NativeAccountSummaryQueryRepository;
+import io.artur.bankaccount.infrastructure.persistence.queries.NativeTransactionHistoryQueryRepository;
+import io.artur.bankaccount.infrastructure.persistence.repositories.NativeAccountRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class EventPositionResponseAdviceTest {
+
+    private static final String CONTEXT_PATH = "/api/v1";
+
+    private NativeEventStore eventStore;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:advice_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        // Other requests keep appending, so the end of the log is never the command's own position
+        eventStore = spy(new NativeEventStore(dataSource, new EventSerializer()));
+        doReturn(Long.MAX_VALUE).when(eventStore).getLatestPosition();
+
+        AccountApplicationService service = new AccountApplicationService(
+            new NativeAccountRepository(eventStore), new NativeCacheService(), new NativeMetricsCollector());
+        DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+        beans.registerSingleton("eventStore", eventStore);
+        AccountController controller = new AccountController(service,
+            new AccountQueryHandler(new NativeAccountSummaryQueryRepository()),
+            new TransactionQueryHandler(new NativeTransactionHistoryQueryRepository()),
+            new BulkCommandExecutor(service), new BatchTransactionProcessor(service),
+            beans.getBeanProvider(EventStorePort.class));
+
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+            .setControllerAdvice(new EventPositionResponseAdvice(beans.getBeanProvider(EventStorePort.class)))
+            .build();
+    }
+
+    @Test
+    void shouldReportTheCommandsOwnPositionUnderTheContextPath() throws Exception {
+        UUID accountId = openAccount();
+
+        String position = mockMvc.perform(post(CONTEXT_PATH + "/api/accounts/{id}/deposit", accountId)
+                .contextPath(CONTEXT_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\": 25.00, \"description\": \"salary\"}"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(ReadYourWritesInterceptor.EVENT_POSITION_HEADER);
+
+        StoredEvent deposit = eventStore.readAllEvents(0, 100).stream()
+            .filter(event -> event.getEvent() instanceof MoneyDepositedEvent)
+            .findFirst().orElseThrow();
+        assertEquals(Long.toString(deposit.getPosition()), position);
+    }
+
+    @Test
+    void shouldLeaveFailedCommandsAndReadsWithoutAPosition() throws Exception {
+        UUID accountId = openAccount();
+
+        mockMvc.perform(post(CONTEXT_PATH + "/api/accounts/{id}/withdraw", accountId)
+                .contextPath(CONTEXT_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\": 1000000.00, \"description\": \"too much\"}"))
+            .andExpect(status().isBadRequest())
+            .andExpect(header().doesNotExist(ReadYourWritesInterceptor.EVENT_POSITION_HEADER));
+        mockMvc.perform(get(CONTEXT_PATH + "/api/accounts/{id}", accountId).contextPath(CONTEXT_PATH))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(ReadYourWritesInterceptor.EVENT_POSITION_HEADER));
+
+        // Nothing the earlier requests appended is left over for the next command on this thread
+        assertEquals(0, eventStore.takeLastAppendedPosition());
+    }
+
+    @Test
+    void shouldReportTheStreamedCommandsOwnPositionInTheSummaryLine() throws Exception {
+        UUID accountId = openAccount();
+
+        MvcResult started = mockMvc.perform(post(CONTEXT_PATH + "/api/accounts/bulk-operation/stream")
+                .contextPath(CONTEXT_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"accountIds\": [\"" + accountId + "\"], \"operationType\": \"FREEZE\","
+                    + " \"reason\": \"suspicious activity\", \"performedBy\": \"compliance\"}"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        String[] lines = mockMvc.perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(ReadYourWritesInterceptor.EVENT_POSITION_HEADER))
+            .andReturn().getResponse().getContentAsString().split("\n");
+
+        StoredEvent frozen = eventStore.readAllEvents(0, 100).stream()
+            .filter(event -> event.getEvent() instanceof AccountFrozenEvent)
+            .findFirst().orElseThrow();
+        assertEquals(2, lines.length);
+        assertEquals(frozen.getPosition(), new ObjectMapper().readTree(lines[1]).get("eventPosition").asLong());
+    }
+
+    private UUID openAccount() throws Exception {
+        String body = mockMvc.perform(post(CONTEXT_PATH + "/api/accounts")
+                .contextPath(CONTEXT_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"accountHolderName\": \"Ivan Petrov\", \"overdraftLimit\": 0.00}"))
+            .andExpect(status().isCreated())
+            .andExpect(header().exists(ReadYourWritesInterceptor.EVENT_POSITION_HEADER))
+            .andReturn().getResponse().getContentAsString();
+        return UUID.fromString(new ObjectMapper().readTree(body).get("accountId").asText());
+    }
+}
@@ -0,0 +1,115 @@
+package io.artur.bankaccount.infrastructure.web;
+
+import io.artur.bankaccount.application.queries.projections.ReadModelProjection;
+import io.artur.bankaccount.application.services.EventLogProjector;
+import io.artur.bankaccount.domain.account.events.AccountOpenedEvent;
+import io.artur.bankaccount.domain.account.events.MoneyDepositedEvent;
+import io.artur.bankaccount.domain.shared.events.EventMetadata;
+import io.artur.bankaccount.infrastructure.persistence.eventstore.NativeEventStore;
+import io.artur.bankaccount.infrastructure.persistence.eventstore.serialization.EventSerializer;
+import io.artur.bankaccount.infrastructure.persistence.queries.NativeReadModelStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ReadYourWritesInterceptorTest {
+
+    private static final String CONTEXT_PATH = "/api/v1";
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+    private NativeEventStore eventStore;
+    private EventLogProjector projector;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:interceptor_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        eventStore = new NativeEventStore(dataSource, new EventSerializer());
+        projector = new EventLogProjector(eventStore, new ReadModelProjection(new NativeReadModelStore().getActiveGeneration()),
+            0, executor, executor, executor, 100, 60_000, 600_000);
+        mockMvc = MockMvcBuilders.standaloneSetup(new BalanceController(projector))
+            .addMappedInterceptors(new String[] {"/api/accounts/**"}, new ReadYourWritesInterceptor(projector, 5000))
+            .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        projector.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldHoldTheReadUntilTheCommandIsProjected() throws Exception {
+        UUID accountId = UUID.randomUUID();
+        eventStore.saveEvent(accountId, new AccountOpenedEvent(accountId, "Judy", BigDecimal.ZERO, new EventMetadata(1)));
+        eventStore.saveEvent(accountId, new MoneyDepositedEvent(accountId, new BigDecimal("40"), new EventMetadata(2)));
+        long token = eventStore.takeLastAppendedPosition();
+
+        String balance = mockMvc.perform(get(CONTEXT_PATH + "/api/accounts/{id}/balance", accountId)
+                .contextPath(CONTEXT_PATH)
+                .param(ReadYourWritesInterceptor.MIN_POSITION_PARAMETER, Long.toString(token)))
+            .andExpect(status().isOk())
+            .andExpect(header().string(ReadYourWritesInterceptor.PROJECTION_POSITION_HEADER, Long.toString(token)))
+            .andReturn().getResponse().getContentAsString();
+
+        assertEquals(0, new BigDecimal("40").compareTo(new BigDecimal(balance)));
+    }
+
+    @Test
+    void shouldServeTheReadWithTheReachedPositionWhenTheWaitTimesOut() throws Exception {
+        UUID accountId = UUID.randomUUID();
+        eventStore.saveEvent(accountId, new AccountOpenedEvent(accountId, "Karl", BigDecimal.ZERO, new EventMetadata(1)));
+        long end = eventStore.takeLastAppendedPosition();
+        mockMvc = MockMvcBuilders.standaloneSetup(new BalanceController(projector))
+            .addMappedInterceptors(new String[] {"/api/accounts/**"}, new ReadYourWritesInterceptor(projector, 100))
+            .build();
+
+        mockMvc.perform(get(CONTEXT_PATH + "/api/accounts/{id}/balance", accountId)
+                .contextPath(CONTEXT_PATH)
+                .param(ReadYourWritesInterceptor.MIN_POSITION_PARAMETER, Long.toString(end + 10)))
+            .andExpect(status().isOk())
+            .andExpect(header().string(ReadYourWritesInterceptor.PROJECTION_POSITION_HEADER, Long.toString(end)));
+    }
+
+    @Test
+    void shouldNotWaitForReadsWithoutAPosition() throws Exception {
+        mockMvc.perform(get(CONTEXT_PATH + "/api/accounts/{id}/balance", UUID.randomUUID()).contextPath(CONTEXT_PATH))
+            .andExpect(status().isNotFound())
+            .andExpect(header().doesNotExist(ReadYourWritesInterceptor.PROJECTION_POSITION_HEADER));
+    }
+
+    @RestController
+    static class BalanceController {
+
+        private final EventLogProjector projector;
+
+        BalanceController(EventLogProjector projector) {
+            this.projector = projector;
+        }
+
+        @GetMapping("/api/accounts/{accountId}/balance")
+        ResponseEntity<String> balance(@PathVariable UUID accountId) {
+            return projector.getActive().getAccountSummaries().findByAccountId(accountId)
+                .map(summary -> ResponseEntity.ok(summary.getBalance().toPlainString()))
+                .orElse(ResponseEntity.notFound().build());
+        }
+    }
+}